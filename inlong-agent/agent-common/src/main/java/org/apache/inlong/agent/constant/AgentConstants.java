@@ -87,6 +87,12 @@ public class AgentConstants {
     public static final int DEFAULT_TASK_PULL_MAX_SECOND = 2;
     public static final String CHANNEL_MEMORY_CAPACITY = "channel.memory.capacity";
     public static final int DEFAULT_CHANNEL_MEMORY_CAPACITY = 2000;
+    // max total body bytes buffered in memory channel
+    public static final String CHANNEL_MEMORY_CAPACITY_BYTES = "channel.memory.capacity.bytes";
+    public static final long DEFAULT_CHANNEL_MEMORY_CAPACITY_BYTES = 64 * 1024 * 1024L;
+    // max messages pulled from channel by the task writer at once
+    public static final String TASK_PULL_BATCH_SIZE = "task.pull.batchSize";
+    public static final int DEFAULT_TASK_PULL_BATCH_SIZE = 100;
     public static final String TRIGGER_CHECK_INTERVAL = "trigger.check.interval";
     public static final int DEFAULT_TRIGGER_CHECK_INTERVAL = 2;
     public static final String JOB_DB_CACHE_TIME = "job.db.cache.time";
@@ -30,6 +30,8 @@ public class CommonConstants {
     public static final String PROXY_INLONG_GROUP_ID = "proxy.inlongGroupId";
     public static final String DEFAULT_PROXY_INLONG_GROUP_ID = "default_inlong_group_id";
     public static final String POSITION_SUFFIX = ".position";
+    // identity of a read file, see FileFingerprint
+    public static final String FINGERPRINT_SUFFIX = ".fingerprint";
 
     public static final String PROXY_INLONG_STREAM_ID = "proxy.inlongStreamId";
     public static final String DEFAULT_PROXY_INLONG_STREAM_ID = "default_inlong_stream_id";
@@ -76,6 +78,32 @@ public class CommonConstants {
     public static final String PROXY_PACKAGE_MAX_TIMEOUT_MS = "proxy.package.maxTimeout.ms";
     public static final int DEFAULT_PROXY_PACKAGE_MAX_TIMEOUT_MS = 4 * 1000;
 
+    // max number of sealed batches waiting for the flush thread in proxy sink
+    public static final String PROXY_SEALED_BATCH_QUEUE_SIZE = "proxy.sealed.batch.queue.size";
+    public static final int DEFAULT_PROXY_SEALED_BATCH_QUEUE_SIZE = 64;
+
+    // local write-ahead queue between proxy sink and dataproxy sender
+    public static final String PROXY_WAL_ENABLE = "proxy.wal.enable";
+    public static final boolean DEFAULT_PROXY_WAL_ENABLE = false;
+    // relative to agent home if it is not an absolute path
+    public static final String PROXY_WAL_PATH = "proxy.wal.path";
+    public static final String DEFAULT_PROXY_WAL_PATH = ".wal";
+    public static final String PROXY_WAL_SEGMENT_SIZE = "proxy.wal.segment.size";
+    public static final long DEFAULT_PROXY_WAL_SEGMENT_SIZE = 64 * 1024 * 1024L;
+    public static final String PROXY_WAL_MAX_DISK_SIZE = "proxy.wal.max.disk.size";
+    public static final long DEFAULT_PROXY_WAL_MAX_DISK_SIZE = 10 * 1024 * 1024 * 1024L;
+    // DROP_OLDEST or DROP_NEWEST
+    public static final String PROXY_WAL_EVICTION_POLICY = "proxy.wal.eviction.policy";
+    public static final String DEFAULT_PROXY_WAL_EVICTION_POLICY = "DROP_OLDEST";
+    public static final String PROXY_WAL_FSYNC = "proxy.wal.fsync";
+    public static final boolean DEFAULT_PROXY_WAL_FSYNC = true;
+    // max batches replayed from wal per second
+    public static final String PROXY_WAL_REPLAY_RATE = "proxy.wal.replay.rate";
+    public static final int DEFAULT_PROXY_WAL_REPLAY_RATE = 100;
+    // max batches replayed from wal and not acked yet
+    public static final String PROXY_WAL_MAX_IN_FLIGHT = "proxy.wal.max.inflight";
+    public static final int DEFAULT_PROXY_WAL_MAX_IN_FLIGHT = 16;
+
     public static final String PROXY_BATCH_FLUSH_INTERVAL = "proxy.batch.flush.interval";
     public static final int DEFAULT_PROXY_BATCH_FLUSH_INTERVAL = 1000;
 
@@ -105,6 +133,8 @@ public class CommonConstants {
     public static final String PROXY_KEY_GROUP_ID = "inlongGroupId";
     public static final String PROXY_KEY_STREAM_ID = "inlongStreamId";
     public static final String PROXY_KEY_DATA = "dataKey";
+    // acks of messages with this header are counted per header value by the sink
+    public static final String PROXY_KEY_ACK_COUNTER = "ackCounter";
     public static final String PROXY_KEY_ID = "id";
     public static final String PROXY_KEY_AGENT_IP = "agentip";
     public static final String PROXY_OCEANUS_F = "f";
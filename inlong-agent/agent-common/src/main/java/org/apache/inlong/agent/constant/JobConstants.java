@@ -187,7 +187,7 @@ public class JobConstants extends CommonConstants {
     public static final String INTERVAL_MILLISECONDS = "1000";
 
     /**
-     * monitor switch, 1 true and 0 false
+     * monitor switch, 1 true and 0 false, a file not monitored is read up to its size in bytes when the task starts
      */
     public static final String JOB_FILE_MONITOR_DEFAULT_STATUS = "1";
 
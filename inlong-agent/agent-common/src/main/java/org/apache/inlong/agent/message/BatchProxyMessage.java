@@ -28,7 +28,7 @@ import java.util.List;
 import java.util.Map;
 
 /**
- * A batch of proxy messages used for batch sending, produced by PackProxyMessage
+ * A batch of proxy messages used for batch sending, produced by PackProxyMessage or ProxyBatchBuilder
  */
 @Data
 @AllArgsConstructor
@@ -42,6 +42,13 @@ public class BatchProxyMessage {
     private long dataTime;
     private Map<String, String> extraMap;
     private boolean isSyncSend;
+    // number of messages per ack counter key, null if no message of the batch has one
+    private Map<String, Integer> ackCounts;
+
+    public BatchProxyMessage(String jobId, String groupId, String streamId, List<byte[]> dataList, long dataTime,
+            Map<String, String> extraMap, boolean isSyncSend) {
+        this(jobId, groupId, streamId, dataList, dataTime, extraMap, isSyncSend, null);
+    }
 
     public InLongMsg getInLongMsg() {
         InLongMsg message = InLongMsg.newInLongMsg(true);
@@ -54,6 +54,10 @@ public class AgentMetricItem extends MetricItem {
     public static final String M_PLUGIN_SEND_FAIL_COUNT = "pluginSendFailCount";
     public static final String M_PLUGIN_READ_SUCCESS_COUNT = "pluginReadSuccessCount";
     public static final String M_PLUGIN_SEND_SUCCESS_COUNT = "pluginSendSuccessCount";
+    // wal
+    public static final String M_WAL_DEPTH_BYTES = "walDepthBytes";
+    public static final String M_WAL_AGE_MS = "walAgeMs";
+    public static final String M_WAL_DROP_COUNT = "walDropCount";
 
     @Dimension
     public String pluginId;
@@ -92,4 +96,10 @@ public class AgentMetricItem extends MetricItem {
     public AtomicLong pluginReadSuccessCount = new AtomicLong(0);
     @CountMetric
     public AtomicLong pluginSendSuccessCount = new AtomicLong(0);
+    @GaugeMetric
+    public AtomicLong walDepthBytes = new AtomicLong(0);
+    @GaugeMetric
+    public AtomicLong walAgeMs = new AtomicLong(0);
+    @CountMetric
+    public AtomicLong walDropCount = new AtomicLong(0);
 }
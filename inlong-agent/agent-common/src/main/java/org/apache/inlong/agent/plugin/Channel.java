@@ -17,6 +17,7 @@
 
 package org.apache.inlong.agent.plugin;
 
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -39,4 +40,35 @@ public interface Channel extends Stage {
      */
     Message pull(long timeout, TimeUnit unit);
 
+    /**
+     * write messages in order with timeout
+     *
+     * @return number of messages written, the rest are not written because of timeout
+     */
+    default int pushAll(List<Message> messages, long timeout, TimeUnit unit) {
+        int pushed = 0;
+        for (Message message : messages) {
+            if (!push(message, timeout, unit)) {
+                break;
+            }
+            pushed++;
+        }
+        return pushed;
+    }
+
+    /**
+     * read at most maxCount messages, wait with timeout only if there is no message
+     *
+     * @param messages messages are added to this list
+     * @return number of messages read
+     */
+    default int pollBatch(List<Message> messages, int maxCount, long timeout, TimeUnit unit) {
+        Message message = pull(timeout, unit);
+        if (message == null) {
+            return 0;
+        }
+        messages.add(message);
+        return 1;
+    }
+
 }
@@ -29,7 +29,9 @@ import org.slf4j.LoggerFactory;
 
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
+import static org.apache.inlong.agent.constant.CommonConstants.FINGERPRINT_SUFFIX;
 import static org.apache.inlong.agent.constant.CommonConstants.POSITION_SUFFIX;
 import static org.apache.inlong.agent.constant.FetcherConstants.AGENT_HEARTBEAT_INTERVAL;
 import static org.apache.inlong.agent.constant.FetcherConstants.DEFAULT_AGENT_FETCHER_INTERVAL;
@@ -47,12 +49,17 @@ public class TaskPositionManager extends AbstractDaemon {
     private final JobProfileDb jobConfDb;
     private final AgentConfiguration conf;
     private ConcurrentHashMap<String, ConcurrentHashMap<String, Long>> jobTaskPositionMap;
+    private final ConcurrentHashMap<String, ConcurrentHashMap<String, String>> jobFingerprintMap;
+    // acked message count of ack counter keys, kept in memory only
+    private final ConcurrentHashMap<String, ConcurrentHashMap<String, AtomicLong>> jobAckCountMap;
 
     private TaskPositionManager(AgentManager agentManager) {
         this.conf = AgentConfiguration.getAgentConf();
         this.agentManager = agentManager;
         this.jobConfDb = agentManager.getJobManager().getJobConfDb();
         this.jobTaskPositionMap = new ConcurrentHashMap<>();
+        this.jobFingerprintMap = new ConcurrentHashMap<>();
+        this.jobAckCountMap = new ConcurrentHashMap<>();
     }
 
     /**
@@ -79,6 +86,20 @@ public class TaskPositionManager extends AbstractDaemon {
         return taskPositionManager;
     }
 
+    /**
+     * whether the singleton is initialized, readers used outside an agent can skip position updates
+     */
+    public static boolean isInitialized() {
+        return taskPositionManager != null;
+    }
+
+    /**
+     * whether the job profile is deleted from db, so the job is never restarted
+     */
+    public boolean isJobDeleted(String jobId) {
+        return jobConfDb.getJobById(jobId) == null;
+    }
+
     @Override
     public void start() throws Exception {
         submitWorker(taskPositionFlushThread());
@@ -113,6 +134,11 @@ public class TaskPositionManager extends AbstractDaemon {
     private void flushJobProfile(String jobId, JobProfile jobProfile) {
         jobTaskPositionMap.get(jobId).forEach(
                 (fileName, position) -> jobProfile.setLong(fileName + POSITION_SUFFIX, position));
+        ConcurrentHashMap<String, String> fingerprints = jobFingerprintMap.get(jobId);
+        if (fingerprints != null) {
+            fingerprints.forEach(
+                    (fileName, fingerprint) -> jobProfile.set(fileName + FINGERPRINT_SUFFIX, fingerprint));
+        }
         if (jobConfDb.checkJobfinished(jobProfile)) {
             LOGGER.info("Cannot update job profile {}, delete memory job in jobTaskPosition", jobId);
             deleteJobPosition(jobId);
@@ -123,6 +149,8 @@ public class TaskPositionManager extends AbstractDaemon {
 
     private void deleteJobPosition(String jobId) {
         jobTaskPositionMap.remove(jobId);
+        jobFingerprintMap.remove(jobId);
+        jobAckCountMap.remove(jobId);
     }
 
     @Override
@@ -139,14 +167,65 @@ public class TaskPositionManager extends AbstractDaemon {
         ConcurrentHashMap<String, Long> positionTemp = new ConcurrentHashMap<>();
         ConcurrentHashMap<String, Long> position = jobTaskPositionMap.putIfAbsent(batchMsg.getJobId(), positionTemp);
         if (position == null) {
-            JobProfile jobProfile = jobConfDb.getJobById(batchMsg.getJobId());
-            positionTemp.put(sourcePath, jobProfile.getLong(sourcePath + POSITION_SUFFIX, 0));
             position = positionTemp;
         }
+        // the job map may be created by updatePosition, load the sink position of this source separately
+        if (!position.containsKey(sourcePath)) {
+            JobProfile jobProfile = jobConfDb.getJobById(batchMsg.getJobId());
+            position.putIfAbsent(sourcePath, jobProfile.getLong(sourcePath + POSITION_SUFFIX, 0));
+        }
         Long beforePosition = position.getOrDefault(sourcePath, 0L);
         position.put(sourcePath, beforePosition + size);
     }
 
+    /**
+     * update job position of the given key, used by readers which store their own progress
+     *
+     * @param position the absolute position, stored as key + POSITION_SUFFIX in job profile
+     */
+    public void updatePosition(String jobId, String key, long position) {
+        ConcurrentHashMap<String, Long> positionTemp = new ConcurrentHashMap<>();
+        ConcurrentHashMap<String, Long> jobPosition = jobTaskPositionMap.putIfAbsent(jobId, positionTemp);
+        if (jobPosition == null) {
+            jobPosition = positionTemp;
+        }
+        jobPosition.put(key, position);
+    }
+
+    /**
+     * update the fingerprint of a read file, stored as key + FINGERPRINT_SUFFIX in job profile
+     * together with the position
+     */
+    public void updateFingerprint(String jobId, String key, String fingerprint) {
+        jobFingerprintMap.computeIfAbsent(jobId, k -> new ConcurrentHashMap<>()).put(key, fingerprint);
+        // the flush thread iterates jobs with positions
+        jobTaskPositionMap.putIfAbsent(jobId, new ConcurrentHashMap<>());
+    }
+
+    /**
+     * add acked messages of the ack counter key
+     */
+    public void addAckCount(String jobId, String key, long count) {
+        jobAckCountMap.computeIfAbsent(jobId, k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(key, k -> new AtomicLong()).addAndGet(count);
+    }
+
+    /**
+     * @return number of acked messages of the ack counter key
+     */
+    public long getAckCount(String jobId, String key) {
+        ConcurrentHashMap<String, AtomicLong> ackCounts = jobAckCountMap.get(jobId);
+        AtomicLong count = ackCounts == null ? null : ackCounts.get(key);
+        return count == null ? 0 : count.get();
+    }
+
+    public void removeAckCount(String jobId, String key) {
+        ConcurrentHashMap<String, AtomicLong> ackCounts = jobAckCountMap.get(jobId);
+        if (ackCounts != null) {
+            ackCounts.remove(key);
+        }
+    }
+
     public ConcurrentHashMap<String, Long> getTaskPositionMap(String jobId) {
         return jobTaskPositionMap.get(jobId);
     }
@@ -29,6 +29,8 @@ import org.apache.inlong.agent.utils.AgentUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.SynchronousQueue;
@@ -52,6 +54,7 @@ public class TaskWrapper extends AbstractStateWrapper {
     private final int maxRetryTime;
     private final int pushMaxWaitTime;
     private final int pullMaxWaitTime;
+    private final int pullBatchSize;
     private ExecutorService executorService;
 
     public TaskWrapper(TaskManager manager, Task task) {
@@ -65,6 +68,8 @@ public class TaskWrapper extends AbstractStateWrapper {
                 AgentConstants.TASK_PUSH_MAX_SECOND, AgentConstants.DEFAULT_TASK_PUSH_MAX_SECOND);
         pullMaxWaitTime = conf.getInt(
                 AgentConstants.TASK_PULL_MAX_SECOND, AgentConstants.DEFAULT_TASK_PULL_MAX_SECOND);
+        pullBatchSize = conf.getInt(
+                AgentConstants.TASK_PULL_BATCH_SIZE, AgentConstants.DEFAULT_TASK_PULL_BATCH_SIZE);
         if (executorService == null) {
             executorService = new ThreadPoolExecutor(0, Integer.MAX_VALUE,
                     60L, TimeUnit.SECONDS,
@@ -108,12 +113,20 @@ public class TaskWrapper extends AbstractStateWrapper {
      */
     private CompletableFuture<?> submitWriteThread() {
         return CompletableFuture.runAsync(() -> {
+            List<Message> messages = new ArrayList<>(pullBatchSize);
             while (!isException()) {
-                Message message = task.getChannel().pull(pullMaxWaitTime, TimeUnit.SECONDS);
-                if (message instanceof EndMessage) {
-                    break;
+                messages.clear();
+                if (task.getChannel().pollBatch(messages, pullBatchSize, pullMaxWaitTime, TimeUnit.SECONDS) == 0) {
+                    // let sink know nothing is pulled in this round
+                    task.getSink().write(null);
+                    continue;
+                }
+                for (Message message : messages) {
+                    if (message instanceof EndMessage) {
+                        return;
+                    }
+                    task.getSink().write(message);
                 }
-                task.getSink().write(message);
             }
         }, executorService);
     }
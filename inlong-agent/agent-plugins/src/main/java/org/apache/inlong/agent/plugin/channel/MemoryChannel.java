@@ -27,11 +27,14 @@ import org.apache.inlong.common.metric.MetricRegister;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
 import static org.apache.inlong.agent.constant.CommonConstants.DEFAULT_PROXY_INLONG_GROUP_ID;
 import static org.apache.inlong.agent.constant.CommonConstants.DEFAULT_PROXY_INLONG_STREAM_ID;
@@ -42,15 +45,25 @@ import static org.apache.inlong.agent.metrics.AgentMetricItem.KEY_INLONG_STREAM_
 import static org.apache.inlong.agent.metrics.AgentMetricItem.KEY_PLUGIN_ID;
 
 /**
- * memory channel
+ * memory channel, an array backed ring bounded by both message count and total body bytes.
+ * Batch operations take the lock once per batch, and the metric item is resolved once per channel.
  */
 public class MemoryChannel implements Channel {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(MemoryChannel.class);
 
-    private LinkedBlockingQueue<Message> queue;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private Message[] items;
+    private int head;
+    private int tail;
+    private int count;
+    private long bytes;
+    private long maxBytes;
     // metric
     private AgentMetricItemSet metricItemSet;
+    private AgentMetricItem metricItem;
     private static final AtomicLong METRIC_INDEX = new AtomicLong(0);
     private String inlongGroupId;
     private String inlongStreamId;
@@ -58,108 +71,243 @@ public class MemoryChannel implements Channel {
     public MemoryChannel() {
     }
 
+    private static int sizeOf(Message message) {
+        byte[] body = message.getBody();
+        return body == null ? 0 : body.length;
+    }
+
+    /**
+     * a message larger than the byte capacity is still accepted when the channel is empty
+     */
+    private boolean hasRoom(int size) {
+        return count < items.length && (count == 0 || bytes + size <= maxBytes);
+    }
+
+    private void enqueue(Message message, int size) {
+        items[tail] = message;
+        tail = (tail + 1) % items.length;
+        count++;
+        bytes += size;
+    }
+
+    private Message dequeue() {
+        Message message = items[head];
+        items[head] = null;
+        head = (head + 1) % items.length;
+        count--;
+        bytes -= sizeOf(message);
+        return message;
+    }
+
     @Override
     public void push(Message message) {
+        if (message == null) {
+            return;
+        }
+        metricItem.pluginReadCount.incrementAndGet();
+        int size = sizeOf(message);
         try {
-            if (message != null) {
-                AgentMetricItem metricItem = getMetricItem(new HashMap<String, String>());
-                metricItem.pluginReadCount.incrementAndGet();
-                queue.put(message);
-                metricItem.pluginReadSuccessCount.incrementAndGet();
+            lock.lockInterruptibly();
+            try {
+                while (!hasRoom(size)) {
+                    notFull.await();
+                }
+                enqueue(message, size);
+                notEmpty.signal();
+            } finally {
+                lock.unlock();
             }
+            metricItem.pluginReadSuccessCount.incrementAndGet();
         } catch (InterruptedException ex) {
-            this.metricItemReadFailed();
+            this.metricItemReadFailed(1);
         }
     }
 
     @Override
     public boolean push(Message message, long timeout, TimeUnit unit) {
+        if (message == null) {
+            return false;
+        }
+        metricItem.pluginReadCount.incrementAndGet();
+        int size = sizeOf(message);
+        long nanos = unit.toNanos(timeout);
         try {
-            if (message != null) {
-                AgentMetricItem metricItem = getMetricItem(new HashMap<String, String>());
-                metricItem.pluginReadCount.incrementAndGet();
-                boolean result = queue.offer(message, timeout, unit);
-                if (result) {
-                    metricItem.pluginReadSuccessCount.incrementAndGet();
-                } else {
-                    metricItem.pluginReadFailCount.incrementAndGet();
+            lock.lockInterruptibly();
+            try {
+                while (!hasRoom(size)) {
+                    if (nanos <= 0) {
+                        metricItem.pluginReadFailCount.incrementAndGet();
+                        return false;
+                    }
+                    nanos = notFull.awaitNanos(nanos);
                 }
-                return result;
+                enqueue(message, size);
+                notEmpty.signal();
+            } finally {
+                lock.unlock();
             }
+            metricItem.pluginReadSuccessCount.incrementAndGet();
+            return true;
         } catch (InterruptedException ex) {
-            this.metricItemReadFailed();
+            this.metricItemReadFailed(1);
         }
         return false;
     }
 
+    @Override
+    public int pushAll(List<Message> messages, long timeout, TimeUnit unit) {
+        int pushed = 0;
+        long nanos = unit.toNanos(timeout);
+        try {
+            lock.lockInterruptibly();
+            try {
+                for (Message message : messages) {
+                    int size = sizeOf(message);
+                    while (!hasRoom(size)) {
+                        if (nanos <= 0) {
+                            return pushed;
+                        }
+                        notEmpty.signal();
+                        nanos = notFull.awaitNanos(nanos);
+                    }
+                    enqueue(message, size);
+                    pushed++;
+                }
+            } finally {
+                if (pushed > 0) {
+                    notEmpty.signal();
+                }
+                lock.unlock();
+            }
+        } catch (InterruptedException ex) {
+            LOGGER.warn("interrupted while pushing {} messages, {} pushed", messages.size(), pushed);
+        } finally {
+            // the messages not pushed on timeout or interrupt are counted as failed, the same as push
+            metricItem.pluginReadCount.addAndGet(messages.size());
+            metricItem.pluginReadSuccessCount.addAndGet(pushed);
+            if (pushed < messages.size()) {
+                this.metricItemReadFailed(messages.size() - pushed);
+            }
+        }
+        return pushed;
+    }
+
     @Override
     public Message pull(long timeout, TimeUnit unit) {
+        long nanos = unit.toNanos(timeout);
+        Message message;
         try {
-            Message message = queue.poll(timeout, unit);
-            if (message != null) {
-                AgentMetricItem metricItem = getMetricItem(new HashMap<String, String>());
-                metricItem.pluginSendSuccessCount.incrementAndGet();
-                metricItem.pluginSendCount.incrementAndGet();
+            lock.lockInterruptibly();
+            try {
+                while (count == 0) {
+                    if (nanos <= 0) {
+                        return null;
+                    }
+                    nanos = notEmpty.awaitNanos(nanos);
+                }
+                message = dequeue();
+                notFull.signal();
+            } finally {
+                lock.unlock();
             }
-            return message;
         } catch (InterruptedException ex) {
             this.metricItemSendFailed();
             throw new IllegalStateException(ex);
         }
+        metricItem.pluginSendSuccessCount.incrementAndGet();
+        metricItem.pluginSendCount.incrementAndGet();
+        return message;
+    }
+
+    @Override
+    public int pollBatch(List<Message> messages, int maxCount, long timeout, TimeUnit unit) {
+        long nanos = unit.toNanos(timeout);
+        int polled = 0;
+        try {
+            lock.lockInterruptibly();
+            try {
+                while (count == 0) {
+                    if (nanos <= 0) {
+                        return 0;
+                    }
+                    nanos = notEmpty.awaitNanos(nanos);
+                }
+                while (count > 0 && polled < maxCount) {
+                    messages.add(dequeue());
+                    polled++;
+                }
+                notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        } catch (InterruptedException ex) {
+            this.metricItemSendFailed();
+            throw new IllegalStateException(ex);
+        }
+        metricItem.pluginSendSuccessCount.addAndGet(polled);
+        metricItem.pluginSendCount.addAndGet(polled);
+        return polled;
     }
 
     @Override
     public void init(JobProfile jobConf) {
         inlongGroupId = jobConf.get(PROXY_INLONG_GROUP_ID, DEFAULT_PROXY_INLONG_GROUP_ID);
         inlongStreamId = jobConf.get(PROXY_INLONG_STREAM_ID, DEFAULT_PROXY_INLONG_STREAM_ID);
-        queue = new LinkedBlockingQueue<>(
-                jobConf.getInt(AgentConstants.CHANNEL_MEMORY_CAPACITY,
-                        AgentConstants.DEFAULT_CHANNEL_MEMORY_CAPACITY));
+        items = new Message[jobConf.getInt(AgentConstants.CHANNEL_MEMORY_CAPACITY,
+                AgentConstants.DEFAULT_CHANNEL_MEMORY_CAPACITY)];
+        maxBytes = jobConf.getLong(AgentConstants.CHANNEL_MEMORY_CAPACITY_BYTES,
+                AgentConstants.DEFAULT_CHANNEL_MEMORY_CAPACITY_BYTES);
         String metricName = String.join("-", this.getClass().getSimpleName(),
                 String.valueOf(METRIC_INDEX.incrementAndGet()));
         this.metricItemSet = new AgentMetricItemSet(metricName);
         MetricRegister.register(metricItemSet);
+        Map<String, String> dimensions = new HashMap<>();
+        dimensions.put(KEY_PLUGIN_ID, this.getClass().getSimpleName());
+        dimensions.put(KEY_INLONG_GROUP_ID, inlongGroupId);
+        dimensions.put(KEY_INLONG_STREAM_ID, inlongStreamId);
+        this.metricItem = metricItemSet.findMetricItem(dimensions);
     }
 
     @Override
     public void destroy() {
-        if (queue != null) {
-            queue.clear();
+        if (items != null) {
+            lock.lock();
+            try {
+                Arrays.fill(items, null);
+                head = 0;
+                tail = 0;
+                count = 0;
+                bytes = 0;
+                notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
         }
         LOGGER.info("destroy channel, show memory channel metric:");
     }
 
-    private AgentMetricItem getMetricItem(Map<String, String> dimens) {
-        Map<String, String> dimensions = new HashMap<>();
-        dimensions.put(KEY_PLUGIN_ID, this.getClass().getSimpleName());
-        dimensions.put(KEY_INLONG_GROUP_ID, inlongGroupId);
-        dimensions.put(KEY_INLONG_STREAM_ID, inlongStreamId);
-        dimens.forEach((key, value) -> {
-            dimensions.put(key, value);
-        });
-        return this.metricItemSet.findMetricItem(dimensions);
+    /**
+     * @return number of messages in channel
+     */
+    public int size() {
+        lock.lock();
+        try {
+            return count;
+        } finally {
+            lock.unlock();
+        }
     }
 
-    private void metricItemReadFailed() {
-        Map<String, String> dimensions = new HashMap<String, String>();
-        dimensions.put(KEY_INLONG_GROUP_ID, inlongGroupId);
-        dimensions.put(KEY_INLONG_STREAM_ID, inlongStreamId);
-        AgentMetricItem metricItem = getMetricItem(dimensions);
-        metricItem.pluginReadFailCount.incrementAndGet();
-        LOGGER.debug("plugin read failed:{}", dimensions.toString());
+    private void metricItemReadFailed(int failCount) {
+        metricItem.pluginReadFailCount.addAndGet(failCount);
+        LOGGER.debug("plugin read failed:{}", metricItem.inlongGroupId);
         Thread.currentThread().interrupt();
-        return;
     }
 
     private void metricItemSendFailed() {
-        Map<String, String> dimensions = new HashMap<String, String>();
-        dimensions.put(KEY_INLONG_GROUP_ID, inlongGroupId);
-        dimensions.put(KEY_INLONG_STREAM_ID, inlongStreamId);
-        AgentMetricItem metricItem = getMetricItem(dimensions);
         metricItem.pluginSendFailCount.incrementAndGet();
         metricItem.pluginSendCount.incrementAndGet();
-        LOGGER.debug("plugin send failed:{}", dimensions.toString());
+        LOGGER.debug("plugin send failed:{}", metricItem.inlongGroupId);
         Thread.currentThread().interrupt();
-        return;
     }
 }
@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.agent.plugin.sinks;
+
+import org.apache.inlong.agent.message.BatchProxyMessage;
+import org.apache.inlong.agent.utils.AgentUtils;
+import org.apache.inlong.common.msg.AttributeConstants;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Batch builder for one stream id and data key, owned by the sink writer thread.
+ * The flush thread may only seal an expired batch when the writer is not appending,
+ * which is decided by a CAS on the builder state instead of a lock.
+ */
+public class ProxyBatchBuilder {
+
+    private static final int IDLE = 0;
+    private static final int BUSY = 1;
+    private static final long NO_DEADLINE = Long.MAX_VALUE;
+
+    private final AtomicInteger state = new AtomicInteger(IDLE);
+    private final String jobId;
+    private final String groupId;
+    private final String streamId;
+    private final int maxPackSize;
+    private final int maxPackCount;
+    // ms
+    private final int cacheTimeout;
+    private final boolean syncSend;
+    /**
+     * extra map used when sending to dataproxy, shared by all batches of this builder
+     */
+    private final Map<String, String> extraMap = new HashMap<>();
+
+    private List<byte[]> bodies = new ArrayList<>();
+    private Map<String, Integer> ackCounts;
+    private long batchSize;
+    private volatile long deadline = NO_DEADLINE;
+
+    public ProxyBatchBuilder(String jobId, String groupId, String streamId, String dataKey, int maxPackSize,
+            int maxPackCount, int cacheTimeout, boolean syncSend) {
+        this.jobId = jobId;
+        this.groupId = groupId;
+        this.streamId = streamId;
+        this.maxPackSize = maxPackSize;
+        this.maxPackCount = maxPackCount;
+        this.cacheTimeout = cacheTimeout;
+        this.syncSend = syncSend;
+        extraMap.put(AttributeConstants.MESSAGE_SYNC_SEND, String.valueOf(syncSend));
+        extraMap.put(AttributeConstants.MESSAGE_PARTITION_KEY, dataKey);
+    }
+
+    /**
+     * Append body to the current batch, must be called by the writer thread only.
+     *
+     * @return the sealed batch if size or deadline is reached, otherwise null
+     */
+    public BatchProxyMessage append(byte[] body, long now) {
+        return append(body, null, now);
+    }
+
+    /**
+     * Append body to the current batch, must be called by the writer thread only.
+     *
+     * @param ackKey key to count the ack of the body by, may be null
+     * @return the sealed batch if size or deadline is reached, otherwise null
+     */
+    public BatchProxyMessage append(byte[] body, String ackKey, long now) {
+        // only contends with the flush thread sealing an expired batch, which is short
+        while (!state.compareAndSet(IDLE, BUSY)) {
+            Thread.yield();
+        }
+        try {
+            BatchProxyMessage sealed = null;
+            if (!bodies.isEmpty() && (batchSize + body.length > maxPackSize || now >= deadline)) {
+                sealed = seal();
+            }
+            if (bodies.isEmpty()) {
+                deadline = now + cacheTimeout;
+            }
+            bodies.add(body);
+            batchSize += body.length;
+            if (ackKey != null) {
+                if (ackCounts == null) {
+                    ackCounts = new HashMap<>();
+                }
+                ackCounts.merge(ackKey, 1, Integer::sum);
+            }
+            if (sealed == null && (batchSize >= maxPackSize || bodies.size() >= maxPackCount)) {
+                sealed = seal();
+            }
+            return sealed;
+        } finally {
+            state.set(IDLE);
+        }
+    }
+
+    /**
+     * Seal the current batch if its deadline passed, never blocks the writer thread.
+     *
+     * @param force seal regardless of the deadline, used when the sink is destroyed
+     * @return the sealed batch, or null if nothing to seal or the writer is appending
+     */
+    public BatchProxyMessage sealIfExpired(long now, boolean force) {
+        if (deadline == NO_DEADLINE || !state.compareAndSet(IDLE, BUSY)) {
+            return null;
+        }
+        try {
+            if (!bodies.isEmpty() && (force || now >= deadline)) {
+                return seal();
+            }
+            return null;
+        } finally {
+            state.set(IDLE);
+        }
+    }
+
+    private BatchProxyMessage seal() {
+        BatchProxyMessage batch = new BatchProxyMessage(jobId, groupId, streamId, bodies,
+                AgentUtils.getCurrentTime(), extraMap, syncSend, ackCounts);
+        bodies = new ArrayList<>(bodies.size());
+        ackCounts = null;
+        batchSize = 0;
+        deadline = NO_DEADLINE;
+        return batch;
+    }
+
+    /**
+     * @return deadline of the current batch in ms, Long.MAX_VALUE if the builder is empty
+     */
+    public long getDeadline() {
+        return deadline;
+    }
+
+    public boolean isEmpty() {
+        return deadline == NO_DEADLINE;
+    }
+}
@@ -17,13 +17,14 @@
 
 package org.apache.inlong.agent.plugin.sinks;
 
+import com.google.common.util.concurrent.RateLimiter;
 import org.apache.inlong.agent.common.AgentThreadFactory;
+import org.apache.inlong.agent.conf.AgentConfiguration;
 import org.apache.inlong.agent.conf.JobProfile;
 import org.apache.inlong.agent.constant.CommonConstants;
+import org.apache.inlong.agent.core.task.TaskPositionManager;
 import org.apache.inlong.agent.message.BatchProxyMessage;
 import org.apache.inlong.agent.message.EndMessage;
-import org.apache.inlong.agent.message.PackProxyMessage;
-import org.apache.inlong.agent.message.ProxyMessage;
 import org.apache.inlong.agent.plugin.Message;
 import org.apache.inlong.agent.plugin.MessageFilter;
 import org.apache.inlong.agent.utils.AgentUtils;
@@ -31,28 +32,89 @@ import org.apache.inlong.agent.utils.ThreadUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
+import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 
+import static org.apache.inlong.agent.constant.AgentConstants.AGENT_HOME;
+import static org.apache.inlong.agent.constant.AgentConstants.DEFAULT_AGENT_HOME;
 import static org.apache.inlong.agent.constant.CommonConstants.DEFAULT_FIELD_SPLITTER;
+import static org.apache.inlong.agent.constant.CommonConstants.DEFAULT_PROXY_INLONG_STREAM_ID_QUEUE_MAX_NUMBER;
+import static org.apache.inlong.agent.constant.CommonConstants.DEFAULT_PROXY_MESSAGE_SEMAPHORE;
+import static org.apache.inlong.agent.constant.CommonConstants.DEFAULT_PROXY_PACKAGE_MAX_SIZE;
+import static org.apache.inlong.agent.constant.CommonConstants.DEFAULT_PROXY_PACKAGE_MAX_TIMEOUT_MS;
+import static org.apache.inlong.agent.constant.CommonConstants.DEFAULT_PROXY_SEALED_BATCH_QUEUE_SIZE;
+import static org.apache.inlong.agent.constant.CommonConstants.DEFAULT_PROXY_WAL_ENABLE;
+import static org.apache.inlong.agent.constant.CommonConstants.DEFAULT_PROXY_WAL_EVICTION_POLICY;
+import static org.apache.inlong.agent.constant.CommonConstants.DEFAULT_PROXY_WAL_FSYNC;
+import static org.apache.inlong.agent.constant.CommonConstants.DEFAULT_PROXY_WAL_MAX_DISK_SIZE;
+import static org.apache.inlong.agent.constant.CommonConstants.DEFAULT_PROXY_WAL_MAX_IN_FLIGHT;
+import static org.apache.inlong.agent.constant.CommonConstants.DEFAULT_PROXY_WAL_PATH;
+import static org.apache.inlong.agent.constant.CommonConstants.DEFAULT_PROXY_WAL_REPLAY_RATE;
+import static org.apache.inlong.agent.constant.CommonConstants.DEFAULT_PROXY_WAL_SEGMENT_SIZE;
+import static org.apache.inlong.agent.constant.CommonConstants.PROXY_INLONG_STREAM_ID_QUEUE_MAX_NUMBER;
+import static org.apache.inlong.agent.constant.CommonConstants.PROXY_MESSAGE_SEMAPHORE;
+import static org.apache.inlong.agent.constant.CommonConstants.PROXY_PACKAGE_MAX_SIZE;
+import static org.apache.inlong.agent.constant.CommonConstants.PROXY_PACKAGE_MAX_TIMEOUT_MS;
+import static org.apache.inlong.agent.constant.CommonConstants.PROXY_SEALED_BATCH_QUEUE_SIZE;
+import static org.apache.inlong.agent.constant.CommonConstants.PROXY_SEND_SYNC;
+import static org.apache.inlong.agent.constant.CommonConstants.PROXY_WAL_ENABLE;
+import static org.apache.inlong.agent.constant.CommonConstants.PROXY_WAL_EVICTION_POLICY;
+import static org.apache.inlong.agent.constant.CommonConstants.PROXY_WAL_FSYNC;
+import static org.apache.inlong.agent.constant.CommonConstants.PROXY_WAL_MAX_DISK_SIZE;
+import static org.apache.inlong.agent.constant.CommonConstants.PROXY_WAL_MAX_IN_FLIGHT;
+import static org.apache.inlong.agent.constant.CommonConstants.PROXY_WAL_PATH;
+import static org.apache.inlong.agent.constant.CommonConstants.PROXY_WAL_REPLAY_RATE;
+import static org.apache.inlong.agent.constant.CommonConstants.PROXY_WAL_SEGMENT_SIZE;
 
 /**
  * sink message data to inlong-dataproxy
+ *
+ * <p>The writer thread owns one {@link ProxyBatchBuilder} per stream id and data key, and hands off sealed
+ * batches to the flush thread through a {@link SpscBatchQueue}. The flush thread sends sealed batches and seals
+ * the batches whose deadline passed, so there is no map operation or lock per message on the write path.</p>
+ *
+ * <p>If {@link ProxyWal} is enabled, sealed batches are persisted locally before permits are released and the
+ * sink position advances, and a replay thread sends them to dataproxy at a limited rate.</p>
  */
 public class ProxySink extends AbstractSink {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ProxySink.class);
-    private static AtomicLong index = new AtomicLong(0);
-    private final ExecutorService executorService = new ThreadPoolExecutor(1, 1,
+    private static final String EMPTY_DATA_KEY = "";
+    private final ExecutorService executorService = new ThreadPoolExecutor(2, 2,
             0L, TimeUnit.MILLISECONDS,
             new LinkedBlockingQueue<>(), new AgentThreadFactory("ProxySink"));
     private MessageFilter messageFilter;
     private SenderManager senderManager;
     private byte[] fieldSplitter;
+    private int maxPackSize;
+    private int maxPackCount;
+    private int cacheTimeout;
+    private boolean syncSend;
+    // only accessed by the writer thread, key is stream id, value is builders keyed by data key
+    private final Map<String, Map<String, ProxyBatchBuilder>> builders = new HashMap<>();
+    // all builders, scanned by the flush thread for expired batches
+    private final List<ProxyBatchBuilder> builderList = new CopyOnWriteArrayList<>();
+    private SpscBatchQueue<BatchProxyMessage> sealedQueue;
+    private volatile Thread flushThread;
+    private ProxyWal wal;
+    private volatile Thread replayThread;
+    private int walReplayRate;
+    private int walMaxInFlight;
+    // dropped batches already added to metric, only accessed by the replay thread
+    private long reportedWalDrops;
+    private volatile boolean draining = false;
     private volatile boolean shutdown = false;
 
     public ProxySink() {
@@ -61,27 +123,14 @@ public class ProxySink extends AbstractSink {
     @Override
     public void write(Message message) {
         try {
-            if (message != null) {
-                senderManager.acquireSemaphore(1);
-                message.getHeader().put(CommonConstants.PROXY_KEY_GROUP_ID, inlongGroupId);
-                message.getHeader().put(CommonConstants.PROXY_KEY_STREAM_ID, inlongStreamId);
-                extractStreamFromMessage(message, fieldSplitter);
-                if (!(message instanceof EndMessage)) {
-                    ProxyMessage proxyMessage = new ProxyMessage(message);
-                    // add proxy message to cache.
-                    cache.compute(proxyMessage.getBatchKey(),
-                            (s, packProxyMessage) -> {
-                                if (packProxyMessage == null) {
-                                    packProxyMessage = new PackProxyMessage(jobInstanceId, jobConf, inlongGroupId,
-                                            proxyMessage.getInlongStreamId());
-                                    packProxyMessage.generateExtraMap(proxyMessage.getDataKey());
-                                }
-                                // add message to package proxy
-                                packProxyMessage.addProxyMessage(proxyMessage);
-                                return packProxyMessage;
-                            });
-                    // increment the count of successful sinks
-                    sinkMetric.sinkSuccessCount.incrementAndGet();
+            if (message != null && !(message instanceof EndMessage)) {
+                String streamId = extractStreamFromMessage(message, fieldSplitter);
+                String dataKey = message.getHeader().getOrDefault(CommonConstants.PROXY_KEY_DATA, EMPTY_DATA_KEY);
+                String ackKey = message.getHeader().get(CommonConstants.PROXY_KEY_ACK_COUNTER);
+                BatchProxyMessage sealed = getBuilder(streamId, dataKey)
+                        .append(message.getBody(), ackKey, System.currentTimeMillis());
+                if (sealed != null) {
+                    handOff(sealed);
                 }
             }
         } catch (Exception e) {
@@ -95,37 +144,172 @@ public class ProxySink extends AbstractSink {
     /**
      * extract stream id from message if message filter is presented
      */
-    private void extractStreamFromMessage(Message message, byte[] fieldSplitter) {
+    private String extractStreamFromMessage(Message message, byte[] fieldSplitter) {
         if (messageFilter != null) {
-            message.getHeader().put(CommonConstants.PROXY_KEY_STREAM_ID,
-                    messageFilter.filterStreamId(message, fieldSplitter));
-        } else {
-            message.getHeader().put(CommonConstants.PROXY_KEY_STREAM_ID, inlongStreamId);
+            return messageFilter.filterStreamId(message, fieldSplitter);
+        }
+        return inlongStreamId;
+    }
+
+    /**
+     * get or create the batch builder, called by the writer thread only
+     */
+    private ProxyBatchBuilder getBuilder(String streamId, String dataKey) {
+        Map<String, ProxyBatchBuilder> streamBuilders = builders.computeIfAbsent(streamId, k -> new HashMap<>());
+        ProxyBatchBuilder builder = streamBuilders.get(dataKey);
+        if (builder == null) {
+            builder = new ProxyBatchBuilder(jobInstanceId, inlongGroupId, streamId, dataKey, maxPackSize,
+                    maxPackCount, cacheTimeout, syncSend);
+            streamBuilders.put(dataKey, builder);
+            builderList.add(builder);
+        }
+        return builder;
+    }
+
+    /**
+     * acquire permits for the whole batch and pass it to the flush thread, called by the writer thread only
+     */
+    private void handOff(BatchProxyMessage batch) {
+        senderManager.acquireSemaphore(batch.getMsgCnt());
+        while (!sealedQueue.offer(batch)) {
+            LockSupport.unpark(flushThread);
+            AgentUtils.silenceSleepInMs(1);
         }
+        LockSupport.unpark(flushThread);
+    }
+
+    private void sendBatch(BatchProxyMessage batch, String batchKey) {
+        if (wal == null || !persistBatch(batch)) {
+            senderManager.sendBatch(batch);
+        }
+        // increment the count of successful sinks
+        sinkMetric.sinkSuccessCount.addAndGet(batch.getMsgCnt());
+        LOGGER.info("send group id {}, message key {},with message size {}, the job id is {}, "
+                + "read source is {} sendTime is {}", inlongGroupId, batchKey,
+                batch.getDataList().size(), jobInstanceId, sourceName, batch.getDataTime());
     }
 
     /**
-     * flush cache by batch
+     * persist batch into wal, the batch is replayed later by the replay thread
+     *
+     * @return false if wal is broken or full and the batch should be sent directly, it is acked only by
+     *         dataproxy then
+     */
+    private boolean persistBatch(BatchProxyMessage batch) {
+        try {
+            if (!wal.append(batch)) {
+                LOGGER.warn("wal rejects batch of stream {}, send it directly", batch.getStreamId());
+                return false;
+            }
+        } catch (IOException e) {
+            LOGGER.error("append batch to wal error, send it directly", e);
+            return false;
+        }
+        senderManager.onBatchPersisted(batch);
+        LockSupport.unpark(replayThread);
+        return true;
+    }
+
+    /**
+     * replay batches in wal to dataproxy with limited rate and in-flight batches
      *
      * @return thread runner
      */
-    private Runnable flushCache() {
+    private Runnable replayWal() {
         return () -> {
-            LOGGER.info("start flush cache thread for {} ProxySink", inlongGroupId);
+            LOGGER.info("start replay wal thread for {} ProxySink", inlongGroupId);
+            replayThread = Thread.currentThread();
+            RateLimiter rateLimiter = RateLimiter.create(walReplayRate);
+            Semaphore inFlight = new Semaphore(walMaxInFlight);
             while (!shutdown) {
                 try {
-                    cache.forEach((batchKey, packProxyMessage) -> {
-                        BatchProxyMessage batchProxyMessage = packProxyMessage.fetchBatch();
-                        if (batchProxyMessage != null) {
-                            senderManager.sendBatch(batchProxyMessage);
-                            LOGGER.info("send group id {}, message key {},with message size {}, the job id is {}, "
-                                    + "read source is {} sendTime is {}", inlongGroupId, batchKey,
-                                    batchProxyMessage.getDataList().size(), jobInstanceId, sourceName,
-                                    batchProxyMessage.getDataTime());
+                    updateWalMetric();
+                    wal.checkpoint();
+                    if (!inFlight.tryAcquire(batchFlushInterval, TimeUnit.MILLISECONDS)) {
+                        continue;
+                    }
+                    ProxyWal.Pending pending = wal.readNext();
+                    if (pending == null) {
+                        inFlight.release();
+                        LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(batchFlushInterval));
+                        continue;
+                    }
+                    rateLimiter.acquire();
+                    senderManager.sendBatch(pending.getBatch(), () -> {
+                        try {
+                            wal.commit(pending);
+                        } catch (IOException e) {
+                            LOGGER.error("commit wal error", e);
+                        } finally {
+                            inFlight.release();
                         }
-
                     });
+                } catch (Exception ex) {
+                    LOGGER.error("error caught", ex);
                     AgentUtils.silenceSleepInMs(batchFlushInterval);
+                } catch (Throwable t) {
+                    ThreadUtils.threadThrowableHandler(Thread.currentThread(), t);
+                }
+            }
+        };
+    }
+
+    private void updateWalMetric() throws IOException {
+        sinkMetric.walDepthBytes.set(wal.getDepthBytes());
+        sinkMetric.walAgeMs.set(wal.getAgeMs());
+        long droppedBatches = wal.getDroppedBatches();
+        sinkMetric.walDropCount.addAndGet(droppedBatches - reportedWalDrops);
+        reportedWalDrops = droppedBatches;
+    }
+
+    private ProxyWal initWal(JobProfile jobConf) {
+        AgentConfiguration conf = AgentConfiguration.getAgentConf();
+        File dir = Paths.get(conf.get(AGENT_HOME, DEFAULT_AGENT_HOME),
+                jobConf.get(PROXY_WAL_PATH, DEFAULT_PROXY_WAL_PATH),
+                jobInstanceId + "_" + Integer.toHexString(String.valueOf(sourceName).hashCode())).toFile();
+        walReplayRate = jobConf.getInt(PROXY_WAL_REPLAY_RATE, DEFAULT_PROXY_WAL_REPLAY_RATE);
+        walMaxInFlight = jobConf.getInt(PROXY_WAL_MAX_IN_FLIGHT, DEFAULT_PROXY_WAL_MAX_IN_FLIGHT);
+        try {
+            return new ProxyWal(dir,
+                    jobConf.getLong(PROXY_WAL_SEGMENT_SIZE, DEFAULT_PROXY_WAL_SEGMENT_SIZE),
+                    jobConf.getLong(PROXY_WAL_MAX_DISK_SIZE, DEFAULT_PROXY_WAL_MAX_DISK_SIZE),
+                    ProxyWal.EvictionPolicy.valueOf(jobConf.get(PROXY_WAL_EVICTION_POLICY,
+                            DEFAULT_PROXY_WAL_EVICTION_POLICY)),
+                    jobConf.getBoolean(PROXY_WAL_FSYNC, DEFAULT_PROXY_WAL_FSYNC));
+        } catch (IOException e) {
+            throw new IllegalStateException("init wal error for job " + jobInstanceId, e);
+        }
+    }
+
+    /**
+     * send sealed batches, and seal the batches reaching its deadline
+     *
+     * @return thread runner
+     */
+    private Runnable flushCache() {
+        return () -> {
+            LOGGER.info("start flush cache thread for {} ProxySink", inlongGroupId);
+            flushThread = Thread.currentThread();
+            while (!shutdown) {
+                try {
+                    BatchProxyMessage batch;
+                    while ((batch = sealedQueue.poll()) != null) {
+                        sendBatch(batch, batch.getStreamId());
+                    }
+                    long now = System.currentTimeMillis();
+                    long nextDeadline = now + batchFlushInterval;
+                    for (ProxyBatchBuilder builder : builderList) {
+                        BatchProxyMessage expired = builder.sealIfExpired(now, draining);
+                        if (expired != null) {
+                            senderManager.acquireSemaphore(expired.getMsgCnt());
+                            sendBatch(expired, expired.getStreamId());
+                        } else {
+                            nextDeadline = Math.min(nextDeadline, builder.getDeadline());
+                        }
+                    }
+                    if (sealedQueue.isEmpty() && nextDeadline > now) {
+                        LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(nextDeadline - now));
+                    }
                 } catch (Exception ex) {
                     LOGGER.error("error caught", ex);
                 } catch (Throwable t) {
@@ -141,7 +325,15 @@ public class ProxySink extends AbstractSink {
         messageFilter = initMessageFilter(jobConf);
         fieldSplitter = jobConf.get(CommonConstants.FIELD_SPLITTER, DEFAULT_FIELD_SPLITTER).getBytes(
                 StandardCharsets.UTF_8);
-        executorService.execute(flushCache());
+        maxPackSize = jobConf.getInt(PROXY_PACKAGE_MAX_SIZE, DEFAULT_PROXY_PACKAGE_MAX_SIZE);
+        // permits are acquired per batch, so a batch must never need more than all permits
+        maxPackCount = Math.min(jobConf.getInt(PROXY_INLONG_STREAM_ID_QUEUE_MAX_NUMBER,
+                DEFAULT_PROXY_INLONG_STREAM_ID_QUEUE_MAX_NUMBER),
+                jobConf.getInt(PROXY_MESSAGE_SEMAPHORE, DEFAULT_PROXY_MESSAGE_SEMAPHORE));
+        cacheTimeout = jobConf.getInt(PROXY_PACKAGE_MAX_TIMEOUT_MS, DEFAULT_PROXY_PACKAGE_MAX_TIMEOUT_MS);
+        syncSend = jobConf.getBoolean(PROXY_SEND_SYNC, false);
+        sealedQueue = new SpscBatchQueue<>(jobConf.getInt(PROXY_SEALED_BATCH_QUEUE_SIZE,
+                DEFAULT_PROXY_SEALED_BATCH_QUEUE_SIZE));
         senderManager = new SenderManager(jobConf, inlongGroupId, sourceName);
         try {
             senderManager.addMessageSender();
@@ -150,23 +342,60 @@ public class ProxySink extends AbstractSink {
             ThreadUtils.threadThrowableHandler(Thread.currentThread(), ex);
             throw new IllegalStateException(ex);
         }
+        if (jobConf.getBoolean(PROXY_WAL_ENABLE, DEFAULT_PROXY_WAL_ENABLE)) {
+            wal = initWal(jobConf);
+            executorService.execute(replayWal());
+        }
+        executorService.execute(flushCache());
     }
 
     @Override
     public void destroy() {
         LOGGER.info("destroy sink which sink from source name {}", sourceName);
+        // the writer thread has stopped, let the flush thread seal all remaining batches
+        draining = true;
         while (!sinkFinish()) {
             LOGGER.info("job {} wait until cache all flushed to proxy", jobInstanceId);
+            LockSupport.unpark(flushThread);
             AgentUtils.silenceSleepInMs(batchFlushInterval);
         }
+        // stop replay, the records not replayed yet stay in wal and are replayed after restart
         shutdown = true;
+        LockSupport.unpark(flushThread);
+        LockSupport.unpark(replayThread);
         executorService.shutdown();
+        try {
+            if (!executorService.awaitTermination(batchFlushInterval * 2L, TimeUnit.MILLISECONDS)) {
+                // the replay thread may be retrying a sync send while dataproxy is down
+                executorService.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executorService.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        if (wal != null) {
+            try {
+                if (wal.isEmpty() || isJobDeleted()) {
+                    // nothing is left to replay after restart
+                    wal.delete();
+                } else {
+                    wal.close();
+                }
+            } catch (IOException e) {
+                LOGGER.error("close wal error", e);
+            }
+        }
+    }
+
+    private boolean isJobDeleted() {
+        return TaskPositionManager.isInitialized() && TaskPositionManager.getInstance().isJobDeleted(jobInstanceId);
     }
 
     /**
-     * check whether all stream id messages finished
+     * check whether all stream id messages are sent or persisted in wal, the wal is not waited for
+     * since it is durable
      */
     private boolean sinkFinish() {
-        return cache.values().stream().allMatch(PackProxyMessage::isEmpty);
+        return sealedQueue.isEmpty() && builderList.stream().allMatch(ProxyBatchBuilder::isEmpty);
     }
 }
@@ -0,0 +1,529 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.agent.plugin.sinks;
+
+import org.apache.inlong.agent.message.BatchProxyMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+/**
+ * Local write-ahead queue between ProxySink and SenderManager.
+ *
+ * <p>Sealed batches are appended to segmented files, each record is framed as
+ * [length][crc32][write time][payload]. Records are replayed in order, and a segment is deleted once
+ * all its records are acked by dataproxy. The acked position is kept in a checkpoint file so replay
+ * restarts from it after an agent restart.</p>
+ */
+public class ProxyWal {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProxyWal.class);
+    private static final String SEGMENT_SUFFIX = ".wal";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+    // length + crc + write time
+    private static final int RECORD_HEADER_SIZE = 4 + 8 + 8;
+
+    /**
+     * what to do when the disk budget is used up
+     */
+    public enum EvictionPolicy {
+        // delete the oldest segment to make room for new data
+        DROP_OLDEST,
+        // reject the new batch
+        DROP_NEWEST
+    }
+
+    private final File dir;
+    private final long segmentSize;
+    private final long maxDiskBytes;
+    private final EvictionPolicy evictionPolicy;
+    private final boolean fsync;
+
+    // segment id -> segment file, ordered from the oldest
+    private final TreeMap<Long, File> segments = new TreeMap<>();
+    private final Map<Long, Long> segmentBytes = new HashMap<>();
+    private long totalBytes;
+    private long activeSegmentId;
+    private FileChannel activeChannel;
+    // read handle of a sealed segment, kept open while records of the segment are replayed
+    private long readChannelSegmentId = -1;
+    private FileChannel readChannel;
+
+    // next record to replay
+    private long readSegmentId;
+    private long readOffset;
+    // records replayed but not acked yet, in replay order
+    private final ArrayDeque<Pending> pendings = new ArrayDeque<>();
+    // position before which all records are acked
+    private long committedSegmentId;
+    private long committedOffset;
+    private boolean checkpointDirty;
+    private long droppedBatches;
+    private boolean closed;
+
+    public ProxyWal(File dir, long segmentSize, long maxDiskBytes, EvictionPolicy evictionPolicy, boolean fsync)
+            throws IOException {
+        this.dir = dir;
+        this.segmentSize = segmentSize;
+        this.maxDiskBytes = maxDiskBytes;
+        this.evictionPolicy = evictionPolicy;
+        this.fsync = fsync;
+        recover();
+    }
+
+    /**
+     * load segments and checkpoint, truncate the torn tail left by a crash
+     */
+    private void recover() throws IOException {
+        if (!dir.exists() && !dir.mkdirs()) {
+            throw new IOException("cannot create wal dir " + dir);
+        }
+        File[] files = dir.listFiles((d, name) -> name.endsWith(SEGMENT_SUFFIX));
+        if (files != null) {
+            for (File file : files) {
+                String name = file.getName();
+                segments.put(Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())), file);
+            }
+        }
+        File checkpoint = new File(dir, CHECKPOINT_FILE);
+        if (checkpoint.exists()) {
+            try (DataInputStream input = new DataInputStream(Files.newInputStream(checkpoint.toPath()))) {
+                committedSegmentId = input.readLong();
+                committedOffset = input.readLong();
+            }
+        }
+        // segments before the checkpoint are fully acked
+        while (!segments.isEmpty() && segments.firstKey() < committedSegmentId) {
+            Files.deleteIfExists(segments.pollFirstEntry().getValue().toPath());
+        }
+        if (segments.isEmpty()) {
+            committedSegmentId = Math.max(committedSegmentId, 0);
+            committedOffset = 0;
+            segments.put(committedSegmentId, segmentFile(committedSegmentId));
+        } else if (segments.firstKey() > committedSegmentId) {
+            committedSegmentId = segments.firstKey();
+            committedOffset = 0;
+        }
+        for (Map.Entry<Long, File> entry : segments.entrySet()) {
+            long validLength = validLength(entry.getValue());
+            segmentBytes.put(entry.getKey(), validLength);
+            totalBytes += validLength;
+        }
+        activeSegmentId = segments.lastKey();
+        activeChannel = new RandomAccessFile(segments.lastEntry().getValue(), "rw").getChannel();
+        activeChannel.truncate(segmentBytes.get(activeSegmentId));
+        activeChannel.position(segmentBytes.get(activeSegmentId));
+        readSegmentId = committedSegmentId;
+        readOffset = committedOffset;
+        LOGGER.info("recover wal {} with {} segments, {} bytes, replay from segment {} offset {}", dir,
+                segments.size(), totalBytes, readSegmentId, readOffset);
+    }
+
+    /**
+     * @return length of the leading records with a valid crc
+     */
+    private long validLength(File file) throws IOException {
+        if (!file.exists()) {
+            return 0;
+        }
+        long offset = 0;
+        try (FileChannel channel = new RandomAccessFile(file, "r").getChannel()) {
+            Record record;
+            while ((record = readRecord(channel, offset)) != null) {
+                offset = record.nextOffset;
+            }
+        }
+        return offset;
+    }
+
+    private File segmentFile(long segmentId) {
+        return new File(dir, String.format("%020d%s", segmentId, SEGMENT_SUFFIX));
+    }
+
+    /**
+     * append a batch, the batch is durable when this method returns true
+     *
+     * @return false if the batch is rejected because the disk budget is used up, the caller still owns it
+     */
+    public synchronized boolean append(BatchProxyMessage batch) throws IOException {
+        if (closed) {
+            throw new IOException("wal " + dir + " is closed");
+        }
+        byte[] payload = encode(batch);
+        int recordSize = RECORD_HEADER_SIZE + payload.length;
+        while (totalBytes + recordSize > maxDiskBytes) {
+            if (evictionPolicy == EvictionPolicy.DROP_NEWEST || segments.size() <= 1) {
+                droppedBatches++;
+                LOGGER.warn("wal {} is full with {} bytes, reject newest batch of stream {}", dir, totalBytes,
+                        batch.getStreamId());
+                return false;
+            }
+            dropOldestSegment();
+        }
+        if (segmentBytes.get(activeSegmentId) + recordSize > segmentSize && segmentBytes.get(activeSegmentId) > 0) {
+            rollSegment();
+        }
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        ByteBuffer buffer = ByteBuffer.allocate(recordSize);
+        buffer.putInt(payload.length).putLong(crc.getValue()).putLong(System.currentTimeMillis()).put(payload);
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            activeChannel.write(buffer);
+        }
+        if (fsync) {
+            activeChannel.force(false);
+        }
+        segmentBytes.put(activeSegmentId, segmentBytes.get(activeSegmentId) + recordSize);
+        totalBytes += recordSize;
+        return true;
+    }
+
+    private void rollSegment() throws IOException {
+        activeChannel.force(false);
+        activeChannel.close();
+        if (readChannelSegmentId == activeSegmentId) {
+            closeReadChannel();
+        }
+        activeSegmentId++;
+        File file = segmentFile(activeSegmentId);
+        segments.put(activeSegmentId, file);
+        segmentBytes.put(activeSegmentId, 0L);
+        activeChannel = new RandomAccessFile(file, "rw").getChannel();
+    }
+
+    private void dropOldestSegment() throws IOException {
+        Map.Entry<Long, File> oldest = segments.pollFirstEntry();
+        totalBytes -= segmentBytes.remove(oldest.getKey());
+        deleteSegment(oldest.getKey(), oldest.getValue());
+        droppedBatches++;
+        LOGGER.warn("wal {} is full, drop oldest segment {}", dir, oldest.getValue());
+        long nextSegmentId = segments.firstKey();
+        if (readSegmentId <= oldest.getKey()) {
+            readSegmentId = nextSegmentId;
+            readOffset = 0;
+        }
+        if (committedSegmentId <= oldest.getKey()) {
+            committedSegmentId = nextSegmentId;
+            committedOffset = 0;
+            checkpointDirty = true;
+        }
+        // acks of the dropped records must not move the committed position backward
+        pendings.removeIf(pending -> pending.segmentId <= oldest.getKey());
+    }
+
+    /**
+     * read the next record to replay, the caller must {@link #commit} it once acked
+     *
+     * @return null if all records are replayed
+     */
+    public synchronized Pending readNext() throws IOException {
+        while (true) {
+            File file = segments.get(readSegmentId);
+            long length = segmentBytes.getOrDefault(readSegmentId, 0L);
+            if (file != null && readOffset < length) {
+                Record record = readRecord(channelOf(readSegmentId), readOffset);
+                if (record == null) {
+                    throw new IOException("corrupted wal record in " + file + " at " + readOffset);
+                }
+                Pending pending = new Pending(readSegmentId, record.nextOffset, record.writeTime,
+                        decode(record.payload));
+                readOffset = record.nextOffset;
+                pendings.addLast(pending);
+                return pending;
+            }
+            Long next = segments.higherKey(readSegmentId);
+            if (next == null) {
+                return null;
+            }
+            readSegmentId = next;
+            readOffset = 0;
+        }
+    }
+
+    /**
+     * mark the record acked, advance the committed position over the leading acked records
+     */
+    public synchronized void commit(Pending pending) throws IOException {
+        if (closed) {
+            // the record is replayed again after restart
+            return;
+        }
+        pending.acked = true;
+        while (!pendings.isEmpty() && pendings.peekFirst().acked) {
+            Pending head = pendings.pollFirst();
+            committedSegmentId = head.segmentId;
+            committedOffset = head.endOffset;
+            checkpointDirty = true;
+        }
+        // delete segments which are fully acked and not written any more
+        while (segments.firstKey() < committedSegmentId
+                || (segments.firstKey() == committedSegmentId && committedSegmentId != activeSegmentId
+                        && committedOffset >= segmentBytes.get(committedSegmentId))) {
+            Map.Entry<Long, File> acked = segments.pollFirstEntry();
+            totalBytes -= segmentBytes.remove(acked.getKey());
+            deleteSegment(acked.getKey(), acked.getValue());
+        }
+    }
+
+    /**
+     * write the committed position to the checkpoint file if it changed
+     */
+    public synchronized void checkpoint() throws IOException {
+        if (!checkpointDirty) {
+            return;
+        }
+        File tmp = new File(dir, CHECKPOINT_FILE + ".tmp");
+        try (DataOutputStream output = new DataOutputStream(Files.newOutputStream(tmp.toPath()))) {
+            output.writeLong(committedSegmentId);
+            output.writeLong(committedOffset);
+        }
+        Files.move(tmp.toPath(), new File(dir, CHECKPOINT_FILE).toPath(), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        checkpointDirty = false;
+    }
+
+    /**
+     * @return bytes not acked yet
+     */
+    public synchronized long getDepthBytes() {
+        return Math.max(0, totalBytes - (segments.containsKey(committedSegmentId) ? committedOffset : 0));
+    }
+
+    /**
+     * @return age in ms of the oldest record not acked, replayed or not, 0 if there is none
+     */
+    public synchronized long getAgeMs() throws IOException {
+        Pending oldest = pendings.peekFirst();
+        if (oldest != null) {
+            return System.currentTimeMillis() - oldest.writeTime;
+        }
+        // nothing is in flight, so the oldest record is the next one to replay
+        long segmentId = readSegmentId;
+        long offset = readOffset;
+        while (offset >= segmentBytes.getOrDefault(segmentId, 0L)) {
+            Long next = segments.higherKey(segmentId);
+            if (next == null) {
+                return 0;
+            }
+            segmentId = next;
+            offset = 0;
+        }
+        Record record = readRecord(channelOf(segmentId), offset);
+        return record == null ? 0 : System.currentTimeMillis() - record.writeTime;
+    }
+
+    /**
+     * @return channel to read records of the segment, the active segment is read through the append channel
+     */
+    private FileChannel channelOf(long segmentId) throws IOException {
+        if (segmentId == activeSegmentId) {
+            return activeChannel;
+        }
+        if (readChannelSegmentId != segmentId) {
+            closeReadChannel();
+            readChannel = new RandomAccessFile(segments.get(segmentId), "r").getChannel();
+            readChannelSegmentId = segmentId;
+        }
+        return readChannel;
+    }
+
+    private void closeReadChannel() throws IOException {
+        if (readChannel != null) {
+            readChannel.close();
+            readChannel = null;
+        }
+        readChannelSegmentId = -1;
+    }
+
+    private void deleteSegment(long segmentId, File file) throws IOException {
+        if (segmentId == readChannelSegmentId) {
+            closeReadChannel();
+        }
+        Files.deleteIfExists(file.toPath());
+    }
+
+    public synchronized long getDroppedBatches() {
+        return droppedBatches;
+    }
+
+    public synchronized boolean isEmpty() {
+        return getDepthBytes() == 0;
+    }
+
+    /**
+     * close the wal, the records not acked stay on disk and are replayed after restart
+     */
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        checkpoint();
+        closeReadChannel();
+        activeChannel.close();
+    }
+
+    /**
+     * close the wal and delete its dir, the records not acked are dropped
+     */
+    public synchronized void delete() throws IOException {
+        close();
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                Files.deleteIfExists(file.toPath());
+            }
+        }
+        Files.deleteIfExists(dir.toPath());
+    }
+
+    private static Record readRecord(FileChannel channel, long offset) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+        if (readFully(channel, header, offset) < RECORD_HEADER_SIZE) {
+            return null;
+        }
+        header.flip();
+        int length = header.getInt();
+        long crcValue = header.getLong();
+        long writeTime = header.getLong();
+        if (length < 0 || offset + RECORD_HEADER_SIZE + length > channel.size()) {
+            return null;
+        }
+        ByteBuffer payload = ByteBuffer.allocate(length);
+        if (readFully(channel, payload, offset + RECORD_HEADER_SIZE) < length) {
+            return null;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(payload.array());
+        if (crc.getValue() != crcValue) {
+            return null;
+        }
+        return new Record(payload.array(), writeTime, offset + RECORD_HEADER_SIZE + length);
+    }
+
+    private static int readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        int total = 0;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + total);
+            if (read < 0) {
+                break;
+            }
+            total += read;
+        }
+        return total;
+    }
+
+    private static byte[] encode(BatchProxyMessage batch) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream((int) batch.getTotalSize() + 256);
+        DataOutputStream output = new DataOutputStream(bytes);
+        output.writeUTF(batch.getJobId());
+        output.writeUTF(batch.getGroupId());
+        output.writeUTF(batch.getStreamId());
+        output.writeLong(batch.getDataTime());
+        output.writeBoolean(batch.isSyncSend());
+        output.writeInt(batch.getExtraMap().size());
+        for (Map.Entry<String, String> entry : batch.getExtraMap().entrySet()) {
+            output.writeUTF(entry.getKey());
+            output.writeUTF(entry.getValue());
+        }
+        output.writeInt(batch.getDataList().size());
+        for (byte[] body : batch.getDataList()) {
+            output.writeInt(body.length);
+            output.write(body);
+        }
+        output.flush();
+        return bytes.toByteArray();
+    }
+
+    private static BatchProxyMessage decode(byte[] payload) throws IOException {
+        DataInputStream input = new DataInputStream(new ByteArrayInputStream(payload));
+        String jobId = input.readUTF();
+        String groupId = input.readUTF();
+        String streamId = input.readUTF();
+        long dataTime = input.readLong();
+        boolean syncSend = input.readBoolean();
+        int extraSize = input.readInt();
+        Map<String, String> extraMap = new HashMap<>(extraSize * 2);
+        for (int i = 0; i < extraSize; i++) {
+            extraMap.put(input.readUTF(), input.readUTF());
+        }
+        int bodyCount = input.readInt();
+        List<byte[]> bodies = new ArrayList<>(bodyCount);
+        for (int i = 0; i < bodyCount; i++) {
+            byte[] body = new byte[input.readInt()];
+            input.readFully(body);
+            bodies.add(body);
+        }
+        return new BatchProxyMessage(jobId, groupId, streamId, bodies, dataTime, extraMap, syncSend);
+    }
+
+    private static class Record {
+
+        private final byte[] payload;
+        private final long writeTime;
+        private final long nextOffset;
+
+        Record(byte[] payload, long writeTime, long nextOffset) {
+            this.payload = payload;
+            this.writeTime = writeTime;
+            this.nextOffset = nextOffset;
+        }
+    }
+
+    /**
+     * a replayed record waiting for ack
+     */
+    public static class Pending {
+
+        private final long segmentId;
+        private final long endOffset;
+        private final long writeTime;
+        private final BatchProxyMessage batch;
+        private boolean acked;
+
+        Pending(long segmentId, long endOffset, long writeTime, BatchProxyMessage batch) {
+            this.segmentId = segmentId;
+            this.endOffset = endOffset;
+            this.writeTime = writeTime;
+            this.batch = batch;
+        }
+
+        public BatchProxyMessage getBatch() {
+            return batch;
+        }
+    }
+}
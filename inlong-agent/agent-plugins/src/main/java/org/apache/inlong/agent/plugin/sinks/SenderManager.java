@@ -227,23 +227,54 @@ public class SenderManager {
     }
 
     public void sendBatch(BatchProxyMessage batchMessage) {
+        sendBatch(batchMessage, null);
+    }
+
+    /**
+     * Send batch, ackListener is called on success instead of releasing semaphore and updating sink position,
+     * used for batches which are already persisted in local wal.
+     */
+    public void sendBatch(BatchProxyMessage batchMessage, Runnable ackListener) {
         if (batchMessage.isSyncSend()) {
-            sendBatchSync(batchMessage, 0);
+            sendBatchSync(batchMessage, 0, ackListener);
         } else {
-            sendBatchAsync(batchMessage, 0);
+            sendBatchAsync(batchMessage, 0, ackListener);
+        }
+    }
+
+    /**
+     * Release semaphore and update sink position once the batch is persisted in local wal.
+     */
+    public void onBatchPersisted(BatchProxyMessage batchMessage) {
+        semaphore.release(batchMessage.getMsgCnt());
+        if (sourcePath != null) {
+            taskPositionManager.updateSinkPosition(batchMessage, sourcePath, batchMessage.getMsgCnt());
+        }
+        if (batchMessage.getAckCounts() != null) {
+            batchMessage.getAckCounts().forEach(
+                    (key, count) -> taskPositionManager.addAckCount(batchMessage.getJobId(), key, count));
+        }
+    }
+
+    private void onBatchAcked(BatchProxyMessage batchMessage, Runnable ackListener) {
+        if (ackListener != null) {
+            ackListener.run();
+        } else {
+            onBatchPersisted(batchMessage);
         }
     }
 
     /**
      * Send message to proxy by batch, use message cache.
      */
-    private void sendBatchAsync(BatchProxyMessage batchMessage, int retry) {
+    private void sendBatchAsync(BatchProxyMessage batchMessage, int retry, Runnable ackListener) {
         if (retry > maxSenderRetry) {
             LOGGER.warn("max retry reached, retry count is {}, sleep and send again", retry);
             AgentUtils.silenceSleepInMs(retrySleepTime);
         }
         try {
-            selectSender(batchMessage.getGroupId()).asyncSendMessage(new AgentSenderCallback(batchMessage, retry),
+            selectSender(batchMessage.getGroupId()).asyncSendMessage(
+                    new AgentSenderCallback(batchMessage, retry, ackListener),
                     batchMessage.getDataList(), batchMessage.getGroupId(), batchMessage.getStreamId(),
                     batchMessage.getDataTime(), SEQUENTIAL_ID.getNextUuid(), maxSenderTimeout, TimeUnit.SECONDS,
                     batchMessage.getExtraMap(), proxySend);
@@ -255,7 +286,7 @@ public class SenderManager {
             // retry time
             try {
                 TimeUnit.SECONDS.sleep(1);
-                sendBatchAsync(batchMessage, retry + 1);
+                sendBatchAsync(batchMessage, retry + 1, ackListener);
             } catch (Exception ignored) {
                 // ignore it.
             }
@@ -265,7 +296,7 @@ public class SenderManager {
     /**
      * Send message to proxy by batch, use message cache.
      */
-    private void sendBatchSync(BatchProxyMessage batchMessage, int retry) {
+    private void sendBatchSync(BatchProxyMessage batchMessage, int retry, Runnable ackListener) {
         if (retry > maxSenderRetry) {
             LOGGER.warn("max retry reached, retry count is {}, sleep and send again", retry);
             AgentUtils.silenceSleepInMs(retrySleepTime);
@@ -283,17 +314,14 @@ public class SenderManager {
             metricItem.pluginSendCount.addAndGet(msgCnt);
 
             if (result == SendResult.OK) {
-                semaphore.release(msgCnt);
                 metricItem.pluginSendSuccessCount.addAndGet(msgCnt);
                 AuditUtils.add(AuditUtils.AUDIT_ID_AGENT_SEND_SUCCESS, groupId, streamId, dataTime, msgCnt,
                         batchMessage.getTotalSize());
-                if (sourcePath != null) {
-                    taskPositionManager.updateSinkPosition(batchMessage, sourcePath, msgCnt);
-                }
+                onBatchAcked(batchMessage, ackListener);
             } else {
                 metricItem.pluginSendFailCount.addAndGet(msgCnt);
                 LOGGER.warn("send data to dataproxy error {}", result.toString());
-                sendBatchSync(batchMessage, retry + 1);
+                sendBatchSync(batchMessage, retry + 1, ackListener);
             }
 
         } catch (Exception exception) {
@@ -302,7 +330,7 @@ public class SenderManager {
             try {
                 metricItem.pluginSendFailCount.addAndGet(msgCnt);
                 TimeUnit.SECONDS.sleep(1);
-                sendBatchSync(batchMessage, retry + 1);
+                sendBatchSync(batchMessage, retry + 1, ackListener);
             } catch (Exception ignored) {
                 // ignore it.
             }
@@ -317,11 +345,13 @@ public class SenderManager {
         private final int retry;
         private final BatchProxyMessage batchMessage;
         private final int msgCnt;
+        private final Runnable ackListener;
 
-        AgentSenderCallback(BatchProxyMessage batchMessage, int retry) {
+        AgentSenderCallback(BatchProxyMessage batchMessage, int retry, Runnable ackListener) {
             this.batchMessage = batchMessage;
             this.retry = retry;
             this.msgCnt = batchMessage.getDataList().size();
+            this.ackListener = ackListener;
         }
 
         @Override
@@ -335,16 +365,13 @@ public class SenderManager {
                 LOGGER.warn("send groupId {}, streamId {}, jobId {}, dataTime {} fail with times {}, "
                         + "error {}", groupId, streamId, jobId, dataTime, retry, result);
                 getMetricItem(groupId, streamId).pluginSendFailCount.addAndGet(msgCnt);
-                sendBatchAsync(batchMessage, retry + 1);
+                sendBatchAsync(batchMessage, retry + 1, ackListener);
                 return;
             }
-            semaphore.release(msgCnt);
             AuditUtils.add(AuditUtils.AUDIT_ID_AGENT_SEND_SUCCESS, groupId, streamId, dataTime, msgCnt,
                     batchMessage.getTotalSize());
             getMetricItem(groupId, streamId).pluginSendSuccessCount.addAndGet(msgCnt);
-            if (sourcePath != null) {
-                taskPositionManager.updateSinkPosition(batchMessage, sourcePath, msgCnt);
-            }
+            onBatchAcked(batchMessage, ackListener);
         }
 
         @Override
@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.agent.plugin.sinks;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded single-producer single-consumer queue used to hand off sealed batches
+ * from the sink writer thread to the flush thread without locking.
+ */
+public class SpscBatchQueue<E> {
+
+    private final Object[] buffer;
+    private final int mask;
+    // next index to poll, written only by the consumer
+    private final AtomicLong head = new AtomicLong(0);
+    // next index to offer, written only by the producer
+    private final AtomicLong tail = new AtomicLong(0);
+
+    public SpscBatchQueue(int capacity) {
+        int size = 1;
+        while (size < capacity) {
+            size <<= 1;
+        }
+        this.buffer = new Object[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * Offer element, must be called by the producer thread only.
+     *
+     * @return false if the queue is full
+     */
+    public boolean offer(E element) {
+        long currentTail = tail.get();
+        if (currentTail - head.get() >= buffer.length) {
+            return false;
+        }
+        buffer[(int) (currentTail & mask)] = element;
+        tail.lazySet(currentTail + 1);
+        return true;
+    }
+
+    /**
+     * Poll element, must be called by the consumer thread only.
+     *
+     * @return null if the queue is empty
+     */
+    @SuppressWarnings("unchecked")
+    public E poll() {
+        long currentHead = head.get();
+        if (currentHead >= tail.get()) {
+            return null;
+        }
+        int index = (int) (currentHead & mask);
+        E element = (E) buffer[index];
+        buffer[index] = null;
+        head.lazySet(currentHead + 1);
+        return element;
+    }
+
+    public boolean isEmpty() {
+        return head.get() >= tail.get();
+    }
+
+    public int size() {
+        return (int) (tail.get() - head.get());
+    }
+}
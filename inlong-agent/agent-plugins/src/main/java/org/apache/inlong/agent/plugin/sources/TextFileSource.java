@@ -37,6 +37,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 
+import static org.apache.inlong.agent.constant.CommonConstants.FINGERPRINT_SUFFIX;
 import static org.apache.inlong.agent.constant.CommonConstants.POSITION_SUFFIX;
 import static org.apache.inlong.agent.constant.JobConstants.DEFAULT_JOB_LINE_FILTER;
 import static org.apache.inlong.agent.constant.JobConstants.DEFAULT_JOB_READ_WAIT_TIMEOUT;
@@ -71,7 +72,8 @@ public class TextFileSource extends AbstractSource {
             int startPosition = getStartPosition(jobConf, file);
             LOGGER.info("read from history position {} with job profile {}, file absolute path: {}", startPosition,
                     jobConf.getInstanceId(), file.getAbsolutePath());
-            FileReaderOperator fileReader = new FileReaderOperator(file, startPosition);
+            FileReaderOperator fileReader = new FileReaderOperator(file, startPosition,
+                    jobConf.get(file.getAbsolutePath() + FINGERPRINT_SUFFIX, null));
             long waitTimeout = jobConf.getLong(JOB_READ_WAIT_TIMEOUT, DEFAULT_JOB_READ_WAIT_TIMEOUT);
             fileReader.setWaitMillisecond(waitTimeout);
             addValidator(filterPattern, fileReader);
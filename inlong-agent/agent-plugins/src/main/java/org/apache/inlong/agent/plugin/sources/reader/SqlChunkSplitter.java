@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.agent.plugin.sources.reader;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Split the snapshot of a sql into primary key ranges, assuming the key is numeric and evenly distributed.
+ */
+public class SqlChunkSplitter {
+
+    private SqlChunkSplitter() {
+    }
+
+    /**
+     * split sql into chunks of the given key range size
+     *
+     * @param sql the sql to read
+     * @param chunkKey numeric primary key column
+     * @param min min value of chunk key
+     * @param max max value of chunk key
+     * @param chunkSize key range size of one chunk
+     * @return chunks ordered by key, empty if min or max is null or min is greater than max
+     */
+    public static List<Chunk> split(String sql, String chunkKey, Long min, Long max, long chunkSize) {
+        List<Chunk> chunks = new ArrayList<>();
+        if (min == null || max == null || min > max) {
+            return chunks;
+        }
+        long size = Math.max(1, chunkSize);
+        long start = min;
+        long end;
+        // the end overflows near Long.MAX_VALUE, the last chunk ends at max then
+        while ((end = start + size) > start && end <= max) {
+            chunks.add(new Chunk(chunks.size(), sql, chunkKey, start, end, false));
+            start = end;
+        }
+        // the last chunk includes the max key
+        chunks.add(new Chunk(chunks.size(), sql, chunkKey, start, max, true));
+        return chunks;
+    }
+
+    /**
+     * sql to get the key range of the sql result
+     */
+    public static String boundarySql(String sql, String chunkKey) {
+        return String.format("SELECT MIN(%s), MAX(%s) FROM (%s) chunk_t", chunkKey, chunkKey, sql);
+    }
+
+    /**
+     * a key range of the sql, [start, end) or [start, end] for the last chunk
+     */
+    public static class Chunk {
+
+        private final int index;
+        private final String sql;
+        private final long start;
+        private final long end;
+
+        Chunk(int index, String sql, String chunkKey, long start, long end, boolean last) {
+            this.index = index;
+            this.start = start;
+            this.end = end;
+            this.sql = String.format("SELECT * FROM (%s) chunk_t WHERE %s >= ? AND %s %s ?", sql, chunkKey,
+                    chunkKey, last ? "<=" : "<");
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        /**
+         * @return sql with range parameters, bind start and end in order
+         */
+        public String getSql() {
+            return sql;
+        }
+
+        public long getStart() {
+            return start;
+        }
+
+        public long getEnd() {
+            return end;
+        }
+    }
+}
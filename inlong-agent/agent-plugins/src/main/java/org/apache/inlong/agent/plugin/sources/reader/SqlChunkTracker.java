@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.agent.plugin.sources.reader;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntToLongFunction;
+
+/**
+ * Track which chunks of a sql are acked by the sink, used only by the reader thread.
+ *
+ * <p>A chunk is returned when its last row is returned by the reader, together with the number of its messages.
+ * The chunk is completed once the sink has acked that many messages of the chunk. The start key of the first
+ * chunk not completed is the watermark, all keys before it are completed.</p>
+ */
+public class SqlChunkTracker {
+
+    private final List<SqlChunkSplitter.Chunk> chunks;
+    private final BitSet completed = new BitSet();
+    // chunk index -> number of messages, for chunks returned but not acked
+    private final Map<Integer, Long> returned = new HashMap<>();
+    private int watermark;
+
+    /**
+     * @param chunks chunks ordered by key
+     */
+    public SqlChunkTracker(List<SqlChunkSplitter.Chunk> chunks) {
+        this.chunks = chunks;
+    }
+
+    /**
+     * the last row of the chunk is returned by the reader
+     *
+     * @param messageCount the number of messages of the chunk
+     */
+    public void onChunkReturned(int chunkIndex, long messageCount) {
+        returned.put(chunkIndex, messageCount);
+    }
+
+    /**
+     * complete the returned chunks whose messages are all acked
+     *
+     * @param ackedCounts the number of messages acked by the sink of a chunk index
+     * @return true if the watermark advanced
+     */
+    public boolean onAcked(IntToLongFunction ackedCounts) {
+        Iterator<Map.Entry<Integer, Long>> iterator = returned.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Integer, Long> entry = iterator.next();
+            if (ackedCounts.applyAsLong(entry.getKey()) >= entry.getValue()) {
+                completed.set(entry.getKey());
+                iterator.remove();
+            }
+        }
+        int next = completed.nextClearBit(watermark);
+        if (next == watermark) {
+            return false;
+        }
+        watermark = next;
+        return true;
+    }
+
+    public boolean isAllCompleted() {
+        return watermark >= chunks.size();
+    }
+
+    /**
+     * @return start key of the first chunk not completed, only valid if not all completed
+     */
+    public long getWatermarkKey() {
+        return chunks.get(watermark).getStart();
+    }
+}
@@ -20,7 +20,10 @@ package org.apache.inlong.agent.plugin.sources.reader;
 import org.apache.commons.codec.binary.Base64;
 import org.apache.commons.lang3.CharUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.inlong.agent.common.AgentThreadFactory;
 import org.apache.inlong.agent.conf.JobProfile;
+import org.apache.inlong.agent.constant.JobConstants;
+import org.apache.inlong.agent.core.task.TaskPositionManager;
 import org.apache.inlong.agent.message.DefaultMessage;
 import org.apache.inlong.agent.metrics.audit.AuditUtils;
 import org.apache.inlong.agent.plugin.Message;
@@ -35,15 +38,34 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static java.sql.Types.BINARY;
 import static java.sql.Types.BLOB;
 import static java.sql.Types.LONGVARBINARY;
 import static java.sql.Types.VARBINARY;
+import static org.apache.inlong.agent.constant.CommonConstants.POSITION_SUFFIX;
+import static org.apache.inlong.agent.constant.CommonConstants.PROXY_KEY_ACK_COUNTER;
 
 /**
  * Read data from database by SQL
+ *
+ * <p>If job.sql.chunk.key is set, the sql result is split into primary key ranges which are read concurrently,
+ * rows are handed to the reader thread by batch. Acks of the rows are counted per chunk, a chunk is completed once
+ * the sink acked all its rows, and the key before which all chunks are completed is stored as the reader position,
+ * so a restarted job only reads the keys from it. The reader finishes once all chunks are completed, or when
+ * job.sql.chunk.ack.wait ms passed after all rows are returned.</p>
  */
 public class SqlReader extends AbstractReader {
 
@@ -66,6 +88,27 @@ public class SqlReader extends AbstractReader {
     private static final String JOB_DATABASE_TYPE = "job.database.type";
     private static final String MYSQL = "mysql";
 
+    // numeric primary key used to split the sql into chunks, chunked read is disabled if not set
+    private static final String JOB_DATABASE_CHUNK_KEY = "job.sql.chunk.key";
+    // key range size of one chunk
+    private static final String JOB_DATABASE_CHUNK_SIZE = "job.sql.chunk.size";
+    private static final long DEFAULT_JOB_DATABASE_CHUNK_SIZE = 8096;
+    // number of chunks read concurrently
+    private static final String JOB_DATABASE_CHUNK_PARALLELISM = "job.sql.chunk.parallelism";
+    private static final int DEFAULT_JOB_DATABASE_CHUNK_PARALLELISM = 4;
+    // number of row batches buffered for the reader thread
+    private static final String JOB_DATABASE_CHUNK_QUEUE_SIZE = "job.sql.chunk.queue.size";
+    private static final int DEFAULT_JOB_DATABASE_CHUNK_QUEUE_SIZE = 16;
+    // ms to wait for the acks of the chunks after all rows are returned
+    private static final String JOB_DATABASE_CHUNK_ACK_WAIT = "job.sql.chunk.ack.wait";
+    private static final long DEFAULT_JOB_DATABASE_CHUNK_ACK_WAIT = 60 * 1000L;
+    // key before which all chunks are acked
+    private static final String CHUNK_KEY_POSITION_SUFFIX = ".chunk.key";
+    // 1 if all chunks are acked
+    private static final String CHUNK_DONE_POSITION_SUFFIX = ".chunk.done";
+    // ack counter key of chunk rows, followed by the chunk index
+    private static final String CHUNK_ACK_KEY_SUFFIX = ".chunk.";
+
     /* Standard short field separator */
     private static final String STD_FIELD_SEPARATOR_SHORT = "\001";
     private static final String JOB_DATABASE_SEPARATOR = "job.sql.separator";
@@ -88,33 +131,33 @@ public class SqlReader extends AbstractReader {
     private boolean finished = false;
     private String separator;
 
+    // chunked read
+    private String jobInstanceId;
+    private int batchSize;
+    private ExecutorService chunkExecutor;
+    private BlockingQueue<RowBatch> batchQueue;
+    private final AtomicInteger remainingChunks = new AtomicInteger(0);
+    private final AtomicReference<Throwable> chunkError = new AtomicReference<>();
+    private RowBatch currentBatch;
+    private int currentIndex;
+    private List<SqlChunkSplitter.Chunk> chunks;
+    private SqlChunkTracker chunkTracker;
+    private long chunkAckWaitMs;
+    // time when all rows are returned, 0 if not yet
+    private long allReturnedTime;
+
     public SqlReader(String sql) {
         this.sql = sql;
     }
 
     @Override
     public Message read() {
+        if (chunkExecutor != null) {
+            return readChunk();
+        }
         try {
             if (resultSet.next()) {
-                List<String> lineColumns = new ArrayList<>();
-                for (int i = 1; i <= columnCount; i++) {
-                    String dataValue = null;
-                    /* handle special blob value, encode with base64, BLOB=2004 */
-                    int typeCode = columnTypeCodes[i - 1];
-                    String typeName = columnTypeNames[i - 1];
-
-                    // binary type
-                    if (typeCode == BLOB || typeCode == BINARY || typeCode == VARBINARY
-                            || typeCode == LONGVARBINARY || typeName.contains("BLOB")) {
-                        byte[] data = resultSet.getBytes(i);
-                        dataValue = new String(Base64.encodeBase64(data, false), StandardCharsets.UTF_8);
-                    } else {
-                        // non-binary type
-                        dataValue = StringUtils.replaceEachRepeatedly(resultSet.getString(i),
-                                NEW_LINE_CHARS, EMPTY_CHARS);
-                    }
-                    lineColumns.add(dataValue);
-                }
+                List<String> lineColumns = readColumns(resultSet, columnTypeCodes, columnTypeNames);
                 long dataSize = lineColumns.stream().mapToLong(column -> column.length()).sum();
                 AuditUtils.add(AuditUtils.AUDIT_ID_AGENT_READ_SUCCESS,
                         inlongGroupId, inlongStreamId, System.currentTimeMillis(), 1, dataSize);
@@ -133,10 +176,121 @@ public class SqlReader extends AbstractReader {
         return null;
     }
 
+    /**
+     * return the next row from the batches produced by chunk readers
+     */
+    private Message readChunk() {
+        try {
+            while (currentBatch == null || currentIndex >= currentBatch.messages.size()) {
+                if (currentBatch != null && currentBatch.lastOfChunk) {
+                    chunkTracker.onChunkReturned(currentBatch.chunkIndex, currentBatch.chunkMessageCount);
+                }
+                currentBatch = null;
+                checkAckedChunks();
+                Throwable error = chunkError.get();
+                if (error != null) {
+                    throw error;
+                }
+                if (remainingChunks.get() == 0 && batchQueue.isEmpty() && isChunkAckDone()) {
+                    finished = true;
+                    return null;
+                }
+                currentBatch = batchQueue.poll(1, TimeUnit.SECONDS);
+                currentIndex = 0;
+                if (currentBatch == null) {
+                    return null;
+                }
+                AuditUtils.add(AuditUtils.AUDIT_ID_AGENT_READ_SUCCESS, inlongGroupId, inlongStreamId,
+                        System.currentTimeMillis(), currentBatch.messages.size(), currentBatch.dataSize);
+                readerMetric.pluginReadSuccessCount.addAndGet(currentBatch.messages.size());
+                readerMetric.pluginReadCount.addAndGet(currentBatch.messages.size());
+            }
+            return currentBatch.messages.get(currentIndex++);
+        } catch (Throwable ex) {
+            LOGGER.error("error while reading chunk data", ex);
+            readerMetric.pluginReadFailCount.incrementAndGet();
+            readerMetric.pluginReadCount.incrementAndGet();
+            throw new RuntimeException(ex);
+        }
+    }
+
+    /**
+     * all rows are returned, check whether the reader can finish
+     *
+     * @return true if all chunks are acked, or the acks are not waited for any more
+     */
+    private boolean isChunkAckDone() {
+        if (!TaskPositionManager.isInitialized() || chunkTracker.isAllCompleted()) {
+            return true;
+        }
+        long now = System.currentTimeMillis();
+        if (allReturnedTime == 0) {
+            allReturnedTime = now;
+        }
+        if (now - allReturnedTime < chunkAckWaitMs) {
+            return false;
+        }
+        LOGGER.warn("chunks of sql {} are not all acked in {} ms, they are read again after restart", sql,
+                chunkAckWaitMs);
+        return true;
+    }
+
+    private String ackKey(int chunkIndex) {
+        return sql + CHUNK_ACK_KEY_SUFFIX + chunkIndex;
+    }
+
+    /**
+     * complete the chunks acked by the sink and store the watermark key as the reader position
+     */
+    private void checkAckedChunks() {
+        if (!TaskPositionManager.isInitialized()) {
+            return;
+        }
+        TaskPositionManager positionManager = TaskPositionManager.getInstance();
+        if (!chunkTracker.onAcked(index -> positionManager.getAckCount(jobInstanceId, ackKey(index)))) {
+            return;
+        }
+        if (chunkTracker.isAllCompleted()) {
+            positionManager.updatePosition(jobInstanceId, sql + CHUNK_DONE_POSITION_SUFFIX, 1);
+        } else {
+            positionManager.updatePosition(jobInstanceId, sql + CHUNK_KEY_POSITION_SUFFIX,
+                    chunkTracker.getWatermarkKey());
+        }
+    }
+
+    private List<String> readColumns(ResultSet resultSet, int[] typeCodes, String[] typeNames) throws Exception {
+        List<String> lineColumns = new ArrayList<>(typeCodes.length);
+        for (int i = 1; i <= typeCodes.length; i++) {
+            String dataValue = null;
+            /* handle special blob value, encode with base64, BLOB=2004 */
+            int typeCode = typeCodes[i - 1];
+            String typeName = typeNames[i - 1];
+
+            // binary type
+            if (typeCode == BLOB || typeCode == BINARY || typeCode == VARBINARY
+                    || typeCode == LONGVARBINARY || (typeName != null && typeName.contains("BLOB"))) {
+                byte[] data = resultSet.getBytes(i);
+                dataValue = new String(Base64.encodeBase64(data, false), StandardCharsets.UTF_8);
+            } else {
+                // non-binary type
+                dataValue = StringUtils.replaceEachRepeatedly(resultSet.getString(i),
+                        NEW_LINE_CHARS, EMPTY_CHARS);
+            }
+            lineColumns.add(dataValue);
+        }
+        return lineColumns;
+    }
+
     private Message generateMessage(List<String> lineColumns) {
         return new DefaultMessage(StringUtils.join(lineColumns, separator).getBytes(StandardCharsets.UTF_8));
     }
 
+    private Message generateMessage(List<String> lineColumns, String ackKey) {
+        Map<String, String> header = new HashMap<>();
+        header.put(PROXY_KEY_ACK_COUNTER, ackKey);
+        return new DefaultMessage(StringUtils.join(lineColumns, separator).getBytes(StandardCharsets.UTF_8), header);
+    }
+
     @Override
     public boolean isFinished() {
         return finished;
@@ -181,19 +335,109 @@ public class SqlReader extends AbstractReader {
         columnCount = resultSet.getMetaData().getColumnCount();
         columnTypeNames = new String[columnCount];
         columnTypeCodes = new int[columnCount];
-        for (int i = 0; i < columnCount; i++) {
-            columnTypeCodes[i] = resultSet.getMetaData().getColumnType(i + 1);
+        initColumnMeta(resultSet, columnTypeCodes, columnTypeNames);
+    }
+
+    private static void initColumnMeta(ResultSet resultSet, int[] typeCodes, String[] typeNames) throws Exception {
+        for (int i = 0; i < typeCodes.length; i++) {
+            typeCodes[i] = resultSet.getMetaData().getColumnType(i + 1);
             String t = resultSet.getMetaData().getColumnTypeName(i + 1);
             if (t != null) {
-                columnTypeNames[i] = t.toUpperCase();
+                typeNames[i] = t.toUpperCase();
             }
         }
     }
 
+    /**
+     * split sql by chunk key and submit chunks not completed before to the chunk readers
+     */
+    private void initChunks(JobProfile jobConf, String chunkKey, String driverClass, String url, String userName,
+            String password, boolean isMysql) throws Exception {
+        if (jobConf.getLong(sql + CHUNK_DONE_POSITION_SUFFIX + POSITION_SUFFIX, 0) == 1) {
+            LOGGER.info("all chunks of sql {} are completed before", sql);
+            chunks = Collections.emptyList();
+        } else {
+            Long min;
+            Long max;
+            try (Statement boundaryStatement = conn.createStatement();
+                    ResultSet boundary = boundaryStatement.executeQuery(
+                            SqlChunkSplitter.boundarySql(sql, chunkKey))) {
+                boundary.next();
+                long value = boundary.getLong(1);
+                min = boundary.wasNull() ? null : value;
+                value = boundary.getLong(2);
+                max = boundary.wasNull() ? null : value;
+            }
+            // the keys before the stored watermark are completed, the chunks are split again from it
+            String keyPosition = sql + CHUNK_KEY_POSITION_SUFFIX + POSITION_SUFFIX;
+            if (min != null && jobConf.hasKey(keyPosition)) {
+                min = Math.max(min, jobConf.getLong(keyPosition, min));
+            }
+            chunks = SqlChunkSplitter.split(sql, chunkKey, min, max,
+                    jobConf.getLong(JOB_DATABASE_CHUNK_SIZE, DEFAULT_JOB_DATABASE_CHUNK_SIZE));
+            LOGGER.info("split sql {} into {} chunks by key {} in [{}, {}]", sql, chunks.size(), chunkKey, min,
+                    max);
+        }
+        chunkTracker = new SqlChunkTracker(chunks);
+        chunkAckWaitMs = jobConf.getLong(JOB_DATABASE_CHUNK_ACK_WAIT, DEFAULT_JOB_DATABASE_CHUNK_ACK_WAIT);
+
+        int parallelism = jobConf.getInt(JOB_DATABASE_CHUNK_PARALLELISM, DEFAULT_JOB_DATABASE_CHUNK_PARALLELISM);
+        batchQueue = new ArrayBlockingQueue<>(
+                jobConf.getInt(JOB_DATABASE_CHUNK_QUEUE_SIZE, DEFAULT_JOB_DATABASE_CHUNK_QUEUE_SIZE));
+        chunkExecutor = new ThreadPoolExecutor(parallelism, parallelism, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), new AgentThreadFactory("sql-chunk-reader"));
+        for (SqlChunkSplitter.Chunk chunk : chunks) {
+            remainingChunks.incrementAndGet();
+            chunkExecutor.execute(() -> readChunk(chunk, driverClass, url, userName, password, isMysql));
+        }
+    }
+
+    /**
+     * read one chunk with its own connection, rows are put into the batch queue by batchSize
+     */
+    private void readChunk(SqlChunkSplitter.Chunk chunk, String driverClass, String url, String userName,
+            String password, boolean isMysql) {
+        try (Connection chunkConn = AgentDbUtils.getConnectionFailover(driverClass, url, userName, password);
+                PreparedStatement chunkStatement = chunkConn.prepareStatement(chunk.getSql(),
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            chunkStatement.setFetchSize(isMysql ? Integer.MIN_VALUE : batchSize);
+            chunkStatement.setLong(1, chunk.getStart());
+            chunkStatement.setLong(2, chunk.getEnd());
+            try (ResultSet chunkResult = chunkStatement.executeQuery()) {
+                int count = chunkResult.getMetaData().getColumnCount();
+                int[] typeCodes = new int[count];
+                String[] typeNames = new String[count];
+                initColumnMeta(chunkResult, typeCodes, typeNames);
+                String ackKey = ackKey(chunk.getIndex());
+                long messageCount = 0;
+                RowBatch batch = new RowBatch(chunk.getIndex(), batchSize);
+                while (chunkResult.next() && chunkError.get() == null) {
+                    List<String> lineColumns = readColumns(chunkResult, typeCodes, typeNames);
+                    batch.dataSize += lineColumns.stream().mapToLong(column -> column.length()).sum();
+                    batch.messages.add(generateMessage(lineColumns, ackKey));
+                    messageCount++;
+                    if (batch.messages.size() >= batchSize) {
+                        batchQueue.put(batch);
+                        batch = new RowBatch(chunk.getIndex(), batchSize);
+                    }
+                }
+                batch.lastOfChunk = true;
+                batch.chunkMessageCount = messageCount;
+                batchQueue.put(batch);
+            }
+        } catch (Throwable ex) {
+            LOGGER.error("error while reading chunk {} of sql {}", chunk.getIndex(), sql, ex);
+            chunkError.compareAndSet(null, ex);
+        } finally {
+            remainingChunks.decrementAndGet();
+        }
+    }
+
     @Override
     public void init(JobProfile jobConf) {
         super.init(jobConf);
-        int batchSize = jobConf.getInt(JOB_DATABASE_BATCH_SIZE, DEFAULT_JOB_DATABASE_BATCH_SIZE);
+        batchSize = jobConf.getInt(JOB_DATABASE_BATCH_SIZE, DEFAULT_JOB_DATABASE_BATCH_SIZE);
+        jobInstanceId = jobConf.get(JobConstants.JOB_INSTANCE_ID);
         String userName = jobConf.get(JOB_DATABASE_USER);
         String password = jobConf.get(JOB_DATABASE_PASSWORD);
         String hostName = jobConf.get(JOB_DATABASE_HOSTNAME);
@@ -208,7 +452,10 @@ public class SqlReader extends AbstractReader {
             String url = String.format("jdbc:%s://%s:%d", databaseType, hostName, port);
             conn = AgentDbUtils.getConnectionFailover(
                     driverClass, url, userName, password);
-            if (databaseType.equals(MYSQL)) {
+            String chunkKey = jobConf.get(JOB_DATABASE_CHUNK_KEY, StringUtils.EMPTY);
+            if (StringUtils.isNotEmpty(chunkKey)) {
+                initChunks(jobConf, chunkKey, driverClass, url, userName, password, databaseType.equals(MYSQL));
+            } else if (databaseType.equals(MYSQL)) {
                 statement = conn.createStatement(
                         ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
                 statement.setFetchSize(Integer.MIN_VALUE);
@@ -219,7 +466,9 @@ public class SqlReader extends AbstractReader {
                 preparedStatement.setFetchSize(batchSize);
                 resultSet = preparedStatement.executeQuery();
             }
-            initColumnMeta();
+            if (resultSet != null) {
+                initColumnMeta();
+            }
         } catch (Exception ex) {
             LOGGER.error("error create statement", ex);
             destroy();
@@ -231,9 +480,34 @@ public class SqlReader extends AbstractReader {
     @Override
     public void destroy() {
         finished = true;
+        if (chunkExecutor != null) {
+            chunkExecutor.shutdownNow();
+        }
+        if (chunks != null && TaskPositionManager.isInitialized()) {
+            chunks.forEach(chunk -> TaskPositionManager.getInstance().removeAckCount(jobInstanceId,
+                    ackKey(chunk.getIndex())));
+        }
         AgentUtils.finallyClose(resultSet);
         AgentUtils.finallyClose(statement);
         AgentUtils.finallyClose(preparedStatement);
         AgentUtils.finallyClose(conn);
     }
+
+    /**
+     * rows of one chunk handed to the reader thread together
+     */
+    private static class RowBatch {
+
+        private final int chunkIndex;
+        private final List<Message> messages;
+        private long dataSize;
+        private boolean lastOfChunk;
+        // number of messages of the chunk, set on the last batch of the chunk
+        private long chunkMessageCount;
+
+        RowBatch(int chunkIndex, int batchSize) {
+            this.chunkIndex = chunkIndex;
+            this.messages = new ArrayList<>(batchSize);
+        }
+    }
 }
@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.agent.plugin.sources.reader.file;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.zip.CRC32;
+
+/**
+ * Identity of a file: file key (device and inode), size, and crc of the first bytes.
+ * Only the head of the file is read, so it is cheap for large files.
+ */
+public class FileFingerprint {
+
+    public static final int HEAD_BYTES = 1024;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FileFingerprint.class);
+    private static final String SEPARATOR = "|";
+
+    private final String fileKey;
+    private final long size;
+    private final int headLength;
+    private final long headCrc;
+
+    public FileFingerprint(String fileKey, long size, int headLength, long headCrc) {
+        this.fileKey = fileKey;
+        this.size = size;
+        this.headLength = headLength;
+        this.headCrc = headCrc;
+    }
+
+    /**
+     * build fingerprint of the current file
+     */
+    public static FileFingerprint of(File file) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+        String fileKey = attributes.fileKey() == null ? null : attributes.fileKey().toString();
+        int headLength = (int) Math.min(attributes.size(), HEAD_BYTES);
+        return new FileFingerprint(fileKey, attributes.size(), headLength, headCrc(file, headLength));
+    }
+
+    /**
+     * parse the fingerprint stored by {@link #encode()}
+     *
+     * @return null if the value is blank or malformed
+     */
+    public static FileFingerprint decode(String value) {
+        if (StringUtils.isBlank(value)) {
+            return null;
+        }
+        // file key is the last field as it may contain any character
+        String[] fields = value.split("\\" + SEPARATOR, 4);
+        if (fields.length != 4) {
+            return null;
+        }
+        try {
+            return new FileFingerprint(fields[3].isEmpty() ? null : fields[3], Long.parseLong(fields[0]),
+                    Integer.parseInt(fields[1]), Long.parseLong(fields[2]));
+        } catch (NumberFormatException e) {
+            LOGGER.warn("invalid file fingerprint {}", value);
+            return null;
+        }
+    }
+
+    public String encode() {
+        return size + SEPARATOR + headLength + SEPARATOR + headCrc + SEPARATOR + StringUtils.defaultString(fileKey);
+    }
+
+    /**
+     * whether the file is still the one with this fingerprint, that is the file key is not changed,
+     * the file is not truncated and the head is not rewritten. Appending to the file keeps the identity.
+     */
+    public boolean matches(File file) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+            if (fileKey != null && attributes.fileKey() != null && !fileKey.equals(attributes.fileKey().toString())) {
+                return false;
+            }
+            if (attributes.size() < size) {
+                return false;
+            }
+            return headCrc(file, headLength) == headCrc;
+        } catch (IOException e) {
+            LOGGER.warn("cannot check fingerprint of file {}", file, e);
+            return false;
+        }
+    }
+
+    private static long headCrc(File file, int length) throws IOException {
+        CRC32 crc = new CRC32();
+        if (length > 0) {
+            byte[] head = new byte[length];
+            try (RandomAccessFile input = new RandomAccessFile(file, "r")) {
+                input.readFully(head);
+            }
+            crc.update(head);
+        }
+        return crc.getValue();
+    }
+
+    public String getFileKey() {
+        return fileKey;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    @Override
+    public String toString() {
+        return encode();
+    }
+}
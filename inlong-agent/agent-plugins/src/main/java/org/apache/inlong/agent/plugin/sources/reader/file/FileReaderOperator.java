@@ -21,6 +21,7 @@ import com.google.gson.Gson;
 import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.inlong.agent.conf.JobProfile;
+import org.apache.inlong.agent.core.task.TaskPositionManager;
 import org.apache.inlong.agent.except.FileException;
 import org.apache.inlong.agent.message.DefaultMessage;
 import org.apache.inlong.agent.metrics.audit.AuditUtils;
@@ -40,7 +41,6 @@ import java.io.FileReader;
 import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -90,8 +90,13 @@ public class FileReaderOperator extends AbstractReader {
     public File file;
     public int position = 0;
     public int bytePosition = 0;
+    /**
+     * Byte offset to stop reading at if monitor is disabled, compared with bytePosition. It is the file size when
+     * the task starts, so the lines appended later are not read. It used to be the line count of the file compared
+     * with position, which needed a full scan of the file before the first line was read.
+     */
     private long readEndpoint = Long.MAX_VALUE;
-    public String md5;
+    public volatile FileFingerprint fingerprint;
     public Map<String, String> metadata;
     public JobProfile jobConf;
     public boolean inited = false;
@@ -111,10 +116,10 @@ public class FileReaderOperator extends AbstractReader {
         this(file, position, "");
     }
 
-    public FileReaderOperator(File file, int position, String md5) {
+    public FileReaderOperator(File file, int position, String fingerprint) {
         this.file = file;
         this.position = position;
-        this.md5 = md5;
+        this.fingerprint = FileFingerprint.decode(fingerprint);
         this.metadata = new HashMap<>();
     }
 
@@ -209,17 +214,21 @@ public class FileReaderOperator extends AbstractReader {
             super.init(jobConf);
             this.instanceId = jobConf.getInstanceId();
             initReadTimeout(jobConf);
-            String md5 = AgentUtils.getFileMd5(file);
-            if (StringUtils.isNotBlank(this.md5) && !this.md5.equals(md5)) {
-                LOGGER.warn("md5 is differ from origin, origin: {}, new {}", this.md5, md5);
-            }
-            LOGGER.info("file name for task is {}, md5 is {}", file, md5);
-
-            MonitorTextFile.getInstance().monitor(this);
+            FileFingerprint current = FileFingerprint.of(file);
             if (!jobConf.get(JOB_FILE_MONITOR_STATUS, JOB_FILE_MONITOR_DEFAULT_STATUS)
                     .equals(JOB_FILE_MONITOR_DEFAULT_STATUS)) {
-                readEndpoint = Files.lines(file.toPath()).count();
+                readEndpoint = current.getSize();
             }
+            if (fingerprint != null && !fingerprint.matches(file)) {
+                LOGGER.warn("file {} is replaced, origin fingerprint: {}, new {}, read from beginning",
+                        file, fingerprint, current);
+                resetPosition(current);
+            } else {
+                updateFingerprint(current);
+            }
+            LOGGER.info("file name for task is {}, fingerprint is {}", file, current);
+
+            MonitorTextFile.getInstance().monitor(this);
 
             try {
                 resiterMeta(jobConf);
@@ -233,6 +242,35 @@ public class FileReaderOperator extends AbstractReader {
         }
     }
 
+    /**
+     * read the file from the beginning, the sink position of the file is reset together with the reader,
+     * otherwise the next checkpoint adds the new lines to the position of the former file
+     *
+     * @param current fingerprint of the file read from now on
+     */
+    public void resetPosition(FileFingerprint current) {
+        position = 0;
+        bytePosition = 0;
+        if (readEndpoint != Long.MAX_VALUE) {
+            readEndpoint = current.getSize();
+        }
+        updateFingerprint(current);
+        if (TaskPositionManager.isInitialized()) {
+            TaskPositionManager.getInstance().updatePosition(instanceId, file.getAbsolutePath(), 0);
+        }
+    }
+
+    /**
+     * remember the fingerprint of the file being read, it is persisted with the position
+     */
+    public void updateFingerprint(FileFingerprint fingerprint) {
+        this.fingerprint = fingerprint;
+        if (TaskPositionManager.isInitialized()) {
+            TaskPositionManager.getInstance().updateFingerprint(instanceId, file.getAbsolutePath(),
+                    fingerprint.encode());
+        }
+    }
+
     // default value is -1 and never stop task
     private void initReadTimeout(JobProfile jobConf) {
         int waitTime = jobConf.getInt(JOB_FILE_MAX_WAIT,
@@ -334,7 +372,7 @@ public class FileReaderOperator extends AbstractReader {
                 .mapToInt(line -> line.getBytes(StandardCharsets.UTF_8).length + LINE_SEPARATOR_SIZE)
                 .sum();
         position += lines.size();
-        if (position >= readEndpoint) {
+        if (bytePosition >= readEndpoint) {
             finished = true;
         }
     }
@@ -342,16 +380,24 @@ public class FileReaderOperator extends AbstractReader {
     private List<String> readFromLine(int lineNum) throws IOException {
         String line = null;
         List<String> lines = new ArrayList<>();
-        BufferedReader reader = new BufferedReader(new FileReader(file));
         int count = 0;
-        while ((line = reader.readLine()) != null) {
-            if (++count > lineNum) {
-                lines.add(line);
-            }
-            if (lines.size() >= FileReaderOperator.BATCH_READ_SIZE) {
-                break;
+        int skippedBytes = 0;
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            while ((line = reader.readLine()) != null) {
+                if (++count > lineNum) {
+                    lines.add(line);
+                } else {
+                    skippedBytes += line.getBytes(StandardCharsets.UTF_8).length + LINE_SEPARATOR_SIZE;
+                }
+                if (lines.size() >= FileReaderOperator.BATCH_READ_SIZE) {
+                    break;
+                }
             }
         }
+        // keep the byte position of skipped lines once all of them exist, the following reads seek by bytes
+        if (count >= lineNum) {
+            bytePosition += skippedBytes;
+        }
         return lines;
     }
 
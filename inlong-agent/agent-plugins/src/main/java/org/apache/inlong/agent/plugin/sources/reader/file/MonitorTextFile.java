@@ -90,6 +90,7 @@ public final class MonitorTextFile {
         private final Long interval;
         private final long startTime = System.currentTimeMillis();
         private String path;
+        private long lastSize = 0;
 
         public MonitorEventRunnable(FileReaderOperator readerOperator) {
             this.fileReaderOperator = readerOperator;
@@ -134,10 +135,11 @@ public final class MonitorTextFile {
                 attributesAfter = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
                 currentPath = file.getCanonicalPath();
 
-                // Determine whether the inode has changed
-                if (isInodeChanged(attributesAfter.fileKey().toString())) {
+                // Determine whether the inode has changed, or the file is truncated by copy-truncate rotation
+                if (isInodeChanged(attributesAfter.fileKey().toString()) || attributesAfter.size() < lastSize) {
                     resetPosition();
                 }
+                lastSize = attributesAfter.size();
                 fileReaderOperator.fileKey = attributesAfter.fileKey().toString();
             } catch (Exception e) {
                 // set position 0 when split file
@@ -162,8 +164,13 @@ public final class MonitorTextFile {
          */
         private void resetPosition() {
             LOGGER.info("reset position {}", fileReaderOperator.file.toPath());
-            fileReaderOperator.position = 0;
-            fileReaderOperator.bytePosition = 0;
+            try {
+                fileReaderOperator.resetPosition(FileFingerprint.of(fileReaderOperator.file));
+            } catch (IOException e) {
+                LOGGER.warn("update fingerprint of {} error", fileReaderOperator.file.toPath(), e);
+                fileReaderOperator.position = 0;
+                fileReaderOperator.bytePosition = 0;
+            }
         }
 
         /**
@@ -22,10 +22,11 @@ import com.google.common.collect.Sets;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.inlong.agent.conf.TriggerProfile;
 import org.apache.inlong.agent.constant.AgentConstants;
+import org.apache.inlong.agent.constant.CommonConstants;
 import org.apache.inlong.agent.constant.FileTriggerType;
 import org.apache.inlong.agent.constant.JobConstants;
 import org.apache.inlong.agent.plugin.Trigger;
-import org.apache.inlong.agent.utils.AgentUtils;
+import org.apache.inlong.agent.plugin.sources.reader.file.FileFingerprint;
 import org.apache.inlong.agent.utils.ThreadUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -292,8 +293,8 @@ public class DirectoryTrigger implements Trigger {
                                 tobeAddedWatchers, registerSubFile));
                     } else if (registerSubFile) {
                         Map<String, String> taskProfile = new HashMap<>();
-                        String md5 = AgentUtils.getFileMd5(path.toFile());
-                        taskProfile.put(path.toFile().getAbsolutePath() + ".md5", md5);
+                        taskProfile.put(path.toFile().getAbsolutePath() + CommonConstants.FINGERPRINT_SUFFIX,
+                                FileFingerprint.of(path.toFile()).encode());
                         taskProfile.put(JobConstants.JOB_TRIGGER, null); // del trigger id
                         taskProfile.put(JobConstants.JOB_DIR_FILTER_PATTERNS, path.toFile().getAbsolutePath());
                         LOGGER.info("trigger_{} generate job profile to read file {}",
@@ -27,8 +27,8 @@ import org.apache.inlong.agent.conf.JobProfile;
 import org.apache.inlong.agent.conf.TriggerProfile;
 import org.apache.inlong.agent.constant.CommonConstants;
 import org.apache.inlong.agent.constant.JobConstants;
+import org.apache.inlong.agent.plugin.sources.reader.file.FileFingerprint;
 import org.apache.inlong.agent.plugin.trigger.PathPattern;
-import org.apache.inlong.agent.utils.AgentUtils;
 import org.apache.pulsar.client.api.CompressionType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -126,8 +126,12 @@ public class PluginUtils {
      */
     public static JobProfile copyJobProfile(TriggerProfile triggerProfile, File pendingFile) {
         JobProfile copiedProfile = TriggerProfile.parseJsonStr(triggerProfile.toJsonStr());
-        String md5 = AgentUtils.getFileMd5(pendingFile);
-        copiedProfile.set(pendingFile.getAbsolutePath() + ".md5", md5);
+        try {
+            copiedProfile.set(pendingFile.getAbsolutePath() + CommonConstants.FINGERPRINT_SUFFIX,
+                    FileFingerprint.of(pendingFile).encode());
+        } catch (IOException e) {
+            LOGGER.warn("cannot get fingerprint of file {}", pendingFile, e);
+        }
         copiedProfile.set(JobConstants.JOB_TRIGGER, null); // del trigger id
         copiedProfile.set(JobConstants.JOB_DIR_FILTER_PATTERNS, pendingFile.getAbsolutePath());
         return copiedProfile;
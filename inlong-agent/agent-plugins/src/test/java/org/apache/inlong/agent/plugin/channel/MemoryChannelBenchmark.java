@@ -0,0 +1,222 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.agent.plugin.channel;
+
+import org.apache.inlong.agent.conf.JobProfile;
+import org.apache.inlong.agent.constant.AgentConstants;
+import org.apache.inlong.agent.message.DefaultMessage;
+import org.apache.inlong.agent.metrics.AgentMetricItem;
+import org.apache.inlong.agent.metrics.AgentMetricItemSet;
+import org.apache.inlong.agent.plugin.Channel;
+import org.apache.inlong.agent.plugin.Message;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.apache.inlong.agent.metrics.AgentMetricItem.KEY_INLONG_GROUP_ID;
+import static org.apache.inlong.agent.metrics.AgentMetricItem.KEY_INLONG_STREAM_ID;
+import static org.apache.inlong.agent.metrics.AgentMetricItem.KEY_PLUGIN_ID;
+
+/**
+ * Compare MemoryChannel with the previous LinkedBlockingQueue based channel, one producer and one consumer
+ * thread per group. Run with main method, it is not executed by unit tests.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Group)
+public class MemoryChannelBenchmark {
+
+    private static final int BATCH_SIZE = 100;
+    private static final long TIMEOUT_MS = 10;
+
+    @Param({"100"})
+    private int bodySize;
+
+    private Channel linkedChannel;
+    private Channel ringChannel;
+    private Message message;
+    private List<Message> pushBatch;
+
+    @State(Scope.Thread)
+    public static class PollState {
+
+        private final List<Message> messages = new ArrayList<>(BATCH_SIZE);
+    }
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        JobProfile jobProfile = new JobProfile();
+        jobProfile.setInt(AgentConstants.CHANNEL_MEMORY_CAPACITY, 10000);
+        linkedChannel = new LinkedQueueChannel();
+        linkedChannel.init(jobProfile);
+        ringChannel = new MemoryChannel();
+        ringChannel.init(jobProfile);
+        message = new DefaultMessage(new byte[bodySize]);
+        pushBatch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            pushBatch.add(message);
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        linkedChannel.destroy();
+        ringChannel.destroy();
+    }
+
+    @Benchmark
+    @Group("linked")
+    @GroupThreads(1)
+    public boolean linkedPush() {
+        return linkedChannel.push(message, TIMEOUT_MS, TimeUnit.MILLISECONDS);
+    }
+
+    @Benchmark
+    @Group("linked")
+    @GroupThreads(1)
+    public Message linkedPull() {
+        return linkedChannel.pull(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+    }
+
+    @Benchmark
+    @Group("ring")
+    @GroupThreads(1)
+    public boolean ringPush() {
+        return ringChannel.push(message, TIMEOUT_MS, TimeUnit.MILLISECONDS);
+    }
+
+    @Benchmark
+    @Group("ring")
+    @GroupThreads(1)
+    public Message ringPull() {
+        return ringChannel.pull(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * one invocation moves BATCH_SIZE messages
+     */
+    @Benchmark
+    @Group("ringBatch")
+    @GroupThreads(1)
+    public int ringPushAll() {
+        return ringChannel.pushAll(pushBatch, TIMEOUT_MS, TimeUnit.MILLISECONDS);
+    }
+
+    @Benchmark
+    @Group("ringBatch")
+    @GroupThreads(1)
+    public int ringPollBatch(PollState state) {
+        state.messages.clear();
+        return ringChannel.pollBatch(state.messages, BATCH_SIZE, TIMEOUT_MS, TimeUnit.MILLISECONDS);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(MemoryChannelBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    /**
+     * the channel before the ring buffer, kept here as the baseline
+     */
+    private static class LinkedQueueChannel implements Channel {
+
+        private LinkedBlockingQueue<Message> queue;
+        private AgentMetricItemSet metricItemSet;
+
+        @Override
+        public void push(Message message) {
+            push(message, Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public boolean push(Message message, long timeout, TimeUnit unit) {
+            try {
+                AgentMetricItem metricItem = getMetricItem();
+                metricItem.pluginReadCount.incrementAndGet();
+                boolean result = queue.offer(message, timeout, unit);
+                if (result) {
+                    metricItem.pluginReadSuccessCount.incrementAndGet();
+                } else {
+                    metricItem.pluginReadFailCount.incrementAndGet();
+                }
+                return result;
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        @Override
+        public Message pull(long timeout, TimeUnit unit) {
+            try {
+                Message message = queue.poll(timeout, unit);
+                if (message != null) {
+                    AgentMetricItem metricItem = getMetricItem();
+                    metricItem.pluginSendSuccessCount.incrementAndGet();
+                    metricItem.pluginSendCount.incrementAndGet();
+                }
+                return message;
+            } catch (InterruptedException ex) {
+                throw new IllegalStateException(ex);
+            }
+        }
+
+        private AgentMetricItem getMetricItem() {
+            Map<String, String> dimensions = new HashMap<>();
+            dimensions.put(KEY_PLUGIN_ID, MemoryChannel.class.getSimpleName());
+            dimensions.put(KEY_INLONG_GROUP_ID, "groupId");
+            dimensions.put(KEY_INLONG_STREAM_ID, "streamId");
+            return metricItemSet.findMetricItem(dimensions);
+        }
+
+        @Override
+        public void init(JobProfile jobConf) {
+            queue = new LinkedBlockingQueue<>(jobConf.getInt(AgentConstants.CHANNEL_MEMORY_CAPACITY,
+                    AgentConstants.DEFAULT_CHANNEL_MEMORY_CAPACITY));
+            metricItemSet = new AgentMetricItemSet("LinkedQueueChannel");
+        }
+
+        @Override
+        public void destroy() {
+            queue.clear();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.agent.plugin.channel;
+
+import org.apache.inlong.agent.conf.JobProfile;
+import org.apache.inlong.agent.constant.AgentConstants;
+import org.apache.inlong.agent.message.DefaultMessage;
+import org.apache.inlong.agent.metrics.AgentMetricItem;
+import org.apache.inlong.agent.plugin.Message;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+public class TestMemoryChannel {
+
+    private static MemoryChannel newChannel(int capacity, long capacityBytes) {
+        JobProfile jobProfile = new JobProfile();
+        jobProfile.setInt(AgentConstants.CHANNEL_MEMORY_CAPACITY, capacity);
+        jobProfile.setLong(AgentConstants.CHANNEL_MEMORY_CAPACITY_BYTES, capacityBytes);
+        MemoryChannel channel = new MemoryChannel();
+        channel.init(jobProfile);
+        return channel;
+    }
+
+    private static Message message(int size) {
+        return new DefaultMessage(new byte[size]);
+    }
+
+    @Test
+    public void testCountCapacity() {
+        MemoryChannel channel = newChannel(2, 1024);
+        Assert.assertTrue(channel.push(message(1), 0, TimeUnit.MILLISECONDS));
+        Assert.assertTrue(channel.push(message(1), 0, TimeUnit.MILLISECONDS));
+        Assert.assertFalse(channel.push(message(1), 10, TimeUnit.MILLISECONDS));
+        Assert.assertNotNull(channel.pull(0, TimeUnit.MILLISECONDS));
+        Assert.assertTrue(channel.push(message(1), 0, TimeUnit.MILLISECONDS));
+        Assert.assertEquals(2, channel.size());
+    }
+
+    @Test
+    public void testBytesCapacity() {
+        MemoryChannel channel = newChannel(100, 10);
+        // a large message is accepted by an empty channel
+        Assert.assertTrue(channel.push(message(20), 0, TimeUnit.MILLISECONDS));
+        Assert.assertFalse(channel.push(message(1), 0, TimeUnit.MILLISECONDS));
+        channel.pull(0, TimeUnit.MILLISECONDS);
+        Assert.assertEquals(2, channel.pushAll(Arrays.asList(message(5), message(5), message(5)),
+                0, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testCountFailedMessagesOnTimeout() throws Exception {
+        MemoryChannel channel = newChannel(2, 1024);
+        Field field = MemoryChannel.class.getDeclaredField("metricItem");
+        field.setAccessible(true);
+        AgentMetricItem metricItem = (AgentMetricItem) field.get(channel);
+        long readCount = metricItem.pluginReadCount.get();
+        long successCount = metricItem.pluginReadSuccessCount.get();
+        long failCount = metricItem.pluginReadFailCount.get();
+
+        Assert.assertEquals(2, channel.pushAll(Arrays.asList(message(1), message(1), message(1)),
+                10, TimeUnit.MILLISECONDS));
+        Assert.assertEquals(readCount + 3, metricItem.pluginReadCount.get());
+        Assert.assertEquals(successCount + 2, metricItem.pluginReadSuccessCount.get());
+        Assert.assertEquals(failCount + 1, metricItem.pluginReadFailCount.get());
+    }
+
+    @Test
+    public void testBatchInOrder() throws Exception {
+        MemoryChannel channel = newChannel(16, 1024);
+        int total = 1000;
+        CompletableFuture<?> producer = CompletableFuture.runAsync(() -> {
+            List<Message> batch = new ArrayList<>();
+            for (int i = 0; i < total; i++) {
+                batch.add(new DefaultMessage(new byte[]{(byte) i}));
+                if (batch.size() == 7 || i == total - 1) {
+                    Assert.assertEquals(batch.size(), channel.pushAll(batch, 10, TimeUnit.SECONDS));
+                    batch.clear();
+                }
+            }
+        });
+        List<Message> received = new ArrayList<>();
+        while (received.size() < total) {
+            channel.pollBatch(received, 10, 1, TimeUnit.SECONDS);
+        }
+        producer.get(10, TimeUnit.SECONDS);
+        for (int i = 0; i < total; i++) {
+            Assert.assertEquals((byte) i, received.get(i).getBody()[0]);
+        }
+        Assert.assertEquals(0, channel.pollBatch(received, 10, 0, TimeUnit.MILLISECONDS));
+        Assert.assertEquals(0, channel.size());
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.agent.plugin.sinks;
+
+import org.apache.inlong.agent.message.BatchProxyMessage;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ProxyBatchBuilderTest {
+
+    private static final byte[] BODY = "0123456789".getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    public void testSealBySize() {
+        ProxyBatchBuilder builder = new ProxyBatchBuilder("job", "groupId", "streamId", "", 30, 100, 1000, false);
+        assertNull(builder.append(BODY, 0));
+        assertNull(builder.append(BODY, 0));
+        BatchProxyMessage batch = builder.append(BODY, 0);
+        assertNotNull(batch);
+        assertEquals(3, batch.getMsgCnt());
+        assertEquals("streamId", batch.getStreamId());
+        assertTrue(builder.isEmpty());
+    }
+
+    @Test
+    public void testSealByCount() {
+        ProxyBatchBuilder builder = new ProxyBatchBuilder("job", "groupId", "streamId", "", 1000, 2, 1000, false);
+        assertNull(builder.append(BODY, 0));
+        assertEquals(2, builder.append(BODY, 0).getMsgCnt());
+    }
+
+    @Test
+    public void testSealByDeadline() {
+        ProxyBatchBuilder builder = new ProxyBatchBuilder("job", "groupId", "streamId", "", 1000, 100, 1000, false);
+        assertNull(builder.sealIfExpired(0, false));
+        assertNull(builder.append(BODY, 0));
+        assertFalse(builder.isEmpty());
+        assertEquals(1000, builder.getDeadline());
+        assertNull(builder.sealIfExpired(999, false));
+        assertEquals(1, builder.sealIfExpired(1000, false).getMsgCnt());
+        assertTrue(builder.isEmpty());
+
+        // a late append seals the expired batch first
+        assertNull(builder.append(BODY, 2000));
+        BatchProxyMessage batch = builder.append(BODY, 3000);
+        assertEquals(1, batch.getMsgCnt());
+        assertEquals(1, builder.sealIfExpired(0, true).getMsgCnt());
+    }
+
+    @Test
+    public void testCountAckKeys() {
+        ProxyBatchBuilder builder = new ProxyBatchBuilder("job", "groupId", "streamId", "", 1000, 3, 1000, false);
+        assertNull(builder.append(BODY, "chunk0", 0));
+        assertNull(builder.append(BODY, null, 0));
+        BatchProxyMessage batch = builder.append(BODY, "chunk0", 0);
+        assertEquals(1, batch.getAckCounts().size());
+        assertEquals(2, batch.getAckCounts().get("chunk0").intValue());
+        // the counts are reset with the batch
+        assertNull(builder.append(BODY, "chunk1", 0));
+        batch = builder.sealIfExpired(0, true);
+        assertEquals(1, batch.getAckCounts().get("chunk1").intValue());
+        assertNull(batch.getAckCounts().get("chunk0"));
+        assertNull(builder.append(BODY, 0));
+        assertNull(builder.sealIfExpired(0, true).getAckCounts());
+    }
+
+    @Test
+    public void testSpscQueue() {
+        SpscBatchQueue<Integer> queue = new SpscBatchQueue<>(3);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(queue.offer(i));
+        }
+        assertFalse(queue.offer(4));
+        assertEquals(4, queue.size());
+        for (int i = 0; i < 4; i++) {
+            assertEquals(Integer.valueOf(i), queue.poll());
+        }
+        assertNull(queue.poll());
+        assertTrue(queue.isEmpty());
+    }
+}
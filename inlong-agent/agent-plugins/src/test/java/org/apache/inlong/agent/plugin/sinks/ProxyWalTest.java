@@ -0,0 +1,192 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.agent.plugin.sinks;
+
+import org.apache.inlong.agent.message.BatchProxyMessage;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ProxyWalTest {
+
+    private static final long MB = 1024 * 1024L;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static BatchProxyMessage batch(String... bodies) {
+        return new BatchProxyMessage("job", "groupId", "streamId",
+                Arrays.stream(bodies).map(body -> body.getBytes(StandardCharsets.UTF_8))
+                        .collect(Collectors.toList()),
+                1000L, Collections.singletonMap("syncSend", "false"), false);
+    }
+
+    @Test
+    public void testAppendReplayAndCommit() throws Exception {
+        File dir = folder.newFolder();
+        ProxyWal wal = new ProxyWal(dir, 128, MB, ProxyWal.EvictionPolicy.DROP_OLDEST, false);
+        assertTrue(wal.append(batch("a", "b")));
+        assertTrue(wal.append(batch("c")));
+        assertTrue(wal.append(batch("d")));
+        assertFalse(wal.isEmpty());
+
+        ProxyWal.Pending first = wal.readNext();
+        ProxyWal.Pending second = wal.readNext();
+        ProxyWal.Pending third = wal.readNext();
+        assertNull(wal.readNext());
+        assertEquals(2, first.getBatch().getMsgCnt());
+        assertArrayEquals("c".getBytes(StandardCharsets.UTF_8), second.getBatch().getDataList().get(0));
+        assertEquals("streamId", third.getBatch().getStreamId());
+        assertEquals("false", third.getBatch().getExtraMap().get("syncSend"));
+
+        // out of order ack does not move the committed position over the first record
+        wal.commit(second);
+        long depth = wal.getDepthBytes();
+        assertTrue(depth > 0);
+        wal.commit(first);
+        assertTrue(wal.getDepthBytes() < depth);
+        wal.commit(third);
+        assertTrue(wal.isEmpty());
+        wal.close();
+    }
+
+    @Test
+    public void testRecoverFromCheckpoint() throws Exception {
+        File dir = folder.newFolder();
+        ProxyWal wal = new ProxyWal(dir, MB, MB, ProxyWal.EvictionPolicy.DROP_OLDEST, true);
+        wal.append(batch("a"));
+        wal.append(batch("b"));
+        wal.commit(wal.readNext());
+        wal.close();
+
+        wal = new ProxyWal(dir, MB, MB, ProxyWal.EvictionPolicy.DROP_OLDEST, true);
+        ProxyWal.Pending pending = wal.readNext();
+        assertNotNull(pending);
+        assertArrayEquals("b".getBytes(StandardCharsets.UTF_8), pending.getBatch().getDataList().get(0));
+        assertNull(wal.readNext());
+        wal.close();
+    }
+
+    @Test
+    public void testTruncateTornRecord() throws Exception {
+        File dir = folder.newFolder();
+        ProxyWal wal = new ProxyWal(dir, MB, MB, ProxyWal.EvictionPolicy.DROP_OLDEST, true);
+        wal.append(batch("a"));
+        wal.close();
+        File segment = dir.listFiles((d, name) -> name.endsWith(".wal"))[0];
+        try (RandomAccessFile file = new RandomAccessFile(segment, "rw")) {
+            file.seek(file.length());
+            file.write(new byte[]{0, 0, 0, 9, 1, 2});
+        }
+
+        wal = new ProxyWal(dir, MB, MB, ProxyWal.EvictionPolicy.DROP_OLDEST, true);
+        assertNotNull(wal.readNext());
+        assertNull(wal.readNext());
+        wal.append(batch("b"));
+        assertArrayEquals("b".getBytes(StandardCharsets.UTF_8), wal.readNext().getBatch().getDataList().get(0));
+        wal.close();
+    }
+
+    @Test
+    public void testAgeOfRecordsNotReplayed() throws Exception {
+        ProxyWal wal = new ProxyWal(folder.newFolder(), MB, MB, ProxyWal.EvictionPolicy.DROP_OLDEST, false);
+        assertEquals(0, wal.getAgeMs());
+        wal.append(batch("a"));
+        Thread.sleep(20);
+        // the record is waiting for replay
+        assertTrue(wal.getAgeMs() >= 20);
+        ProxyWal.Pending pending = wal.readNext();
+        assertTrue(wal.getAgeMs() >= 20);
+        wal.commit(pending);
+        assertEquals(0, wal.getAgeMs());
+        wal.close();
+    }
+
+    @Test
+    public void testCloseKeepsRecordsNotAcked() throws Exception {
+        File dir = folder.newFolder();
+        ProxyWal wal = new ProxyWal(dir, MB, MB, ProxyWal.EvictionPolicy.DROP_OLDEST, false);
+        wal.append(batch("a"));
+        ProxyWal.Pending pending = wal.readNext();
+        wal.close();
+        // an ack arriving after close does not move the checkpoint
+        wal.commit(pending);
+
+        wal = new ProxyWal(dir, MB, MB, ProxyWal.EvictionPolicy.DROP_OLDEST, false);
+        assertFalse(wal.isEmpty());
+        assertArrayEquals("a".getBytes(StandardCharsets.UTF_8), wal.readNext().getBatch().getDataList().get(0));
+        wal.close();
+    }
+
+    @Test
+    public void testEviction() throws Exception {
+        ProxyWal dropNewest = new ProxyWal(folder.newFolder(), 100, 150, ProxyWal.EvictionPolicy.DROP_NEWEST, false);
+        assertTrue(dropNewest.append(batch("0123456789")));
+        assertFalse(dropNewest.append(batch("0123456789", "0123456789", "0123456789")));
+        assertEquals(1, dropNewest.getDroppedBatches());
+
+        ProxyWal dropOldest = new ProxyWal(folder.newFolder(), 80, 200, ProxyWal.EvictionPolicy.DROP_OLDEST, false);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(dropOldest.append(batch("body-" + i)));
+        }
+        assertTrue(dropOldest.getDroppedBatches() > 0);
+        assertTrue(dropOldest.getDepthBytes() <= 200);
+        ProxyWal.Pending last = null;
+        ProxyWal.Pending pending;
+        while ((pending = dropOldest.readNext()) != null) {
+            last = pending;
+        }
+        assertArrayEquals("body-9".getBytes(StandardCharsets.UTF_8), last.getBatch().getDataList().get(0));
+    }
+
+    @Test
+    public void testReplayAcrossSegmentsAndDelete() throws Exception {
+        File dir = folder.newFolder();
+        ProxyWal wal = new ProxyWal(dir, 64, MB, ProxyWal.EvictionPolicy.DROP_OLDEST, false);
+        for (int i = 0; i < 6; i++) {
+            assertTrue(wal.append(batch("body-" + i)));
+        }
+        assertTrue(dir.listFiles((d, name) -> name.endsWith(".wal")).length > 1);
+        for (int i = 0; i < 6; i++) {
+            ProxyWal.Pending pending = wal.readNext();
+            assertArrayEquals(("body-" + i).getBytes(StandardCharsets.UTF_8),
+                    pending.getBatch().getDataList().get(0));
+            wal.commit(pending);
+        }
+        assertNull(wal.readNext());
+        assertEquals(1, dir.listFiles((d, name) -> name.endsWith(".wal")).length);
+
+        wal.append(batch("a"));
+        wal.delete();
+        assertFalse(dir.exists());
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.agent.plugin.sources;
+
+import org.apache.inlong.agent.core.task.TaskPositionManager;
+import org.apache.inlong.agent.plugin.sources.reader.file.FileFingerprint;
+import org.apache.inlong.agent.plugin.sources.reader.file.FileReaderOperator;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
+import org.powermock.reflect.Whitebox;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+
+public class TestFileFingerprint {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testAppendKeepsIdentity() throws Exception {
+        File file = folder.newFile("test.log");
+        Files.write(file.toPath(), "line1\n".getBytes(StandardCharsets.UTF_8));
+        FileFingerprint fingerprint = FileFingerprint.of(file);
+        Files.write(file.toPath(), "line2\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        Assert.assertTrue(fingerprint.matches(file));
+
+        FileFingerprint decoded = FileFingerprint.decode(fingerprint.encode());
+        Assert.assertEquals(fingerprint.encode(), decoded.encode());
+        Assert.assertTrue(decoded.matches(file));
+        Assert.assertNull(FileFingerprint.decode(""));
+        Assert.assertNull(FileFingerprint.decode("broken"));
+    }
+
+    @Test
+    public void testRewriteOrTruncate() throws Exception {
+        File file = folder.newFile("test.log");
+        Files.write(file.toPath(), "line1\nline2\n".getBytes(StandardCharsets.UTF_8));
+        FileFingerprint fingerprint = FileFingerprint.of(file);
+
+        // truncated in place
+        Files.write(file.toPath(), "line1\n".getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.TRUNCATE_EXISTING);
+        Assert.assertFalse(fingerprint.matches(file));
+
+        // same size but different head
+        Files.write(file.toPath(), "LINE1\nline2\n".getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.TRUNCATE_EXISTING);
+        Assert.assertFalse(fingerprint.matches(file));
+    }
+
+    @Test
+    public void testResetSinkPositionWithReader() throws Exception {
+        File file = folder.newFile("test.log");
+        Files.write(file.toPath(), "line1\n".getBytes(StandardCharsets.UTF_8));
+        TaskPositionManager positionManager = Mockito.mock(TaskPositionManager.class);
+        Whitebox.setInternalState(TaskPositionManager.class, "taskPositionManager", positionManager);
+        try {
+            FileReaderOperator operator = new FileReaderOperator(file, 7);
+            operator.instanceId = "job";
+            operator.bytePosition = 42;
+            operator.resetPosition(FileFingerprint.of(file));
+
+            Assert.assertEquals(0, operator.position);
+            Assert.assertEquals(0, operator.bytePosition);
+            Mockito.verify(positionManager).updatePosition("job", file.getAbsolutePath(), 0);
+        } finally {
+            Whitebox.setInternalState(TaskPositionManager.class, "taskPositionManager", (Object) null);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.agent.plugin.sources;
+
+import org.apache.inlong.agent.plugin.sources.reader.SqlChunkSplitter;
+import org.apache.inlong.agent.plugin.sources.reader.SqlChunkTracker;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+public class TestSqlChunkSplitter {
+
+    private static final String SQL = "select * from t";
+
+    @Test
+    public void testSplit() {
+        List<SqlChunkSplitter.Chunk> chunks = SqlChunkSplitter.split(SQL, "id", 1L, 25L, 10);
+        Assert.assertEquals(3, chunks.size());
+        Assert.assertEquals(1, chunks.get(0).getStart());
+        Assert.assertEquals(11, chunks.get(0).getEnd());
+        Assert.assertEquals(21, chunks.get(2).getStart());
+        Assert.assertEquals(25, chunks.get(2).getEnd());
+        Assert.assertEquals(2, chunks.get(2).getIndex());
+        Assert.assertEquals("SELECT * FROM (select * from t) chunk_t WHERE id >= ? AND id < ?",
+                chunks.get(0).getSql());
+        Assert.assertEquals("SELECT * FROM (select * from t) chunk_t WHERE id >= ? AND id <= ?",
+                chunks.get(2).getSql());
+    }
+
+    @Test
+    public void testSplitSingleOrEmpty() {
+        List<SqlChunkSplitter.Chunk> chunks = SqlChunkSplitter.split(SQL, "id", 5L, 5L, 10);
+        Assert.assertEquals(1, chunks.size());
+        Assert.assertEquals(5, chunks.get(0).getStart());
+        Assert.assertEquals(5, chunks.get(0).getEnd());
+        Assert.assertTrue(SqlChunkSplitter.split(SQL, "id", null, null, 10).isEmpty());
+        Assert.assertEquals("SELECT MIN(id), MAX(id) FROM (select * from t) chunk_t",
+                SqlChunkSplitter.boundarySql(SQL, "id"));
+    }
+
+    @Test
+    public void testSplitNearLongBoundary() {
+        List<SqlChunkSplitter.Chunk> chunks = SqlChunkSplitter.split(SQL, "id", Long.MAX_VALUE - 15,
+                Long.MAX_VALUE, 10);
+        Assert.assertEquals(2, chunks.size());
+        Assert.assertEquals(Long.MAX_VALUE - 5, chunks.get(0).getEnd());
+        Assert.assertEquals(Long.MAX_VALUE - 5, chunks.get(1).getStart());
+        Assert.assertEquals(Long.MAX_VALUE, chunks.get(1).getEnd());
+
+        chunks = SqlChunkSplitter.split(SQL, "id", Long.MIN_VALUE, Long.MAX_VALUE, Long.MAX_VALUE);
+        Assert.assertEquals(3, chunks.size());
+        Assert.assertEquals(Long.MAX_VALUE, chunks.get(2).getEnd());
+        Assert.assertTrue(SqlChunkSplitter.split(SQL, "id", 10L, 5L, 10).isEmpty());
+    }
+
+    @Test
+    public void testTrackAckedChunks() {
+        SqlChunkTracker tracker = new SqlChunkTracker(SqlChunkSplitter.split(SQL, "id", 1L, 30L, 10));
+        long[] acked = new long[3];
+        // chunk 1 is returned before chunk 0, with 5 and 3 messages
+        tracker.onChunkReturned(1, 5);
+        tracker.onChunkReturned(0, 3);
+        // as many messages as chunk 0 has are acked, but they belong to chunk 1
+        acked[1] = 3;
+        Assert.assertFalse(tracker.onAcked(index -> acked[index]));
+        acked[1] = 5;
+        Assert.assertFalse(tracker.onAcked(index -> acked[index]));
+        acked[0] = 3;
+        Assert.assertTrue(tracker.onAcked(index -> acked[index]));
+        Assert.assertEquals(21, tracker.getWatermarkKey());
+        Assert.assertFalse(tracker.isAllCompleted());
+
+        // an empty chunk is completed once returned
+        tracker.onChunkReturned(2, 0);
+        Assert.assertTrue(tracker.onAcked(index -> acked[index]));
+        Assert.assertTrue(tracker.isAllCompleted());
+    }
+}
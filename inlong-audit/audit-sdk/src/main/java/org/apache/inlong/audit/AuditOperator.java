@@ -22,6 +22,7 @@ import org.apache.inlong.audit.send.SenderManager;
 import org.apache.inlong.audit.util.AuditConfig;
 import org.apache.inlong.audit.util.Config;
 import org.apache.inlong.audit.util.StatInfo;
+import org.apache.inlong.audit.util.StatKey;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -44,15 +45,16 @@ import static org.apache.inlong.audit.protocol.AuditApi.BaseCommand.Type.AUDIT_R
 public class AuditOperator {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(AuditOperator.class);
-    private static final String FIELD_SEPARATORS = ":";
     private static final int BATCH_NUM = 100;
     private static final AuditOperator AUDIT_OPERATOR = new AuditOperator();
     private static final ReentrantLock GLOBAL_LOCK = new ReentrantLock();
     private static final int PERIOD = 1000 * 60;
-    private final ConcurrentHashMap<String, StatInfo> countMap = new ConcurrentHashMap<>();
-    private final HashMap<String, StatInfo> threadCountMap = new HashMap<>();
-    private final ConcurrentHashMap<String, StatInfo> deleteCountMap = new ConcurrentHashMap<>();
-    private final List<String> deleteKeyList = new ArrayList<>();
+    private static final ThreadLocal<StatKey> PROBE_KEY = ThreadLocal.withInitial(StatKey::new);
+    private final ConcurrentHashMap<StatKey, StatInfo> countMap = new ConcurrentHashMap<>();
+    // the snapshot of one flush: count, size and delay of every key, only accessed by the flusher
+    private final HashMap<StatKey, long[]> threadCountMap = new HashMap<>();
+    private final HashMap<StatKey, StatInfo> deleteCountMap = new HashMap<>();
+    private final List<StatKey> deleteKeyList = new ArrayList<>();
     private final Config config = new Config();
     private final Timer timer = new Timer();
     private int packageId = 1;
@@ -133,49 +135,49 @@ public class AuditOperator {
      */
     public void add(int auditID, String inlongGroupID, String inlongStreamID, Long logTime, long count, long size) {
         long delayTime = System.currentTimeMillis() - logTime;
-        String key = (logTime / PERIOD) + FIELD_SEPARATORS + inlongGroupID + FIELD_SEPARATORS
-                + inlongStreamID + FIELD_SEPARATORS + auditID;
-        addByKey(key, count, size, delayTime);
+        StatKey key = PROBE_KEY.get().set(logTime / PERIOD, inlongGroupID, inlongStreamID, auditID);
+        getStatInfo(key).add(count, size, delayTime * count);
     }
 
     /**
-     * Add audit info by key.
+     * Get the statistic of a key, the probe key is copied only when the statistic is created.
      */
-    private void addByKey(String key, long count, long size, long delayTime) {
-        if (countMap.get(key) == null) {
-            countMap.put(key, new StatInfo(0L, 0L, 0L));
+    private StatInfo getStatInfo(StatKey key) {
+        StatInfo statInfo = countMap.get(key);
+        if (statInfo != null) {
+            return statInfo;
         }
-        countMap.get(key).count.addAndGet(count);
-        countMap.get(key).size.addAndGet(size);
-        countMap.get(key).delay.addAndGet(delayTime * count);
+        StatInfo newStatInfo = new StatInfo();
+        statInfo = countMap.putIfAbsent(key.copy(), newStatInfo);
+        return (statInfo == null) ? newStatInfo : statInfo;
     }
 
     /**
-     * Send audit data
+     * Send audit data, the writers are never blocked.
      */
     public synchronized void send() {
         manager.clearBuffer();
         resetStat();
-        // Retrieve statistics from the list of objects without statistics to be eliminated
-        for (Map.Entry<String, StatInfo> entry : this.deleteCountMap.entrySet()) {
+        // Retrieve the statistics added to the objects eliminated by the last flush
+        for (Map.Entry<StatKey, StatInfo> entry : this.deleteCountMap.entrySet()) {
             this.sumThreadGroup(entry.getKey(), entry.getValue());
         }
         this.deleteCountMap.clear();
-        for (Map.Entry<String, StatInfo> entry : countMap.entrySet()) {
-            String key = entry.getKey();
+        for (Map.Entry<StatKey, StatInfo> entry : countMap.entrySet()) {
+            StatKey key = entry.getKey();
             StatInfo value = entry.getValue();
-            // If there is no data, enter the list to be eliminated
-            if (value.count.get() == 0) {
+            // If there is no data since the last flush, enter the list to be eliminated
+            if (!this.sumThreadGroup(key, value)) {
                 this.deleteKeyList.add(key);
-                continue;
             }
-            this.sumThreadGroup(key, value);
         }
 
-        // Clean up obsolete statistical data objects
-        for (String key : this.deleteKeyList) {
+        // Clean up obsolete statistical data objects, a writer still holding one is reported by the next flush
+        for (StatKey key : this.deleteKeyList) {
             StatInfo value = this.countMap.remove(key);
-            this.deleteCountMap.put(key, value);
+            if (value != null) {
+                this.deleteCountMap.put(key, value);
+            }
         }
         this.deleteKeyList.clear();
 
@@ -189,21 +191,17 @@ public class AuditOperator {
         requestBuild.setMsgHeader(msgHeader).setRequestId(manager.nextRequestId());
 
         // process the stat info for all threads
-        for (Map.Entry<String, StatInfo> entry : threadCountMap.entrySet()) {
-            String[] keyArray = entry.getKey().split(FIELD_SEPARATORS);
-            long logTime = Long.parseLong(keyArray[0]) * PERIOD;
-            String inlongGroupID = keyArray[1];
-            String inlongStreamID = keyArray[2];
-            String auditID = keyArray[3];
-            StatInfo value = entry.getValue();
+        for (Map.Entry<StatKey, long[]> entry : threadCountMap.entrySet()) {
+            StatKey key = entry.getKey();
+            long[] value = entry.getValue();
             AuditApi.AuditMessageBody msgBody = AuditApi.AuditMessageBody.newBuilder()
-                    .setLogTs(logTime)
-                    .setInlongGroupId(inlongGroupID)
-                    .setInlongStreamId(inlongStreamID)
-                    .setAuditId(auditID)
-                    .setCount(value.count.get())
-                    .setSize(value.size.get())
-                    .setDelay(value.delay.get())
+                    .setLogTs(key.getLogMinute() * PERIOD)
+                    .setInlongGroupId(key.getInlongGroupId())
+                    .setInlongStreamId(key.getInlongStreamId())
+                    .setAuditId(String.valueOf(key.getAuditId()))
+                    .setCount(value[0])
+                    .setSize(value[1])
+                    .setDelay(value[2])
                     .build();
             requestBuild.addMsgBody(msgBody);
 
@@ -234,22 +232,22 @@ public class AuditOperator {
 
     /**
      * Summary
+     *
+     * @return false if there is no data since the last flush
      */
-    private void sumThreadGroup(String key, StatInfo statInfo) {
-        long count = statInfo.count.getAndSet(0);
-        if (0 == count) {
-            return;
+    private boolean sumThreadGroup(StatKey key, StatInfo statInfo) {
+        if (0 == statInfo.snapshot()) {
+            return false;
         }
-        if (threadCountMap.get(key) == null) {
-            threadCountMap.put(key, new StatInfo(0, 0, 0));
+        long[] value = threadCountMap.get(key);
+        if (value == null) {
+            value = new long[3];
+            threadCountMap.put(key, value);
         }
-
-        long size = statInfo.size.getAndSet(0);
-        long delay = statInfo.delay.getAndSet(0);
-
-        threadCountMap.get(key).count.addAndGet(count);
-        threadCountMap.get(key).size.addAndGet(size);
-        threadCountMap.get(key).delay.addAndGet(delay);
+        value[0] += statInfo.getDeltaCount();
+        value[1] += statInfo.getDeltaSize();
+        value[2] += statInfo.getDeltaDelay();
+        return true;
     }
 
     /**
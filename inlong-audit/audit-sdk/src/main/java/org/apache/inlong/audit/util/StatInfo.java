@@ -17,17 +17,93 @@
 
 package org.apache.inlong.audit.util;
 
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
+/**
+ * StatInfo, the striped counters of one audit statistic.<br>
+ * Writers only add to the counters, which are never reset. The flusher reports the difference
+ * to the totals of its previous flush, so a concurrent add is reported in this flush or the next one.
+ */
 public class StatInfo {
 
-    public AtomicLong count = new AtomicLong(0);
-    public AtomicLong size = new AtomicLong(0);
-    public AtomicLong delay = new AtomicLong(0);
+    public final LongAdder count = new LongAdder();
+    public final LongAdder size = new LongAdder();
+    public final LongAdder delay = new LongAdder();
+
+    // the totals reported by the previous flush, only accessed by the flusher
+    private long reportedCount;
+    private long reportedSize;
+    private long reportedDelay;
+
+    // the differences taken by the last call of snapshot
+    private long deltaCount;
+    private long deltaSize;
+    private long deltaDelay;
 
+    public StatInfo() {
+    }
+
+    /**
+     * Constructor with the initial values, which are reported by the next snapshot
+     */
     public StatInfo(long cnt, long sz, long dy) {
-        count.set(cnt);
-        size.set(sz);
-        delay.set(dy);
+        this.add(cnt, sz, dy);
+    }
+
+    public void add(long cnt, long sz, long dy) {
+        count.add(cnt);
+        size.add(sz);
+        delay.add(dy);
+    }
+
+    /**
+     * take the differences since the previous snapshot
+     *
+     * @return the difference of count
+     */
+    public long snapshot() {
+        long totalCount = count.sum();
+        long totalSize = size.sum();
+        long totalDelay = delay.sum();
+        deltaCount = totalCount - reportedCount;
+        deltaSize = totalSize - reportedSize;
+        deltaDelay = totalDelay - reportedDelay;
+        reportedCount = totalCount;
+        reportedSize = totalSize;
+        reportedDelay = totalDelay;
+        return deltaCount;
+    }
+
+    /**
+     * @return the total count added so far, which is not reset by snapshot
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * @return the total size added so far, which is not reset by snapshot
+     */
+    public long getSize() {
+        return size.sum();
+    }
+
+    /**
+     * @return the total delay added so far, which is not reset by snapshot
+     */
+    public long getDelay() {
+        return delay.sum();
+    }
+
+    public long getDeltaCount() {
+        return deltaCount;
+    }
+
+    public long getDeltaSize() {
+        return deltaSize;
+    }
+
+    public long getDeltaDelay() {
+        return deltaDelay;
     }
 }
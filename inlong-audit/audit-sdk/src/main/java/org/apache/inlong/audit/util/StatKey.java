@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.audit.util;
+
+/**
+ * StatKey, the (minute, inlongGroupId, inlongStreamId, auditId) tuple of an audit statistic.<br>
+ * A thread reuses one mutable probe for lookups, and only a key stored in the map is an immutable copy,
+ * so adding to an existing statistic allocates nothing.
+ */
+public final class StatKey {
+
+    private long logMinute;
+    private String inlongGroupId;
+    private String inlongStreamId;
+    private int auditId;
+    private int hash;
+
+    public StatKey() {
+    }
+
+    private StatKey(StatKey other) {
+        this.logMinute = other.logMinute;
+        this.inlongGroupId = other.inlongGroupId;
+        this.inlongStreamId = other.inlongStreamId;
+        this.auditId = other.auditId;
+        this.hash = other.hash;
+    }
+
+    /**
+     * set the fields of a probe key
+     *
+     * @return this key
+     */
+    public StatKey set(long logMinute, String inlongGroupId, String inlongStreamId, int auditId) {
+        this.logMinute = logMinute;
+        this.inlongGroupId = inlongGroupId;
+        this.inlongStreamId = inlongStreamId;
+        this.auditId = auditId;
+        int h = Long.hashCode(logMinute);
+        h = 31 * h + (inlongGroupId == null ? 0 : inlongGroupId.hashCode());
+        h = 31 * h + (inlongStreamId == null ? 0 : inlongStreamId.hashCode());
+        this.hash = 31 * h + auditId;
+        return this;
+    }
+
+    /**
+     * copy of a probe key, which can be stored in a map
+     */
+    public StatKey copy() {
+        return new StatKey(this);
+    }
+
+    public long getLogMinute() {
+        return logMinute;
+    }
+
+    public String getInlongGroupId() {
+        return inlongGroupId;
+    }
+
+    public String getInlongStreamId() {
+        return inlongStreamId;
+    }
+
+    public int getAuditId() {
+        return auditId;
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof StatKey)) {
+            return false;
+        }
+        StatKey other = (StatKey) obj;
+        return hash == other.hash && logMinute == other.logMinute && auditId == other.auditId
+                && equalsString(inlongGroupId, other.inlongGroupId)
+                && equalsString(inlongStreamId, other.inlongStreamId);
+    }
+
+    private static boolean equalsString(String a, String b) {
+        return (a == null) ? b == null : a.equals(b);
+    }
+
+    @Override
+    public String toString() {
+        return logMinute + ":" + inlongGroupId + ":" + inlongStreamId + ":" + auditId;
+    }
+}
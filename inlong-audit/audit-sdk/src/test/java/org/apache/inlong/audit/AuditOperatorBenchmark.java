@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.audit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Throughput of 32 threads adding audit data of 10 streams and 2 audit ids.
+ * The stringKey benchmark is the former aggregation with a concatenated key and AtomicLong counters,
+ * the operator benchmark is {@link AuditOperator#add(int, String, String, Long, long, long)}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(32)
+@Fork(1)
+public class AuditOperatorBenchmark {
+
+    private static final int PERIOD = 1000 * 60;
+    private static final String[] STREAMS = new String[10];
+
+    static {
+        for (int i = 0; i < STREAMS.length; i++) {
+            STREAMS[i] = "stream" + i;
+        }
+    }
+
+    private final ConcurrentHashMap<String, LegacyStatInfo> countMap = new ConcurrentHashMap<>();
+    private final AuditOperator operator = AuditOperator.getInstance();
+
+    @State(Scope.Thread)
+    public static class Writer {
+
+        private int index;
+
+        int next() {
+            return index++;
+        }
+    }
+
+    @Benchmark
+    public void stringKey(Writer writer) {
+        int index = writer.next();
+        long logTime = System.currentTimeMillis();
+        long delayTime = System.currentTimeMillis() - logTime;
+        String key = (logTime / PERIOD) + ":" + "group" + ":" + STREAMS[index % STREAMS.length] + ":"
+                + (index & 1);
+        if (countMap.get(key) == null) {
+            countMap.put(key, new LegacyStatInfo());
+        }
+        countMap.get(key).count.addAndGet(1);
+        countMap.get(key).size.addAndGet(500);
+        countMap.get(key).delay.addAndGet(delayTime);
+    }
+
+    @Benchmark
+    public void operator(Writer writer) {
+        int index = writer.next();
+        operator.add(index & 1, "group", STREAMS[index % STREAMS.length], System.currentTimeMillis(), 1, 500);
+    }
+
+    /**
+     * The former statistic counters
+     */
+    private static class LegacyStatInfo {
+
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong size = new AtomicLong();
+        private final AtomicLong delay = new AtomicLong();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder()
+                .include(AuditOperatorBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.audit.util;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class StatInfoTest {
+
+    @Test
+    public void snapshot() {
+        StatInfo statInfo = new StatInfo();
+        statInfo.add(2, 20, 200);
+        statInfo.add(3, 30, 300);
+        assertEquals(5, statInfo.snapshot());
+        assertEquals(50, statInfo.getDeltaSize());
+        assertEquals(500, statInfo.getDeltaDelay());
+
+        // only the data added after the last snapshot
+        statInfo.add(1, 10, 100);
+        assertEquals(1, statInfo.snapshot());
+        assertEquals(10, statInfo.getDeltaSize());
+        assertEquals(100, statInfo.getDeltaDelay());
+        assertEquals(0, statInfo.snapshot());
+        assertEquals(0, statInfo.getDeltaSize());
+    }
+
+    @Test
+    public void initialValues() {
+        StatInfo statInfo = new StatInfo(2, 20, 200);
+        statInfo.add(1, 10, 100);
+        assertEquals(3, statInfo.getCount());
+        assertEquals(30, statInfo.getSize());
+        assertEquals(300, statInfo.getDelay());
+        assertEquals(3, statInfo.snapshot());
+        assertEquals(30, statInfo.getDeltaSize());
+        // the totals are kept after the snapshot
+        assertEquals(0, statInfo.snapshot());
+        assertEquals(3, statInfo.getCount());
+    }
+
+    @Test
+    public void statKey() {
+        Map<StatKey, StatInfo> map = new HashMap<>();
+        StatKey probe = new StatKey();
+        StatKey key = probe.set(1L, "group", "stream", 4).copy();
+        StatInfo statInfo = new StatInfo();
+        map.put(key, statInfo);
+
+        assertNotSame(probe, key);
+        assertEquals(probe, key);
+        assertSame(statInfo, map.get(probe));
+        assertSame(statInfo, map.get(new StatKey().set(1L, "group", "stream", 4)));
+        assertEquals(null, map.get(probe.set(2L, "group", "stream", 4)));
+        assertEquals(null, map.get(probe.set(1L, "group", "stream", 5)));
+        assertEquals(null, map.get(probe.set(1L, "group", null, 4)));
+        // the stored key is not changed by the probe
+        assertNotEquals(probe, key);
+        assertEquals("1:group:stream:4", key.toString());
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.audit.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@Getter
+@Setter
+public class RollupConfig {
+
+    // write the minute, hour and day rollups of audit data to the mysql or clickhouse store
+    @Value("${audit.rollup.enable:false}")
+    private boolean enable;
+
+    @Value("${audit.rollup.flushIntervalMs:10000}")
+    private int flushIntervalMs;
+
+    @Value("${audit.rollup.batchThreshold:500}")
+    private int batchThreshold;
+
+    // the id of the rollups written by this store process, the host name if empty,
+    // it is kept across restarts and must differ between the store processes of the same host
+    @Value("${audit.rollup.storeId:}")
+    private String storeId;
+
+    // a rollup not updated within this time is released from memory after it is written
+    @Value("${audit.rollup.idleMs:7200000}")
+    private long idleMs;
+
+    // the time zone of the start time of the hour and day rollups, the same as the one of the manager
+    @Value("${audit.rollup.timeZone:GMT+8}")
+    private String timeZone;
+}
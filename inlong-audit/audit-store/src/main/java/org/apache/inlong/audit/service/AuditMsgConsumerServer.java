@@ -29,6 +29,7 @@ import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.util.EntityUtils;
 import org.apache.inlong.audit.config.ClickHouseConfig;
 import org.apache.inlong.audit.config.MessageQueueConfig;
+import org.apache.inlong.audit.config.RollupConfig;
 import org.apache.inlong.audit.config.StoreConfig;
 import org.apache.inlong.audit.consts.ConfigConstants;
 import org.apache.inlong.audit.db.dao.AuditDataDao;
@@ -45,7 +46,10 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import ru.yandex.clickhouse.ClickHouseDataSource;
+import ru.yandex.clickhouse.settings.ClickHouseProperties;
 
+import javax.sql.DataSource;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
@@ -65,8 +69,14 @@ public class AuditMsgConsumerServer implements InitializingBean {
     private StoreConfig storeConfig;
     @Autowired
     private ClickHouseConfig chConfig;
+    @Autowired
+    private RollupConfig rollupConfig;
+    @Autowired
+    private DataSource dataSource;
     // ClickHouseService
     private ClickHouseService ckService;
+    // AuditRollupService of every store
+    private final List<AuditRollupService> rollupServiceList = new ArrayList<>();
 
     private static final String DEFAULT_CONFIG_PROPERTIES = "application.properties";
 
@@ -111,6 +121,9 @@ public class AuditMsgConsumerServer implements InitializingBean {
         if (storeConfig.isClickHouseStore()) {
             ckService.start();
         }
+        for (AuditRollupService rollupService : rollupServiceList) {
+            rollupService.start();
+        }
         mqConsume.start();
     }
 
@@ -132,6 +145,21 @@ public class AuditMsgConsumerServer implements InitializingBean {
             ckService = new ClickHouseService(chConfig);
             insertServiceList.add(ckService);
         }
+        if (rollupConfig.isEnable()) {
+            if (storeConfig.isMysqlStore()) {
+                rollupServiceList.add(new AuditRollupService(rollupConfig, dataSource,
+                        AuditRollupService.MYSQL_UPSERT_SQL));
+            }
+            if (storeConfig.isClickHouseStore()) {
+                ClickHouseProperties properties = new ClickHouseProperties();
+                properties.setUser(chConfig.getUsername());
+                properties.setPassword(chConfig.getPassword());
+                rollupServiceList.add(new AuditRollupService(rollupConfig,
+                        new ClickHouseDataSource(chConfig.getUrl(), properties),
+                        AuditRollupService.CLICKHOUSE_UPSERT_SQL));
+            }
+            insertServiceList.addAll(rollupServiceList);
+        }
         return insertServiceList;
     }
 
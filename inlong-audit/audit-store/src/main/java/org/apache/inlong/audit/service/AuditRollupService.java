@@ -0,0 +1,454 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.audit.service;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.inlong.audit.config.RollupConfig;
+import org.apache.inlong.audit.protocol.AuditData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.net.InetAddress;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AuditRollupService, keeps the minute, hour and day rollups of audit data per
+ * (inlongGroupId, inlongStreamId, auditId).<br>
+ * Every store process writes the running totals of its own rollups under its own store id, so writing
+ * a rollup again only replaces it with the same or larger totals, and a failed flush can simply be retried.
+ * The store id is kept across restarts, so a restarted store continues with the totals it wrote before.
+ * The rollup of a time range is the sum of the rows of all store ids.
+ * The totals written before are loaded asynchronously, so inserting late data never waits for the store.
+ */
+public class AuditRollupService implements InsertData, AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AuditRollupService.class);
+
+    public static final String MYSQL_UPSERT_SQL = "insert into audit_data_rollup (store_id, dim, log_ts,\r\n"
+            + "      inlong_group_id, inlong_stream_id, audit_id,\r\n"
+            + "      `count`, size, delay, update_time)\r\n"
+            + "    values (?,?,?,?,?,?,?,?,?,?)\r\n"
+            + "    on duplicate key update `count` = values(`count`), size = values(size),\r\n"
+            + "      delay = values(delay), update_time = values(update_time)";
+    // the clickhouse table is a ReplacingMergeTree by update_time, so an insert replaces the previous row
+    public static final String CLICKHOUSE_UPSERT_SQL = "insert into audit_data_rollup (store_id, dim, log_ts,\r\n"
+            + "      inlong_group_id, inlong_stream_id, audit_id,\r\n"
+            + "      `count`, size, delay, update_time)\r\n"
+            + "    values (?,?,?,?,?,?,?,?,?,?)";
+    // the totals of a store id only grow, so max also reads a clickhouse row which is not merged yet
+    public static final String SELECT_SQL = "select max(`count`) as `count`, max(size) as size,\r\n"
+            + "      max(delay) as delay from audit_data_rollup\r\n"
+            + "    where store_id = ? and dim = ? and log_ts = ?\r\n"
+            + "      and inlong_group_id = ? and inlong_stream_id = ? and audit_id = ?";
+
+    /**
+     * Time dimension of a rollup, the same names as the time statics dim of the manager
+     */
+    public enum RollupDim {
+
+        MINUTE(TimeUnit.MINUTES.toMillis(1)),
+        HOUR(TimeUnit.HOURS.toMillis(1)),
+        DAY(TimeUnit.DAYS.toMillis(1));
+
+        private final long unitMs;
+
+        RollupDim(long unitMs) {
+            this.unitMs = unitMs;
+        }
+
+        /**
+         * the start time of the rollup including the log time, in the time zone
+         */
+        public long truncate(long logTs, TimeZone timeZone) {
+            long offset = timeZone.getOffset(logTs);
+            return logTs - Math.floorMod(logTs + offset, unitMs);
+        }
+    }
+
+    private final RollupConfig rollupConfig;
+    private final DataSource dataSource;
+    private final String upsertSql;
+    private final String storeId;
+    private final TimeZone timeZone;
+    private final Map<RollupKey, Rollup> rollupMap = new ConcurrentHashMap<>();
+    // the latest log time of the released rollups of every dim, or the start time of the service,
+    // a later rollup is new and not loaded from the store
+    private final long[] releasedLogTs = new long[RollupDim.values().length];
+    private final ScheduledExecutorService timerService = Executors.newSingleThreadScheduledExecutor();
+    // load the totals written before out of the insert path
+    private final ScheduledExecutorService loadService = Executors.newSingleThreadScheduledExecutor();
+
+    /**
+     * Constructor
+     *
+     * @param rollupConfig rollup config
+     * @param dataSource the data source of the store
+     * @param upsertSql {@link #MYSQL_UPSERT_SQL} or {@link #CLICKHOUSE_UPSERT_SQL}
+     */
+    public AuditRollupService(RollupConfig rollupConfig, DataSource dataSource, String upsertSql) {
+        this.rollupConfig = rollupConfig;
+        this.dataSource = dataSource;
+        this.upsertSql = upsertSql;
+        this.storeId = createStoreId(rollupConfig.getStoreId());
+        // ZoneId.of fails on an invalid zone, which TimeZone.getTimeZone takes as GMT
+        this.timeZone = TimeZone.getTimeZone(ZoneId.of(rollupConfig.getTimeZone()));
+        // the rollups started before may be written before a restart
+        long startTime = System.currentTimeMillis();
+        for (int i = 0; i < releasedLogTs.length; i++) {
+            releasedLogTs[i] = startTime;
+        }
+    }
+
+    /**
+     * start
+     */
+    public void start() {
+        timerService.scheduleWithFixedDelay(this::flush,
+                rollupConfig.getFlushIntervalMs(),
+                rollupConfig.getFlushIntervalMs(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * insert
+     * @param msgBody audit data reading from Pulsar or other MessageQueue.
+     */
+    @Override
+    public void insert(AuditData msgBody) {
+        for (RollupDim dim : RollupDim.values()) {
+            RollupKey key = new RollupKey(dim, dim.truncate(msgBody.getLogTs(), timeZone), msgBody.getInlongGroupId(),
+                    msgBody.getInlongStreamId(), msgBody.getAuditId());
+            // a rollup released by the flush at the same time is created again
+            while (!this.getRollup(key).add(msgBody.getCount(), msgBody.getSize(), msgBody.getDelay())) {
+                LOG.debug("rollup {} is released, create it again", key);
+            }
+        }
+    }
+
+    /**
+     * get or create the rollup of a key
+     */
+    private Rollup getRollup(RollupKey key) {
+        Rollup rollup = rollupMap.get(key);
+        if (rollup != null) {
+            return rollup;
+        }
+        // late data of a released or restarted rollup continues with the totals written by this store
+        boolean loading = key.logTs <= this.getReleasedLogTs(key.dim);
+        Rollup newRollup = new Rollup(loading);
+        rollup = rollupMap.putIfAbsent(key, newRollup);
+        if (rollup != null) {
+            return rollup;
+        }
+        if (loading) {
+            this.submitLoad(key, newRollup, 0);
+        }
+        return newRollup;
+    }
+
+    /**
+     * flush the changed rollups to the store and release the idle ones
+     */
+    public synchronized void flush() {
+        long currentTime = System.currentTimeMillis();
+        List<RollupKey> keys = new ArrayList<>();
+        List<long[]> values = new ArrayList<>();
+        for (Map.Entry<RollupKey, Rollup> entry : rollupMap.entrySet()) {
+            Rollup rollup = entry.getValue();
+            long[] value = rollup.takeChanged();
+            if (value != null) {
+                keys.add(entry.getKey());
+                values.add(value);
+            } else if (currentTime - rollup.getUpdateTime() > rollupConfig.getIdleMs() && rollup.release()) {
+                RollupKey key = entry.getKey();
+                rollupMap.remove(key);
+                this.setReleasedLogTs(key.dim, key.logTs);
+            }
+        }
+        if (keys.isEmpty()) {
+            return;
+        }
+        try {
+            this.write(keys, values, new Timestamp(currentTime));
+        } catch (Exception e) {
+            LOG.error("Execute output of audit rollup failure!", e);
+            // write them again with the next flush
+            for (RollupKey key : keys) {
+                Rollup rollup = rollupMap.get(key);
+                if (rollup != null) {
+                    rollup.setChanged();
+                }
+            }
+        }
+    }
+
+    /**
+     * write the totals of rollups
+     */
+    private void write(List<RollupKey> keys, List<long[]> values, Timestamp updateTime) throws SQLException {
+        try (Connection conn = dataSource.getConnection();
+                PreparedStatement pstat = conn.prepareStatement(upsertSql)) {
+            int counter = 0;
+            for (int i = 0; i < keys.size(); i++) {
+                RollupKey key = keys.get(i);
+                long[] value = values.get(i);
+                pstat.setString(1, storeId);
+                pstat.setString(2, key.dim.name());
+                pstat.setTimestamp(3, new Timestamp(key.logTs));
+                pstat.setString(4, key.inlongGroupId);
+                pstat.setString(5, key.inlongStreamId);
+                pstat.setString(6, key.auditId);
+                pstat.setLong(7, value[0]);
+                pstat.setLong(8, value[1]);
+                pstat.setLong(9, value[2]);
+                pstat.setTimestamp(10, updateTime);
+                pstat.addBatch();
+                if (++counter >= rollupConfig.getBatchThreshold()) {
+                    pstat.executeBatch();
+                    counter = 0;
+                }
+            }
+            if (counter > 0) {
+                pstat.executeBatch();
+            }
+            if (!conn.getAutoCommit()) {
+                conn.commit();
+            }
+        }
+    }
+
+    /**
+     * load the totals of a rollup after the delay, the rollup is neither written nor released until loaded
+     */
+    private void submitLoad(RollupKey key, Rollup rollup, long delayMs) {
+        try {
+            loadService.schedule(() -> this.load(key, rollup), delayMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            LOG.warn("Audit rollup service is closed, rollup {} is not loaded", key);
+        }
+    }
+
+    /**
+     * load the totals written by this store, and retry with the next flush if failed
+     */
+    private void load(RollupKey key, Rollup rollup) {
+        try (Connection conn = dataSource.getConnection();
+                PreparedStatement pstat = conn.prepareStatement(SELECT_SQL)) {
+            pstat.setString(1, storeId);
+            pstat.setString(2, key.dim.name());
+            pstat.setTimestamp(3, new Timestamp(key.logTs));
+            pstat.setString(4, key.inlongGroupId);
+            pstat.setString(5, key.inlongStreamId);
+            pstat.setString(6, key.auditId);
+            try (ResultSet resultSet = pstat.executeQuery()) {
+                if (resultSet.next()) {
+                    rollup.loaded(resultSet.getLong("count"), resultSet.getLong("size"),
+                            resultSet.getLong("delay"));
+                } else {
+                    rollup.loaded(0, 0, 0);
+                }
+            }
+        } catch (Exception e) {
+            LOG.error("Load audit rollup {} failure!", key, e);
+            this.submitLoad(key, rollup, rollupConfig.getFlushIntervalMs());
+        }
+    }
+
+    private long getReleasedLogTs(RollupDim dim) {
+        synchronized (releasedLogTs) {
+            return releasedLogTs[dim.ordinal()];
+        }
+    }
+
+    private void setReleasedLogTs(RollupDim dim, long logTs) {
+        synchronized (releasedLogTs) {
+            releasedLogTs[dim.ordinal()] = Math.max(releasedLogTs[dim.ordinal()], logTs);
+        }
+    }
+
+    /**
+     * the id of this store process, the configured one or the host name
+     */
+    private static String createStoreId(String configStoreId) {
+        if (StringUtils.isNotBlank(configStoreId)) {
+            return configStoreId.trim();
+        }
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            LOG.warn("Get host name for audit rollup store id failure, use localhost", e);
+            return "localhost";
+        }
+    }
+
+    public String getStoreId() {
+        return storeId;
+    }
+
+    /**
+     * close
+     */
+    @Override
+    public void close() {
+        this.timerService.shutdown();
+        // wait for the loading rollups, which are not written before loaded
+        this.loadService.shutdown();
+        try {
+            if (!this.loadService.awaitTermination(rollupConfig.getFlushIntervalMs(), TimeUnit.MILLISECONDS)) {
+                LOG.warn("Audit rollups are still loading when closed, they are not written");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        this.flush();
+    }
+
+    /**
+     * RollupKey
+     */
+    private static class RollupKey {
+
+        private final RollupDim dim;
+        private final long logTs;
+        private final String inlongGroupId;
+        private final String inlongStreamId;
+        private final String auditId;
+
+        RollupKey(RollupDim dim, long logTs, String inlongGroupId, String inlongStreamId, String auditId) {
+            this.dim = dim;
+            this.logTs = logTs;
+            this.inlongGroupId = inlongGroupId;
+            this.inlongStreamId = inlongStreamId;
+            this.auditId = auditId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof RollupKey)) {
+                return false;
+            }
+            RollupKey other = (RollupKey) o;
+            return logTs == other.logTs && dim == other.dim
+                    && Objects.equals(inlongGroupId, other.inlongGroupId)
+                    && Objects.equals(inlongStreamId, other.inlongStreamId)
+                    && Objects.equals(auditId, other.auditId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(dim, logTs, inlongGroupId, inlongStreamId, auditId);
+        }
+
+        @Override
+        public String toString() {
+            return dim + ":" + logTs + ":" + inlongGroupId + ":" + inlongStreamId + ":" + auditId;
+        }
+    }
+
+    /**
+     * Rollup, the running totals of one rollup
+     */
+    private static class Rollup {
+
+        private long count;
+        private long size;
+        private long delay;
+        private boolean changed;
+        private boolean released;
+        // the totals written before are not loaded yet, the added data are kept until then
+        private boolean loading;
+        private long updateTime = System.currentTimeMillis();
+
+        Rollup(boolean loading) {
+            this.loading = loading;
+        }
+
+        /**
+         * add the totals written before to the data added during loading
+         */
+        synchronized void loaded(long cnt, long sz, long dy) {
+            count += cnt;
+            size += sz;
+            delay += dy;
+            loading = false;
+        }
+
+        /**
+         * @return false if the rollup is released
+         */
+        synchronized boolean add(long cnt, long sz, long dy) {
+            if (released) {
+                return false;
+            }
+            count += cnt;
+            size += sz;
+            delay += dy;
+            changed = true;
+            updateTime = System.currentTimeMillis();
+            return true;
+        }
+
+        /**
+         * @return the totals if changed since the last call, else null, and null during loading
+         */
+        synchronized long[] takeChanged() {
+            if (!changed || loading) {
+                return null;
+            }
+            changed = false;
+            return new long[]{count, size, delay};
+        }
+
+        synchronized void setChanged() {
+            changed = true;
+        }
+
+        synchronized long getUpdateTime() {
+            return updateTime;
+        }
+
+        /**
+         * @return true if released, a changed or loading rollup is not released
+         */
+        synchronized boolean release() {
+            if (changed || loading) {
+                return false;
+            }
+            released = true;
+            return true;
+        }
+    }
+}
@@ -49,3 +49,22 @@ CREATE TABLE IF NOT EXISTS `audit_data`
     INDEX ip_packet (`ip`, `inlong_group_id`, `inlong_stream_id`, `log_ts`)
 ) ENGINE = InnoDB
   DEFAULT CHARSET = utf8 COMMENT ='Inlong audit data table';
+
+-- ----------------------------
+-- Table structure for audit_data_rollup
+-- ----------------------------
+CREATE TABLE IF NOT EXISTS `audit_data_rollup`
+(
+    `store_id`         varchar(128) NOT NULL COMMENT 'Id of the audit store process which writes the rollup',
+    `dim`              varchar(10)  NOT NULL COMMENT 'Time dim of the rollup, such as: MINUTE, HOUR, DAY',
+    `log_ts`           TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT 'Start time of the rollup',
+    `inlong_group_id`  varchar(100) NOT NULL DEFAULT '' COMMENT 'The target inlong group id',
+    `inlong_stream_id` varchar(100) NOT NULL DEFAULT '' COMMENT 'The target inlong stream id',
+    `audit_id`         varchar(100) NOT NULL DEFAULT '' COMMENT 'Audit id',
+    `count`            BIGINT       NOT NULL DEFAULT '0' COMMENT 'Message count',
+    `size`             BIGINT       NOT NULL DEFAULT '0' COMMENT 'Message size',
+    `delay`            BIGINT       NOT NULL DEFAULT '0' COMMENT 'Message delay count',
+    `update_time`      timestamp    NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT 'Update time',
+    PRIMARY KEY (`inlong_group_id`, `inlong_stream_id`, `audit_id`, `dim`, `log_ts`, `store_id`)
+) ENGINE = InnoDB
+  DEFAULT CHARSET = utf8 COMMENT ='Inlong audit data rollup table';
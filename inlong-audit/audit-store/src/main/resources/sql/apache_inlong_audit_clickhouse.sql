@@ -43,3 +43,22 @@ CREATE TABLE IF NOT EXISTS `audit_data`
 ) ENGINE = MergeTree
       ORDER BY inlong_group_id
       SETTINGS index_granularity = 8192;
+
+-- ----------------------------
+-- Table structure for audit_data_rollup
+-- ----------------------------
+CREATE TABLE IF NOT EXISTS `audit_data_rollup`
+(
+    `store_id`         String COMMENT 'Id of the audit store process which writes the rollup',
+    `dim`              String COMMENT 'Time dim of the rollup, such as: MINUTE, HOUR, DAY',
+    `log_ts`           DateTime COMMENT 'Start time of the rollup',
+    `inlong_group_id`  String COMMENT 'The target inlong group id',
+    `inlong_stream_id` String COMMENT 'The target inlong stream id',
+    `audit_id`         String COMMENT 'Audit id',
+    `count`            Int64 COMMENT 'Message count',
+    `size`             Int64 COMMENT 'Message size',
+    `delay`            Int64 COMMENT 'Message delay',
+    `update_time`      DateTime COMMENT 'Update time'
+) ENGINE = ReplacingMergeTree(update_time)
+      ORDER BY (inlong_group_id, inlong_stream_id, audit_id, dim, log_ts, store_id)
+      SETTINGS index_granularity = 8192;
@@ -0,0 +1,242 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.audit.service;
+
+import org.apache.inlong.audit.config.RollupConfig;
+import org.apache.inlong.audit.protocol.AuditData;
+import org.apache.inlong.audit.service.AuditRollupService.RollupDim;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.Random;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The rollups written by {@link AuditRollupService} equal the sums of the raw audit data.
+ */
+public class AuditRollupServiceTest {
+
+    private static final String CREATE_DATA_SQL = "create table audit_data (log_ts timestamp,"
+            + " inlong_group_id varchar(100), inlong_stream_id varchar(100), audit_id varchar(100),"
+            + " `count` bigint, size bigint, delay bigint)";
+    private static final String CREATE_ROLLUP_SQL = "create table audit_data_rollup (store_id varchar(128),"
+            + " dim varchar(10), log_ts timestamp, inlong_group_id varchar(100), inlong_stream_id varchar(100),"
+            + " audit_id varchar(100), `count` bigint, size bigint, delay bigint, update_time timestamp,"
+            + " primary key (inlong_group_id, inlong_stream_id, audit_id, dim, log_ts, store_id))";
+    private static final TimeZone TIME_ZONE = TimeZone.getTimeZone("GMT+8");
+    private static final String INSERT_DATA_SQL = "insert into audit_data values (?,?,?,?,?,?,?)";
+    private static final String SUM_DATA_SQL = "select sum(`count`), sum(size), sum(delay) from audit_data"
+            + " where inlong_group_id = ? and inlong_stream_id = ? and audit_id = ? and log_ts >= ? and log_ts < ?";
+
+    private JdbcDataSource dataSource;
+    private RollupConfig rollupConfig;
+
+    @Before
+    public void setUp() throws Exception {
+        dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:rollup" + System.nanoTime() + ";MODE=MYSQL;DB_CLOSE_DELAY=-1");
+        try (Connection conn = dataSource.getConnection(); Statement stat = conn.createStatement()) {
+            stat.execute(CREATE_DATA_SQL);
+            stat.execute(CREATE_ROLLUP_SQL);
+        }
+        rollupConfig = new RollupConfig();
+        rollupConfig.setFlushIntervalMs(1000);
+        rollupConfig.setBatchThreshold(7);
+        rollupConfig.setIdleMs(TimeUnit.HOURS.toMillis(1));
+        rollupConfig.setTimeZone("GMT+8");
+    }
+
+    @Test
+    public void testRollupEqualsRawSum() throws Exception {
+        AuditRollupService rollupService = new AuditRollupService(rollupConfig, dataSource,
+                AuditRollupService.MYSQL_UPSERT_SQL);
+        Random random = new Random(1);
+        long startTime = TimeUnit.DAYS.toMillis(19000);
+        try (Connection conn = dataSource.getConnection();
+                PreparedStatement pstat = conn.prepareStatement(INSERT_DATA_SQL)) {
+            for (int i = 0; i < 2000; i++) {
+                // two days of data, flushed several times
+                AuditData data = newAuditData(startTime + (long) (random.nextDouble() * TimeUnit.DAYS.toMillis(2)),
+                        "group" + random.nextInt(2), "stream" + random.nextInt(3), String.valueOf(random.nextInt(2)),
+                        random.nextInt(100));
+                rollupService.insert(data);
+                pstat.setTimestamp(1, new Timestamp(data.getLogTs()));
+                pstat.setString(2, data.getInlongGroupId());
+                pstat.setString(3, data.getInlongStreamId());
+                pstat.setString(4, data.getAuditId());
+                pstat.setLong(5, data.getCount());
+                pstat.setLong(6, data.getSize());
+                pstat.setLong(7, data.getDelay());
+                pstat.executeUpdate();
+                if (i % 500 == 0) {
+                    rollupService.flush();
+                }
+            }
+        }
+        // the data before the start of the service wait for loading the totals written before
+        rollupService.close();
+        // writing the same totals again changes nothing
+        rollupService.flush();
+
+        for (RollupDim dim : RollupDim.values()) {
+            assertRollupEqualsRawSum(dim);
+        }
+        Assert.assertTrue(countRollup(RollupDim.DAY) < countRollup(RollupDim.HOUR));
+        Assert.assertEquals(sumRollup(RollupDim.MINUTE), sumRollup(RollupDim.DAY));
+        Assert.assertEquals(sumRollup(RollupDim.HOUR), sumRollup(RollupDim.DAY));
+    }
+
+    @Test
+    public void testLateDataOfReleasedRollup() throws Exception {
+        rollupConfig.setIdleMs(0);
+        AuditRollupService rollupService = new AuditRollupService(rollupConfig, dataSource,
+                AuditRollupService.MYSQL_UPSERT_SQL);
+        long logTime = TimeUnit.DAYS.toMillis(19000);
+        rollupService.insert(newAuditData(logTime, "group", "stream", "1", 10));
+        rollupService.flush();
+        Thread.sleep(2);
+        // nothing changed, so the rollups are released
+        rollupService.flush();
+
+        // the late data continues with the totals written before, which are loaded asynchronously
+        rollupService.insert(newAuditData(logTime + 1000, "group", "stream", "1", 5));
+        rollupService.close();
+        for (RollupDim dim : RollupDim.values()) {
+            Assert.assertEquals(1, countRollup(dim));
+            Assert.assertEquals(15, sumRollup(dim));
+        }
+
+        // the rollups of another store process are kept, and summed by a query
+        rollupConfig.setStoreId("other");
+        AuditRollupService otherService = new AuditRollupService(rollupConfig, dataSource,
+                AuditRollupService.MYSQL_UPSERT_SQL);
+        otherService.insert(newAuditData(logTime, "group", "stream", "1", 3));
+        otherService.close();
+        Assert.assertNotEquals(rollupService.getStoreId(), otherService.getStoreId());
+        Assert.assertEquals(18, sumRollup(RollupDim.MINUTE));
+    }
+
+    @Test
+    public void testRestartWithSameStoreId() throws Exception {
+        rollupConfig.setStoreId("store");
+        long logTime = TimeUnit.DAYS.toMillis(19000);
+        AuditRollupService rollupService = new AuditRollupService(rollupConfig, dataSource,
+                AuditRollupService.MYSQL_UPSERT_SQL);
+        rollupService.insert(newAuditData(logTime, "group", "stream", "1", 10));
+        rollupService.close();
+
+        // the restarted store continues with the totals written before the restart
+        rollupService = new AuditRollupService(rollupConfig, dataSource, AuditRollupService.MYSQL_UPSERT_SQL);
+        Assert.assertEquals("store", rollupService.getStoreId());
+        rollupService.insert(newAuditData(logTime + 1000, "group", "stream", "1", 5));
+        rollupService.close();
+        for (RollupDim dim : RollupDim.values()) {
+            Assert.assertEquals(1, countRollup(dim));
+            Assert.assertEquals(15, sumRollup(dim));
+        }
+    }
+
+    @Test
+    public void testTruncateInTimeZone() {
+        long logTime = TimeUnit.DAYS.toMillis(19000) + TimeUnit.HOURS.toMillis(17) + 1234;
+        // 01:00 of the next day in GMT+8
+        Assert.assertEquals(TimeUnit.DAYS.toMillis(19000) + TimeUnit.HOURS.toMillis(16),
+                RollupDim.DAY.truncate(logTime, TIME_ZONE));
+        Assert.assertEquals(TimeUnit.DAYS.toMillis(19000),
+                RollupDim.DAY.truncate(logTime, TimeZone.getTimeZone("UTC")));
+        Assert.assertEquals(TimeUnit.DAYS.toMillis(19000) + TimeUnit.HOURS.toMillis(17),
+                RollupDim.HOUR.truncate(logTime, TIME_ZONE));
+    }
+
+    private void assertRollupEqualsRawSum(RollupDim dim) throws Exception {
+        try (Connection conn = dataSource.getConnection();
+                Statement stat = conn.createStatement();
+                ResultSet rollups = stat.executeQuery("select log_ts, inlong_group_id, inlong_stream_id,"
+                        + " audit_id, sum(`count`), sum(size), sum(delay) from audit_data_rollup"
+                        + " where dim = '" + dim.name() + "'"
+                        + " group by log_ts, inlong_group_id, inlong_stream_id, audit_id");
+                PreparedStatement pstat = conn.prepareStatement(SUM_DATA_SQL)) {
+            int rows = 0;
+            while (rollups.next()) {
+                Timestamp logTs = rollups.getTimestamp(1);
+                Assert.assertEquals(dim.truncate(logTs.getTime(), TIME_ZONE), logTs.getTime());
+                pstat.setString(1, rollups.getString(2));
+                pstat.setString(2, rollups.getString(3));
+                pstat.setString(3, rollups.getString(4));
+                pstat.setTimestamp(4, logTs);
+                pstat.setTimestamp(5, new Timestamp(dim.truncate(logTs.getTime(), TIME_ZONE) + unitMs(dim)));
+                try (ResultSet raw = pstat.executeQuery()) {
+                    Assert.assertTrue(raw.next());
+                    Assert.assertEquals(raw.getLong(1), rollups.getLong(5));
+                    Assert.assertEquals(raw.getLong(2), rollups.getLong(6));
+                    Assert.assertEquals(raw.getLong(3), rollups.getLong(7));
+                }
+                rows++;
+            }
+            Assert.assertTrue(rows > 0);
+        }
+    }
+
+    private long countRollup(RollupDim dim) throws Exception {
+        return queryLong("select count(*) from audit_data_rollup where dim = '" + dim.name() + "'");
+    }
+
+    private long sumRollup(RollupDim dim) throws Exception {
+        return queryLong("select sum(`count`) from audit_data_rollup where dim = '" + dim.name() + "'");
+    }
+
+    private long queryLong(String sql) throws Exception {
+        try (Connection conn = dataSource.getConnection();
+                Statement stat = conn.createStatement();
+                ResultSet resultSet = stat.executeQuery(sql)) {
+            Assert.assertTrue(resultSet.next());
+            return resultSet.getLong(1);
+        }
+    }
+
+    private static long unitMs(RollupDim dim) {
+        switch (dim) {
+            case MINUTE:
+                return TimeUnit.MINUTES.toMillis(1);
+            case HOUR:
+                return TimeUnit.HOURS.toMillis(1);
+            default:
+                return TimeUnit.DAYS.toMillis(1);
+        }
+    }
+
+    private static AuditData newAuditData(long logTs, String groupId, String streamId, String auditId, long count) {
+        AuditData data = new AuditData();
+        data.setLogTs(logTs);
+        data.setInlongGroupId(groupId);
+        data.setInlongStreamId(streamId);
+        data.setAuditId(auditId);
+        data.setCount(count);
+        data.setSize(count * 100);
+        data.setDelay(count * 10);
+        return data;
+    }
+}
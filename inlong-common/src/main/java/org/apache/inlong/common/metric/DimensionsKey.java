@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.common.metric;
+
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * DimensionsKey, the key of a MetricItem in a MetricItemSet.<br>
+ * The hash is computed once and does not depend on the order of the dimensions, so a lookup neither sorts
+ * nor concatenates the dimensions as {@link MetricUtils#getDimensionsKey(Map)} does.
+ * A null dimension value equals an empty one.
+ */
+public final class DimensionsKey {
+
+    private final Map<String, String> dimensions;
+    private final int hash;
+    private String stringKey;
+
+    /**
+     * Constructor
+     *
+     * @param dimensions the dimensions, which must not be changed while the key is in use
+     */
+    private DimensionsKey(Map<String, String> dimensions) {
+        this.dimensions = dimensions;
+        int h = 0;
+        for (Entry<String, String> entry : dimensions.entrySet()) {
+            // the same as Map.Entry.hashCode, and the hash of an empty string is 0 as null
+            String value = entry.getValue();
+            h += entry.getKey().hashCode() ^ (value == null ? 0 : value.hashCode());
+        }
+        this.hash = h;
+    }
+
+    /**
+     * a key over the dimensions without copy
+     *
+     * @param dimensions dimensions
+     * @return key
+     */
+    public static DimensionsKey of(Map<String, String> dimensions) {
+        return new DimensionsKey(dimensions);
+    }
+
+    /**
+     * get dimensions
+     *
+     * @return the dimensions
+     */
+    public Map<String, String> getDimensions() {
+        return dimensions;
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof DimensionsKey)) {
+            return false;
+        }
+        DimensionsKey other = (DimensionsKey) obj;
+        if (hash != other.hash || dimensions.size() != other.dimensions.size()) {
+            return false;
+        }
+        for (Entry<String, String> entry : dimensions.entrySet()) {
+            String value = entry.getValue();
+            String otherValue = other.dimensions.get(entry.getKey());
+            if (otherValue == null && !other.dimensions.containsKey(entry.getKey())) {
+                return false;
+            }
+            value = (value == null) ? "" : value;
+            otherValue = (otherValue == null) ? "" : otherValue;
+            if (!value.equals(otherValue)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * toString
+     *
+     * @return the same string as {@link MetricUtils#getDimensionsKey(Map)}
+     */
+    @Override
+    public String toString() {
+        if (stringKey == null) {
+            stringKey = MetricUtils.getDimensionsKey(dimensions);
+        }
+        return stringKey;
+    }
+}
@@ -20,7 +20,7 @@ package org.apache.inlong.common.metric;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
 import java.lang.reflect.Field;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -38,8 +38,9 @@ public abstract class MetricItem implements MetricItemMBean {
 
     private String key;
     private Map<String, String> dimensions;
-    private Map<String, AtomicLong> countMetrics;
-    private Map<String, AtomicLong> gaugeMetrics;
+    private MetricItemAccessor accessor;
+    private AtomicLong[] countMetrics;
+    private AtomicLong[] gaugeMetrics;
 
     /**
      * Get declare fields.
@@ -77,26 +78,15 @@ public abstract class MetricItem implements MetricItemMBean {
         }
         dimensions = new HashMap<>();
 
-        // get all fields
-        List<Field> fields = getDeclaredFieldsIncludingInherited(this.getClass());
-
-        // filter dimension fields
-        for (Field field : fields) {
-            field.setAccessible(true);
-            for (Annotation fieldAnnotation : field.getAnnotations()) {
-                if (fieldAnnotation instanceof Dimension) {
-                    Dimension dimension = (Dimension) fieldAnnotation;
-                    String name = dimension.name();
-                    name = (name != null && name.length() > 0) ? name : field.getName();
-                    try {
-                        Object fieldValue = field.get(this);
-                        String value = (fieldValue == null) ? "" : fieldValue.toString();
-                        dimensions.put(name, value);
-                    } catch (Throwable t) {
-                        LOGGER.error(t.getMessage(), t);
-                    }
-                    break;
-                }
+        // get the dimension fields by the accessor of the class
+        MetricItemAccessor accessor = this.getAccessor();
+        for (int i = 0; i < accessor.dimensionNames.length; i++) {
+            try {
+                Object fieldValue = accessor.dimensionGetters[i].invoke(this);
+                String value = (fieldValue == null) ? "" : fieldValue.toString();
+                dimensions.put(accessor.dimensionNames[i], value);
+            } catch (Throwable t) {
+                LOGGER.error(t.getMessage(), t);
             }
         }
         return dimensions;
@@ -121,13 +111,22 @@ public abstract class MetricItem implements MetricItemMBean {
             this.initMetricField();
         }
         //
-        Map<String, MetricValue> metrics = new HashMap<>();
-        this.countMetrics.forEach((key, value) -> {
-            metrics.put(key, MetricValue.of(key, value.getAndSet(0)));
-        });
-        this.gaugeMetrics.forEach((key, value) -> {
-            metrics.put(key, MetricValue.of(key, value.get()));
-        });
+        MetricItemAccessor accessor = this.getAccessor();
+        Map<String, MetricValue> metrics = new HashMap<>((countMetrics.length + gaugeMetrics.length) * 4 / 3 + 1);
+        for (int i = 0; i < countMetrics.length; i++) {
+            if (countMetrics[i] == null) {
+                continue;
+            }
+            String key = accessor.countNames[i];
+            metrics.put(key, MetricValue.of(key, countMetrics[i].getAndSet(0)));
+        }
+        for (int i = 0; i < gaugeMetrics.length; i++) {
+            if (gaugeMetrics[i] == null) {
+                continue;
+            }
+            String key = accessor.gaugeNames[i];
+            metrics.put(key, MetricValue.of(key, gaugeMetrics[i].get()));
+        }
         return metrics;
     }
 
@@ -135,44 +134,41 @@ public abstract class MetricItem implements MetricItemMBean {
      * initMetricField
      */
     protected void initMetricField() {
-        this.countMetrics = new HashMap<>();
-        this.gaugeMetrics = new HashMap<>();
-
-        // get all fields
-        List<Field> fields = getDeclaredFieldsIncludingInherited(this.getClass());
+        MetricItemAccessor accessor = this.getAccessor();
+        this.countMetrics = getMetricFields(accessor.countGetters);
+        this.gaugeMetrics = getMetricFields(accessor.gaugeGetters);
+    }
 
-        // filter metric fields
-        for (Field field : fields) {
-            field.setAccessible(true);
-            for (Annotation fieldAnnotation : field.getAnnotations()) {
-                if (fieldAnnotation instanceof CountMetric) {
-                    CountMetric countMetric = (CountMetric) fieldAnnotation;
-                    String name = countMetric.name();
-                    name = (name != null && name.length() > 0) ? name : field.getName();
-                    try {
-                        Object fieldValue = field.get(this);
-                        if (fieldValue instanceof AtomicLong) {
-                            this.countMetrics.put(name, (AtomicLong) fieldValue);
-                        }
-                    } catch (Throwable t) {
-                        LOGGER.error(t.getMessage(), t);
-                    }
-                    break;
-                } else if (fieldAnnotation instanceof GaugeMetric) {
-                    GaugeMetric gaugeMetric = (GaugeMetric) fieldAnnotation;
-                    String name = gaugeMetric.name();
-                    name = (name != null && name.length() > 0) ? name : field.getName();
-                    try {
-                        Object fieldValue = field.get(this);
-                        if (fieldValue instanceof AtomicLong) {
-                            this.gaugeMetrics.put(name, (AtomicLong) fieldValue);
-                        }
-                    } catch (Throwable t) {
-                        LOGGER.error(t.getMessage(), t);
-                    }
-                    break;
+    /**
+     * getMetricFields
+     *
+     * @param getters getters of the metric fields
+     * @return the metric fields, null for a field not of AtomicLong
+     */
+    private AtomicLong[] getMetricFields(MethodHandle[] getters) {
+        AtomicLong[] metrics = new AtomicLong[getters.length];
+        for (int i = 0; i < getters.length; i++) {
+            try {
+                Object fieldValue = getters[i].invoke(this);
+                if (fieldValue instanceof AtomicLong) {
+                    metrics[i] = (AtomicLong) fieldValue;
                 }
+            } catch (Throwable t) {
+                LOGGER.error(t.getMessage(), t);
             }
         }
+        return metrics;
+    }
+
+    /**
+     * getAccessor
+     *
+     * @return the accessor of the annotated fields of this class
+     */
+    private MetricItemAccessor getAccessor() {
+        if (accessor == null) {
+            accessor = MetricItemAccessor.of(this.getClass());
+        }
+        return accessor;
     }
 }
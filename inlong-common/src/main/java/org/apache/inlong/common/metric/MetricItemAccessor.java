@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.common.metric;
+
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * MetricItemAccessor, the getters of the annotated fields of a MetricItem class.<br>
+ * The fields are scanned once per class, so creating and snapshotting an item does not use reflection.
+ */
+final class MetricItemAccessor {
+
+    private static final ClassValue<MetricItemAccessor> ACCESSORS = new ClassValue<MetricItemAccessor>() {
+
+        @Override
+        protected MetricItemAccessor computeValue(Class<?> type) {
+            return new MetricItemAccessor(type);
+        }
+    };
+
+    final String[] dimensionNames;
+    final MethodHandle[] dimensionGetters;
+    final String[] countNames;
+    final MethodHandle[] countGetters;
+    final String[] gaugeNames;
+    final MethodHandle[] gaugeGetters;
+
+    /**
+     * Constructor
+     *
+     * @param type MetricItem class
+     */
+    private MetricItemAccessor(Class<?> type) {
+        List<String> dimensionNameList = new ArrayList<>();
+        List<MethodHandle> dimensionGetterList = new ArrayList<>();
+        List<String> countNameList = new ArrayList<>();
+        List<MethodHandle> countGetterList = new ArrayList<>();
+        List<String> gaugeNameList = new ArrayList<>();
+        List<MethodHandle> gaugeGetterList = new ArrayList<>();
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        for (Field field : MetricItem.getDeclaredFieldsIncludingInherited(type)) {
+            for (Annotation fieldAnnotation : field.getAnnotations()) {
+                String name;
+                List<String> nameList;
+                List<MethodHandle> getterList;
+                if (fieldAnnotation instanceof Dimension) {
+                    name = ((Dimension) fieldAnnotation).name();
+                    nameList = dimensionNameList;
+                    getterList = dimensionGetterList;
+                } else if (fieldAnnotation instanceof CountMetric) {
+                    name = ((CountMetric) fieldAnnotation).name();
+                    nameList = countNameList;
+                    getterList = countGetterList;
+                } else if (fieldAnnotation instanceof GaugeMetric) {
+                    name = ((GaugeMetric) fieldAnnotation).name();
+                    nameList = gaugeNameList;
+                    getterList = gaugeGetterList;
+                } else {
+                    continue;
+                }
+                try {
+                    field.setAccessible(true);
+                    getterList.add(lookup.unreflectGetter(field));
+                    nameList.add((name != null && name.length() > 0) ? name : field.getName());
+                } catch (Throwable t) {
+                    MetricItem.LOGGER.error(t.getMessage(), t);
+                }
+                break;
+            }
+        }
+        this.dimensionNames = dimensionNameList.toArray(new String[0]);
+        this.dimensionGetters = dimensionGetterList.toArray(new MethodHandle[0]);
+        this.countNames = countNameList.toArray(new String[0]);
+        this.countGetters = countGetterList.toArray(new MethodHandle[0]);
+        this.gaugeNames = gaugeNameList.toArray(new String[0]);
+        this.gaugeGetters = gaugeGetterList.toArray(new MethodHandle[0]);
+    }
+
+    /**
+     * get the accessor of a MetricItem class
+     *
+     * @param type MetricItem class
+     * @return accessor
+     */
+    static MetricItemAccessor of(Class<?> type) {
+        return ACCESSORS.get(type);
+    }
+}
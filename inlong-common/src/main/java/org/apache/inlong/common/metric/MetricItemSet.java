@@ -31,6 +31,9 @@ public abstract class MetricItemSet<T extends MetricItem> implements MetricItemS
 
     protected Map<String, T> itemMap = new ConcurrentHashMap<>();
 
+    // index of the items in itemMap, which is looked up without sorting or concatenating the dimensions
+    private Map<DimensionsKey, T> dimensionsItemMap = new ConcurrentHashMap<>();
+
     /**
      * Constructor
      */
@@ -54,15 +57,18 @@ public abstract class MetricItemSet<T extends MetricItem> implements MetricItemS
      * findMetricItem
      */
     public T findMetricItem(Map<String, String> dimensions) {
-        String key = MetricUtils.getDimensionsKey(dimensions);
-        T currentItem = this.itemMap.get(key);
+        T currentItem = this.dimensionsItemMap.get(DimensionsKey.of(dimensions));
         if (currentItem != null) {
             return currentItem;
         }
+        String key = MetricUtils.getDimensionsKey(dimensions);
         currentItem = createItem();
         currentItem.setDimensions(dimensions);
         T oldItem = this.itemMap.putIfAbsent(key, currentItem);
-        return (oldItem == null) ? currentItem : oldItem;
+        T item = (oldItem == null) ? currentItem : oldItem;
+        // the key of the index keeps the dimensions of the item, which are a copy of the caller's
+        this.dimensionsItemMap.putIfAbsent(DimensionsKey.of(item.getDimensions()), item);
+        return item;
     }
 
     /**
@@ -72,6 +78,7 @@ public abstract class MetricItemSet<T extends MetricItem> implements MetricItemS
     public List<MetricItem> snapshot() {
         Map<String, T> oldItemMap = itemMap;
         this.itemMap = new ConcurrentHashMap<>();
+        this.dimensionsItemMap = new ConcurrentHashMap<>();
         MetricUtils.sleepOneInterval();
         List<MetricItem> result = new ArrayList<>(oldItemMap.size());
         result.addAll(oldItemMap.values());
@@ -0,0 +1,508 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.common.msg;
+
+import org.xerial.snappy.Snappy;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Flyweight view of an InLongMsg over one ByteBuffer.
+ * Unlike {@link InLongMsg#parseFrom(ByteBuffer)}, it copies neither the bodies nor the attributes of the records:
+ * the records are iterated in place, a body is handed out as a slice of the buffer,
+ * and the attributes of a record are parsed only when asked, into a map reused by the next record.
+ * A compressed block is uncompressed once into a new array, which the body slices of the block share.
+ *
+ * <pre>
+ * InLongMsgView view = new InLongMsgView();
+ * if (view.wrap(buffer)) {
+ *     while (view.next()) {
+ *         String streamId = view.getAttribute(AttributeConstants.STREAM_ID);
+ *         ByteBuffer body = view.getBody();
+ *     }
+ * }
+ * </pre>
+ *
+ * The view is not thread safe, and it can be reused for another message by wrapping the message again.
+ */
+public class InLongMsgView {
+
+    private static final int VERSION_NONE = -1;
+    private static final int VERSION_1 = 1;
+    private static final int VERSION_2 = 2;
+    private static final int VERSION_3 = 3;
+    private static final int VERSION_4 = 4;
+    private static final byte MAGIC_HEAD = (byte) 0xf;
+    private static final int MAGIC_SIZE = 2;
+
+    private static final int BIN_MSG_MSGTYPE_OFFSET = 4;
+    private static final int BIN_MSG_GROUPID_OFFSET = 5;
+    private static final int BIN_MSG_STREAMID_OFFSET = 7;
+    private static final int BIN_MSG_EXTFIELD_OFFSET = 9;
+    private static final int BIN_MSG_DATATIME_OFFSET = 11;
+    private static final int BIN_MSG_COUNT_OFFSET = 15;
+    private static final int BIN_MSG_BODYLEN_OFFSET = 21;
+    private static final int BIN_MSG_BODY_OFFSET = BIN_MSG_BODYLEN_OFFSET + 4;
+    private static final int BIN_MSG_ATTRLEN_SIZE = 2;
+    private static final int BIN_MSG_SNAPPY_TYPE = 1;
+
+    private static final char ATTR_SEPARATOR = AttributeConstants.SEPARATOR.charAt(0);
+    private static final char ATTR_KEY_VALUE_SEPARATOR = AttributeConstants.KEY_VALUE_SEPARATOR.charAt(0);
+
+    private ByteBuffer source;
+    private int version = VERSION_NONE;
+    private long createtime;
+    private int msgCnt;
+    private boolean numGroupId;
+    private boolean corrupt;
+
+    // attribute groups of version 0 to 3, the cursor is the position of the next group in the source
+    private int attrCnt;
+    private int groupIndex;
+    private int cursor;
+
+    // binary message of version 4
+    private long binDataTime;
+    private int binGroupIdNum;
+    private int binStreamIdNum;
+
+    // records of the current group, in the source or in the uncompressed block
+    private ByteBuffer block;
+    private int blockPos;
+    private int blockEnd;
+    private boolean withRecordAttr;
+    // remaining length of the current record set of version 3
+    private int mixRemain;
+
+    // common attributes of the current group in the source
+    private int commonAttrOffset;
+    private int commonAttrLength;
+    private final Map<String, String> commonAttributes = new HashMap<>();
+    private boolean commonParsed;
+
+    // current record
+    private int bodyOffset;
+    private int bodyLength;
+    private int recordAttrOffset;
+    private int recordAttrLength;
+    private final Map<String, String> attributes = new HashMap<>();
+    private boolean attributesParsed;
+
+    /**
+     * wrap a message, the position and the limit of the buffer are not changed
+     *
+     * @param buffer the whole message with the magic at both ends
+     * @return false if it is not an InLongMsg
+     */
+    public boolean wrap(ByteBuffer buffer) {
+        this.source = buffer.duplicate().order(ByteOrder.BIG_ENDIAN);
+        this.version = getVersion(source);
+        this.block = null;
+        this.corrupt = false;
+        this.groupIndex = 0;
+        this.commonParsed = false;
+        this.attributesParsed = false;
+        if (version == VERSION_NONE) {
+            return false;
+        }
+        int pos = source.position() + MAGIC_SIZE;
+        try {
+            if (version == VERSION_4) {
+                wrapBinMsg(pos);
+                return true;
+            }
+            this.createtime = -1;
+            this.msgCnt = 0;
+            if (version >= VERSION_1) {
+                createtime = source.getLong(pos);
+                pos += 8;
+            }
+            if (version >= VERSION_2) {
+                msgCnt = source.getInt(pos);
+                pos += 4;
+            }
+            this.attrCnt = source.getInt(pos);
+            this.cursor = pos + 4;
+            return true;
+        } catch (IndexOutOfBoundsException | IOException e) {
+            this.corrupt = true;
+            return false;
+        }
+    }
+
+    /**
+     * wrap a message
+     *
+     * @param data the whole message
+     * @return false if it is not an InLongMsg
+     */
+    public boolean wrap(byte[] data) {
+        return wrap(ByteBuffer.wrap(data));
+    }
+
+    private void wrapBinMsg(int base) throws IOException {
+        int msgtype = source.get(base + BIN_MSG_MSGTYPE_OFFSET);
+        int extField = source.getShort(base + BIN_MSG_EXTFIELD_OFFSET);
+        int bodyLen = source.getInt(base + BIN_MSG_BODYLEN_OFFSET);
+        int attrLenOffset = base + BIN_MSG_BODY_OFFSET + bodyLen;
+        this.binGroupIdNum = source.getShort(base + BIN_MSG_GROUPID_OFFSET);
+        this.binStreamIdNum = source.getShort(base + BIN_MSG_STREAMID_OFFSET);
+        this.binDataTime = source.getInt(base + BIN_MSG_DATATIME_OFFSET) * 1000L;
+        this.createtime = binDataTime;
+        this.msgCnt = source.getShort(base + BIN_MSG_COUNT_OFFSET);
+        this.numGroupId = (extField & 0x4) == 0;
+        this.withRecordAttr = (extField & 0x1) == 0x1;
+        this.commonAttrLength = source.getShort(attrLenOffset);
+        this.commonAttrOffset = attrLenOffset + BIN_MSG_ATTRLEN_SIZE;
+        // the whole binary message is one group
+        this.attrCnt = 0;
+        int zipType = (msgtype & 0xE0) >> 5;
+        openBlock(base + BIN_MSG_BODY_OFFSET, bodyLen, zipType == BIN_MSG_SNAPPY_TYPE);
+    }
+
+    /**
+     * move to the next record
+     *
+     * @return false if there is no more record, or the rest of the message is corrupt
+     */
+    public boolean next() {
+        if (version == VERSION_NONE || corrupt) {
+            return false;
+        }
+        this.attributesParsed = false;
+        try {
+            while (true) {
+                if (block != null && nextRecord()) {
+                    return true;
+                }
+                if (corrupt || version == VERSION_4 || groupIndex >= attrCnt) {
+                    this.block = null;
+                    return false;
+                }
+                nextGroup();
+            }
+        } catch (IndexOutOfBoundsException | IOException e) {
+            this.corrupt = true;
+            this.block = null;
+            return false;
+        }
+    }
+
+    /**
+     * open the attribute group at the cursor
+     */
+    private void nextGroup() throws IOException {
+        groupIndex++;
+        this.commonAttrLength = source.getShort(cursor) & 0xFFFF;
+        this.commonAttrOffset = cursor + 2;
+        this.commonParsed = false;
+        cursor = commonAttrOffset + commonAttrLength;
+        if (version == VERSION_2) {
+            // message count of the group
+            cursor += 4;
+        }
+        int len = source.getInt(cursor);
+        int compress = source.get(cursor + 4);
+        // the length includes the compress flag
+        openBlock(cursor + 5, len - 1, compress == 1);
+        cursor += 4 + len;
+        this.withRecordAttr = version == VERSION_3;
+        this.mixRemain = 0;
+    }
+
+    private void openBlock(int offset, int length, boolean compressed) throws IOException {
+        if (length < 0 || offset + length > source.limit()) {
+            throw new IOException("block is out of the message");
+        }
+        if (!compressed) {
+            this.block = source;
+            this.blockPos = offset;
+            this.blockEnd = offset + length;
+            return;
+        }
+        byte[] compressedData;
+        int compressedOffset;
+        if (source.hasArray()) {
+            compressedData = source.array();
+            compressedOffset = source.arrayOffset() + offset;
+        } else {
+            compressedData = new byte[length];
+            ByteBuffer duplicate = slice(source, offset, length);
+            duplicate.get(compressedData);
+            compressedOffset = 0;
+        }
+        byte[] data = new byte[Snappy.uncompressedLength(compressedData, compressedOffset, length)];
+        int dataLen = Snappy.uncompress(compressedData, compressedOffset, length, data, 0);
+        this.block = ByteBuffer.wrap(data);
+        this.blockPos = 0;
+        this.blockEnd = dataLen;
+    }
+
+    /**
+     * read the next record of the current block
+     */
+    private boolean nextRecord() {
+        if (!withRecordAttr) {
+            if (blockPos >= blockEnd) {
+                return false;
+            }
+            int len = block.getInt(blockPos);
+            if (len < 0 || len > blockEnd - blockPos - 4) {
+                corrupt = true;
+                return false;
+            }
+            setRecord(blockPos + 4, len, -1, 0);
+            blockPos += 4 + len;
+            return true;
+        }
+        int remain;
+        if (version == VERSION_3) {
+            // version 3 groups the records in sets, each with the total length at the head
+            if (mixRemain <= 0) {
+                if (blockPos >= blockEnd) {
+                    return false;
+                }
+                mixRemain = block.getInt(blockPos);
+                blockPos += 4;
+                if (mixRemain > blockEnd - blockPos) {
+                    corrupt = true;
+                    return false;
+                }
+            }
+            remain = mixRemain;
+        } else {
+            if (blockPos >= blockEnd) {
+                return false;
+            }
+            remain = blockEnd - blockPos;
+        }
+        int msgLen = block.getInt(blockPos);
+        if (msgLen <= 0 || msgLen > remain) {
+            corrupt = true;
+            return false;
+        }
+        int attrLenPos = blockPos + 4 + msgLen;
+        int attrLen = block.getInt(attrLenPos);
+        if (attrLen <= 0 || attrLen > remain) {
+            corrupt = true;
+            return false;
+        }
+        setRecord(blockPos + 4, msgLen, attrLenPos + 4, attrLen);
+        blockPos = attrLenPos + 4 + attrLen;
+        mixRemain -= msgLen + attrLen + 8;
+        return true;
+    }
+
+    private void setRecord(int bodyOffset, int bodyLength, int recordAttrOffset, int recordAttrLength) {
+        this.bodyOffset = bodyOffset;
+        this.bodyLength = bodyLength;
+        this.recordAttrOffset = recordAttrOffset;
+        this.recordAttrLength = recordAttrLength;
+    }
+
+    /**
+     * get the body of the current record without copy
+     *
+     * @return a slice of the message or of the uncompressed block, from 0 to the body length
+     */
+    public ByteBuffer getBody() {
+        return slice(block, bodyOffset, bodyLength).slice();
+    }
+
+    /**
+     * get the body of the current record as a new array
+     *
+     * @return the copied body
+     */
+    public byte[] getBodyBytes() {
+        byte[] body = new byte[bodyLength];
+        slice(block, bodyOffset, bodyLength).get(body);
+        return body;
+    }
+
+    public int getBodyLength() {
+        return bodyLength;
+    }
+
+    /**
+     * get the attributes of the current record, parsed at the first call of the record
+     *
+     * @return the attributes, which are reused by the next record, so they must not be kept or modified
+     */
+    public Map<String, String> getAttributes() {
+        if (attributesParsed) {
+            return recordAttrOffset < 0 ? commonAttributes : attributes;
+        }
+        parseCommonAttributes();
+        attributesParsed = true;
+        if (recordAttrOffset < 0) {
+            return commonAttributes;
+        }
+        attributes.clear();
+        if (version == VERSION_3) {
+            // the record attributes follow the common attributes
+            attributes.putAll(commonAttributes);
+            parseAttributes(block, recordAttrOffset, recordAttrLength, attributes);
+        } else {
+            // the common attributes overwrite the record attributes
+            parseAttributes(block, recordAttrOffset, recordAttrLength, attributes);
+            attributes.putAll(commonAttributes);
+        }
+        return attributes;
+    }
+
+    /**
+     * get an attribute of the current record
+     *
+     * @param key attribute key
+     * @return the attribute value, null if not exists
+     */
+    public String getAttribute(String key) {
+        return getAttributes().get(key);
+    }
+
+    /**
+     * get the attribute string of the current record, the same as the attr of {@link InLongMsg#getAttrs()}
+     *
+     * @return attribute string
+     */
+    public String getAttr() {
+        if (version == VERSION_4) {
+            StringBuilder builder = new StringBuilder();
+            for (Map.Entry<String, String> entry : getAttributes().entrySet()) {
+                if (builder.length() > 0) {
+                    builder.append(ATTR_SEPARATOR);
+                }
+                builder.append(entry.getKey()).append(ATTR_KEY_VALUE_SEPARATOR).append(entry.getValue());
+            }
+            return builder.toString();
+        }
+        String commonAttr = decode(source, commonAttrOffset, commonAttrLength);
+        if (recordAttrOffset < 0) {
+            return commonAttr;
+        }
+        return commonAttr + ATTR_SEPARATOR + decode(block, recordAttrOffset, recordAttrLength);
+    }
+
+    private void parseCommonAttributes() {
+        if (commonParsed) {
+            return;
+        }
+        commonAttributes.clear();
+        parseAttributes(source, commonAttrOffset, commonAttrLength, commonAttributes);
+        if (version == VERSION_4) {
+            commonAttributes.put(AttributeConstants.DATA_TIME, String.valueOf(binDataTime));
+            if (numGroupId) {
+                commonAttributes.put(AttributeConstants.GROUP_ID, String.valueOf(binGroupIdNum));
+                commonAttributes.put(AttributeConstants.STREAM_ID, String.valueOf(binStreamIdNum));
+            }
+            commonAttributes.put(AttributeConstants.MESSAGE_COUNT, "1");
+        }
+        commonParsed = true;
+    }
+
+    /**
+     * parse "k1=v1&amp;k2=v2" in the buffer, the later value of a key overwrites the former one
+     */
+    private static void parseAttributes(ByteBuffer buffer, int offset, int length, Map<String, String> result) {
+        int end = offset + length;
+        int start = offset;
+        int separator = -1;
+        for (int i = offset; i <= end; i++) {
+            byte b = i < end ? buffer.get(i) : (byte) ATTR_SEPARATOR;
+            if (b == ATTR_KEY_VALUE_SEPARATOR && separator < 0) {
+                separator = i;
+            } else if (b == ATTR_SEPARATOR) {
+                if (separator > start) {
+                    String key = decode(buffer, start, separator - start).trim();
+                    String value = decode(buffer, separator + 1, i - separator - 1).trim();
+                    result.put(key, value);
+                }
+                start = i + 1;
+                separator = -1;
+            }
+        }
+    }
+
+    private static String decode(ByteBuffer buffer, int offset, int length) {
+        if (buffer.hasArray()) {
+            return new String(buffer.array(), buffer.arrayOffset() + offset, length, StandardCharsets.UTF_8);
+        }
+        byte[] bytes = new byte[length];
+        slice(buffer, offset, length).get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * duplicate the buffer with the position at the offset and the limit at the end of the length
+     */
+    private static ByteBuffer slice(ByteBuffer buffer, int offset, int length) {
+        ByteBuffer duplicate = buffer.duplicate();
+        // cast to Buffer for the compatibility of java 8
+        ((Buffer) duplicate).limit(offset + length);
+        ((Buffer) duplicate).position(offset);
+        return duplicate;
+    }
+
+    /**
+     * get the version by the magic at both ends of the message
+     */
+    private static int getVersion(ByteBuffer buffer) {
+        int pos = buffer.position();
+        int rem = buffer.remaining();
+        if (rem < 4) {
+            return VERSION_NONE;
+        }
+        byte head = buffer.get(pos);
+        byte version = buffer.get(pos + 1);
+        if (head != MAGIC_HEAD || buffer.get(pos + rem - 2) != head || buffer.get(pos + rem - 1) != version
+                || version < 0 || version > VERSION_4) {
+            return VERSION_NONE;
+        }
+        return version;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public long getCreatetime() {
+        return createtime;
+    }
+
+    public int getMsgCnt() {
+        return msgCnt;
+    }
+
+    public boolean isNumGroupId() {
+        return numGroupId;
+    }
+
+    /**
+     * @return true if the iteration is stopped by a corrupt record
+     */
+    public boolean isCorrupt() {
+        return corrupt;
+    }
+}
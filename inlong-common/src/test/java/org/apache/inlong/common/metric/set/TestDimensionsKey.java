@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.common.metric.set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.inlong.common.metric.DimensionsKey;
+import org.apache.inlong.common.metric.MetricUtils;
+import org.apache.inlong.common.metric.MetricValue;
+import org.junit.Test;
+
+/**
+ * 
+ * TestDimensionsKey
+ */
+public class TestDimensionsKey {
+
+    /**
+     * testKey
+     */
+    @Test
+    public void testKey() {
+        Map<String, String> dim1 = new LinkedHashMap<>();
+        dim1.put("inlongGroupId", "group");
+        dim1.put("inlongStreamId", null);
+        dim1.put("sinkId", "sink");
+        Map<String, String> dim2 = new LinkedHashMap<>();
+        dim2.put("sinkId", "sink");
+        dim2.put("inlongStreamId", "");
+        dim2.put("inlongGroupId", "group");
+        // the order of the dimensions and null or empty value do not matter
+        assertEquals(DimensionsKey.of(dim1), DimensionsKey.of(dim2));
+        assertEquals(DimensionsKey.of(dim1).hashCode(), DimensionsKey.of(dim2).hashCode());
+        assertEquals(MetricUtils.getDimensionsKey(dim1), DimensionsKey.of(dim2).toString());
+
+        dim2.put("inlongStreamId", "stream");
+        assertNotEquals(DimensionsKey.of(dim1), DimensionsKey.of(dim2));
+        dim2.remove("inlongStreamId");
+        assertNotEquals(DimensionsKey.of(dim1), DimensionsKey.of(dim2));
+        dim2.put("sinkDataId", "");
+        assertNotEquals(DimensionsKey.of(dim1), DimensionsKey.of(dim2));
+    }
+
+    /**
+     * testFindMetricItem
+     */
+    @Test
+    public void testFindMetricItem() {
+        DataProxyMetricItemSet itemSet = DataProxyMetricItemSet.getInstance();
+        Map<String, String> dimensions = new HashMap<>();
+        dimensions.put("inlongGroupId", "testFindMetricItem");
+        dimensions.put("inlongStreamId", null);
+        DataProxyMetricItem item = itemSet.findMetricItem(dimensions);
+        item.sendCount.incrementAndGet();
+
+        // the item keeps a copy of the dimensions
+        dimensions.put("inlongStreamId", "");
+        assertSame(item, itemSet.findMetricItem(dimensions));
+        dimensions.put("inlongStreamId", "stream");
+        assertNotSame(item, itemSet.findMetricItem(dimensions));
+        dimensions.put("inlongStreamId", "");
+        assertSame(item, itemSet.findMetricItem(dimensions));
+
+        Map<String, MetricValue> metrics = item.snapshot();
+        assertEquals(1, metrics.get("sendCount").value);
+        assertEquals(0, metrics.get("sendFailCount").value);
+        assertEquals(0, item.snapshot().get("sendCount").value);
+        assertEquals(new DataProxyMetricItem().snapshot().keySet(), metrics.keySet());
+    }
+}
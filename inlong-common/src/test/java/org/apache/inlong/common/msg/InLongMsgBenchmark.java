@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.common.msg;
+
+import com.google.common.base.Splitter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of reading one InLongMsg of 100 records, each with a 500 bytes body, in 5 streams,
+ * when the consumer reads the body and the streamId attribute of every record.
+ * The parser benchmark is {@link InLongMsg#parseFrom(ByteBuffer)}, the view benchmarks are {@link InLongMsgView}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InLongMsgBenchmark {
+
+    private static final Splitter.MapSplitter MAP_SPLITTER = Splitter.on(AttributeConstants.SEPARATOR)
+            .trimResults().withKeyValueSeparator(AttributeConstants.KEY_VALUE_SEPARATOR);
+
+    @Param({"1", "3"})
+    private int version;
+
+    @Param({"false", "true"})
+    private boolean compress;
+
+    private final InLongMsgView view = new InLongMsgView();
+    private ByteBuffer data;
+
+    @Setup
+    public void setUp() {
+        byte[] body = new byte[500];
+        Arrays.fill(body, (byte) 'a');
+        InLongMsg msg = InLongMsg.newInLongMsg(1024 * 1024, compress, version);
+        for (int i = 0; i < 100; i++) {
+            if (version == 3) {
+                byte[] attr = ("streamId=stream" + (i % 5) + "&rt=" + i).getBytes(StandardCharsets.UTF_8);
+                ByteBuffer record = ByteBuffer.allocate(8 + body.length + attr.length);
+                record.putInt(body.length).put(body).putInt(attr.length).put(attr);
+                record.flip();
+                msg.addMsg("groupId=group&cnt=1", record);
+            } else {
+                msg.addMsg("groupId=group&streamId=stream" + (i % 5), body);
+            }
+        }
+        data = msg.build();
+    }
+
+    @Benchmark
+    public void parser(Blackhole blackhole) {
+        InLongMsg msg = InLongMsg.parseFrom(data);
+        for (String attr : msg.getAttrs()) {
+            Map<String, String> attributes = MAP_SPLITTER.split(attr);
+            Iterator<ByteBuffer> it = msg.getIteratorBuffer(attr);
+            while (it.hasNext()) {
+                blackhole.consume(it.next().remaining());
+                blackhole.consume(attributes.get(AttributeConstants.STREAM_ID));
+            }
+        }
+    }
+
+    @Benchmark
+    public void view(Blackhole blackhole) {
+        view.wrap(data);
+        while (view.next()) {
+            blackhole.consume(view.getBody().remaining());
+            blackhole.consume(view.getAttribute(AttributeConstants.STREAM_ID));
+        }
+    }
+
+    @Benchmark
+    public void viewBodyOnly(Blackhole blackhole) {
+        view.wrap(data);
+        while (view.next()) {
+            blackhole.consume(view.getBodyLength());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder()
+                .include(InLongMsgBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.common.msg;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+public class InLongMsgViewTest {
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static Map<String, String> split(String attr) {
+        Map<String, String> result = new HashMap<>();
+        for (String entry : attr.split("&")) {
+            String[] kv = entry.split("=", 2);
+            result.put(kv[0], kv[1]);
+        }
+        return result;
+    }
+
+    /**
+     * bodies grouped by the attributes, parsed by InLongMsg
+     */
+    private static Map<Map<String, String>, List<String>> parseByInLongMsg(byte[] data) {
+        InLongMsg msg = InLongMsg.parseFrom(data);
+        Map<Map<String, String>, List<String>> result = new HashMap<>();
+        for (String attr : msg.getAttrs()) {
+            List<String> bodies = result.computeIfAbsent(split(attr), k -> new ArrayList<>());
+            Iterator<byte[]> it = msg.getIterator(attr);
+            while (it.hasNext()) {
+                bodies.add(new String(it.next(), StandardCharsets.UTF_8));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * bodies grouped by the attributes, parsed by InLongMsgView
+     */
+    private static Map<Map<String, String>, List<String>> parseByView(InLongMsgView view, ByteBuffer data) {
+        Assert.assertTrue(view.wrap(data));
+        Map<Map<String, String>, List<String>> result = new HashMap<>();
+        while (view.next()) {
+            Assert.assertEquals(view.getAttributes(), split(view.getAttr()));
+            List<String> bodies = result.computeIfAbsent(new HashMap<>(view.getAttributes()),
+                    k -> new ArrayList<>());
+            ByteBuffer body = view.getBody();
+            Assert.assertEquals(view.getBodyLength(), body.remaining());
+            Assert.assertArrayEquals(view.getBodyBytes(), InLongMsgViewTest.toBytes(body));
+            bodies.add(new String(InLongMsgViewTest.toBytes(body), StandardCharsets.UTF_8));
+        }
+        Assert.assertFalse(view.isCorrupt());
+        return result;
+    }
+
+    private static byte[] toBytes(ByteBuffer buffer) {
+        byte[] result = new byte[buffer.remaining()];
+        buffer.duplicate().get(result);
+        return result;
+    }
+
+    private static void assertSameAsInLongMsg(InLongMsgView view, byte[] data, int recordCount) {
+        // the message is in the middle of a larger buffer
+        ByteBuffer buffer = ByteBuffer.allocate(data.length + 10);
+        buffer.position(5);
+        buffer.put(data);
+        buffer.position(5);
+        buffer.limit(5 + data.length);
+        Map<Map<String, String>, List<String>> expected = parseByInLongMsg(data);
+        Map<Map<String, String>, List<String>> actual = parseByView(view, buffer.slice());
+        Assert.assertEquals(expected, actual);
+        Assert.assertEquals(recordCount, actual.values().stream().mapToInt(List::size).sum());
+        Assert.assertEquals(5, buffer.position());
+    }
+
+    @Test
+    public void testDefaultVersions() {
+        InLongMsgView view = new InLongMsgView();
+        for (int version = 1; version <= 2; version++) {
+            for (boolean compress : new boolean[]{false, true}) {
+                InLongMsg msg = InLongMsg.newInLongMsg(compress, version);
+                for (int i = 0; i < 10; i++) {
+                    msg.addMsg("groupId=group&streamId=stream" + (i % 3), bytes("body" + i));
+                }
+                byte[] data = msg.buildArray(1000L);
+                assertSameAsInLongMsg(view, data, 10);
+                Assert.assertEquals(version, view.getVersion());
+                Assert.assertEquals(1000L, view.getCreatetime());
+            }
+        }
+    }
+
+    @Test
+    public void testMixAttr() {
+        InLongMsgView view = new InLongMsgView();
+        for (boolean compress : new boolean[]{false, true}) {
+            InLongMsg msg = InLongMsg.newInLongMsg(compress, 3);
+            for (int i = 0; i < 4; i++) {
+                // two records in one set
+                ByteBuffer data = ByteBuffer.allocate(64);
+                for (int j = 0; j < 2; j++) {
+                    byte[] body = bytes("body" + i + j);
+                    byte[] attr = bytes("rt=" + (i * 2 + j) + "&streamId=s" + j);
+                    data.putInt(body.length).put(body).putInt(attr.length).put(attr);
+                }
+                data.flip();
+                Assert.assertTrue(msg.addMsg("groupId=group&cnt=2", data));
+            }
+            assertSameAsInLongMsg(view, msg.buildArray(), 8);
+            // the record attributes overwrite the common ones
+            view.wrap(msg.buildArray());
+            Assert.assertTrue(view.next());
+            Assert.assertEquals("group", view.getAttribute("groupId"));
+            Assert.assertEquals("s0", view.getAttribute("streamId"));
+            Assert.assertEquals("groupId=group&cnt=2&rt=0&streamId=s0", view.getAttr());
+        }
+    }
+
+    /**
+     * build a binary message of version 4
+     */
+    private static byte[] buildBinMsg(boolean withRecordAttr) {
+        ByteBuffer body = ByteBuffer.allocate(256);
+        for (int i = 0; i < 3; i++) {
+            byte[] record = bytes("body" + i);
+            body.putInt(record.length).put(record);
+            if (withRecordAttr) {
+                byte[] attr = bytes("rt=" + i);
+                body.putInt(attr.length).put(attr);
+            }
+        }
+        body.flip();
+        byte[] attr = bytes("groupId=group&streamId=stream&dt=1");
+        int extField = withRecordAttr ? 0x5 : 0x4;
+        ByteBuffer binMsg = ByteBuffer.allocate(29 + body.remaining() + attr.length);
+        binMsg.putInt(binMsg.capacity() - 4);
+        binMsg.put((byte) 7);
+        binMsg.putShort((short) 0).putShort((short) 0).putShort((short) extField);
+        binMsg.putInt(1600000000).putShort((short) 3).putInt(1);
+        binMsg.putInt(body.remaining()).put(body);
+        binMsg.putShort((short) attr.length).put(attr);
+        binMsg.putShort((short) 0xee01);
+        binMsg.flip();
+        InLongMsg msg = InLongMsg.newInLongMsg(4);
+        Assert.assertTrue(msg.addMsg(binMsg));
+        return msg.buildArray();
+    }
+
+    @Test
+    public void testBinMsg() {
+        InLongMsgView view = new InLongMsgView();
+        assertSameAsInLongMsg(view, buildBinMsg(false), 3);
+        Assert.assertEquals(1600000000000L, view.getCreatetime());
+        Assert.assertEquals(3, view.getMsgCnt());
+        Assert.assertFalse(view.isNumGroupId());
+        assertSameAsInLongMsg(view, buildBinMsg(true), 3);
+        view.wrap(buildBinMsg(true));
+        Assert.assertTrue(view.next());
+        // the common attributes overwrite the record ones
+        Assert.assertEquals("1600000000000", view.getAttribute(AttributeConstants.DATA_TIME));
+        Assert.assertEquals("0", view.getAttribute("rt"));
+    }
+
+    @Test
+    public void testInvalid() {
+        InLongMsgView view = new InLongMsgView();
+        Assert.assertFalse(view.wrap(bytes("not a message")));
+        Assert.assertFalse(view.next());
+
+        InLongMsg msg = InLongMsg.newInLongMsg(false, 1);
+        msg.addMsg("groupId=group", bytes("body0"));
+        msg.addMsg("groupId=group", bytes("body1"));
+        byte[] data = msg.buildArray();
+        // the length of the second record is out of the group
+        data[data.length - 2 - 5 - 4] = 0x7f;
+        Assert.assertTrue(view.wrap(data));
+        Assert.assertTrue(view.next());
+        Assert.assertEquals("body0", new String(view.getBodyBytes(), StandardCharsets.UTF_8));
+        Assert.assertFalse(view.next());
+        Assert.assertTrue(view.isCorrupt());
+    }
+}
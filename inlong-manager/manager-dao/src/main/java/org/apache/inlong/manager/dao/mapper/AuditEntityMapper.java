@@ -43,4 +43,24 @@ public interface AuditEntityMapper {
             @Param(value = "sDate") String sDate,
             @Param(value = "eDate") String eDate,
             @Param(value = "format") String format);
+
+    /**
+     * sumRollupByLogTs, sum the rollups written by the audit stores
+     *
+     * @param groupId The groupId of inlong
+     * @param streamId The streamId of inlong
+     * @param auditId The auditId of inlong
+     * @param dim The time dim of rollups, such as MINUTE, HOUR, DAY
+     * @param sDate The start date
+     * @param eDate The end date
+     * @param format The format such as '%Y-%m-%d %H:%i:00'
+     * @return The result of query
+     */
+    List<Map<String, Object>> sumRollupByLogTs(@Param(value = "groupId") String groupId,
+            @Param(value = "streamId") String streamId,
+            @Param(value = "auditId") String auditId,
+            @Param(value = "dim") String dim,
+            @Param(value = "sDate") String sDate,
+            @Param(value = "eDate") String eDate,
+            @Param(value = "format") String format);
 }
\ No newline at end of file
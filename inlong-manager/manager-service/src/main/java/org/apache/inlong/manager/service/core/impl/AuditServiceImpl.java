@@ -17,6 +17,8 @@
 
 package org.apache.inlong.manager.service.core.impl;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.ibatis.jdbc.SQL;
@@ -69,6 +71,7 @@ import java.sql.ResultSet;
 import java.sql.Statement;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.LinkedList;
@@ -76,6 +79,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
@@ -107,6 +111,15 @@ public class AuditServiceImpl implements AuditService {
 
     @Value("${audit.query.source}")
     private String auditQuerySource = AuditQuerySource.MYSQL.name();
+    // query the rollups written by the audit store instead of the audit data, only for MYSQL and CLICKHOUSE
+    @Value("${audit.query.rollup.enable:false}")
+    private boolean queryRollup = false;
+    // the query results are cached for this time, 0 means no cache
+    @Value("${audit.query.cache.expireSeconds:60}")
+    private long cacheExpireSeconds = 60;
+
+    // key: condition of audit query, value: unmodifiable result of the query
+    private Cache<String, List<AuditVO>> auditQueryCache;
 
     @Autowired
     private AuditBaseEntityMapper auditBaseMapper;
@@ -121,6 +134,10 @@ public class AuditServiceImpl implements AuditService {
 
     @PostConstruct
     public void initialize() {
+        auditQueryCache = Caffeine.newBuilder()
+                .expireAfterWrite(Math.max(cacheExpireSeconds, 0), TimeUnit.SECONDS)
+                .maximumSize(cacheExpireSeconds > 0 ? 1000 : 0)
+                .build();
         LOGGER.info("init audit base item cache map for {}", AuditServiceImpl.class.getSimpleName());
         try {
             refreshBaseItemCache();
@@ -191,6 +208,28 @@ public class AuditServiceImpl implements AuditService {
         // properly overwrite audit ids by role and stream config
         request.setAuditIds(getAuditIds(groupId, streamId, sinkNodeType));
 
+        String cacheKey = getQueryCacheKey(request);
+        List<AuditVO> result = auditQueryCache.getIfPresent(cacheKey);
+        if (result != null) {
+            LOGGER.info("success to query audit list from cache for request={}", request);
+            return result;
+        }
+        // the cached result is shared by the callers, so it must not be modified
+        result = Collections.unmodifiableList(
+                aggregateByTimeDim(queryAuditList(request, sinkNodeType), request.getTimeStaticsDim()));
+        auditQueryCache.put(cacheKey, result);
+        LOGGER.info("success to query audit list for request={}", request);
+        return result;
+    }
+
+    /**
+     * Query the audit list of every audit id in the request
+     */
+    private List<AuditVO> queryAuditList(AuditRequest request, String sinkNodeType) throws Exception {
+        String groupId = request.getInlongGroupId();
+        String streamId = request.getInlongStreamId();
+        // the coarsest rollup which is fine enough for the time statics dim
+        String rollupDim = queryRollup ? getRollupDim(request.getTimeStaticsDim()) : null;
         List<AuditVO> result = new ArrayList<>();
         AuditQuerySource querySource = AuditQuerySource.valueOf(auditQuerySource);
         for (String auditId : request.getAuditIds()) {
@@ -200,8 +239,10 @@ public class AuditServiceImpl implements AuditService {
                 DateTimeFormatter forPattern = DateTimeFormat.forPattern("yyyy-MM-dd");
                 DateTime dtDate = forPattern.parseDateTime(request.getDt());
                 String eDate = dtDate.plusDays(1).toString(forPattern);
-                List<Map<String, Object>> sumList = auditEntityMapper.sumByLogTs(
-                        groupId, streamId, auditId, request.getDt(), eDate, format);
+                List<Map<String, Object>> sumList = rollupDim == null
+                        ? auditEntityMapper.sumByLogTs(groupId, streamId, auditId, request.getDt(), eDate, format)
+                        : auditEntityMapper.sumRollupByLogTs(groupId, streamId, auditId, rollupDim,
+                                request.getDt(), eDate, format);
                 List<AuditInfo> auditSet = sumList.stream().map(s -> {
                     AuditInfo vo = new AuditInfo();
                     vo.setLogTs((String) s.get("logTs"));
@@ -234,8 +275,9 @@ public class AuditServiceImpl implements AuditService {
             } else if (AuditQuerySource.CLICKHOUSE == querySource) {
                 try (Connection connection = ClickHouseConfig.getCkConnection();
                         Statement statement = connection.createStatement();
-                        ResultSet resultSet = statement.executeQuery(
-                                toAuditCkSql(groupId, streamId, auditId, request.getDt()))) {
+                        ResultSet resultSet = statement.executeQuery(rollupDim == null
+                                ? toAuditCkSql(groupId, streamId, auditId, request.getDt())
+                                : toAuditCkRollupSql(groupId, streamId, auditId, rollupDim, request.getDt()))) {
                     List<AuditInfo> auditSet = new ArrayList<>();
                     while (resultSet.next()) {
                         AuditInfo vo = new AuditInfo();
@@ -248,8 +290,33 @@ public class AuditServiceImpl implements AuditService {
                 }
             }
         }
-        LOGGER.info("success to query audit list for request={}", request);
-        return aggregateByTimeDim(result, request.getTimeStaticsDim());
+        return result;
+    }
+
+    /**
+     * Get the key of the query cache, the audit ids are overwritten before
+     */
+    private String getQueryCacheKey(AuditRequest request) {
+        List<String> auditIds = new ArrayList<>(request.getAuditIds());
+        auditIds.sort(null);
+        return String.join(":", auditQuerySource, request.getInlongGroupId(), request.getInlongStreamId(),
+                request.getDt(), String.valueOf(request.getTimeStaticsDim()), String.join(",", auditIds));
+    }
+
+    /**
+     * Get the time dim of rollups for the time statics dim, the rollups are MINUTE, HOUR and DAY
+     */
+    private String getRollupDim(TimeStaticsDim timeStaticsDim) {
+        if (timeStaticsDim == null) {
+            return TimeStaticsDim.MINUTE.name();
+        }
+        switch (timeStaticsDim) {
+            case MINUTE:
+            case HOUR:
+                return timeStaticsDim.name();
+            default:
+                return TimeStaticsDim.DAY.name();
+        }
     }
 
     private List<String> getAuditIds(String groupId, String streamId, String sinkNodeType) {
@@ -326,6 +393,38 @@ public class AuditServiceImpl implements AuditService {
                 .toString();
     }
 
+    /**
+     * Convert to clickhouse search sql of rollups
+     *
+     * @param groupId The groupId of inlong
+     * @param streamId The streamId of inlong
+     * @param auditId The auditId of request
+     * @param dim The time dim of rollups
+     * @param dt The datetime of request
+     * @return clickhouse sql
+     */
+    private String toAuditCkRollupSql(String groupId, String streamId, String auditId, String dim, String dt) {
+        DateTimeFormatter formatter = DateTimeFormat.forPattern(DAY_FORMAT);
+        DateTime date = formatter.parseDateTime(dt);
+        String startDate = date.toString(SECOND_FORMAT);
+        String endDate = date.plusDays(1).toString(SECOND_FORMAT);
+        // the rows of a store which are not merged yet have growing totals, so take the max of each store
+        String storeSql = new SQL()
+                .SELECT("store_id", "log_ts", "max(count) as count")
+                .FROM("audit_data_rollup")
+                .WHERE("inlong_group_id = '" + groupId + "'", "inlong_stream_id = '" + streamId + "'",
+                        "audit_id = '" + auditId + "'", "dim = '" + dim + "'")
+                .WHERE("log_ts >= '" + startDate + "'", "log_ts < '" + endDate + "'")
+                .GROUP_BY("store_id", "log_ts")
+                .toString();
+        return new SQL()
+                .SELECT("log_ts", "sum(count) as total")
+                .FROM("(" + storeSql + ")")
+                .GROUP_BY("log_ts")
+                .ORDER_BY("log_ts")
+                .toString();
+    }
+
     /**
      * Aggregate by time dim
      */
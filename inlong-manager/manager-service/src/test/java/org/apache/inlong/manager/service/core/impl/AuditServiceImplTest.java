@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.manager.service.core.impl;
+
+import org.apache.inlong.manager.common.consts.SourceType;
+import org.apache.inlong.manager.common.enums.ClusterType;
+import org.apache.inlong.manager.common.enums.TimeStaticsDim;
+import org.apache.inlong.manager.dao.entity.AuditBaseEntity;
+import org.apache.inlong.manager.dao.entity.StreamSourceEntity;
+import org.apache.inlong.manager.dao.mapper.AuditBaseEntityMapper;
+import org.apache.inlong.manager.dao.mapper.AuditEntityMapper;
+import org.apache.inlong.manager.dao.mapper.StreamSinkEntityMapper;
+import org.apache.inlong.manager.dao.mapper.StreamSourceEntityMapper;
+import org.apache.inlong.manager.pojo.audit.AuditRequest;
+import org.apache.inlong.manager.pojo.audit.AuditVO;
+import org.apache.inlong.manager.pojo.user.UserInfo;
+import org.apache.inlong.manager.pojo.user.UserRoleCode;
+import org.apache.inlong.manager.service.user.LoginUserUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+
+/**
+ * Unit test of the rollup query and the query cache of {@link AuditServiceImpl}
+ */
+class AuditServiceImplTest {
+
+    private static final String GROUP_ID = "g1";
+    private static final String STREAM_ID = "s1";
+    private static final String DT = "2022-01-01";
+
+    private final AuditEntityMapper auditEntityMapper = Mockito.mock(AuditEntityMapper.class);
+    private AuditServiceImpl auditService;
+
+    @BeforeEach
+    void setUp() {
+        AuditBaseEntity dataProxySent = new AuditBaseEntity();
+        dataProxySent.setType(ClusterType.DATAPROXY);
+        dataProxySent.setIsSent(1);
+        dataProxySent.setAuditId("6");
+        AuditBaseEntityMapper auditBaseMapper = Mockito.mock(AuditBaseEntityMapper.class);
+        Mockito.when(auditBaseMapper.selectAll()).thenReturn(Collections.singletonList(dataProxySent));
+
+        StreamSourceEntity source = new StreamSourceEntity();
+        source.setSourceType(SourceType.FILE);
+        StreamSourceEntityMapper sourceEntityMapper = Mockito.mock(StreamSourceEntityMapper.class);
+        Mockito.when(sourceEntityMapper.selectByRelatedId(GROUP_ID, STREAM_ID, null))
+                .thenReturn(Collections.singletonList(source));
+
+        Map<String, Object> hourRollup = new HashMap<>();
+        hourRollup.put("logTs", "2022-01-01 01:00:00");
+        hourRollup.put("total", BigDecimal.valueOf(10));
+        Mockito.when(auditEntityMapper.sumRollupByLogTs(eq(GROUP_ID), eq(STREAM_ID), anyString(), anyString(),
+                eq(DT), eq("2022-01-02"), anyString())).thenReturn(Collections.singletonList(hourRollup));
+
+        auditService = new AuditServiceImpl();
+        ReflectionTestUtils.setField(auditService, "auditBaseMapper", auditBaseMapper);
+        ReflectionTestUtils.setField(auditService, "auditEntityMapper", auditEntityMapper);
+        ReflectionTestUtils.setField(auditService, "sinkEntityMapper", Mockito.mock(StreamSinkEntityMapper.class));
+        ReflectionTestUtils.setField(auditService, "sourceEntityMapper", sourceEntityMapper);
+        ReflectionTestUtils.setField(auditService, "auditIdListForAdmin", Arrays.asList("3", "4"));
+        ReflectionTestUtils.setField(auditService, "queryRollup", true);
+        auditService.initialize();
+
+        UserInfo userInfo = new UserInfo();
+        userInfo.setRoles(Collections.singleton(UserRoleCode.ADMIN));
+        LoginUserUtils.setUserLoginInfo(userInfo);
+    }
+
+    @AfterEach
+    void tearDown() {
+        LoginUserUtils.removeUserLoginInfo();
+    }
+
+    private static AuditRequest newRequest(TimeStaticsDim timeStaticsDim) {
+        AuditRequest request = new AuditRequest();
+        request.setInlongGroupId(GROUP_ID);
+        request.setInlongStreamId(STREAM_ID);
+        request.setDt(DT);
+        request.setTimeStaticsDim(timeStaticsDim);
+        return request;
+    }
+
+    @Test
+    void testQueryRollupOfTimeStaticsDim() throws Exception {
+        List<AuditVO> result = auditService.listByCondition(newRequest(TimeStaticsDim.HOUR));
+
+        // the audit ids of the admin and the data proxy output, as the stream has no sink
+        Assertions.assertEquals(3, result.size());
+        for (AuditVO auditVO : result) {
+            Assertions.assertTrue(Arrays.asList("3", "4", "6").contains(auditVO.getAuditId()));
+            Assertions.assertEquals(1, auditVO.getAuditSet().size());
+            Assertions.assertEquals("2022-01-01 01", auditVO.getAuditSet().get(0).getLogTs());
+            Assertions.assertEquals(10L, auditVO.getAuditSet().get(0).getCount());
+        }
+        Mockito.verify(auditEntityMapper, Mockito.times(3)).sumRollupByLogTs(eq(GROUP_ID), eq(STREAM_ID),
+                anyString(), eq(TimeStaticsDim.HOUR.name()), eq(DT), eq("2022-01-02"), anyString());
+        Mockito.verify(auditEntityMapper, Mockito.never()).sumByLogTs(anyString(), anyString(), anyString(),
+                anyString(), anyString(), anyString());
+
+        // the day statics are summed from the day rollups
+        auditService.listByCondition(newRequest(TimeStaticsDim.DAY));
+        Mockito.verify(auditEntityMapper, Mockito.times(3)).sumRollupByLogTs(eq(GROUP_ID), eq(STREAM_ID),
+                anyString(), eq(TimeStaticsDim.DAY.name()), eq(DT), eq("2022-01-02"), anyString());
+    }
+
+    @Test
+    void testQueryCache() throws Exception {
+        List<AuditVO> result = auditService.listByCondition(newRequest(TimeStaticsDim.MINUTE));
+        Assertions.assertSame(result, auditService.listByCondition(newRequest(TimeStaticsDim.MINUTE)));
+        Mockito.verify(auditEntityMapper, Mockito.times(3)).sumRollupByLogTs(anyString(), anyString(),
+                anyString(), anyString(), anyString(), anyString(), anyString());
+
+        // the cached result is shared, so a caller can not modify it
+        Assertions.assertThrows(UnsupportedOperationException.class, result::clear);
+        Assertions.assertEquals(3, auditService.listByCondition(newRequest(TimeStaticsDim.MINUTE)).size());
+    }
+}
@@ -38,6 +38,25 @@ public class ConfigConstants {
     /* Configure the in-memory callback size for asynchronously message sending. */
     public static final int ASYNC_CALLBACK_SIZE = 50000;
     public static final int MAX_ASYNC_CALLBACK_SIZE = 2000000;
+    /* Tick of the timer expiring the asynchronous callbacks, a callback times out within one tick. */
+    public static final long CALLBACK_TIMEOUT_TICK_MS = 100;
+
+    /* Configure the record accumulator for asynchronously single message sending. */
+    public static final int DEFAULT_BATCH_SIZE = 200;
+    public static final int DEFAULT_BATCH_BYTES = 256 * 1024;
+    public static final long DEFAULT_LINGER_MS = 5;
+    public static final long DEFAULT_BATCH_BUFFER_BYTES = 64 * 1024 * 1024L;
+
+    /* Configure the least latency load balance and the circuit breaker of connections. */
+    public static final double LATENCY_EWMA_ALPHA = 0.3;
+    public static final int DEFAULT_CIRCUIT_BREAK_FAILURES = 5;
+    public static final long DEFAULT_CIRCUIT_BREAK_OPEN_MS = 3000;
+
+    /* Configure the pooled connections and the retry backoff of the http sender. */
+    public static final long DEFAULT_HTTP_RETRY_BACKOFF_MS = 100;
+    public static final long DEFAULT_HTTP_MAX_RETRY_BACKOFF_MS = 2000;
+    public static final long HTTP_IDLE_CONNECTION_MS = 60 * 1000;
+    public static final long HTTP_CLOSE_WAIT_MS = 30 * 1000;
 
     /* Configure the proxy IP list refresh parameters. */
     public static final int PROXY_UPDATE_INTERVAL_MINUTES = 5;
@@ -23,6 +23,8 @@ import org.apache.inlong.sdk.dataproxy.codec.EncodeObject;
 import org.apache.inlong.sdk.dataproxy.config.ProxyConfigEntry;
 import org.apache.inlong.sdk.dataproxy.config.ProxyConfigManager;
 import org.apache.inlong.sdk.dataproxy.network.ProxysdkException;
+import org.apache.inlong.sdk.dataproxy.network.RecordAccumulator;
+import org.apache.inlong.sdk.dataproxy.network.RecordBatch;
 import org.apache.inlong.sdk.dataproxy.network.Sender;
 import org.apache.inlong.sdk.dataproxy.network.SequentialID;
 import org.apache.inlong.sdk.dataproxy.network.Utils;
@@ -32,6 +34,7 @@ import org.apache.inlong.sdk.dataproxy.utils.ProxyUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -51,6 +54,8 @@ public class DefaultMessageSender implements MessageSender {
     private static final SequentialID idGenerator = new SequentialID(Utils.getLocalIp());
     private final Sender sender;
     private final IndexCollectThread indexCol;
+    /* Accumulate single messages of async sending, null if batch is not enabled */
+    private final RecordAccumulator accumulator;
     /* Store index <groupId_streamId,cnt> */
     private final Map<String, Long> storeIndex = new ConcurrentHashMap<String, Long>();
     private String groupId;
@@ -71,6 +76,12 @@ public class DefaultMessageSender implements MessageSender {
         groupId = configure.getGroupId();
         indexCol = new IndexCollectThread(storeIndex);
         indexCol.start();
+        if (configure.isEnableBatch()) {
+            accumulator = new RecordAccumulator(configure.getBatchSize(), configure.getBatchBytes(),
+                    configure.getLingerMs(), configure.getBatchBufferBytes(), this::sendBatch);
+        } else {
+            accumulator = null;
+        }
 
         if (configure.isEnableSaveManagerVIps()
                 && configure.isLocalVisit()
@@ -449,6 +460,10 @@ public class DefaultMessageSender implements MessageSender {
         if (!ProxyUtils.isBodyValid(body) || !ProxyUtils.isDtValid(dt)) {
             throw new ProxysdkException(SendResult.INVALID_ATTRIBUTES.toString());
         }
+        if (accumulator != null) {
+            accumulator.append(groupId, streamId, dt, body, callback, null, "", isProxySend, timeout, timeUnit);
+            return;
+        }
         addIndexCnt(groupId, streamId, 1);
 
         String proxySend = "";
@@ -511,6 +526,11 @@ public class DefaultMessageSender implements MessageSender {
         if (!ProxyUtils.isBodyValid(body) || !ProxyUtils.isDtValid(dt) || !ProxyUtils.isAttrKeysValid(extraAttrMap)) {
             throw new ProxysdkException(SendResult.INVALID_ATTRIBUTES.toString());
         }
+        if (accumulator != null) {
+            accumulator.append(groupId, streamId, dt, body, callback, new HashMap<>(extraAttrMap),
+                    MessageUtils.convertAttrToStr(extraAttrMap).toString(), isProxySend, timeout, timeUnit);
+            return;
+        }
         addIndexCnt(groupId, streamId, 1);
         if (isProxySend) {
             extraAttrMap.put(AttributeConstants.MESSAGE_PROXY_SEND, "true");
@@ -720,6 +740,21 @@ public class DefaultMessageSender implements MessageSender {
                 idGenerator.getNextId(), DEFAULT_SEND_TIMEOUT, DEFAULT_SEND_TIMEUNIT, isProxySend);
     }
 
+    /**
+     * send the message list accumulated by the record accumulator, the batch fans out the ack
+     */
+    private void sendBatch(RecordBatch batch) throws ProxysdkException {
+        RecordBatch.Key key = batch.getKey();
+        if (batch.getExtraAttrMap() == null) {
+            asyncSendMessage(batch, batch.getBodyList(), key.getGroupId(), key.getStreamId(), batch.getDt(),
+                    idGenerator.getNextId(), batch.getTimeoutMs(), TimeUnit.MILLISECONDS, key.isProxySend());
+        } else {
+            asyncSendMessage(batch, batch.getBodyList(), key.getGroupId(), key.getStreamId(), batch.getDt(),
+                    idGenerator.getNextId(), batch.getTimeoutMs(), TimeUnit.MILLISECONDS,
+                    batch.getExtraAttrMap(), key.isProxySend());
+        }
+    }
+
     private void addIndexCnt(String groupId, String streamId, long cnt) {
         try {
             String key = groupId + "|" + streamId;
@@ -836,12 +871,17 @@ public class DefaultMessageSender implements MessageSender {
 
     private void shutdownInternalThreads() {
         indexCol.shutDown();
-        managerFetcherThread.shutdown();
-        MANAGER_FETCHER_THREAD_STARTED.set(false);
+        if (managerFetcherThread != null) {
+            managerFetcherThread.shutdown();
+            MANAGER_FETCHER_THREAD_STARTED.set(false);
+        }
     }
 
     public void close() {
         LOGGER.info("ready to close resources, may need five minutes !");
+        if (accumulator != null) {
+            accumulator.close();
+        }
         if (sender.getClusterId() != -1) {
             CACHE_SENDER.remove(sender.getClusterId());
         }
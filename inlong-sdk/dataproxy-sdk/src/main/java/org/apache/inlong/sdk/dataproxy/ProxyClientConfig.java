@@ -71,11 +71,16 @@ public class ProxyClientConfig {
     // whether discard old metric when cache is full.
     private boolean discardOldMessage = false;
     private int proxyHttpUpdateIntervalMinutes;
-    // thread number for async sending data.
+    // thread number for async sending data, which is also the max number of in-flight async requests.
     private int asyncWorkerNumber = 3;
     // interval for async worker in microseconds.
     private int asyncWorkerInterval = 500;
     private boolean cleanHttpCacheWhenClosing = false;
+    // whether gzip the request body, the proxy or a gateway before it must inflate gzip requests
+    private boolean enableHttpGzip = false;
+    // base and max backoff in milliseconds before retrying a failed request on another proxy
+    private long httpRetryBackoffMs = ConfigConstants.DEFAULT_HTTP_RETRY_BACKOFF_MS;
+    private long httpMaxRetryBackoffMs = ConfigConstants.DEFAULT_HTTP_MAX_RETRY_BACKOFF_MS;
 
     // config for metric collector
     // whether use groupId as key for metric, default is true
@@ -91,6 +96,24 @@ public class ProxyClientConfig {
     // metric groupId
     private String metricGroupId = "inlong_sla_metric";
 
+    // config for record accumulator of async single message sending
+    // whether accumulate single messages into message lists, default is false
+    private boolean enableBatch = false;
+    // max message count of one message list
+    private int batchSize = ConfigConstants.DEFAULT_BATCH_SIZE;
+    // max body bytes of one message list
+    private int batchBytes = ConfigConstants.DEFAULT_BATCH_BYTES;
+    // max time in milliseconds a message waits for other messages
+    private long lingerMs = ConfigConstants.DEFAULT_LINGER_MS;
+    // max body bytes buffered and waiting for ack, sending blocks until the timeout when exceeded
+    private long batchBufferBytes = ConfigConstants.DEFAULT_BATCH_BUFFER_BYTES;
+
+    // config for circuit breaker of connections
+    // consecutive timeouts or connection breaks to open the circuit of a connection
+    private int circuitBreakFailures = ConfigConstants.DEFAULT_CIRCUIT_BREAK_FAILURES;
+    // time in milliseconds before an open circuit lets a probe message through
+    private long circuitBreakOpenMs = ConfigConstants.DEFAULT_CIRCUIT_BREAK_OPEN_MS;
+
     private int ioThreadNum = Runtime.getRuntime().availableProcessors();
     private boolean enableBusyWait = false;
 
@@ -395,6 +418,30 @@ public class ProxyClientConfig {
         this.cleanHttpCacheWhenClosing = cleanHttpCacheWhenClosing;
     }
 
+    public boolean isEnableHttpGzip() {
+        return enableHttpGzip;
+    }
+
+    public void setEnableHttpGzip(boolean enableHttpGzip) {
+        this.enableHttpGzip = enableHttpGzip;
+    }
+
+    public long getHttpRetryBackoffMs() {
+        return httpRetryBackoffMs;
+    }
+
+    public void setHttpRetryBackoffMs(long httpRetryBackoffMs) {
+        this.httpRetryBackoffMs = httpRetryBackoffMs;
+    }
+
+    public long getHttpMaxRetryBackoffMs() {
+        return httpMaxRetryBackoffMs;
+    }
+
+    public void setHttpMaxRetryBackoffMs(long httpMaxRetryBackoffMs) {
+        this.httpMaxRetryBackoffMs = httpMaxRetryBackoffMs;
+    }
+
     public boolean isUseGroupIdAsKey() {
         return useGroupIdAsKey;
     }
@@ -459,6 +506,71 @@ public class ProxyClientConfig {
         this.enableSlaMetric = enableSlaMetric;
     }
 
+    public boolean isEnableBatch() {
+        return enableBatch;
+    }
+
+    public void setEnableBatch(boolean enableBatch) {
+        this.enableBatch = enableBatch;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must bigger than 0");
+        }
+        this.batchSize = batchSize;
+    }
+
+    public int getBatchBytes() {
+        return batchBytes;
+    }
+
+    public void setBatchBytes(int batchBytes) {
+        if (batchBytes <= 0) {
+            throw new IllegalArgumentException("batchBytes must bigger than 0");
+        }
+        this.batchBytes = batchBytes;
+    }
+
+    public long getLingerMs() {
+        return lingerMs;
+    }
+
+    public void setLingerMs(long lingerMs) {
+        if (lingerMs < 0) {
+            throw new IllegalArgumentException("lingerMs must not be negative");
+        }
+        this.lingerMs = lingerMs;
+    }
+
+    public long getBatchBufferBytes() {
+        return batchBufferBytes;
+    }
+
+    public void setBatchBufferBytes(long batchBufferBytes) {
+        this.batchBufferBytes = batchBufferBytes;
+    }
+
+    public int getCircuitBreakFailures() {
+        return circuitBreakFailures;
+    }
+
+    public void setCircuitBreakFailures(int circuitBreakFailures) {
+        this.circuitBreakFailures = circuitBreakFailures;
+    }
+
+    public long getCircuitBreakOpenMs() {
+        return circuitBreakOpenMs;
+    }
+
+    public void setCircuitBreakOpenMs(long circuitBreakOpenMs) {
+        this.circuitBreakOpenMs = circuitBreakOpenMs;
+    }
+
     public int getIoThreadNum() {
         return ioThreadNum;
     }
@@ -19,6 +19,7 @@ package org.apache.inlong.sdk.dataproxy.codec;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.MessageToMessageEncoder;
 import org.apache.inlong.sdk.dataproxy.config.EncryptConfigEntry;
@@ -31,9 +32,10 @@ import org.xerial.snappy.Snappy;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.UnsupportedEncodingException;
 import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.security.SecureRandom;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 
@@ -45,6 +47,9 @@ public class ProtocolEncoder extends MessageToMessageEncoder<EncodeObject> {
 
     private static final Logger logger = LoggerFactory
             .getLogger(ProtocolEncoder.class);
+    // msgType, groupIdNum, streamIdNum, extField, dt, cnt, uniq, bodyLen, attrLen and magic of msgtype 7
+    private static final int FIXED_LENGTH_7 = 1 + 2 + 2 + 2 + 4 + 2 + 4 + 4 + 2 + 2;
+    private static final byte LINE_FEED = '\n';
 
     protected void encode(ChannelHandlerContext ctx,
             EncodeObject message, List<Object> out) throws Exception {
@@ -59,7 +64,7 @@ public class ProtocolEncoder extends MessageToMessageEncoder<EncodeObject> {
             }
 
             if (object.getMsgtype() == 7) {
-                buf = writeToBuf7(object);
+                buf = writeToBuf7(ctx.alloc(), object);
             }
             if (object.getMsgtype() == 8) {
                 buf = writeToBuf8(object);
@@ -118,129 +123,178 @@ public class ProtocolEncoder extends MessageToMessageEncoder<EncodeObject> {
         return buf;
     }
 
-    private ByteBuf constructBody(byte[] body, EncodeObject object,
-            int totalLength, int cnt) throws UnsupportedEncodingException {
-        ByteBuf buf = null;
-        if (body != null) {
-            if (object.isCompress()) {
-                body = processCompress(body);
-            }
-            String endAttr = object.getCommonattr();
-            if (object.isEncrypt()) {
-                EncryptConfigEntry encryptEntry = object.getEncryptEntry();
-                if (encryptEntry != null) {
-                    if (Utils.isNotBlank(endAttr)) {
-                        endAttr = endAttr + "&";
-                    }
-                    EncryptInfo encryptInfo = encryptEntry.getRsaEncryptInfo();
-                    endAttr = endAttr + "_userName=" + object.getUserName()
-                            + "&_encyVersion=" + encryptInfo.getVersion()
-                            + "&_encyAesKey=" + encryptInfo.getRsaEncryptedKey();
-                    body = EncryptUtil.aesEncrypt(body, encryptInfo.getAesKey());
-                }
-            }
-            if (!object.isGroupIdTransfer()) {
-                if (Utils.isNotBlank(endAttr)) {
-                    endAttr = endAttr + "&";
+    /**
+     * length of the body before compression: a length prefix before every message,
+     * or one length prefix before all the messages separated by line feeds
+     */
+    private static int rawBodyLength(List<byte[]> bodies, boolean lineFeed) {
+        int length = lineFeed ? 4 + bodies.size() - 1 : 4 * bodies.size();
+        for (byte[] body : bodies) {
+            length += body.length;
+        }
+        return length;
+    }
+
+    private static void writeRawBody(ByteBuf buf, List<byte[]> bodies, boolean lineFeed, int rawLength) {
+        if (lineFeed) {
+            buf.writeInt(rawLength - 4);
+            for (int i = 0; i < bodies.size(); i++) {
+                if (i > 0) {
+                    buf.writeByte(LINE_FEED);
                 }
-                endAttr = (endAttr + "groupId=" + object.getGroupId() + "&streamId=" + object.getStreamId());
+                buf.writeBytes(bodies.get(i));
             }
-            if (Utils.isNotBlank(object.getMsgUUID())) {
-                if (Utils.isNotBlank(endAttr)) {
-                    endAttr = endAttr + "&";
-                }
-                endAttr = endAttr + "msgUUID=" + object.getMsgUUID();
+        } else {
+            for (byte[] body : bodies) {
+                buf.writeInt(body.length);
+                buf.writeBytes(body);
             }
+        }
+    }
 
-            int msgType = 7;
-            if (object.isEncrypt()) {
-                msgType |= FLAG_ALLOW_ENCRYPT;
+    private static String buildAttr7(EncodeObject object, EncryptInfo encryptInfo) {
+        String endAttr = object.getCommonattr();
+        if (encryptInfo != null) {
+            if (Utils.isNotBlank(endAttr)) {
+                endAttr = endAttr + "&";
             }
-            if (object.isCompress()) {
-                msgType |= FLAG_ALLOW_COMPRESS;
+            endAttr = endAttr + "_userName=" + object.getUserName()
+                    + "&_encyVersion=" + encryptInfo.getVersion()
+                    + "&_encyAesKey=" + encryptInfo.getRsaEncryptedKey();
+        }
+        if (!object.isGroupIdTransfer()) {
+            if (Utils.isNotBlank(endAttr)) {
+                endAttr = endAttr + "&";
             }
-            totalLength = totalLength + body.length + endAttr.getBytes("utf8").length;
-            buf = ByteBufAllocator.DEFAULT.buffer(4 + totalLength);
-            buf.writeInt(totalLength);
-            buf.writeByte(msgType);
-            buf.writeShort(object.getGroupIdNum());
-            buf.writeShort(object.getStreamIdNum());
-            String bitStr = object.isSupportLF() ? "1" : "0";
-            bitStr += (object.getMessageKey().equals("minute")) ? "1" : "0";
-            bitStr += (object.getMessageKey().equals("file")) ? "1" : "0";
-            bitStr += !object.isGroupIdTransfer() ? "1" : "0";
-            bitStr += object.isReport() ? "1" : "0";
-            bitStr += "0";
-            buf.writeShort(Integer.parseInt(bitStr, 2));
-            buf.writeInt((int) object.getDt());
-
-            buf.writeShort(cnt);
-            buf.writeInt(Integer.valueOf(object.getMessageId()));
-
-            buf.writeInt(body.length);
-            buf.writeBytes(body);
+            endAttr = (endAttr + "groupId=" + object.getGroupId() + "&streamId=" + object.getStreamId());
+        }
+        if (Utils.isNotBlank(object.getMsgUUID())) {
+            if (Utils.isNotBlank(endAttr)) {
+                endAttr = endAttr + "&";
+            }
+            endAttr = endAttr + "msgUUID=" + object.getMsgUUID();
+        }
+        return endAttr;
+    }
 
-            buf.writeShort(endAttr.getBytes("utf8").length);
-            buf.writeBytes(endAttr.getBytes("utf8"));
-            buf.writeShort(0xee01);
+    /**
+     * write the header till the body length, the total length is set later if it is negative
+     */
+    private static void writeHeader7(ByteBuf buf, EncodeObject object, int totalLength, int cnt) {
+        int msgType = 7;
+        if (object.isEncrypt()) {
+            msgType |= FLAG_ALLOW_ENCRYPT;
         }
-        return buf;
+        if (object.isCompress()) {
+            msgType |= FLAG_ALLOW_COMPRESS;
+        }
+        buf.writeInt(totalLength);
+        buf.writeByte(msgType);
+        buf.writeShort(object.getGroupIdNum());
+        buf.writeShort(object.getStreamIdNum());
+        int extField = 0;
+        if (object.isSupportLF()) {
+            extField |= 1 << 5;
+        }
+        if (object.getMessageKey().equals("minute")) {
+            extField |= 1 << 4;
+        }
+        if (object.getMessageKey().equals("file")) {
+            extField |= 1 << 3;
+        }
+        if (!object.isGroupIdTransfer()) {
+            extField |= 1 << 2;
+        }
+        if (object.isReport()) {
+            extField |= 1 << 1;
+        }
+        buf.writeShort(extField);
+        buf.writeInt((int) object.getDt());
+        buf.writeShort(cnt);
+        buf.writeInt(Integer.parseInt(object.getMessageId()));
+    }
+
+    private static void writeTail7(ByteBuf buf, byte[] attrBytes) {
+        buf.writeShort(attrBytes.length);
+        buf.writeBytes(attrBytes);
+        buf.writeShort(0xee01);
     }
 
-    private ByteBuf writeToBuf7(EncodeObject object) {
+    /**
+     * Write the message list directly into a pooled direct buffer.
+     * Snappy compresses from a pooled direct buffer of the raw body into the target buffer,
+     * only the encryption works on byte arrays.
+     */
+    private ByteBuf writeToBuf7(ByteBufAllocator alloc, EncodeObject object) {
         ByteBuf buf = null;
         try {
-            int totalLength = 1 + 2 + 2 + 2 + 4 + 2 + 4 + 4 + 2 + 2;
-            byte[] body = null;
             int cnt = 1;
-
+            List<byte[]> bodies = null;
+            boolean lineFeed = false;
             if (object.getBodylist() != null && object.getBodylist().size() != 0) {
                 if (object.getCnt() > 0) {
                     cnt = object.getCnt();
                 } else {
                     cnt = object.getBodylist().size();
                 }
-
-                ByteArrayOutputStream out = new ByteArrayOutputStream();
-                Iterator<byte[]> iter = object.getBodylist().iterator();
-
-                if (object.isSupportLF()) {
-                    ByteArrayOutputStream data = new ByteArrayOutputStream();
-                    int len = object.getBodylist().size();
-                    for (int i = 0; i < len - 1; i++) {
-                        data.write(object.getBodylist().get(i));
-                        data.write("\n".getBytes("utf8"));
-                    }
-                    data.write(object.getBodylist().get(len - 1));
-                    ByteBuffer databuffer = ByteBuffer.allocate(4);
-                    databuffer.putInt(data.toByteArray().length);
-                    out.write(databuffer.array());
-                    out.write(data.toByteArray());
-                } else {
-                    while (iter.hasNext()) {
-                        byte[] entry = iter.next();
-                        ByteBuffer databuffer = ByteBuffer.allocate(4);
-                        databuffer.putInt(entry.length);
-                        out.write(databuffer.array());
-                        out.write(entry);
-                    }
-                }
-                body = out.toByteArray();
+                bodies = object.getBodylist();
+                lineFeed = object.isSupportLF();
             }
             // send single message one time
             if (object.getBodyBytes() != null && object.getBodyBytes().length != 0) {
-                ByteArrayOutputStream out = new ByteArrayOutputStream();
-
-                ByteBuffer databuffer = ByteBuffer.allocate(4);
-                databuffer.putInt(object.getBodyBytes().length);
-                out.write(databuffer.array());
-                out.write(object.getBodyBytes());
-                body = out.toByteArray();
+                bodies = Collections.singletonList(object.getBodyBytes());
+                lineFeed = false;
+            }
+            if (bodies == null) {
+                return null;
             }
+            EncryptInfo encryptInfo = null;
+            if (object.isEncrypt() && object.getEncryptEntry() != null) {
+                encryptInfo = object.getEncryptEntry().getRsaEncryptInfo();
+            }
+            byte[] attrBytes = buildAttr7(object, encryptInfo).getBytes(StandardCharsets.UTF_8);
+            int rawLength = rawBodyLength(bodies, lineFeed);
 
-            buf = constructBody(body, object, totalLength, cnt);
+            if (encryptInfo != null) {
+                byte[] body = new byte[rawLength];
+                writeRawBody(Unpooled.wrappedBuffer(body).clear(), bodies, lineFeed, rawLength);
+                if (object.isCompress()) {
+                    body = Snappy.compress(body);
+                }
+                body = EncryptUtil.aesEncrypt(body, encryptInfo.getAesKey());
+                int totalLength = FIXED_LENGTH_7 + body.length + attrBytes.length;
+                buf = alloc.directBuffer(4 + totalLength);
+                writeHeader7(buf, object, totalLength, cnt);
+                buf.writeInt(body.length);
+                buf.writeBytes(body);
+            } else if (object.isCompress()) {
+                int maxLength = Snappy.maxCompressedLength(rawLength);
+                ByteBuf raw = alloc.directBuffer(rawLength);
+                try {
+                    writeRawBody(raw, bodies, lineFeed, rawLength);
+                    buf = alloc.directBuffer(4 + FIXED_LENGTH_7 + maxLength + attrBytes.length);
+                    writeHeader7(buf, object, 0, cnt);
+                    int length = Snappy.compress(raw.nioBuffer(), buf.nioBuffer(buf.writerIndex() + 4, maxLength));
+                    buf.writeInt(length);
+                    buf.writerIndex(buf.writerIndex() + length);
+                    buf.setInt(0, FIXED_LENGTH_7 + length + attrBytes.length);
+                } finally {
+                    raw.release();
+                }
+            } else {
+                int totalLength = FIXED_LENGTH_7 + rawLength + attrBytes.length;
+                buf = alloc.directBuffer(4 + totalLength);
+                writeHeader7(buf, object, totalLength, cnt);
+                buf.writeInt(rawLength);
+                writeRawBody(buf, bodies, lineFeed, rawLength);
+            }
+            writeTail7(buf, attrBytes);
         } catch (Exception e) {
             logger.error("writeToBuf7 has {}", e);
+            if (buf != null) {
+                buf.release();
+                buf = null;
+            }
         }
         return buf;
     }
@@ -398,14 +452,7 @@ public class ProtocolEncoder extends MessageToMessageEncoder<EncodeObject> {
 
     private byte[] processCompress(byte[] body) {
         try {
-            ByteArrayOutputStream out = new ByteArrayOutputStream();
-            out.write(body);
-            int guessLen = Snappy.maxCompressedLength(out.size());
-            byte[] tmpData = new byte[guessLen];
-            int len = Snappy.compress(out.toByteArray(), 0, out.size(),
-                    tmpData, 0);
-            body = new byte[len];
-            System.arraycopy(tmpData, 0, body, 0, len);
+            body = Snappy.compress(body);
         } catch (IOException e) {
             logger.error("{}", e.getMessage());
             e.printStackTrace();
@@ -22,24 +22,34 @@ import com.google.gson.JsonParser;
 
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.lang3.StringUtils;
+import org.apache.http.HttpEntity;
 import org.apache.http.HttpHeaders;
 import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.entity.GzipCompressingEntity;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.client.utils.URLEncodedUtils;
 import org.apache.http.entity.StringEntity;
 import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.apache.http.message.BasicNameValuePair;
 import org.apache.http.util.EntityUtils;
+import org.apache.inlong.sdk.dataproxy.ConfigConstants;
 import org.apache.inlong.sdk.dataproxy.ProxyClientConfig;
 import org.apache.inlong.sdk.dataproxy.SendResult;
 import org.apache.inlong.sdk.dataproxy.config.HostInfo;
@@ -51,6 +61,9 @@ import org.slf4j.LoggerFactory;
 
 /**
  * internal http sender
+ *
+ * Requests are sent through pooled keep-alive connections. Queued async messages are merged into one
+ * request per groupId, streamId and dt, and at most asyncWorkerNumber async requests are in flight.
  */
 public class InternalHttpSender {
 
@@ -60,11 +73,13 @@ public class InternalHttpSender {
     private final ConcurrentHashSet<HostInfo> hostList;
 
     private final LinkedBlockingQueue<HttpMessage> messageCache;
+    private final ExecutorService dispatchService = Executors.newSingleThreadExecutor();
     private final ExecutorService workerServices = Executors
             .newCachedThreadPool();
-    private CloseableHttpClient httpClient;
+    private final Semaphore inflightRequests;
+    private final CloseableHttpClient httpClient;
     private final JsonParser jsonParser = new JsonParser();
-    private boolean bShutDown = false;
+    private volatile boolean bShutDown = false;
 
     public InternalHttpSender(ProxyClientConfig proxyClientConfig,
             ConcurrentHashSet<HostInfo> hostList,
@@ -72,13 +87,9 @@ public class InternalHttpSender {
         this.proxyClientConfig = proxyClientConfig;
         this.hostList = hostList;
         this.messageCache = messageCache;
-        submitWorkThread();
-    }
-
-    private void submitWorkThread() {
-        for (int i = 0; i < proxyClientConfig.getAsyncWorkerNumber(); i++) {
-            workerServices.execute(new WorkerRunner());
-        }
+        this.inflightRequests = new Semaphore(Math.max(1, proxyClientConfig.getAsyncWorkerNumber()));
+        this.httpClient = constructHttpClient();
+        dispatchService.execute(new DispatchRunner());
     }
 
     /**
@@ -103,50 +114,173 @@ public class InternalHttpSender {
     }
 
     /**
-     * http client
+     * http client with pooled keep-alive connections, shared by async workers and sync callers
      *
-     * @param timeout
-     * @param timeUnit
      * @return
      */
-    private synchronized CloseableHttpClient constructHttpClient(long timeout, TimeUnit timeUnit) {
-        if (httpClient != null) {
-            return httpClient;
+    private CloseableHttpClient constructHttpClient() {
+        int maxConnections = Math.max(1, proxyClientConfig.getAsyncWorkerNumber())
+                + ConfigConstants.MAX_SYNC_THREAD_POOL_SIZE;
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(maxConnections);
+        // all the requests may go to the same proxy
+        connectionManager.setDefaultMaxPerRoute(maxConnections);
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .evictExpiredConnections()
+                .evictIdleConnections(ConfigConstants.HTTP_IDLE_CONNECTION_MS, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    /**
+     * messages merged into one request, they have the same dt as the request carries only one
+     */
+    private static class HttpBatch {
+
+        private final List<HttpMessage> messages = new ArrayList<>();
+        private final long dt;
+        private int count = 0;
+        private int size = 0;
+
+        private HttpBatch(long dt) {
+            this.dt = dt;
+        }
+
+        private void add(HttpMessage message, int bytes) {
+            messages.add(message);
+            count += message.getBodies().size();
+            size += bytes;
         }
-        long timeoutInMs = timeUnit.toMillis(timeout);
-        RequestConfig requestConfig = RequestConfig.custom()
-                .setConnectTimeout((int) timeoutInMs)
-                .setSocketTimeout((int) timeoutInMs).build();
-        HttpClientBuilder httpClientBuilder = HttpClientBuilder.create();
-        httpClientBuilder.setDefaultRequestConfig(requestConfig);
-        return httpClientBuilder.build();
     }
 
     /**
-     * check cache runner
+     * encoded size of the bodies of a message, with the separators
      */
-    private class WorkerRunner implements Runnable {
+    private static int bytesOf(HttpMessage message) {
+        int bytes = 0;
+        for (String body : message.getBodies()) {
+            bytes += body.getBytes(StandardCharsets.UTF_8).length + 1;
+        }
+        return bytes;
+    }
+
+    /**
+     * group messages by groupId and streamId, a batch is closed once it is full or the dt changes,
+     * and a message which does not fit in the bytes of a batch goes to the next one
+     *
+     * @param messages
+     * @return
+     */
+    private Collection<HttpBatch> groupMessages(List<HttpMessage> messages) {
+        Map<String, HttpBatch> openBatches = new LinkedHashMap<>();
+        List<HttpBatch> fullBatches = new ArrayList<>();
+        for (HttpMessage message : messages) {
+            String key = message.getGroupId() + "\u0001" + message.getStreamId();
+            int bytes = bytesOf(message);
+            HttpBatch batch = openBatches.get(key);
+            if (batch != null && (batch.dt != message.getDt()
+                    || batch.size + bytes > proxyClientConfig.getBatchBytes())) {
+                fullBatches.add(batch);
+                batch = null;
+            }
+            if (batch == null) {
+                batch = new HttpBatch(message.getDt());
+                openBatches.put(key, batch);
+            }
+            batch.add(message, bytes);
+            if (batch.count >= proxyClientConfig.getBatchSize()
+                    || batch.size >= proxyClientConfig.getBatchBytes()) {
+                fullBatches.add(batch);
+                openBatches.remove(key);
+            }
+        }
+        fullBatches.addAll(openBatches.values());
+        return fullBatches;
+    }
+
+    private void ackMessages(List<HttpMessage> messages, SendResult result) {
+        for (HttpMessage message : messages) {
+            if (message.getCallback() == null) {
+                continue;
+            }
+            try {
+                message.getCallback().onMessageAck(result);
+            } catch (Exception exception) {
+                logger.error("exception caught in callback", exception);
+            }
+        }
+    }
+
+    /**
+     * take queued messages and hand them to the workers as batches, waiting while too many requests are in flight,
+     * so the queue builds up and the next batches get larger when the proxy is slow
+     */
+    private class DispatchRunner implements Runnable {
 
         @Override
         public void run() {
+            List<HttpMessage> pending = new ArrayList<>();
             // if not shutdown or queue is not empty
             while (!bShutDown || !messageCache.isEmpty()) {
                 try {
-                    while (!messageCache.isEmpty()) {
-                        HttpMessage httpMessage = messageCache.poll();
-                        if (httpMessage != null) {
-                            SendResult result = sendMessageWithHostInfo(
-                                    httpMessage.getBodies(), httpMessage.getGroupId(),
-                                    httpMessage.getStreamId(), httpMessage.getDt(),
-                                    httpMessage.getTimeout(), httpMessage.getTimeUnit());
-                            httpMessage.getCallback().onMessageAck(result);
+                    HttpMessage httpMessage = messageCache.poll(
+                            proxyClientConfig.getAsyncWorkerInterval(), TimeUnit.MILLISECONDS);
+                    if (httpMessage == null) {
+                        continue;
+                    }
+                    pending.add(httpMessage);
+                    messageCache.drainTo(pending, proxyClientConfig.getBatchSize() - 1);
+                    for (HttpBatch batch : groupMessages(pending)) {
+                        inflightRequests.acquire();
+                        try {
+                            workerServices.execute(new WorkerRunner(batch));
+                        } catch (RejectedExecutionException exception) {
+                            inflightRequests.release();
+                            ackMessages(batch.messages, SendResult.UNKOWN_ERROR);
                         }
                     }
-                    TimeUnit.MILLISECONDS.sleep(proxyClientConfig.getAsyncWorkerInterval());
+                } catch (InterruptedException exception) {
+                    logger.warn("http dispatcher is interrupted");
+                    return;
                 } catch (Exception exception) {
                     logger.error("exception caught", exception);
+                } finally {
+                    pending.clear();
+                }
+            }
+        }
+    }
+
+    /**
+     * send one batch
+     */
+    private class WorkerRunner implements Runnable {
+
+        private final HttpBatch batch;
+
+        private WorkerRunner(HttpBatch batch) {
+            this.batch = batch;
+        }
+
+        @Override
+        public void run() {
+            SendResult result = SendResult.UNKOWN_ERROR;
+            try {
+                List<String> bodies = new ArrayList<>(batch.count);
+                long timeoutMs = Long.MAX_VALUE;
+                for (HttpMessage message : batch.messages) {
+                    bodies.addAll(message.getBodies());
+                    timeoutMs = Math.min(timeoutMs, message.getTimeUnit().toMillis(message.getTimeout()));
                 }
+                HttpMessage first = batch.messages.get(0);
+                result = sendMessageWithHostInfo(bodies, first.getGroupId(), first.getStreamId(),
+                        batch.dt, timeoutMs, TimeUnit.MILLISECONDS);
+            } catch (Exception exception) {
+                logger.error("exception caught", exception);
+            } finally {
+                inflightRequests.release();
             }
+            ackMessages(batch.messages, result);
         }
     }
 
@@ -179,25 +313,27 @@ public class InternalHttpSender {
      */
     private SendResult sendByHttp(List<String> bodies, String groupId, String streamId, long dt,
             long timeout, TimeUnit timeUnit, HostInfo hostInfo) throws Exception {
-        HttpPost httpPost = null;
-        CloseableHttpResponse response = null;
-        try {
-            if (httpClient == null) {
-                httpClient = constructHttpClient(timeout, timeUnit);
-            }
-
-            String url = "http://" + hostInfo.getHostName() + ":" + hostInfo.getPortNumber()
-                    + "/dataproxy/message";
+        String url = "http://" + hostInfo.getHostName() + ":" + hostInfo.getPortNumber()
+                + "/dataproxy/message";
 
-            httpPost = new HttpPost(url);
-            httpPost.setHeader(HttpHeaders.CONNECTION, "close");
-            httpPost.setHeader(HttpHeaders.CONTENT_TYPE, "application/x-www-form-urlencoded");
-            ArrayList<BasicNameValuePair> contents = getHeaders(bodies, groupId, streamId, dt);
-            String s = URLEncodedUtils.format(contents, StandardCharsets.UTF_8);
-            logger.info("encode string is {}", s);
-            httpPost.setEntity(new StringEntity(s));
+        int timeoutInMs = (int) Math.min(Integer.MAX_VALUE, timeUnit.toMillis(timeout));
+        HttpPost httpPost = new HttpPost(url);
+        httpPost.setConfig(RequestConfig.custom()
+                .setConnectTimeout(timeoutInMs)
+                .setSocketTimeout(timeoutInMs)
+                .setConnectionRequestTimeout(timeoutInMs).build());
+        httpPost.setHeader(HttpHeaders.CONTENT_TYPE, "application/x-www-form-urlencoded");
+        ArrayList<BasicNameValuePair> contents = getHeaders(bodies, groupId, streamId, dt);
+        String s = URLEncodedUtils.format(contents, StandardCharsets.UTF_8);
+        logger.debug("encode string is {}", s);
+        HttpEntity entity = new StringEntity(s);
+        if (proxyClientConfig.isEnableHttpGzip()) {
+            entity = new GzipCompressingEntity(entity);
+        }
+        httpPost.setEntity(entity);
 
-            response = httpClient.execute(httpPost);
+        // consume the whole response, so that the connection goes back to the pool
+        try (CloseableHttpResponse response = httpClient.execute(httpPost)) {
             String returnStr = EntityUtils.toString(response.getEntity());
 
             if (Utils.isNotBlank(returnStr) && response.getStatusLine().getStatusCode() == 200) {
@@ -218,18 +354,26 @@ public class InternalHttpSender {
                 throw new Exception("exception to get response from request " + returnStr + " "
                         + response.getStatusLine().getStatusCode());
             }
-
-        } finally {
-            if (httpPost != null) {
-                httpPost.releaseConnection();
-            }
-            if (response != null) {
-                response.close();
-            }
         }
         return SendResult.UNKOWN_ERROR;
     }
 
+    /**
+     * backoff before the given retry, a random time up to the exponential backoff
+     *
+     * @param retry the first retry is 1
+     * @return
+     */
+    private long getRetryBackoffMs(int retry) {
+        long baseMs = proxyClientConfig.getHttpRetryBackoffMs();
+        if (baseMs <= 0) {
+            return 0;
+        }
+        long backoffMs = Math.min(proxyClientConfig.getHttpMaxRetryBackoffMs(),
+                baseMs << Math.min(retry - 1, 20));
+        return ThreadLocalRandom.current().nextLong(backoffMs + 1);
+    }
+
     /**
      * send message with host info
      *
@@ -246,9 +390,17 @@ public class InternalHttpSender {
 
         List<HostInfo> randomHostList = getRandomHostInfo();
         Exception tmpException = null;
-        for (HostInfo hostInfo : randomHostList) {
+        for (int i = 0; i < randomHostList.size(); i++) {
+            if (i > 0) {
+                try {
+                    TimeUnit.MILLISECONDS.sleep(getRetryBackoffMs(i));
+                } catch (InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
             try {
-                return sendByHttp(bodies, groupId, streamId, dt, timeout, timeUnit, hostInfo);
+                return sendByHttp(bodies, groupId, streamId, dt, timeout, timeUnit, randomHostList.get(i));
             } catch (Exception exception) {
                 tmpException = exception;
                 logger.debug("error while sending data, resending it", exception);
@@ -261,7 +413,7 @@ public class InternalHttpSender {
     }
 
     /**
-     * close
+     * close, the queued messages are sent before closing unless cleanHttpCacheWhenClosing is set
      *
      * @throws Exception
      */
@@ -270,9 +422,10 @@ public class InternalHttpSender {
         if (proxyClientConfig.isCleanHttpCacheWhenClosing()) {
             messageCache.clear();
         }
-        if (httpClient != null) {
-            httpClient.close();
-        }
+        dispatchService.shutdown();
+        dispatchService.awaitTermination(ConfigConstants.HTTP_CLOSE_WAIT_MS, TimeUnit.MILLISECONDS);
         workerServices.shutdown();
+        workerServices.awaitTermination(ConfigConstants.HTTP_CLOSE_WAIT_MS, TimeUnit.MILLISECONDS);
+        httpClient.close();
     }
 }
@@ -0,0 +1,218 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sdk.dataproxy.network;
+
+import org.apache.inlong.sdk.dataproxy.ConfigConstants;
+import org.apache.inlong.sdk.dataproxy.SendResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ack latency, in-flight count and circuit breaker of one connection, as seen by the client.
+ * The circuit opens after consecutive failures, and after the open time one probe message is let through
+ * (half-open), whose result closes the circuit or opens it again. Only the result of the probe itself decides,
+ * a probe not sent is released, and a probe without result in the open time lets another probe through.
+ */
+public class ClientHealthTracker {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ClientHealthTracker.class);
+
+    /**
+     * returned by {@link #onSend} for a message which is not the half-open probe
+     */
+    public static final long NO_PROBE = 0;
+
+    private static final int CLOSED = 0;
+    private static final int OPEN = 1;
+    private static final int HALF_OPEN = 2;
+    // latency of a connection without ack yet, so that in-flight count still counts
+    private static final double MIN_LATENCY_MS = 0.01;
+
+    private final String name;
+    private final int failureThreshold;
+    private final long openNanos;
+    private final AtomicInteger inFlight = new AtomicInteger(0);
+    private final AtomicInteger consecutiveFailures = new AtomicInteger(0);
+    private final AtomicInteger state = new AtomicInteger(CLOSED);
+    private final AtomicLong probeSequence = new AtomicLong(NO_PROBE);
+    // probe acquired by tryAcquire and not sent yet
+    private final AtomicLong pendingProbe = new AtomicLong(NO_PROBE);
+    // probe of the current half-open state
+    private volatile long currentProbe = NO_PROBE;
+    private volatile long probeDeadlineNanos = 0;
+    private volatile long openUntilNanos = 0;
+    private volatile double latencyMs = 0;
+
+    public ClientHealthTracker(String name, int failureThreshold, long openMs) {
+        this.name = name;
+        this.failureThreshold = failureThreshold;
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMs);
+    }
+
+    /**
+     * whether the result means the proxy is unreachable or unhealthy
+     */
+    public static boolean isFailure(SendResult result) {
+        return result == SendResult.TIMEOUT || result == SendResult.CONNECTION_BREAK
+                || result == SendResult.SINK_SERVICE_UNREADY || result == SendResult.DATAPROXY_FAIL_TO_RECEIVE;
+    }
+
+    /**
+     * whether a message may be sent now, the first caller after the open time becomes the half-open probe,
+     * the caller must call {@link #onSend} or {@link #release} afterwards
+     */
+    public boolean tryAcquire(long nowNanos) {
+        expireProbe(nowNanos);
+        int current = state.get();
+        if (current == CLOSED) {
+            return true;
+        }
+        if (current == OPEN && nowNanos - openUntilNanos >= 0) {
+            // set before the state, so that a caller seeing the half-open state never sees an old deadline
+            probeDeadlineNanos = nowNanos + openNanos;
+            if (state.compareAndSet(OPEN, HALF_OPEN)) {
+                long probe = probeSequence.incrementAndGet();
+                currentProbe = probe;
+                pendingProbe.set(probe);
+                LOGGER.info("circuit of {} is half open, send a probe message", name);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * whether {@link #tryAcquire} may succeed, without side effect
+     */
+    public boolean isAvailable(long nowNanos) {
+        int current = state.get();
+        return current == CLOSED || (current == OPEN && nowNanos - openUntilNanos >= 0)
+                || (current == HALF_OPEN && nowNanos - probeDeadlineNanos >= 0);
+    }
+
+    /**
+     * a probe without result in the open time is given up, the next caller becomes a new probe
+     */
+    private void expireProbe(long nowNanos) {
+        if (state.get() == HALF_OPEN && nowNanos - probeDeadlineNanos >= 0 && state.compareAndSet(HALF_OPEN, OPEN)) {
+            LOGGER.warn("probe message of {} has no result in {} ms, send another one", name,
+                    TimeUnit.NANOSECONDS.toMillis(openNanos));
+        }
+    }
+
+    /**
+     * @return the probe id to pass to {@link #onComplete} if the message is the half-open probe,
+     *         otherwise {@link #NO_PROBE}
+     */
+    public long onSend() {
+        inFlight.incrementAndGet();
+        return pendingProbe.getAndSet(NO_PROBE);
+    }
+
+    /**
+     * the caller of {@link #tryAcquire} sends nothing, let the next caller send the probe
+     */
+    public void release() {
+        long probe = pendingProbe.getAndSet(NO_PROBE);
+        if (probe != NO_PROBE) {
+            releaseProbe(probe);
+        }
+    }
+
+    private void releaseProbe(long probe) {
+        // the open time is over, so the next caller becomes the probe
+        if (probe == currentProbe && state.compareAndSet(HALF_OPEN, OPEN)) {
+            LOGGER.info("probe message of {} is not sent, send another one", name);
+        }
+    }
+
+    /**
+     * @param elapsedNanos time from sending to the result
+     * @param probe returned by {@link #onSend} of the message
+     */
+    public void onComplete(SendResult result, long elapsedNanos, long probe) {
+        inFlight.decrementAndGet();
+        // a timeout also tells that the latency is at least the elapsed time
+        updateLatency(elapsedNanos / 1_000_000.0);
+        int current = state.get();
+        if (current == HALF_OPEN) {
+            // messages sent before the circuit opened do not tell about the proxy now
+            if (probe == NO_PROBE || probe != currentProbe) {
+                return;
+            }
+            if (isFailure(result)) {
+                open();
+            } else if (result == SendResult.OK) {
+                close();
+            } else {
+                // rejected before reaching the proxy
+                releaseProbe(probe);
+            }
+            return;
+        }
+        if (!isFailure(result)) {
+            consecutiveFailures.set(0);
+        } else if (current == CLOSED && consecutiveFailures.incrementAndGet() >= failureThreshold) {
+            open();
+        }
+    }
+
+    private void open() {
+        openUntilNanos = System.nanoTime() + openNanos;
+        consecutiveFailures.set(0);
+        state.set(OPEN);
+        LOGGER.warn("circuit of {} is open for {} ms", name, TimeUnit.NANOSECONDS.toMillis(openNanos));
+    }
+
+    private void close() {
+        consecutiveFailures.set(0);
+        if (state.compareAndSet(HALF_OPEN, CLOSED)) {
+            LOGGER.info("circuit of {} is closed", name);
+        }
+    }
+    private synchronized void updateLatency(double sampleMs) {
+        if (latencyMs == 0) {
+            latencyMs = sampleMs;
+        } else {
+            latencyMs += ConfigConstants.LATENCY_EWMA_ALPHA * (sampleMs - latencyMs);
+        }
+    }
+
+    /**
+     * expected wait of a new message, the EWMA of ack latency multiplied by the queued messages
+     */
+    public double getScore() {
+        return Math.max(latencyMs, MIN_LATENCY_MS) * (inFlight.get() + 1);
+    }
+
+    public double getLatencyMs() {
+        return latencyMs;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public boolean isOpen() {
+        return state.get() != CLOSED;
+    }
+}
@@ -47,6 +47,7 @@ import java.util.Iterator;
 import java.util.Comparator;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
@@ -452,6 +453,53 @@ public class ClientMgr {
 
     // public synchronized NettyClient getClientByWeightLeastConnections(){}
 
+    /**
+     * Pick the better of two random clients by the expected wait, ack latency multiplied by in-flight messages,
+     * skipping clients whose circuit is open. Fall back to round robin if the circuits of all clients are open.
+     */
+    public synchronized NettyClient getClientByLeastLatency() {
+        if (clientList.isEmpty()) {
+            return null;
+        }
+        int currSize = clientList.size();
+        long now = System.nanoTime();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int maxRetry = Math.max(1, this.configure.getMaxRetry());
+        for (int retryTime = 0; retryTime < maxRetry; retryTime++) {
+            NettyClient first = clientList.get(random.nextInt(currSize));
+            NettyClient second = currSize > 1 ? clientList.get(random.nextInt(currSize)) : first;
+            boolean firstAvailable = isAvailable(first, now);
+            boolean secondAvailable = isAvailable(second, now);
+            NettyClient chosen;
+            if (firstAvailable && secondAvailable) {
+                chosen = first.getHealthTracker().getScore() <= second.getHealthTracker().getScore() ? first : second;
+            } else if (firstAvailable || secondAvailable) {
+                chosen = firstAvailable ? first : second;
+            } else {
+                continue;
+            }
+            if (chosen.getHealthTracker().tryAcquire(now)) {
+                return chosen;
+            }
+        }
+        // scan all the clients before giving up the circuit breaker
+        NettyClient best = null;
+        for (NettyClient client : clientList) {
+            if (isAvailable(client, now) && (best == null
+                    || client.getHealthTracker().getScore() < best.getHealthTracker().getScore())) {
+                best = client;
+            }
+        }
+        if (best != null && best.getHealthTracker().tryAcquire(now)) {
+            return best;
+        }
+        return getClientByRoundRobin();
+    }
+
+    private boolean isAvailable(NettyClient client, long now) {
+        return client != null && client.isActive() && client.getHealthTracker().isAvailable(now);
+    }
+
     public synchronized NettyClient getClientByWeightRandom() {
         NettyClient client;
         double maxWeight = Double.MIN_VALUE;
@@ -1016,6 +1064,9 @@ public class ClientMgr {
             case WEIGHT_RANDOM:
                 client = getClientByWeightRandom();
                 break;
+            case LEAST_LATENCY:
+                client = getClientByLeastLatency();
+                break;
         }
         return client;
     }
@@ -185,7 +185,7 @@ public class HttpProxySender extends Thread {
                     // discard old message and use new message instead.
                     logger.debug("discard old message and use new message instead");
                     HttpMessage oldMessage = messageCache.poll();
-                    if (oldMessage != null) {
+                    if (oldMessage != null && oldMessage.getCallback() != null) {
                         oldMessage.getCallback().onMessageAck(SendResult.TIMEOUT);
                     }
                     messageCache.offer(httpMessage);
@@ -0,0 +1,161 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sdk.dataproxy.network;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * In-flight asynchronous requests of one channel, keyed by the sequence id of the message.
+ * It is an open addressing hash map with primitive long keys, so that no key object is created per message.
+ */
+public class InflightTable {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private long[] keys;
+    private QueueObject[] values;
+    private int mask;
+    private int size = 0;
+
+    public InflightTable() {
+        keys = new long[INITIAL_CAPACITY];
+        values = new QueueObject[INITIAL_CAPACITY];
+        mask = INITIAL_CAPACITY - 1;
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private int indexOf(long key) {
+        int index = hash(key) & mask;
+        while (values[index] != null) {
+            if (keys[index] == key) {
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * @return the existing value of the key, null if the value is put
+     */
+    public synchronized QueueObject putIfAbsent(long key, QueueObject value) {
+        int index = hash(key) & mask;
+        while (values[index] != null) {
+            if (keys[index] == key) {
+                return values[index];
+            }
+            index = (index + 1) & mask;
+        }
+        keys[index] = key;
+        values[index] = value;
+        // keep the load factor under 0.5 for short probe sequences
+        if (++size > (mask + 1) >> 1) {
+            resize((mask + 1) << 1);
+        }
+        return null;
+    }
+
+    public synchronized QueueObject remove(long key) {
+        int index = indexOf(key);
+        if (index < 0) {
+            return null;
+        }
+        QueueObject value = values[index];
+        removeAt(index);
+        return value;
+    }
+
+    /**
+     * remove the key only if it is mapped to the given value
+     */
+    public synchronized boolean remove(long key, QueueObject value) {
+        int index = indexOf(key);
+        if (index < 0 || values[index] != value) {
+            return false;
+        }
+        removeAt(index);
+        return true;
+    }
+
+    /**
+     * remove and return all the values
+     */
+    public synchronized List<QueueObject> removeAll() {
+        List<QueueObject> result = new ArrayList<>(size);
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) {
+                result.add(values[i]);
+                values[i] = null;
+            }
+        }
+        size = 0;
+        return result;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * remove the slot and shift back the following entries of the probe sequence
+     */
+    private void removeAt(int index) {
+        size--;
+        int hole = index;
+        int next = (hole + 1) & mask;
+        while (values[next] != null) {
+            int home = hash(keys[next]) & mask;
+            // move the entry if its home slot is not in the cyclic range (hole, next]
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        values[hole] = null;
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        QueueObject[] oldValues = values;
+        keys = new long[capacity];
+        values = new QueueObject[capacity];
+        mask = capacity - 1;
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] == null) {
+                continue;
+            }
+            int index = hash(oldKeys[i]) & mask;
+            while (values[index] != null) {
+                index = (index + 1) & mask;
+            }
+            keys[index] = oldKeys[i];
+            values[index] = oldValues[i];
+        }
+    }
+}
@@ -45,6 +45,7 @@ public class NettyClient {
     private Bootstrap bootstrap;
     private String serverIP;
     private int serverPort;
+    private final ClientHealthTracker healthTracker;
 
     public String getServerIP() {
         return serverIP;
@@ -60,9 +61,15 @@ public class NettyClient {
         this.serverIP = serverIP;
         this.serverPort = serverPort;
         this.configure = configure;
+        this.healthTracker = new ClientHealthTracker(serverIP + ":" + serverPort,
+                configure.getCircuitBreakFailures(), configure.getCircuitBreakOpenMs());
         setState(ConnState.INIT);
     }
 
+    public ClientHealthTracker getHealthTracker() {
+        return healthTracker;
+    }
+
     public Channel getChannel() {
         return channel;
     }
@@ -17,6 +17,7 @@
 
 package org.apache.inlong.sdk.dataproxy.network;
 
+import io.netty.util.Timeout;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.inlong.sdk.dataproxy.SendMessageCallback;
@@ -27,6 +28,10 @@ public class QueueObject {
     private final SendMessageCallback callback;
     private final long timeoutInMillis;
     private final int size;
+    private final long sendNanos = System.nanoTime();
+    private volatile Timeout timeout;
+    private volatile ClientHealthTracker healthTracker;
+    private volatile long probe = ClientHealthTracker.NO_PROBE;
 
     public QueueObject(long sendTimeInMillis,
             SendMessageCallback callback,
@@ -63,4 +68,38 @@ public class QueueObject {
     public int getSize() {
         return size;
     }
+
+    public long getSendNanos() {
+        return sendNanos;
+    }
+
+    public ClientHealthTracker getHealthTracker() {
+        return healthTracker;
+    }
+
+    public void setHealthTracker(ClientHealthTracker healthTracker) {
+        this.healthTracker = healthTracker;
+    }
+
+    public long getProbe() {
+        return probe;
+    }
+
+    public void setProbe(long probe) {
+        this.probe = probe;
+    }
+
+    public void setTimeout(Timeout timeout) {
+        this.timeout = timeout;
+    }
+
+    /**
+     * cancel the pending timeout after the callback is acked
+     */
+    public void cancelTimeout() {
+        Timeout current = timeout;
+        if (current != null) {
+            current.cancel();
+        }
+    }
 }
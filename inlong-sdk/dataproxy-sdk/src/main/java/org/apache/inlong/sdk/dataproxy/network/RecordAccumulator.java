@@ -0,0 +1,265 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sdk.dataproxy.network;
+
+import org.apache.inlong.sdk.dataproxy.SendMessageCallback;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Accumulate single messages of async sending into message lists.
+ * A batch is sent when it reaches the max count or bytes, or when it has waited for linger time.
+ * Bytes of the buffered and in-flight batches are bounded, appending blocks until the bytes are acked.
+ */
+public class RecordAccumulator {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RecordAccumulator.class);
+    // messages in the same second are sent with the same dt, as dt is sent in seconds
+    private static final long DT_BUCKET_MS = 1000L;
+
+    private final int batchSize;
+    private final long batchBytes;
+    private final long lingerMs;
+    private final long maxBufferedBytes;
+    private final BatchSender batchSender;
+    private final ConcurrentHashMap<RecordBatch.Key, RecordBatch> batches = new ConcurrentHashMap<>();
+    private final AtomicLong bufferedBytes = new AtomicLong(0);
+    private final AtomicInteger waiters = new AtomicInteger(0);
+    private final ReentrantLock spaceLock = new ReentrantLock();
+    private final Condition spaceAvailable = spaceLock.newCondition();
+    private final LingerThread lingerThread;
+    private volatile boolean closed = false;
+
+    public RecordAccumulator(int batchSize, long batchBytes, long lingerMs, long maxBufferedBytes,
+            BatchSender batchSender) {
+        this.batchSize = batchSize;
+        this.batchBytes = batchBytes;
+        this.lingerMs = lingerMs;
+        this.maxBufferedBytes = maxBufferedBytes;
+        this.batchSender = batchSender;
+        this.lingerThread = new LingerThread();
+        this.lingerThread.start();
+    }
+
+    /**
+     * append a message, the message is sent later by the batch sender
+     *
+     * @param extraAttrMap extra attributes, null if not used
+     * @param attrs extra attributes in string, messages are batched only with the same attributes
+     * @param timeout max time to wait for buffer space, also used as send timeout of the batch
+     * @throws ProxysdkException if the buffer is still full after timeout, or the accumulator is closed
+     */
+    public void append(String groupId, String streamId, long dt, byte[] body, SendMessageCallback callback,
+            Map<String, String> extraAttrMap, String attrs, boolean isProxySend,
+            long timeout, TimeUnit timeUnit) throws ProxysdkException {
+        if (closed) {
+            throw new ProxysdkException("record accumulator is closed");
+        }
+        reserve(body.length, timeout, timeUnit);
+        RecordBatch.Key key = new RecordBatch.Key(groupId, streamId, dt / DT_BUCKET_MS, attrs, isProxySend);
+        RecordBatch full = null;
+        while (true) {
+            RecordBatch batch = batches.computeIfAbsent(key, k -> new RecordBatch(k, dt, System.currentTimeMillis(),
+                    timeUnit.toMillis(timeout), extraAttrMap, this::release));
+            synchronized (batch) {
+                if (batch.isSealed()) {
+                    // removed by linger thread or another appender, create a new one
+                    continue;
+                }
+                if (closed) {
+                    // closed while reserving, the batches may be drained already and the message never sent
+                    if (batch.getCount() == 0) {
+                        batch.seal();
+                        batches.remove(key, batch);
+                    }
+                    release(body.length);
+                    throw new ProxysdkException("record accumulator is closed");
+                }
+                batch.append(body, callback);
+                if (batch.getCount() >= batchSize || batch.getBytes() >= batchBytes) {
+                    batch.seal();
+                    batches.remove(key, batch);
+                    full = batch;
+                }
+                break;
+            }
+        }
+        if (full != null) {
+            send(full);
+        }
+    }
+
+    private void reserve(int size, long timeout, TimeUnit timeUnit) throws ProxysdkException {
+        if (tryReserve(size)) {
+            return;
+        }
+        long remain = timeUnit.toNanos(timeout);
+        spaceLock.lock();
+        waiters.incrementAndGet();
+        try {
+            while (!tryReserve(size)) {
+                if (remain <= 0 || closed) {
+                    throw new ProxysdkException("ASYNC_CALLBACK_BUFFER_FULL");
+                }
+                remain = spaceAvailable.awaitNanos(remain);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ProxysdkException("interrupted while waiting for buffer space");
+        } finally {
+            waiters.decrementAndGet();
+            spaceLock.unlock();
+        }
+    }
+
+    private boolean tryReserve(int size) {
+        while (true) {
+            long current = bufferedBytes.get();
+            // a message larger than the whole buffer is accepted when nothing is buffered
+            if (current > 0 && current + size > maxBufferedBytes) {
+                return false;
+            }
+            if (bufferedBytes.compareAndSet(current, current + size)) {
+                return true;
+            }
+        }
+    }
+
+    private void release(long size) {
+        bufferedBytes.addAndGet(-size);
+        if (waiters.get() > 0) {
+            spaceLock.lock();
+            try {
+                spaceAvailable.signalAll();
+            } finally {
+                spaceLock.unlock();
+            }
+        }
+    }
+
+    private void send(RecordBatch batch) {
+        try {
+            batchSender.send(batch);
+        } catch (Throwable e) {
+            LOGGER.warn("send batch {} of {} messages error", batch.getKey(), batch.getCount(), e);
+            batch.onException(e);
+        }
+    }
+
+    /**
+     * seal and send batches which waited for linger time, or all of them if force
+     */
+    private void sendExpired(boolean force) {
+        long now = System.currentTimeMillis();
+        List<RecordBatch> expired = new ArrayList<>();
+        for (RecordBatch batch : batches.values()) {
+            synchronized (batch) {
+                if (batch.isSealed() || (!force && now - batch.getCreateTime() < lingerMs)) {
+                    continue;
+                }
+                batch.seal();
+                batches.remove(batch.getKey(), batch);
+                expired.add(batch);
+            }
+        }
+        expired.forEach(this::send);
+    }
+
+    public long getBufferedBytes() {
+        return bufferedBytes.get();
+    }
+
+    /**
+     * send all the accumulated messages and stop the linger thread,
+     * messages appended after closing are rejected by an exception
+     */
+    public void close() {
+        closed = true;
+        lingerThread.shutDown();
+        sendExpired(true);
+        // appenders check closed under the batch lock, so no message is left, just in case fail the callbacks
+        for (RecordBatch batch : batches.values()) {
+            synchronized (batch) {
+                if (batch.isSealed()) {
+                    continue;
+                }
+                batch.seal();
+                batches.remove(batch.getKey(), batch);
+            }
+            if (batch.getCount() > 0) {
+                batch.onException(new ProxysdkException("record accumulator is closed"));
+            }
+        }
+        spaceLock.lock();
+        try {
+            spaceAvailable.signalAll();
+        } finally {
+            spaceLock.unlock();
+        }
+    }
+
+    /**
+     * send a sealed batch, the batch is the callback of the message list
+     */
+    public interface BatchSender {
+
+        void send(RecordBatch batch) throws ProxysdkException;
+    }
+
+    private class LingerThread extends Thread {
+
+        private volatile boolean bShutDown = false;
+
+        LingerThread() {
+            this.setDaemon(true);
+            this.setName("RecordAccumulatorLingerThread");
+        }
+
+        void shutDown() {
+            bShutDown = true;
+            this.interrupt();
+        }
+
+        @Override
+        public void run() {
+            long interval = Math.max(1, lingerMs / 2);
+            while (!bShutDown) {
+                try {
+                    TimeUnit.MILLISECONDS.sleep(interval);
+                    sendExpired(false);
+                } catch (InterruptedException e) {
+                    if (!bShutDown) {
+                        LOGGER.warn("linger thread is interrupted");
+                    }
+                } catch (Throwable e) {
+                    LOGGER.error("linger thread exception", e);
+                }
+            }
+        }
+    }
+}
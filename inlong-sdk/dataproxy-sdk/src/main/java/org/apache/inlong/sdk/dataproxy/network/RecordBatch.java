@@ -0,0 +1,208 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sdk.dataproxy.network;
+
+import org.apache.inlong.sdk.dataproxy.SendMessageCallback;
+import org.apache.inlong.sdk.dataproxy.SendResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongConsumer;
+
+/**
+ * Messages of the same groupId, streamId, dt second and attributes accumulated by {@link RecordAccumulator}.
+ * It is sent as one message list, and the ack of the list is fanned out to the callback of every message.
+ */
+public class RecordBatch implements SendMessageCallback {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RecordBatch.class);
+
+    private final Key key;
+    private final long dt;
+    private final long createTime;
+    private final long timeoutMs;
+    private final Map<String, String> extraAttrMap;
+    private final List<byte[]> bodyList = new ArrayList<>();
+    private final List<SendMessageCallback> callbacks = new ArrayList<>();
+    private final AtomicBoolean completed = new AtomicBoolean(false);
+    private final LongConsumer releaser;
+    private long bytes = 0;
+    private boolean sealed = false;
+
+    RecordBatch(Key key, long dt, long createTime, long timeoutMs, Map<String, String> extraAttrMap,
+            LongConsumer releaser) {
+        this.key = key;
+        this.dt = dt;
+        this.createTime = createTime;
+        this.timeoutMs = timeoutMs;
+        this.extraAttrMap = extraAttrMap;
+        this.releaser = releaser;
+    }
+
+    /**
+     * append a message, the caller should hold the lock of the batch
+     */
+    void append(byte[] body, SendMessageCallback callback) {
+        bodyList.add(body);
+        callbacks.add(callback);
+        bytes += body.length;
+    }
+
+    void seal() {
+        sealed = true;
+    }
+
+    boolean isSealed() {
+        return sealed;
+    }
+
+    int getCount() {
+        return bodyList.size();
+    }
+
+    long getBytes() {
+        return bytes;
+    }
+
+    long getCreateTime() {
+        return createTime;
+    }
+
+    public Key getKey() {
+        return key;
+    }
+
+    /**
+     * dt of the first message in the batch
+     */
+    public long getDt() {
+        return dt;
+    }
+
+    public long getTimeoutMs() {
+        return timeoutMs;
+    }
+
+    /**
+     * @return extra attributes of the messages, null if they are sent without extra attributes
+     */
+    public Map<String, String> getExtraAttrMap() {
+        return extraAttrMap;
+    }
+
+    public List<byte[]> getBodyList() {
+        return bodyList;
+    }
+
+    @Override
+    public void onMessageAck(SendResult result) {
+        if (!completed.compareAndSet(false, true)) {
+            return;
+        }
+        releaser.accept(bytes);
+        for (SendMessageCallback callback : callbacks) {
+            if (callback == null) {
+                continue;
+            }
+            try {
+                callback.onMessageAck(result);
+            } catch (Throwable e) {
+                LOGGER.error("callback of {} throw error", key, e);
+            }
+        }
+    }
+
+    @Override
+    public void onException(Throwable e) {
+        if (!completed.compareAndSet(false, true)) {
+            return;
+        }
+        releaser.accept(bytes);
+        for (SendMessageCallback callback : callbacks) {
+            if (callback == null) {
+                continue;
+            }
+            try {
+                callback.onException(e);
+            } catch (Throwable ex) {
+                LOGGER.error("callback of {} throw error", key, ex);
+            }
+        }
+    }
+
+    /**
+     * messages with the same key can be sent in one message list
+     */
+    public static class Key {
+
+        private final String groupId;
+        private final String streamId;
+        private final long dtBucket;
+        private final String attrs;
+        private final boolean isProxySend;
+
+        public Key(String groupId, String streamId, long dtBucket, String attrs, boolean isProxySend) {
+            this.groupId = groupId;
+            this.streamId = streamId;
+            this.dtBucket = dtBucket;
+            this.attrs = attrs;
+            this.isProxySend = isProxySend;
+        }
+
+        public String getGroupId() {
+            return groupId;
+        }
+
+        public String getStreamId() {
+            return streamId;
+        }
+
+        public boolean isProxySend() {
+            return isProxySend;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return dtBucket == other.dtBucket && isProxySend == other.isProxySend
+                    && Objects.equals(groupId, other.groupId) && Objects.equals(streamId, other.streamId)
+                    && Objects.equals(attrs, other.attrs);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(groupId, streamId, dtBucket, attrs, isProxySend);
+        }
+
+        @Override
+        public String toString() {
+            return groupId + "|" + streamId + "|" + dtBucket;
+        }
+    }
+}
@@ -18,9 +18,11 @@
 package org.apache.inlong.sdk.dataproxy.network;
 
 import io.netty.channel.Channel;
-import org.apache.commons.collections.MapUtils;
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.concurrent.DefaultThreadFactory;
 import org.apache.commons.lang3.ObjectUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.inlong.sdk.dataproxy.ConfigConstants;
 import org.apache.inlong.sdk.dataproxy.FileCallback;
 import org.apache.inlong.sdk.dataproxy.ProxyClientConfig;
 import org.apache.inlong.sdk.dataproxy.SendMessageCallback;
@@ -47,13 +49,15 @@ import java.util.concurrent.locks.ReentrantLock;
 
 public class Sender {
 
+    static final long INVALID_SEQUENCE_ID = -1L;
     private static final Logger LOGGER = LoggerFactory.getLogger(Sender.class);
 
-    /* Store the callback used by asynchronously message sending. */
-    private final ConcurrentHashMap<Channel, ConcurrentHashMap<String, QueueObject>> callbacks =
-            new ConcurrentHashMap<>();
-    /* Store the synchronous message sending invocations. */
-    private final ConcurrentHashMap<String, SyncMessageCallable> syncCallables = new ConcurrentHashMap<>();
+    /* Store the callback used by asynchronously message sending, keyed by sequence id in each channel. */
+    private final ConcurrentHashMap<Channel, InflightTable> callbacks = new ConcurrentHashMap<>();
+    /* Store the synchronous message sending invocations, keyed by sequence id. */
+    private final ConcurrentHashMap<Long, SyncMessageCallable> syncCallables = new ConcurrentHashMap<>();
+    /* Expire the callbacks used by asynchronously message sending. */
+    private final HashedWheelTimer timeoutTimer;
     private final ConcurrentHashMap<String, NettyClient> chooseProxy = new ConcurrentHashMap<>();
     private final ReentrantLock stateLock = new ReentrantLock();
     private final ExecutorService threadPool;
@@ -98,7 +102,9 @@ public class Sender {
             }
         }
         this.isFile = configure.isFile();
-        scanThread = new TimeoutScanThread(callbacks, currentBufferSize, configure, clientMgr);
+        timeoutTimer = new HashedWheelTimer(new DefaultThreadFactory("sender-timeout-timer", true),
+                ConfigConstants.CALLBACK_TIMEOUT_TICK_MS, TimeUnit.MILLISECONDS);
+        scanThread = new TimeoutScanThread(currentBufferSize, configure, clientMgr);
         scanThread.start();
 
         metricWorker = new MetricWorkerThread(configure, this);
@@ -127,6 +133,7 @@ public class Sender {
     public void close() {
         checkCallbackList();
         scanThread.shutDown();
+        timeoutTimer.stop();
         clientMgr.shutDown();
         threadPool.shutdown();
         metricWorker.close();
@@ -152,31 +159,121 @@ public class Sender {
         return exceptStr;
     }
 
+    /**
+     * get the sequence id of a message id, which is the sequence itself for message type 7,
+     * or "ip#sequence#time" for the others
+     *
+     * @return sequence id, INVALID_SEQUENCE_ID if the message id is invalid
+     */
+    static long toSequenceId(String messageId) {
+        if (messageId == null) {
+            return INVALID_SEQUENCE_ID;
+        }
+        try {
+            int start = messageId.indexOf('#');
+            long sequenceId;
+            if (start < 0) {
+                sequenceId = Long.parseLong(messageId);
+            } else {
+                int end = messageId.indexOf('#', start + 1);
+                sequenceId = Long.parseLong(
+                        end < 0 ? messageId.substring(start + 1) : messageId.substring(start + 1, end));
+            }
+            return sequenceId < 0 ? INVALID_SEQUENCE_ID : sequenceId;
+        } catch (NumberFormatException e) {
+            return INVALID_SEQUENCE_ID;
+        }
+    }
+
+    /**
+     * get the sequence id of a message to send, invalid ids are rejected as they would share one slot
+     *
+     * @throws ProxysdkException if the message id is invalid
+     */
+    private static long checkSequenceId(EncodeObject encodeObject) throws ProxysdkException {
+        long sequenceId = toSequenceId(encodeObject.getMessageId());
+        if (sequenceId == INVALID_SEQUENCE_ID) {
+            LOGGER.error("invalid message id {}", encodeObject.getMessageId());
+            throw new ProxysdkException(SendResult.INVALID_DATA.toString());
+        }
+        return sequenceId;
+    }
+
     /* Used for asynchronously message sending. */
     public void notifyCallback(Channel channel, String messageId, SendResult result) {
         LOGGER.debug("Channel = {} , ack messageId = {}", channel, messageId);
         if (channel == null) {
             return;
         }
-        ConcurrentHashMap<String, QueueObject> callBackMap = callbacks.get(channel);
+        InflightTable callBackMap = callbacks.get(channel);
         if (callBackMap == null) {
             return;
         }
-        QueueObject callback = callBackMap.remove(messageId);
+        long sequenceId = toSequenceId(messageId);
+        if (sequenceId == INVALID_SEQUENCE_ID) {
+            LOGGER.warn("skip the ack of invalid message id {} from {}", messageId, channel);
+            return;
+        }
+        QueueObject callback = callBackMap.remove(sequenceId);
         if (callback == null) {
             return;
         }
+        String fileResult = null;
         if (isFile) {
             String proxyip = channel.remoteAddress().toString();
-            ((FileCallback) callback.getCallback()).onMessageAck(result.toString()
-                    + "=" + proxyip.substring(1, proxyip.indexOf(':')));
-            currentBufferSize.addAndGet(-callback.getSize());
+            fileResult = result.toString() + "=" + proxyip.substring(1, proxyip.indexOf(':'));
+        }
+        completeCallback(callback, result, fileResult);
+    }
+
+    /**
+     * release the buffer and call back the message, the message should have been removed from the in-flight table
+     */
+    private void completeCallback(QueueObject queueObject, SendResult result, String fileResult) {
+        queueObject.cancelTimeout();
+        if (queueObject.getHealthTracker() != null) {
+            queueObject.getHealthTracker().onComplete(result, System.nanoTime() - queueObject.getSendNanos(),
+                    queueObject.getProbe());
+        }
+        if (isFile) {
+            currentBufferSize.addAndGet(-queueObject.getSize());
+            ((FileCallback) queueObject.getCallback())
+                    .onMessageAck(fileResult == null ? result.toString() : fileResult);
         } else {
-            callback.getCallback().onMessageAck(result);
             currentBufferSize.decrementAndGet();
+            if (queueObject.getCallback() != null) {
+                queueObject.getCallback().onMessageAck(result);
+            }
         }
     }
 
+    /**
+     * put the callback into the in-flight table of the channel and schedule its timeout
+     *
+     * @return false if a callback of the message id exists
+     */
+    private boolean addCallback(NettyClient client, long sequenceId, QueueObject queueObject) {
+        Channel channel = client.getChannel();
+        InflightTable table = callbacks.computeIfAbsent(channel, k -> new InflightTable());
+        if (table.putIfAbsent(sequenceId, queueObject) != null) {
+            LOGGER.warn("message id {} has existed.", sequenceId);
+            return false;
+        }
+        queueObject.setHealthTracker(client.getHealthTracker());
+        queueObject.setProbe(client.getHealthTracker().onSend());
+        queueObject.setTimeout(timeoutTimer.newTimeout(timeout -> {
+            // the message may be acked or its channel disconnected meanwhile
+            if (table.remove(sequenceId, queueObject)) {
+                try {
+                    completeCallback(queueObject, SendResult.TIMEOUT, null);
+                } finally {
+                    scanThread.addTimeoutChannel(channel);
+                }
+            }
+        }, queueObject.getTimeoutInMillis(), TimeUnit.MILLISECONDS));
+        return true;
+    }
+
     private SendResult syncSendInternalMessage(NettyClient client, EncodeObject encodeObject, String msgUUID,
             long timeout, TimeUnit timeUnit) throws ExecutionException, InterruptedException, TimeoutException {
         if (client == null) {
@@ -208,8 +305,13 @@ public class Sender {
             encodeObject.setEncryptEntry(false, null, null);
         }
         encodeObject.setMsgUUID(msgUUID);
+        long sequenceId = toSequenceId(encodeObject.getMessageId());
+        if (sequenceId == INVALID_SEQUENCE_ID) {
+            LOGGER.error("invalid message id {}", encodeObject.getMessageId());
+            return SendResult.INVALID_DATA;
+        }
         SyncMessageCallable callable = new SyncMessageCallable(client, encodeObject, timeout, timeUnit);
-        syncCallables.put(encodeObject.getMessageId(), callable);
+        syncCallables.put(sequenceId, callable);
 
         Future<SendResult> future = threadPool.submit(callable);
         return future.get(timeout, timeUnit);
@@ -229,24 +331,36 @@ public class Sender {
         metricWorker.recordNumByKey(encodeObject.getMessageId(), encodeObject.getGroupId(), encodeObject.getStreamId(),
                 Utils.getLocalIp(), encodeObject.getDt(), encodeObject.getPackageTime(), encodeObject.getRealCnt());
         NettyClient client = clientMgr.getClient(clientMgr.getLoadBalance(), encodeObject);
+        if (client == null) {
+            return syncSendMessage(null, encodeObject, msgUUID, timeout, timeUnit);
+        }
+        long startNanos = System.nanoTime();
+        long probe = client.getHealthTracker().onSend();
+        SendResult result = syncSendMessage(client, encodeObject, msgUUID, timeout, timeUnit);
+        client.getHealthTracker().onComplete(result, System.nanoTime() - startNanos, probe);
+        return result;
+    }
+
+    private SendResult syncSendMessage(NettyClient client, EncodeObject encodeObject, String msgUUID,
+            long timeout, TimeUnit timeUnit) {
         SendResult message = null;
         try {
             message = syncSendInternalMessage(client, encodeObject, msgUUID, timeout, timeUnit);
         } catch (InterruptedException e) {
             // TODO Auto-generated catch block
             LOGGER.error("send message error {} ", getExceptionStack(e));
-            syncCallables.remove(encodeObject.getMessageId());
+            syncCallables.remove(toSequenceId(encodeObject.getMessageId()));
             return SendResult.THREAD_INTERRUPT;
         } catch (ExecutionException e) {
             // TODO Auto-generated catch block
             LOGGER.error("ExecutionException {} ", getExceptionStack(e));
-            syncCallables.remove(encodeObject.getMessageId());
+            syncCallables.remove(toSequenceId(encodeObject.getMessageId()));
             return SendResult.UNKOWN_ERROR;
         } catch (TimeoutException e) {
             // TODO Auto-generated catch block
             LOGGER.error("TimeoutException {} ", getExceptionStack(e));
             // e.printStackTrace();
-            SyncMessageCallable syncMessageCallable = syncCallables.remove(encodeObject.getMessageId());
+            SyncMessageCallable syncMessageCallable = syncCallables.remove(toSequenceId(encodeObject.getMessageId()));
             if (syncMessageCallable != null) {
                 NettyClient tmpClient = syncMessageCallable.getClient();
                 if (tmpClient != null) {
@@ -260,11 +374,11 @@ public class Sender {
             return SendResult.TIMEOUT;
         } catch (Throwable e) {
             LOGGER.error("syncSendMessage exception {} ", getExceptionStack(e));
-            syncCallables.remove(encodeObject.getMessageId());
+            syncCallables.remove(toSequenceId(encodeObject.getMessageId()));
             return SendResult.UNKOWN_ERROR;
         }
         if (message == null) {
-            syncCallables.remove(encodeObject.getMessageId());
+            syncCallables.remove(toSequenceId(encodeObject.getMessageId()));
             return SendResult.UNKOWN_ERROR;
         }
         if (client != null) {
@@ -308,8 +422,13 @@ public class Sender {
             encodeObject.setEncryptEntry(false, null, null);
         }
         encodeObject.setMsgUUID(msgUUID);
+        long sequenceId = toSequenceId(encodeObject.getMessageId());
+        if (sequenceId == INVALID_SEQUENCE_ID) {
+            LOGGER.error("invalid message id {}", encodeObject.getMessageId());
+            return SendResult.INVALID_DATA;
+        }
         SyncMessageCallable callable = new SyncMessageCallable(client, encodeObject, timeout, timeUnit);
-        syncCallables.put(encodeObject.getMessageId(), callable);
+        syncCallables.put(sequenceId, callable);
 
         Future<SendResult> future = threadPool.submit(callable);
         return future.get(timeout, timeUnit);
@@ -343,18 +462,19 @@ public class Sender {
             } catch (InterruptedException e) {
                 // TODO Auto-generated catch block
                 LOGGER.error("send message error {}", getExceptionStack(e));
-                syncCallables.remove(encodeObject.getMessageId());
+                syncCallables.remove(toSequenceId(encodeObject.getMessageId()));
                 return SendResult.THREAD_INTERRUPT.toString();
             } catch (ExecutionException e) {
                 // TODO Auto-generated catch block
                 LOGGER.error("ExecutionException {}", getExceptionStack(e));
-                syncCallables.remove(encodeObject.getMessageId());
+                syncCallables.remove(toSequenceId(encodeObject.getMessageId()));
                 return SendResult.UNKOWN_ERROR.toString();
             } catch (TimeoutException e) {
                 // TODO Auto-generated catch block
                 LOGGER.error("TimeoutException {}", getExceptionStack(e));
                 // e.printStackTrace();
-                SyncMessageCallable syncMessageCallable = syncCallables.remove(encodeObject.getMessageId());
+                SyncMessageCallable syncMessageCallable =
+                        syncCallables.remove(toSequenceId(encodeObject.getMessageId()));
                 if (syncMessageCallable != null) {
                     NettyClient tmpClient = syncMessageCallable.getClient();
                     if (tmpClient != null) {
@@ -368,14 +488,14 @@ public class Sender {
                 return SendResult.TIMEOUT.toString();
             } catch (Throwable e) {
                 LOGGER.error("syncSendMessage exception {}", getExceptionStack(e));
-                syncCallables.remove(encodeObject.getMessageId());
+                syncCallables.remove(toSequenceId(encodeObject.getMessageId()));
                 return SendResult.UNKOWN_ERROR.toString();
             }
             scanThread.resetTimeoutChannel(client.getChannel());
             return message.toString() + "=" + client.getServerIP();
         } catch (Exception e) {
             LOGGER.error("agent send error {}", getExceptionStack(e));
-            syncCallables.remove(encodeObject.getMessageId());
+            syncCallables.remove(toSequenceId(encodeObject.getMessageId()));
             return SendResult.UNKOWN_ERROR.toString();
         }
     }
@@ -408,6 +528,7 @@ public class Sender {
         if (currentBufferSize.get() >= asyncCallbackMaxSize) {
             throw new ProxysdkException("ASYNC_CALLBACK_BUFFER_FULL");
         }
+        long sequenceId = checkSequenceId(encodeObject);
         int size = 1;
         if (isFile) {
             if (encodeObject.getBodyBytes() != null) {
@@ -428,14 +549,8 @@ public class Sender {
                 throw new ProxysdkException("ASYNC_CALLBACK_BUFFER_FULL");
             }
         }
-        ConcurrentHashMap<String, QueueObject> tmpCallBackMap = new ConcurrentHashMap<>();
-        ConcurrentHashMap<String, QueueObject> msgQueueMap = callbacks.putIfAbsent(
-                client.getChannel(), tmpCallBackMap);
-        if (msgQueueMap == null) {
-            msgQueueMap = tmpCallBackMap;
-        }
-        msgQueueMap.put(encodeObject.getMessageId(), new QueueObject(System.currentTimeMillis(),
-                callback, size, timeout, timeUnit));
+        addCallback(client, sequenceId,
+                new QueueObject(System.currentTimeMillis(), callback, size, timeout, timeUnit));
         if (encodeObject.getMsgtype() == 7) {
             int groupIdnum = 0;
             int streamIdnum = 0;
@@ -519,40 +634,44 @@ public class Sender {
         if (client == null) {
             throw new ProxysdkException(SendResult.NO_CONNECTION.toString());
         }
-        if (currentBufferSize.get() >= asyncCallbackMaxSize) {
-            throw new ProxysdkException("ASYNC_CALLBACK_BUFFER_FULL");
-        }
-        if (isNotValidateAttr(encodeObject.getCommonattr(), encodeObject.getAttributes())) {
-            LOGGER.error("error attr format {} {}", encodeObject.getCommonattr(),
-                    encodeObject.getAttributes());
-            throw new ProxysdkException(SendResult.INVALID_ATTRIBUTES.toString());
-        }
-        int size = 1;
-        if (isFile) {
-            if (encodeObject.getBodyBytes() != null) {
-                size = encodeObject.getBodyBytes().length;
-            } else {
-                for (byte[] bytes : encodeObject.getBodylist()) {
-                    size = size + bytes.length;
-                }
-            }
-            if (currentBufferSize.addAndGet(size) >= asyncCallbackMaxSize) {
-                currentBufferSize.addAndGet(-size);
+        // the client may hold the half-open probe of its circuit, which must be released if no callback is added
+        boolean added = false;
+        try {
+            if (currentBufferSize.get() >= asyncCallbackMaxSize) {
                 throw new ProxysdkException("ASYNC_CALLBACK_BUFFER_FULL");
             }
+            if (isNotValidateAttr(encodeObject.getCommonattr(), encodeObject.getAttributes())) {
+                LOGGER.error("error attr format {} {}", encodeObject.getCommonattr(),
+                        encodeObject.getAttributes());
+                throw new ProxysdkException(SendResult.INVALID_ATTRIBUTES.toString());
+            }
+            long sequenceId = checkSequenceId(encodeObject);
+            int size = 1;
+            if (isFile) {
+                if (encodeObject.getBodyBytes() != null) {
+                    size = encodeObject.getBodyBytes().length;
+                } else {
+                    for (byte[] bytes : encodeObject.getBodylist()) {
+                        size = size + bytes.length;
+                    }
+                }
+                if (currentBufferSize.addAndGet(size) >= asyncCallbackMaxSize) {
+                    currentBufferSize.addAndGet(-size);
+                    throw new ProxysdkException("ASYNC_CALLBACK_BUFFER_FULL");
+                }
 
-        } else {
-            if (currentBufferSize.incrementAndGet() >= asyncCallbackMaxSize) {
-                currentBufferSize.decrementAndGet();
-                throw new ProxysdkException("ASYNC_CALLBACK_BUFFER_FULL");
+            } else {
+                if (currentBufferSize.incrementAndGet() >= asyncCallbackMaxSize) {
+                    currentBufferSize.decrementAndGet();
+                    throw new ProxysdkException("ASYNC_CALLBACK_BUFFER_FULL");
+                }
+            }
+            added = addCallback(client, sequenceId,
+                    new QueueObject(System.currentTimeMillis(), callback, size, timeout, timeUnit));
+        } finally {
+            if (!added) {
+                client.getHealthTracker().release();
             }
-        }
-        ConcurrentHashMap<String, QueueObject> msgQueueMap =
-                callbacks.computeIfAbsent(client.getChannel(), (k) -> new ConcurrentHashMap<>());
-        QueueObject queueObject = msgQueueMap.putIfAbsent(encodeObject.getMessageId(),
-                new QueueObject(System.currentTimeMillis(), callback, size, timeout, timeUnit));
-        if (queueObject != null) {
-            LOGGER.warn("message id {} has existed.", encodeObject.getMessageId());
         }
         if (encodeObject.getMsgtype() == 7) {
             int groupIdnum = 0;
@@ -581,7 +700,8 @@ public class Sender {
     public void notifyFeedback(Channel channel, EncodeObject response) {
         String messageId = response.getMessageId();
         chooseProxy.remove(messageId);
-        SyncMessageCallable callable = syncCallables.remove(messageId);
+        long sequenceId = toSequenceId(messageId);
+        SyncMessageCallable callable = sequenceId == INVALID_SEQUENCE_ID ? null : syncCallables.remove(sequenceId);
         SendResult result = response.getSendResult();
         if (result == SendResult.OK) {
             metricWorker.recordSuccessByMessageId(messageId);
@@ -603,33 +723,18 @@ public class Sender {
         }
         LOGGER.info("channel {} connection is disconnected!", channel);
         try {
-            ConcurrentHashMap<String, QueueObject> msgQueueMap = callbacks.remove(channel);
+            InflightTable msgQueueMap = callbacks.remove(channel);
             if (msgQueueMap != null) {
-                for (String messageId : msgQueueMap.keySet()) {
-                    QueueObject queueObject = msgQueueMap.remove(messageId);
-                    if (queueObject == null) {
-                        continue;
-                    }
-                    if (isFile) {
-                        ((FileCallback) queueObject.getCallback())
-                                .onMessageAck(SendResult.CONNECTION_BREAK.toString());
-                        currentBufferSize.addAndGet(-queueObject.getSize());
-                    } else {
-                        queueObject.getCallback().onMessageAck(SendResult.CONNECTION_BREAK);
-                        currentBufferSize.decrementAndGet();
-                    }
+                for (QueueObject queueObject : msgQueueMap.removeAll()) {
+                    completeCallback(queueObject, SendResult.CONNECTION_BREAK, null);
                 }
-                msgQueueMap.clear();
             }
         } catch (Throwable e2) {
             LOGGER.info("process channel {} disconnected callbacks throw error,", channel, e2);
         }
 
         try {
-            for (String messageId : syncCallables.keySet()) {
-                if (messageId == null) {
-                    continue;
-                }
+            for (Long messageId : syncCallables.keySet()) {
                 SyncMessageCallable messageCallable = syncCallables.get(messageId);
                 if (messageCallable == null) {
                     continue;
@@ -660,7 +765,7 @@ public class Sender {
         }
         LOGGER.info("wait for ack for channel {}", channel);
         try {
-            ConcurrentHashMap<String, QueueObject> queueObjMap = callbacks.get(channel);
+            InflightTable queueObjMap = callbacks.get(channel);
             if (queueObjMap != null) {
                 while (true) {
                     if (queueObjMap.isEmpty()) {
@@ -684,6 +789,9 @@ public class Sender {
     }
 
     public void clearCallBack() {
+        for (InflightTable table : callbacks.values()) {
+            table.removeAll().forEach(QueueObject::cancelTimeout);
+        }
         currentBufferSize.set(0);
         callbacks.clear();
     }
@@ -705,7 +813,8 @@ public class Sender {
     public boolean isIdleClient(NettyClient client) {
         Channel channel = client.getChannel();
         // used by async send
-        if (callbacks.contains(channel) && MapUtils.isNotEmpty(callbacks.get(channel))) {
+        InflightTable table = callbacks.get(channel);
+        if (table != null && !table.isEmpty()) {
             return false;
         }
         // used by sync send
@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sdk.dataproxy;
+
+import org.apache.inlong.sdk.dataproxy.network.ClientHealthTracker;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+public class ClientHealthTrackerTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    public void testScore() {
+        ClientHealthTracker fast = new ClientHealthTracker("fast", 3, 100);
+        ClientHealthTracker slow = new ClientHealthTracker("slow", 3, 100);
+        for (int i = 0; i < 10; i++) {
+            fast.onComplete(SendResult.OK, MS, fast.onSend());
+            slow.onComplete(SendResult.OK, 20 * MS, slow.onSend());
+        }
+        Assert.assertEquals(1.0, fast.getLatencyMs(), 0.001);
+        Assert.assertTrue(fast.getScore() < slow.getScore());
+        // queued messages make a fast connection worse
+        for (int i = 0; i < 30; i++) {
+            fast.onSend();
+        }
+        Assert.assertEquals(30, fast.getInFlight());
+        Assert.assertTrue(fast.getScore() > slow.getScore());
+    }
+
+    @Test
+    public void testCircuitBreaker() throws Exception {
+        ClientHealthTracker tracker = new ClientHealthTracker("proxy", 3, 50);
+        for (int i = 0; i < 3; i++) {
+            Assert.assertTrue(tracker.tryAcquire(System.nanoTime()));
+            tracker.onComplete(i == 1 ? SendResult.CONNECTION_BREAK : SendResult.TIMEOUT, 10 * MS, tracker.onSend());
+        }
+        Assert.assertTrue(tracker.isOpen());
+        Assert.assertFalse(tracker.isAvailable(System.nanoTime()));
+        Assert.assertFalse(tracker.tryAcquire(System.nanoTime()));
+
+        // only one probe is let through after the open time, and its failure opens the circuit again
+        TimeUnit.MILLISECONDS.sleep(60);
+        Assert.assertTrue(tracker.tryAcquire(System.nanoTime()));
+        Assert.assertFalse(tracker.tryAcquire(System.nanoTime()));
+        tracker.onComplete(SendResult.TIMEOUT, 10 * MS, tracker.onSend());
+        Assert.assertFalse(tracker.tryAcquire(System.nanoTime()));
+
+        // a successful probe closes the circuit
+        TimeUnit.MILLISECONDS.sleep(60);
+        Assert.assertTrue(tracker.tryAcquire(System.nanoTime()));
+        tracker.onComplete(SendResult.OK, MS, tracker.onSend());
+        Assert.assertFalse(tracker.isOpen());
+        Assert.assertTrue(tracker.tryAcquire(System.nanoTime()));
+    }
+
+    private static ClientHealthTracker openTracker() throws Exception {
+        ClientHealthTracker tracker = new ClientHealthTracker("proxy", 1, 50);
+        tracker.onComplete(SendResult.TIMEOUT, MS, tracker.onSend());
+        Assert.assertTrue(tracker.isOpen());
+        TimeUnit.MILLISECONDS.sleep(60);
+        return tracker;
+    }
+
+    @Test
+    public void testOnlyProbeClosesCircuit() throws Exception {
+        ClientHealthTracker tracker = new ClientHealthTracker("proxy", 1, 50);
+        long before = tracker.onSend();
+        tracker.onComplete(SendResult.TIMEOUT, MS, tracker.onSend());
+        TimeUnit.MILLISECONDS.sleep(60);
+        Assert.assertTrue(tracker.tryAcquire(System.nanoTime()));
+        long probe = tracker.onSend();
+        Assert.assertNotEquals(ClientHealthTracker.NO_PROBE, probe);
+
+        // a message sent before the circuit opened is acked meanwhile
+        tracker.onComplete(SendResult.OK, MS, before);
+        Assert.assertTrue(tracker.isOpen());
+        Assert.assertFalse(tracker.tryAcquire(System.nanoTime()));
+        tracker.onComplete(SendResult.OK, MS, probe);
+        Assert.assertFalse(tracker.isOpen());
+    }
+
+    @Test
+    public void testReleaseProbe() throws Exception {
+        ClientHealthTracker tracker = openTracker();
+        Assert.assertTrue(tracker.tryAcquire(System.nanoTime()));
+        Assert.assertFalse(tracker.isAvailable(System.nanoTime()));
+        // the probe is not sent, so the next caller becomes the probe
+        tracker.release();
+        Assert.assertTrue(tracker.isAvailable(System.nanoTime()));
+        Assert.assertTrue(tracker.tryAcquire(System.nanoTime()));
+
+        // a probe rejected before reaching the proxy is released as well
+        long probe = tracker.onSend();
+        tracker.onComplete(SendResult.INVALID_ATTRIBUTES, MS, probe);
+        Assert.assertTrue(tracker.isOpen());
+        Assert.assertTrue(tracker.tryAcquire(System.nanoTime()));
+    }
+
+    @Test
+    public void testProbeExpires() throws Exception {
+        ClientHealthTracker tracker = openTracker();
+        Assert.assertTrue(tracker.tryAcquire(System.nanoTime()));
+        long lost = tracker.onSend();
+        Assert.assertFalse(tracker.tryAcquire(System.nanoTime()));
+
+        // the probe has no result in the open time, another one is let through
+        TimeUnit.MILLISECONDS.sleep(60);
+        Assert.assertTrue(tracker.isAvailable(System.nanoTime()));
+        Assert.assertTrue(tracker.tryAcquire(System.nanoTime()));
+        long probe = tracker.onSend();
+        tracker.onComplete(SendResult.OK, MS, lost);
+        Assert.assertTrue(tracker.isOpen());
+        tracker.onComplete(SendResult.OK, MS, probe);
+        Assert.assertFalse(tracker.isOpen());
+    }
+}
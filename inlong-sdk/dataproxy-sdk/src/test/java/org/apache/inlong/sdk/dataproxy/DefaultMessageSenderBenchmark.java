@@ -0,0 +1,196 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sdk.dataproxy;
+
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
+import org.apache.inlong.sdk.dataproxy.network.ProxysdkException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of async sending 100 bytes messages one by one, with and without the record accumulator.
+ * Messages are sent to a local stub proxy which acks every message list immediately.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DefaultMessageSenderBenchmark {
+
+    private static final String GROUP_ID = "benchmark_group";
+    private static final String STREAM_ID = "benchmark_stream";
+    private static final byte[] ACK_ATTR = "errCode=0".getBytes(StandardCharsets.UTF_8);
+
+    @Param({"false", "true"})
+    private boolean enableBatch;
+
+    private final byte[] body = new byte[100];
+    private EventLoopGroup bossGroup;
+    private EventLoopGroup workerGroup;
+    private File confDir;
+    private DefaultMessageSender sender;
+    private final SendMessageCallback callback = new SendMessageCallback() {
+
+        @Override
+        public void onMessageAck(SendResult result) {
+        }
+
+        @Override
+        public void onException(Throwable e) {
+        }
+    };
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        Arrays.fill(body, (byte) 'a');
+        bossGroup = new NioEventLoopGroup(1);
+        workerGroup = new NioEventLoopGroup(2);
+        Channel server = new ServerBootstrap().group(bossGroup, workerGroup)
+                .channel(NioServerSocketChannel.class)
+                .childHandler(new ChannelInitializer<SocketChannel>() {
+
+                    @Override
+                    protected void initChannel(SocketChannel ch) {
+                        ch.pipeline().addLast(new LengthFieldBasedFrameDecoder(Integer.MAX_VALUE, 0, 4, 0, 4));
+                        ch.pipeline().addLast(new StubProxyHandler());
+                    }
+                }).bind("127.0.0.1", 0).sync().channel();
+        int port = ((InetSocketAddress) server.localAddress()).getPort();
+
+        confDir = Files.createTempDirectory("dataproxy-benchmark").toFile();
+        String proxyList = "{\"clusterId\":1,\"load\":0,\"isIntranet\":1,\"isSwitch\":0,"
+                + "\"nodeList\":[{\"id\":1,\"ip\":\"127.0.0.1\",\"port\":" + port + "}]}";
+        Files.write(new File(confDir, GROUP_ID + ".local").toPath(), proxyList.getBytes(StandardCharsets.UTF_8));
+
+        ProxyClientConfig config = new ProxyClientConfig("127.0.0.1", true, "127.0.0.1", 8099,
+                GROUP_ID, "", null, null);
+        config.setReadProxyIPFromLocal(true);
+        config.setConfStoreBasePath(confDir.getAbsolutePath() + File.separator);
+        config.setEnableSaveManagerVIps(false);
+        config.setAliveConnections(1);
+        config.setEnableBatch(enableBatch);
+        sender = new DefaultMessageSender(config);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        sender.close();
+        workerGroup.shutdownGracefully();
+        bossGroup.shutdownGracefully();
+        File[] files = confDir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        confDir.delete();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void asyncSendSingle() throws Exception {
+        while (true) {
+            try {
+                sender.asyncSendMessage(callback, body, GROUP_ID, STREAM_ID, System.currentTimeMillis(),
+                        null, 20, TimeUnit.SECONDS);
+                return;
+            } catch (ProxysdkException e) {
+                // without the accumulator, sending fails fast when too many callbacks are pending
+                if (!"ASYNC_CALLBACK_BUFFER_FULL".equals(e.getMessage())) {
+                    throw e;
+                }
+                Thread.yield();
+            }
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder()
+                .include(DefaultMessageSenderBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+
+    /**
+     * ack message lists (msgtype 7) and heartbeats (msgtype 8), ignore the others
+     */
+    private static class StubProxyHandler extends SimpleChannelInboundHandler<ByteBuf> {
+
+        @Override
+        protected void channelRead0(ChannelHandlerContext ctx, ByteBuf frame) {
+            int msgType = frame.getByte(frame.readerIndex()) & 0x1f;
+            if (msgType == 7) {
+                // msgType(1) + groupIdNum(2) + streamIdNum(2) + extField(2) + dt(4) + cnt(2), then uniq
+                int seqId = frame.getInt(frame.readerIndex() + 13);
+                ByteBuf ack = ctx.alloc().buffer();
+                ack.writeInt(1 + 4 + 2 + ACK_ATTR.length + 2);
+                ack.writeByte(7);
+                ack.writeInt(seqId);
+                ack.writeShort(ACK_ATTR.length);
+                ack.writeBytes(ACK_ATTR);
+                ack.writeShort(0xee01);
+                ctx.writeAndFlush(ack);
+            } else if (msgType == 8) {
+                ByteBuf ack = ctx.alloc().buffer();
+                ack.writeInt(1 + 4 + 1 + 4 + 2 + 2 + 2);
+                ack.writeByte(8);
+                ack.writeInt((int) (System.currentTimeMillis() / 1000));
+                ack.writeByte(1);
+                ack.writeInt(2);
+                ack.writeShort(0);
+                ack.writeShort(0);
+                ack.writeShort(0xee01);
+                ctx.writeAndFlush(ack);
+            }
+        }
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sdk.dataproxy;
+
+import org.apache.inlong.sdk.dataproxy.network.InflightTable;
+import org.apache.inlong.sdk.dataproxy.network.QueueObject;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+public class InflightTableTest {
+
+    private static QueueObject newObject() {
+        return new QueueObject(System.currentTimeMillis(), null, 1, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testPutAndRemove() {
+        InflightTable table = new InflightTable();
+        QueueObject first = newObject();
+        Assert.assertNull(table.putIfAbsent(1L, first));
+        Assert.assertSame(first, table.putIfAbsent(1L, newObject()));
+        Assert.assertFalse(table.remove(1L, newObject()));
+        Assert.assertEquals(1, table.size());
+        Assert.assertTrue(table.remove(1L, first));
+        Assert.assertNull(table.remove(1L));
+        Assert.assertTrue(table.isEmpty());
+    }
+
+    @Test
+    public void testAgainstHashMap() {
+        InflightTable table = new InflightTable();
+        Map<Long, QueueObject> expected = new HashMap<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 100000; i++) {
+            long key = random.nextInt(2000);
+            if (random.nextBoolean()) {
+                QueueObject value = newObject();
+                QueueObject existing = expected.putIfAbsent(key, value);
+                Assert.assertSame(existing, table.putIfAbsent(key, value));
+            } else {
+                Assert.assertSame(expected.remove(key), table.remove(key));
+            }
+            Assert.assertEquals(expected.size(), table.size());
+        }
+        for (Map.Entry<Long, QueueObject> entry : expected.entrySet()) {
+            Assert.assertSame(entry.getValue(), table.remove(entry.getKey()));
+        }
+        Assert.assertTrue(table.isEmpty());
+        Assert.assertTrue(table.removeAll().isEmpty());
+    }
+}
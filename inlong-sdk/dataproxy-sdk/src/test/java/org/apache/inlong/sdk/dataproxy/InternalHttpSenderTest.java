@@ -0,0 +1,197 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sdk.dataproxy;
+
+import com.sun.net.httpserver.HttpServer;
+import org.apache.commons.io.IOUtils;
+import org.apache.http.client.utils.URLEncodedUtils;
+import org.apache.http.NameValuePair;
+import org.apache.inlong.sdk.dataproxy.config.HostInfo;
+import org.apache.inlong.sdk.dataproxy.http.InternalHttpSender;
+import org.apache.inlong.sdk.dataproxy.network.HttpMessage;
+import org.apache.inlong.sdk.dataproxy.utils.ConcurrentHashSet;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+public class InternalHttpSenderTest {
+
+    private HttpServer server;
+    private final Map<String, Integer> countByStream = new ConcurrentHashMap<>();
+    private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+    private final Map<String, Long> dtByBody = new ConcurrentHashMap<>();
+    private final AtomicInteger maxBodyBytes = new AtomicInteger();
+
+    @Before
+    public void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/dataproxy/message", exchange -> {
+            String form = IOUtils.toString(exchange.getRequestBody(), StandardCharsets.UTF_8);
+            Map<String, String> params = URLEncodedUtils.parse(form, StandardCharsets.UTF_8).stream()
+                    .collect(Collectors.toMap(NameValuePair::getName, NameValuePair::getValue));
+            int cnt = Integer.parseInt(params.get("cnt"));
+            Assert.assertEquals(cnt, params.get("body").split("\n").length);
+            countByStream.merge(params.get("streamId"), cnt, Integer::sum);
+            for (String body : params.get("body").split("\n")) {
+                dtByBody.put(body, Long.parseLong(params.get("dt")));
+            }
+            maxBodyBytes.accumulateAndGet(params.get("body").getBytes(StandardCharsets.UTF_8).length, Math::max);
+            clientPorts.add(exchange.getRemoteAddress().getPort());
+            byte[] response = "{\"code\":1}".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, response.length);
+            exchange.getResponseBody().write(response);
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    private ProxyClientConfig newConfig() throws Exception {
+        ProxyClientConfig config = new ProxyClientConfig("127.0.0.1", true, "127.0.0.1", 8099,
+                "group", "", null, null);
+        config.setAsyncWorkerNumber(1);
+        config.setHttpRetryBackoffMs(10);
+        return config;
+    }
+
+    private HostInfo serverHost() {
+        return new HostInfo("proxy", "127.0.0.1", server.getAddress().getPort());
+    }
+
+    @Test
+    public void testBatchOnKeepAliveConnection() throws Exception {
+        ConcurrentHashSet<HostInfo> hostList = new ConcurrentHashSet<>();
+        hostList.add(serverHost());
+        LinkedBlockingQueue<HttpMessage> messageCache = new LinkedBlockingQueue<>();
+        CountDownLatch acked = new CountDownLatch(150);
+        SendMessageCallback callback = new SendMessageCallback() {
+
+            @Override
+            public void onMessageAck(SendResult result) {
+                Assert.assertEquals(SendResult.OK, result);
+                acked.countDown();
+            }
+
+            @Override
+            public void onException(Throwable e) {
+            }
+        };
+        long dt = System.currentTimeMillis() / 1000 * 1000;
+        for (int i = 0; i < 150; i++) {
+            String streamId = i < 100 ? "first" : "second";
+            messageCache.add(new HttpMessage(Collections.singletonList("body" + i), "group", streamId,
+                    dt + i % 10, 1, TimeUnit.SECONDS, callback));
+        }
+        InternalHttpSender sender = new InternalHttpSender(newConfig(), hostList, messageCache);
+        try {
+            Assert.assertTrue(acked.await(10, TimeUnit.SECONDS));
+            Assert.assertEquals(Integer.valueOf(100), countByStream.get("first"));
+            Assert.assertEquals(Integer.valueOf(50), countByStream.get("second"));
+            // messages of different dt are not merged into one request
+            for (int i = 0; i < 150; i++) {
+                Assert.assertEquals(Long.valueOf(dt + i % 10), dtByBody.get("body" + i));
+            }
+            for (int i = 0; i < 5; i++) {
+                List<String> bodies = Collections.singletonList("sync" + i);
+                Assert.assertEquals(SendResult.OK, sender.sendMessageWithHostInfo(bodies, "group", "third",
+                        dt, 1, TimeUnit.SECONDS));
+            }
+            // one merged request per stream, and all the requests go through the same connection
+            Assert.assertEquals(1, clientPorts.size());
+        } finally {
+            sender.close();
+        }
+    }
+
+    @Test
+    public void testRetryOnAnotherProxy() throws Exception {
+        int closedPort;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            closedPort = socket.getLocalPort();
+        }
+        ConcurrentHashSet<HostInfo> hostList = new ConcurrentHashSet<>();
+        hostList.add(new HostInfo("closed", "127.0.0.1", closedPort));
+        hostList.add(serverHost());
+        ProxyClientConfig config = newConfig();
+        config.setAliveConnections(2);
+        InternalHttpSender sender = new InternalHttpSender(config, hostList, new LinkedBlockingQueue<>());
+        try {
+            for (int i = 0; i < 5; i++) {
+                Assert.assertEquals(SendResult.OK, sender.sendMessageWithHostInfo(
+                        Collections.singletonList("body" + i), "group", "stream", 0L, 1, TimeUnit.SECONDS));
+            }
+            Assert.assertEquals(Integer.valueOf(5), countByStream.get("stream"));
+        } finally {
+            sender.close();
+        }
+    }
+
+    @Test
+    public void testBatchBytesOfMultiByteBodies() throws Exception {
+        ConcurrentHashSet<HostInfo> hostList = new ConcurrentHashSet<>();
+        hostList.add(serverHost());
+        LinkedBlockingQueue<HttpMessage> messageCache = new LinkedBlockingQueue<>();
+        CountDownLatch acked = new CountDownLatch(20);
+        SendMessageCallback callback = new SendMessageCallback() {
+
+            @Override
+            public void onMessageAck(SendResult result) {
+                acked.countDown();
+            }
+
+            @Override
+            public void onException(Throwable e) {
+            }
+        };
+        // 10 chars but 30 bytes in utf-8
+        String text = "\u4e2d\u6587\u4e2d\u6587\u4e2d\u6587\u4e2d\u6587\u4e2d\u6587";
+        for (int i = 0; i < 20; i++) {
+            messageCache.add(new HttpMessage(Collections.singletonList(text), "group", "stream",
+                    0L, 1, TimeUnit.SECONDS, callback));
+        }
+        ProxyClientConfig config = newConfig();
+        config.setBatchBytes(100);
+        InternalHttpSender sender = new InternalHttpSender(config, hostList, messageCache);
+        try {
+            Assert.assertTrue(acked.await(10, TimeUnit.SECONDS));
+            Assert.assertEquals(Integer.valueOf(20), countByStream.get("stream"));
+            Assert.assertTrue(maxBodyBytes.get() <= 100);
+        } finally {
+            sender.close();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sdk.dataproxy;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.apache.inlong.sdk.dataproxy.codec.EncodeObject;
+import org.apache.inlong.sdk.dataproxy.codec.ProtocolEncoder;
+import org.junit.Assert;
+import org.junit.Test;
+import org.xerial.snappy.Snappy;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+public class ProtocolEncoderTest {
+
+    private static final byte[] FIRST = "first".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] SECOND = "second message".getBytes(StandardCharsets.UTF_8);
+
+    private static byte[] encode(EncodeObject object, String expectedAttr, int expectedCnt) {
+        EmbeddedChannel channel = new EmbeddedChannel(new ProtocolEncoder());
+        Assert.assertTrue(channel.writeOutbound(object));
+        ByteBuf buf = channel.readOutbound();
+        try {
+            Assert.assertEquals(buf.readableBytes() - 4, buf.readInt());
+            int msgType = buf.readByte();
+            Assert.assertEquals(7, msgType & 0x1f);
+            Assert.assertEquals(object.isCompress(), (msgType & ConfigConstants.FLAG_ALLOW_COMPRESS) != 0);
+            buf.skipBytes(2 + 2 + 2);
+            Assert.assertEquals(object.getDt(), buf.readInt());
+            Assert.assertEquals(expectedCnt, buf.readShort());
+            Assert.assertEquals(Integer.parseInt(object.getMessageId()), buf.readInt());
+            byte[] body = new byte[buf.readInt()];
+            buf.readBytes(body);
+            byte[] attr = new byte[buf.readShort()];
+            buf.readBytes(attr);
+            Assert.assertEquals(expectedAttr, new String(attr, StandardCharsets.UTF_8));
+            Assert.assertEquals(0xee01, buf.readUnsignedShort());
+            Assert.assertFalse(buf.isReadable());
+            return body;
+        } finally {
+            buf.release();
+            channel.finishAndReleaseAll();
+        }
+    }
+
+    private static byte[] prefixed(byte[]... bodies) {
+        ByteBuffer buffer = ByteBuffer.allocate(Arrays.stream(bodies).mapToInt(body -> 4 + body.length).sum());
+        for (byte[] body : bodies) {
+            buffer.putInt(body.length);
+            buffer.put(body);
+        }
+        return buffer.array();
+    }
+
+    @Test
+    public void testSingleUncompressed() {
+        EncodeObject object = new EncodeObject(FIRST, 7, false, false, false, 1000L, 12L,
+                "group", "stream", "a=1");
+        byte[] body = encode(object, object.getCommonattr() + "&groupId=group&streamId=stream", 1);
+        Assert.assertArrayEquals(prefixed(FIRST), body);
+    }
+
+    @Test
+    public void testListCompressed() throws Exception {
+        List<byte[]> bodyList = Arrays.asList(FIRST, SECOND);
+        EncodeObject object = new EncodeObject(bodyList, 7, true, false, true, 1000L, 13L,
+                "group", "stream", "");
+        byte[] body = encode(object, object.getCommonattr(), 2);
+        Assert.assertArrayEquals(prefixed(FIRST, SECOND), Snappy.uncompress(body));
+    }
+
+    @Test
+    public void testListWithLineFeed() throws Exception {
+        List<byte[]> bodyList = Arrays.asList(FIRST, SECOND);
+        EncodeObject object = new EncodeObject(bodyList, 7, false, false, true, 1000L, 14L,
+                "group", "stream", "");
+        object.setSupportLF(true);
+        byte[] body = encode(object, object.getCommonattr(), 2);
+        Assert.assertArrayEquals(prefixed("first\nsecond message".getBytes(StandardCharsets.UTF_8)), body);
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sdk.dataproxy;
+
+import org.apache.inlong.sdk.dataproxy.network.ProxysdkException;
+import org.apache.inlong.sdk.dataproxy.network.RecordAccumulator;
+import org.apache.inlong.sdk.dataproxy.network.RecordBatch;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class RecordAccumulatorTest {
+
+    private static final byte[] BODY = new byte[10];
+
+    private static class CountCallback implements SendMessageCallback {
+
+        private final AtomicInteger acked = new AtomicInteger();
+
+        @Override
+        public void onMessageAck(SendResult result) {
+            if (result == SendResult.OK) {
+                acked.incrementAndGet();
+            }
+        }
+
+        @Override
+        public void onException(Throwable e) {
+        }
+    }
+
+    @Test
+    public void testSealBySizeAndFanOut() throws Exception {
+        List<RecordBatch> sent = new CopyOnWriteArrayList<>();
+        RecordAccumulator accumulator = new RecordAccumulator(3, 1024, 60000, 1024, sent::add);
+        CountCallback callback = new CountCallback();
+        long dt = 1000L;
+        for (int i = 0; i < 3; i++) {
+            accumulator.append("group", "stream", dt, BODY, callback, null, "", false, 1, TimeUnit.SECONDS);
+        }
+        // another stream goes to another batch
+        accumulator.append("group", "stream2", dt, BODY, callback, null, "", false, 1, TimeUnit.SECONDS);
+        Assert.assertEquals(1, sent.size());
+        RecordBatch batch = sent.get(0);
+        Assert.assertEquals(3, batch.getBodyList().size());
+        Assert.assertEquals("stream", batch.getKey().getStreamId());
+        Assert.assertEquals(40, accumulator.getBufferedBytes());
+
+        batch.onMessageAck(SendResult.OK);
+        // duplicated ack is ignored
+        batch.onMessageAck(SendResult.OK);
+        Assert.assertEquals(3, callback.acked.get());
+        Assert.assertEquals(10, accumulator.getBufferedBytes());
+        accumulator.close();
+        Assert.assertEquals(2, sent.size());
+    }
+
+    @Test
+    public void testSealByLinger() throws Exception {
+        List<RecordBatch> sent = new CopyOnWriteArrayList<>();
+        RecordAccumulator accumulator = new RecordAccumulator(100, 1024, 10, 1024, sent::add);
+        accumulator.append("group", "stream", 1000L, BODY, null, null, "", false, 1, TimeUnit.SECONDS);
+        accumulator.append("group", "stream", 1500L, BODY, null, null, "", false, 1, TimeUnit.SECONDS);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (sent.isEmpty() && System.currentTimeMillis() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(5);
+        }
+        Assert.assertEquals(1, sent.size());
+        Assert.assertEquals(2, sent.get(0).getBodyList().size());
+        Assert.assertEquals(1000L, sent.get(0).getDt());
+        accumulator.close();
+    }
+
+    @Test
+    public void testBackpressure() throws Exception {
+        List<RecordBatch> sent = new CopyOnWriteArrayList<>();
+        RecordAccumulator accumulator = new RecordAccumulator(1, 1024, 60000, 15, sent::add);
+        accumulator.append("group", "stream", 1000L, BODY, null, null, "", false, 1, TimeUnit.SECONDS);
+        try {
+            accumulator.append("group", "stream", 1000L, BODY, null, null, "", false, 10, TimeUnit.MILLISECONDS);
+            Assert.fail("buffer should be full");
+        } catch (ProxysdkException e) {
+            Assert.assertEquals("ASYNC_CALLBACK_BUFFER_FULL", e.getMessage());
+        }
+        // ack releases the space for the blocked sending
+        new Thread(() -> sent.get(0).onMessageAck(SendResult.OK)).start();
+        accumulator.append("group", "stream", 1000L, BODY, null, null, "", false, 5, TimeUnit.SECONDS);
+        Assert.assertEquals(2, sent.size());
+        accumulator.close();
+    }
+
+    @Test
+    public void testAppendWhileClosing() throws Exception {
+        List<RecordBatch> sent = new CopyOnWriteArrayList<>();
+        RecordAccumulator accumulator = new RecordAccumulator(100, 1024 * 1024, 60000, 1024 * 1024, sent::add);
+        AtomicInteger rejected = new AtomicInteger();
+        List<Thread> appenders = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Thread appender = new Thread(() -> {
+                for (int j = 0; j < 10000; j++) {
+                    try {
+                        accumulator.append("group", "stream", 1000L, BODY, null, null, "", false, 1,
+                                TimeUnit.SECONDS);
+                    } catch (ProxysdkException e) {
+                        rejected.incrementAndGet();
+                    }
+                }
+            });
+            appenders.add(appender);
+            appender.start();
+        }
+        TimeUnit.MILLISECONDS.sleep(5);
+        accumulator.close();
+        for (Thread appender : appenders) {
+            appender.join();
+        }
+        // every message is either rejected or in a sent batch
+        int sentCount = sent.stream().mapToInt(batch -> batch.getBodyList().size()).sum();
+        Assert.assertEquals(40000, sentCount + rejected.get());
+        sent.forEach(batch -> batch.onMessageAck(SendResult.OK));
+        Assert.assertEquals(0, accumulator.getBufferedBytes());
+    }
+}
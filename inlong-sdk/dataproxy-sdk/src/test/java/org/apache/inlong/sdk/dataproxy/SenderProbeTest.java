@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sdk.dataproxy;
+
+import io.netty.channel.Channel;
+import io.netty.util.HashedWheelTimer;
+import org.apache.inlong.sdk.dataproxy.codec.EncodeObject;
+import org.apache.inlong.sdk.dataproxy.network.ClientHealthTracker;
+import org.apache.inlong.sdk.dataproxy.network.ClientMgr;
+import org.apache.inlong.sdk.dataproxy.network.NettyClient;
+import org.apache.inlong.sdk.dataproxy.network.ProxysdkException;
+import org.apache.inlong.sdk.dataproxy.network.Sender;
+import org.apache.inlong.sdk.dataproxy.threads.MetricWorkerThread;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.objenesis.ObjenesisStd;
+
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The half-open probe of a circuit is released on the paths where {@link Sender#asyncSendMessage} sends nothing.
+ */
+public class SenderProbeTest {
+
+    private final ClientHealthTracker tracker = new ClientHealthTracker("proxy", 1, 50);
+    private final HashedWheelTimer timer = new HashedWheelTimer();
+    private NettyClient client;
+    private Sender sender;
+
+    private static void setField(Object target, String name, Object value) throws Exception {
+        Field field = Sender.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        client = Mockito.mock(NettyClient.class);
+        Mockito.when(client.getHealthTracker()).thenReturn(tracker);
+        Mockito.when(client.getChannel()).thenReturn(Mockito.mock(Channel.class));
+        ClientMgr clientMgr = Mockito.mock(ClientMgr.class);
+        Mockito.when(clientMgr.getLoadBalance()).thenReturn(LoadBalance.LEAST_LATENCY);
+        // the same as the least latency load balance, which acquires the circuit of the chosen client
+        Mockito.when(clientMgr.getClient(ArgumentMatchers.any(), ArgumentMatchers.any()))
+                .thenAnswer(invocation -> tracker.tryAcquire(System.nanoTime()) ? client : null);
+
+        sender = new ObjenesisStd().newInstance(Sender.class);
+        setField(sender, "callbacks", new ConcurrentHashMap<>());
+        setField(sender, "chooseProxy", new ConcurrentHashMap<>());
+        setField(sender, "currentBufferSize", new AtomicInteger(0));
+        setField(sender, "asyncCallbackMaxSize", 100);
+        setField(sender, "timeoutTimer", timer);
+        setField(sender, "clientMgr", clientMgr);
+        setField(sender, "configure", Mockito.mock(ProxyClientConfig.class));
+        setField(sender, "metricWorker", Mockito.mock(MetricWorkerThread.class));
+    }
+
+    @After
+    public void tearDown() {
+        timer.stop();
+    }
+
+    private static EncodeObject message(String attributes, String messageId) {
+        return new EncodeObject("body".getBytes(StandardCharsets.UTF_8), attributes, messageId, 3, false, "group");
+    }
+
+    private void send(EncodeObject message) throws ProxysdkException {
+        sender.asyncSendMessage(message, null, "uuid", 60, TimeUnit.SECONDS);
+    }
+
+    private void openCircuit() throws Exception {
+        tracker.onComplete(SendResult.TIMEOUT, 1, tracker.onSend());
+        Assert.assertTrue(tracker.isOpen());
+        TimeUnit.MILLISECONDS.sleep(60);
+    }
+
+    private void assertRejectedAndReleased(EncodeObject message) throws Exception {
+        try {
+            send(message);
+            Assert.fail("message should be rejected");
+        } catch (ProxysdkException e) {
+            // expected
+        }
+        // the probe is not held by the rejected message
+        Assert.assertTrue(tracker.isAvailable(System.nanoTime()));
+    }
+
+    @Test
+    public void testReleaseProbeOnBufferFull() throws Exception {
+        setField(sender, "asyncCallbackMaxSize", 0);
+        openCircuit();
+        assertRejectedAndReleased(message("a=b", "1"));
+    }
+
+    @Test
+    public void testReleaseProbeOnInvalidAttributes() throws Exception {
+        openCircuit();
+        assertRejectedAndReleased(message("a&b", "1"));
+    }
+
+    @Test
+    public void testReleaseProbeOnInvalidMessageId() throws Exception {
+        openCircuit();
+        assertRejectedAndReleased(message("a=b", "invalid"));
+    }
+
+    @Test
+    public void testReleaseProbeOnDuplicateMessageId() throws Exception {
+        send(message("a=b", "1"));
+        openCircuit();
+        send(message("a=b", "1"));
+        Assert.assertTrue(tracker.isAvailable(System.nanoTime()));
+
+        // a probe with its own callback holds the circuit until its result
+        send(message("a=b", "2"));
+        Assert.assertFalse(tracker.isAvailable(System.nanoTime()));
+        Assert.assertEquals(2, tracker.getInFlight());
+    }
+}
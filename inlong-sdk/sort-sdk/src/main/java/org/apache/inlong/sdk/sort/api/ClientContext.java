@@ -19,6 +19,8 @@ package org.apache.inlong.sdk.sort.api;
 
 import org.apache.inlong.common.metric.MetricRegister;
 import org.apache.inlong.sdk.sort.entity.InLongTopic;
+import org.apache.inlong.sdk.sort.fetcher.CreditController;
+import org.apache.inlong.sdk.sort.fetcher.FetchScheduler;
 import org.apache.inlong.sdk.sort.metrics.SortSdkMetricItem;
 import org.apache.inlong.sdk.sort.metrics.SortSdkMetricItemSet;
 
@@ -34,9 +36,14 @@ public abstract class ClientContext implements Cleanable {
 
     protected final SortSdkMetricItemSet metricItemSet;
 
+    protected final CreditController creditController;
+
+    private volatile FetchScheduler fetchScheduler;
+
     public ClientContext(SortClientConfig config) {
         this.config = config;
         this.sortTaskId = config.getSortTaskId();
+        this.creditController = new CreditController(config);
         this.metricItemSet = new SortSdkMetricItemSet(config.getSortTaskId() + new SecureRandom().nextInt());
         MetricRegister.register(this.metricItemSet);
     }
@@ -45,8 +52,51 @@ public abstract class ClientContext implements Cleanable {
         return config;
     }
 
+    /**
+     * get the thread pool shared by the fetchers, which is created on first use
+     */
+    public FetchScheduler getFetchScheduler() {
+        if (fetchScheduler == null) {
+            synchronized (this) {
+                if (fetchScheduler == null) {
+                    fetchScheduler = new FetchScheduler(config.getFetchThreadNum());
+                }
+            }
+        }
+        return fetchScheduler;
+    }
+
+    /**
+     * update the credit published by the downstream of this sort task
+     */
+    public void updateCredit(long available, long capacity) {
+        boolean changed = creditController.update(available, capacity);
+        SortSdkMetricItem metricItem = this.getMetricItem(null, -1);
+        metricItem.creditPercent.set(Math.round(creditController.getRatio() * 100));
+        if (changed && creditController.isExhausted()) {
+            metricItem.creditPauseCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * whether the fetchers should stop fetching because the downstream can not take more
+     */
+    public boolean isCreditExhausted() {
+        return creditController.isExhausted();
+    }
+
+    /**
+     * @return the ratio of the capacity the downstream can still take, which shrinks the prefetch windows
+     */
+    public double getCreditRatio() {
+        return creditController.getRatio();
+    }
+
     @Override
     public boolean clean() {
+        if (fetchScheduler != null) {
+            fetchScheduler.close();
+        }
         return true;
     }
 
@@ -159,6 +209,13 @@ public abstract class ClientContext implements Cleanable {
         config.getGlobalInProgressRequest().acquireUninterruptibly();
     }
 
+    /**
+     * acquire a permit without blocking, for the fetchers running in the shared fetch threads
+     */
+    public boolean tryAcquireRequestPermit() {
+        return config.getGlobalInProgressRequest().tryAcquire();
+    }
+
     public void releaseRequestPermit() {
         config.getGlobalInProgressRequest().release();
     }
@@ -46,7 +46,14 @@ public class ConfigConstants {
     public static final String EMPTY_POLL_SLEEP_STEP_MS = "emptyPollSleepStepMs";
     public static final String MAX_EMPTY_POLL_SLEEP_MS = "maxEmptyPollSleepMs";
     public static final String EMPTY_POLL_TIMES = "emptyPollTimes";
+    public static final String FETCH_THREAD_NUM = "fetchThreadNum";
+    public static final String PREFETCH_LATENCY_MS = "prefetchLatencyMs";
+    public static final String MIN_PREFETCH_SIZE = "minPrefetchSize";
+    public static final String MAX_PREFETCH_SIZE = "maxPrefetchSize";
+    public static final String CREDIT_PAUSE_PERCENT = "creditPausePercent";
+    public static final String CREDIT_RESUME_PERCENT = "creditResumePercent";
     public static final String MAX_CONSUMER_SIZE = "maxConsumerSize";
+    public static final String CREATE_FETCHER_THREAD_NUM = "createFetcherThreadNum";
 
     public static final String CONSUMER_SUBSET_TYPE = "consumerSubsetType";
     public static final String CONSUMER_SUBSET_SIZE = "consumerSubsetSize";
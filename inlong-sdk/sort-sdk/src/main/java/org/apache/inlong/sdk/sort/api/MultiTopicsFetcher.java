@@ -80,12 +80,9 @@ public abstract class MultiTopicsFetcher implements TopicFetcher {
         if (newTopics.size() != onlineTopics.size()) {
             return true;
         }
-        // all topic should share the same properties in one task
-        if (Objects.equals(newTopics.stream().findFirst(), onlineTopics.values().stream().findFirst())) {
-            return true;
-        }
+        // changed properties also need to update
         for (InLongTopic topic : newTopics) {
-            if (!onlineTopics.containsKey(topic.getTopic())) {
+            if (!Objects.equals(topic, onlineTopics.get(topic.getTopic()))) {
                 return true;
             }
         }
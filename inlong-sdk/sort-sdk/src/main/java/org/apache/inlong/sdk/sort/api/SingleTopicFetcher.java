@@ -18,6 +18,7 @@
 package org.apache.inlong.sdk.sort.api;
 
 import org.apache.inlong.sdk.sort.entity.InLongTopic;
+import org.apache.inlong.sdk.sort.fetcher.PrefetchController;
 import org.apache.inlong.sdk.sort.impl.decode.MessageDeserializer;
 import org.apache.inlong.sdk.sort.interceptor.MsgTimeInterceptor;
 
@@ -32,15 +33,16 @@ import java.util.Optional;
  */
 public abstract class SingleTopicFetcher implements TopicFetcher {
 
+    // interval to check again when the consuming is stopped, the credit is exhausted or the prefetch window is full
+    protected static final long PAUSE_CHECK_INTERVAL_MS = 50L;
+
     protected InLongTopic topic;
     protected ClientContext context;
     protected Deserializer deserializer;
-    protected volatile Thread fetchThread;
     protected volatile boolean closed = false;
     protected volatile boolean stopConsume = false;
-    // use for empty topic to sleep
-    protected long sleepTime = 0L;
-    protected int emptyFetchTimes = 0;
+    // prefetch window and backoff of empty topic
+    protected PrefetchController prefetchController;
     // for rollback
     protected Interceptor interceptor;
     protected Seeker seeker;
@@ -56,6 +58,34 @@ public abstract class SingleTopicFetcher implements TopicFetcher {
         this.interceptor = Optional.ofNullable(interceptor).orElse(new MsgTimeInterceptor());
     }
 
+    /**
+     * start the fetch loop in the fetch threads shared by the client
+     */
+    protected void startFetch(Runnable fetcher) {
+        this.prefetchController = new PrefetchController(context.getConfig());
+        scheduleFetch(fetcher, 0L);
+    }
+
+    protected void scheduleFetch(Runnable fetcher, long delayMs) {
+        if (!closed) {
+            context.getFetchScheduler().schedule(fetcher, delayMs);
+        }
+    }
+
+    /**
+     * whether to skip the fetch for now, because the consuming is stopped or the downstream can not take more
+     */
+    protected boolean shouldPause(long pending) {
+        return context.getConfig().isStopConsume() || stopConsume || isBackPressured(pending);
+    }
+
+    /**
+     * whether the credit of the sort task is exhausted, or the prefetch window shrunk by the credit is full
+     */
+    protected boolean isBackPressured(long pending) {
+        return context.isCreditExhausted() || prefetchController.isFull(pending, context.getCreditRatio());
+    }
+
     @Override
     public String getFetchKey() {
         return topic.getTopicKey();
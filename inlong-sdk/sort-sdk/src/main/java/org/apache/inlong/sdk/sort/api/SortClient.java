@@ -26,5 +26,15 @@ public abstract class SortClient {
 
     public abstract boolean close();
 
+    /**
+     * Publish the capacity the downstream of this sort task can still take.
+     * The fetchers stop fetching when the credit runs low and shrink their prefetch windows with it.
+     * Ignored by default, for the clients without credit control.
+     * @param available Available capacity, such as the free buffer size.
+     * @param capacity Total capacity in the same unit.
+     */
+    public void updateCredit(long available, long capacity) {
+    }
+
     public abstract SortClientConfig getConfig();
 }
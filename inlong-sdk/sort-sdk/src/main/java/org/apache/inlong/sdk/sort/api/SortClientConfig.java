@@ -62,8 +62,15 @@ public class SortClientConfig implements Serializable {
     private int emptyPollSleepStepMs = 10;
     private int maxEmptyPollSleepMs = 500;
     private int emptyPollTimes = 10;
+    private int fetchThreadNum = Runtime.getRuntime().availableProcessors();
+    private int prefetchLatencyMs = 1000;
+    private int minPrefetchSize = 100;
+    private int maxPrefetchSize = 10000;
+    private int creditPausePercent = 10;
+    private int creditResumePercent = 30;
     private int cleanOldConsumerIntervalSec = 60;
     private int maxConsumerSize = 5;
+    private int createFetcherThreadNum = 8;
 
     private ConsumerSubsetType consumerSubsetType = ConsumerSubsetType.ALL;
     private int consumerSubsetSize = 1;
@@ -338,6 +345,54 @@ public class SortClientConfig implements Serializable {
         this.emptyPollTimes = emptyPollTimes;
     }
 
+    public int getFetchThreadNum() {
+        return fetchThreadNum;
+    }
+
+    public void setFetchThreadNum(int fetchThreadNum) {
+        this.fetchThreadNum = fetchThreadNum;
+    }
+
+    public int getPrefetchLatencyMs() {
+        return prefetchLatencyMs;
+    }
+
+    public void setPrefetchLatencyMs(int prefetchLatencyMs) {
+        this.prefetchLatencyMs = prefetchLatencyMs;
+    }
+
+    public int getMinPrefetchSize() {
+        return minPrefetchSize;
+    }
+
+    public void setMinPrefetchSize(int minPrefetchSize) {
+        this.minPrefetchSize = minPrefetchSize;
+    }
+
+    public int getMaxPrefetchSize() {
+        return maxPrefetchSize;
+    }
+
+    public void setMaxPrefetchSize(int maxPrefetchSize) {
+        this.maxPrefetchSize = maxPrefetchSize;
+    }
+
+    public int getCreditPausePercent() {
+        return creditPausePercent;
+    }
+
+    public void setCreditPausePercent(int creditPausePercent) {
+        this.creditPausePercent = creditPausePercent;
+    }
+
+    public int getCreditResumePercent() {
+        return creditResumePercent;
+    }
+
+    public void setCreditResumePercent(int creditResumePercent) {
+        this.creditResumePercent = creditResumePercent;
+    }
+
     public int getCleanOldConsumerIntervalSec() {
         return cleanOldConsumerIntervalSec;
     }
@@ -354,6 +409,14 @@ public class SortClientConfig implements Serializable {
         this.maxConsumerSize = maxConsumerSize;
     }
 
+    public int getCreateFetcherThreadNum() {
+        return createFetcherThreadNum;
+    }
+
+    public void setCreateFetcherThreadNum(int createFetcherThreadNum) {
+        this.createFetcherThreadNum = createFetcherThreadNum;
+    }
+
     public ConsumerSubsetType getConsumerSubsetType() {
         return consumerSubsetType;
     }
@@ -453,9 +516,22 @@ public class SortClientConfig implements Serializable {
         this.maxEmptyPollSleepMs = NumberUtils.toInt(sortSdkParams.get(ConfigConstants.MAX_EMPTY_POLL_SLEEP_MS),
                 maxEmptyPollSleepMs);
         this.emptyPollTimes = NumberUtils.toInt(sortSdkParams.get(ConfigConstants.EMPTY_POLL_TIMES), emptyPollTimes);
+        this.fetchThreadNum = NumberUtils.toInt(sortSdkParams.get(ConfigConstants.FETCH_THREAD_NUM), fetchThreadNum);
+        this.prefetchLatencyMs = NumberUtils.toInt(sortSdkParams.get(ConfigConstants.PREFETCH_LATENCY_MS),
+                prefetchLatencyMs);
+        this.minPrefetchSize = NumberUtils.toInt(sortSdkParams.get(ConfigConstants.MIN_PREFETCH_SIZE),
+                minPrefetchSize);
+        this.maxPrefetchSize = NumberUtils.toInt(sortSdkParams.get(ConfigConstants.MAX_PREFETCH_SIZE),
+                maxPrefetchSize);
+        this.creditPausePercent = NumberUtils.toInt(sortSdkParams.get(ConfigConstants.CREDIT_PAUSE_PERCENT),
+                creditPausePercent);
+        this.creditResumePercent = NumberUtils.toInt(sortSdkParams.get(ConfigConstants.CREDIT_RESUME_PERCENT),
+                creditResumePercent);
 
         this.maxConsumerSize = NumberUtils.toInt(sortSdkParams.get(ConfigConstants.MAX_CONSUMER_SIZE),
                 maxConsumerSize);
+        this.createFetcherThreadNum = NumberUtils.toInt(
+                sortSdkParams.get(ConfigConstants.CREATE_FETCHER_THREAD_NUM), createFetcherThreadNum);
         this.consumerSubsetType = ConsumerSubsetType.convert(
                 sortSdkParams.getOrDefault(ConfigConstants.CONSUMER_SUBSET_TYPE, ConsumerSubsetType.CLUSTER.name()));
         this.consumerSubsetSize = NumberUtils.toInt(sortSdkParams.get(ConfigConstants.CONSUMER_SUBSET_SIZE),
@@ -22,11 +22,18 @@ import java.util.List;
 public class ConsumeConfig {
 
     private List<InLongTopic> topics;
+    // version of the topics, e.g. the md5 from manager, null if unknown
+    private String version;
 
     public ConsumeConfig(List<InLongTopic> topics) {
         this.topics = topics;
     }
 
+    public ConsumeConfig(List<InLongTopic> topics, String version) {
+        this.topics = topics;
+        this.version = version;
+    }
+
     public List<InLongTopic> getTopics() {
         return topics;
     }
@@ -34,4 +41,12 @@ public class ConsumeConfig {
     public void setTopics(List<InLongTopic> topics) {
         this.topics = topics;
     }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public void setVersion(String version) {
+        this.version = version;
+    }
 }
@@ -17,6 +17,7 @@
 
 package org.apache.inlong.sdk.sort.entity;
 
+import java.nio.ByteBuffer;
 import java.util.Map;
 
 public class InLongMessage {
@@ -55,6 +56,13 @@ public class InLongMessage {
         return body;
     }
 
+    /**
+     * read-only view of the body, which may share the memory of the decoded batch instead of copying it
+     */
+    public ByteBuffer getBodyBuffer() {
+        return ByteBuffer.wrap(getBody()).asReadOnlyBuffer();
+    }
+
     public Map<String, String> getParams() {
         return params;
     }
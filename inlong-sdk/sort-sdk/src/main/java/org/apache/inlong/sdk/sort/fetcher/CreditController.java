@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sdk.sort.fetcher;
+
+import org.apache.inlong.sdk.sort.api.SortClientConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Credit of one sort task, that is the capacity the downstream can still take, published by the downstream.
+ * The fetchers of the task stop fetching when the credit is below the pause ratio, until it is above the resume
+ * ratio again, and their prefetch windows shrink with the credit in between.
+ */
+public class CreditController {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CreditController.class);
+
+    private final String sortTaskId;
+    private final double pauseRatio;
+    private final double resumeRatio;
+    private volatile double ratio = 1.0;
+    private volatile boolean exhausted = false;
+
+    public CreditController(SortClientConfig config) {
+        this.sortTaskId = config.getSortTaskId();
+        this.pauseRatio = config.getCreditPausePercent() / 100.0;
+        this.resumeRatio = Math.max(config.getCreditResumePercent() / 100.0, pauseRatio);
+    }
+
+    /**
+     * @param available the capacity the downstream can still take
+     * @param capacity the total capacity of the downstream
+     * @return true if the fetching is paused or resumed by this update
+     */
+    public synchronized boolean update(long available, long capacity) {
+        double current = capacity > 0 ? Math.max(0.0, Math.min(1.0, (double) available / capacity)) : 1.0;
+        this.ratio = current;
+        if (!exhausted && current <= pauseRatio) {
+            exhausted = true;
+            LOGGER.warn("credit of {} is {}/{}, pause fetching", sortTaskId, available, capacity);
+            return true;
+        }
+        if (exhausted && current >= resumeRatio) {
+            exhausted = false;
+            LOGGER.info("credit of {} is {}/{}, resume fetching", sortTaskId, available, capacity);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return the ratio of the available capacity, 1.0 if the downstream never publishes the credit
+     */
+    public double getRatio() {
+        return ratio;
+    }
+
+    public boolean isExhausted() {
+        return exhausted;
+    }
+}
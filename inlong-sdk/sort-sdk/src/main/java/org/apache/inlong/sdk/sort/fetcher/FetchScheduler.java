@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sdk.sort.fetcher;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Thread pool shared by the single topic fetchers of one client.
+ * Each fetcher runs its fetch loop as a chain of tasks, one fetch per task, and schedules the next fetch
+ * with a delay when idle, so the number of threads depends on the cores rather than on the topics.
+ */
+public class FetchScheduler {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FetchScheduler.class);
+
+    private final ScheduledThreadPoolExecutor executor;
+
+    public FetchScheduler(int threadNum) {
+        AtomicInteger threadIndex = new AtomicInteger(0);
+        this.executor = new ScheduledThreadPoolExecutor(Math.max(threadNum, 1), runnable -> {
+            Thread thread = new Thread(runnable, "sort_sdk_fetch_thread_" + threadIndex.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * run the task after the delay, or as soon as possible if the delay is not positive
+     */
+    public void schedule(Runnable task, long delayMs) {
+        try {
+            if (delayMs > 0) {
+                executor.schedule(task, delayMs, TimeUnit.MILLISECONDS);
+            } else {
+                executor.execute(task);
+            }
+        } catch (RejectedExecutionException e) {
+            LOGGER.warn("fetch scheduler is closed, skip task {}", task);
+        }
+    }
+
+    public void close() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sdk.sort.fetcher;
+
+import org.apache.inlong.sdk.sort.api.SortClientConfig;
+
+/**
+ * Prefetch window and idle backoff of one topic.
+ * The window is the number of fetched records that may wait for ack, and it follows the processing rate
+ * of the callback, so that the fetched records can be processed within the target latency.
+ * The fetcher counts its own pending records, stops fetching when the window is full,
+ * and backs off step by step when the fetches are empty.
+ */
+public class PrefetchController {
+
+    private static final double RATE_EWMA_ALPHA = 0.2;
+    // the fastest rate a callback is measured at, records per ms
+    private static final double MAX_RATE = 1_000_000.0;
+
+    private final long latencyMs;
+    private final int minSize;
+    private final int maxSize;
+    private final int emptyPollTimes;
+    private final long emptyPollSleepStepMs;
+    private final long maxEmptyPollSleepMs;
+    // records processed by the callback per ms, 0 before the first callback
+    private volatile double rate = 0;
+    private volatile int prefetchSize;
+    // only accessed by the fetch task
+    private int emptyTimes = 0;
+    private long idleDelayMs = 0;
+
+    public PrefetchController(SortClientConfig config) {
+        this.latencyMs = config.getPrefetchLatencyMs();
+        this.minSize = Math.max(config.getMinPrefetchSize(), 1);
+        this.maxSize = Math.max(config.getMaxPrefetchSize(), minSize);
+        this.emptyPollTimes = config.getEmptyPollTimes();
+        this.emptyPollSleepStepMs = config.getEmptyPollSleepStepMs();
+        this.maxEmptyPollSleepMs = config.getMaxEmptyPollSleepMs();
+        this.prefetchSize = maxSize;
+    }
+
+    /**
+     * records are processed by the callback
+     */
+    public void onCallback(int records, long costNanos) {
+        double sample = costNanos > 0 ? Math.min(records * 1_000_000.0 / costNanos, MAX_RATE) : MAX_RATE;
+        double current = rate;
+        double updated = current == 0 ? sample : current + RATE_EWMA_ALPHA * (sample - current);
+        rate = updated;
+        prefetchSize = (int) Math.max(minSize, Math.min(maxSize, updated * latencyMs));
+    }
+
+    /**
+     * @param pending the number of fetched records waiting for ack
+     * @param creditRatio the ratio of the capacity the downstream can still take, which shrinks the window
+     */
+    public boolean isFull(long pending, double creditRatio) {
+        return pending >= Math.max(minSize, (long) (prefetchSize * Math.min(creditRatio, 1.0)));
+    }
+
+    /**
+     * @param empty whether the last fetch got no record
+     * @return the delay before the next fetch
+     */
+    public long nextDelayMs(boolean empty) {
+        if (!empty) {
+            emptyTimes = 0;
+            idleDelayMs = 0;
+            return 0;
+        }
+        if (++emptyTimes >= emptyPollTimes) {
+            idleDelayMs = Math.min(idleDelayMs + emptyPollSleepStepMs, maxEmptyPollSleepMs);
+            emptyTimes = 0;
+        }
+        return idleDelayMs;
+    }
+
+    public int getPrefetchSize() {
+        return prefetchSize;
+    }
+}
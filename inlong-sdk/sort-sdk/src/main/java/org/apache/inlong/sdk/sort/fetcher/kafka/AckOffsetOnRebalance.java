@@ -17,7 +17,6 @@
 
 package org.apache.inlong.sdk.sort.fetcher.kafka;
 
-import org.apache.commons.collections.CollectionUtils;
 import org.apache.inlong.sdk.sort.api.Seeker;
 import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
 import org.apache.kafka.clients.consumer.KafkaConsumer;
@@ -26,14 +25,10 @@ import org.apache.kafka.common.TopicPartition;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.List;
-import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -45,7 +40,7 @@ public class AckOffsetOnRebalance implements ConsumerRebalanceListener {
     private final String clusterId;
     private final Seeker seeker;
     private final ConcurrentHashMap<TopicPartition, OffsetAndMetadata> commitOffsetMap;
-    private final ConcurrentHashMap<TopicPartition, ConcurrentSkipListMap<Long, Boolean>> ackOffsetMap;
+    private final ConcurrentHashMap<TopicPartition, OffsetAckTracker> ackOffsetMap;
     private final KafkaConsumer<byte[], byte[]> consumer;
     private final AtomicLong revokedNum = new AtomicLong(0);
     private final AtomicLong assignedNum = new AtomicLong(0);
@@ -62,7 +57,7 @@ public class AckOffsetOnRebalance implements ConsumerRebalanceListener {
             String clusterId,
             Seeker seeker,
             ConcurrentHashMap<TopicPartition, OffsetAndMetadata> commitOffsetMap,
-            ConcurrentHashMap<TopicPartition, ConcurrentSkipListMap<Long, Boolean>> ackOffsetMap,
+            ConcurrentHashMap<TopicPartition, OffsetAckTracker> ackOffsetMap,
             KafkaConsumer<byte[], byte[]> consumer) {
         this(clusterId, seeker, commitOffsetMap, ackOffsetMap, consumer, DEFAULT_MAX_WAIT_FOR_ACK_TIME);
     }
@@ -71,7 +66,7 @@ public class AckOffsetOnRebalance implements ConsumerRebalanceListener {
             String clusterId,
             Seeker seeker,
             ConcurrentHashMap<TopicPartition, OffsetAndMetadata> commitOffsetMap,
-            ConcurrentHashMap<TopicPartition, ConcurrentSkipListMap<Long, Boolean>> ackOffsetMap,
+            ConcurrentHashMap<TopicPartition, OffsetAckTracker> ackOffsetMap,
             KafkaConsumer<byte[], byte[]> consumer,
             long maxWaitForAckTime) {
         this.clusterId = clusterId;
@@ -106,15 +101,13 @@ public class AckOffsetOnRebalance implements ConsumerRebalanceListener {
 
     private boolean ackReady(Collection<TopicPartition> revoked) {
         for (TopicPartition tp : revoked) {
-            ConcurrentSkipListMap<Long, Boolean> tpMap = ackOffsetMap.get(tp);
-            if (Objects.isNull(tpMap)) {
+            OffsetAckTracker tracker = ackOffsetMap.get(tp);
+            if (Objects.isNull(tracker)) {
                 continue;
             }
-            for (Map.Entry<Long, Boolean> entry : tpMap.entrySet()) {
-                if (!entry.getValue()) {
-                    LOGGER.info("tp {}, offset {} has not been ack, wait", tp, entry.getKey());
-                    return false;
-                }
+            if (!tracker.isAllAcked()) {
+                LOGGER.info("tp {}, {} offsets have not been ack, wait", tp, tracker.getPendingCount());
+                return false;
             }
         }
         LOGGER.info("all revoked tp have been ack, re-balance right now.");
@@ -130,28 +123,16 @@ public class AckOffsetOnRebalance implements ConsumerRebalanceListener {
         revoked.stream()
                 .filter(keySet::contains)
                 .forEach(ackOffsetMap::remove);
+        revoked.forEach(commitOffsetMap::remove);
     }
 
     private void prepareCommit() {
-        List<Long> removeOffsets = new ArrayList<>();
-        ackOffsetMap.forEach((topicPartition, tpOffsetMap) -> {
-            // get the remove list
-            long commitOffset = -1;
-            for (Long ackOffset : tpOffsetMap.keySet()) {
-                if (!tpOffsetMap.get(ackOffset)) {
-                    break;
-                }
-                removeOffsets.add(ackOffset);
-                commitOffset = ackOffset;
-            }
-            // the first haven't ack, do nothing
-            if (CollectionUtils.isEmpty(removeOffsets)) {
+        ackOffsetMap.forEach((topicPartition, tracker) -> {
+            long commitOffset = tracker.pollCommitOffset();
+            // nothing acked since the last commit
+            if (commitOffset < 0) {
                 return;
             }
-
-            // remove offset and commit offset
-            removeOffsets.forEach(tpOffsetMap::remove);
-            removeOffsets.clear();
             commitOffsetMap.put(topicPartition, new OffsetAndMetadata(commitOffset));
         });
     }
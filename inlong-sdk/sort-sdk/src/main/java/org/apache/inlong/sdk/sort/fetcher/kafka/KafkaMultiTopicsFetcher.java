@@ -36,6 +36,7 @@ import org.apache.kafka.clients.consumer.KafkaConsumer;
 import org.apache.kafka.clients.consumer.OffsetAndMetadata;
 import org.apache.kafka.clients.consumer.RangeAssignor;
 import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.RetriableException;
 import org.apache.kafka.common.header.Header;
 import org.apache.kafka.common.header.Headers;
 import org.apache.kafka.common.serialization.ByteArrayDeserializer;
@@ -47,11 +48,9 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
@@ -62,7 +61,9 @@ public class KafkaMultiTopicsFetcher extends MultiTopicsFetcher {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(PulsarMultiTopicsFetcher.class);
     private final ConcurrentHashMap<TopicPartition, OffsetAndMetadata> commitOffsetMap;
-    private final ConcurrentHashMap<TopicPartition, ConcurrentSkipListMap<Long, Boolean>> ackOffsetMap;
+    private final ConcurrentHashMap<TopicPartition, OffsetAckTracker> ackOffsetMap;
+    // the last offset sent to commit of each partition, only accessed by the fetch thread
+    private final Map<TopicPartition, OffsetAndMetadata> lastCommitOffsetMap = new HashMap<>();
     private final String bootstrapServers;
     private ConsumerRebalanceListener listener;
     private KafkaConsumer<byte[], byte[]> consumer;
@@ -136,31 +137,42 @@ public class KafkaMultiTopicsFetcher extends MultiTopicsFetcher {
 
     @Override
     public void ack(String msgOffset) throws Exception {
-        LOGGER.info("ack {}", msgOffset);
         // the format of multi topic kafka fetcher msg offset is topic:partitionId:offset, such as topic1:20:1746839
-        String[] offset = msgOffset.split(":");
-        if (offset.length != 3) {
+        // topic names can not contain ':', so it is parsed from the end without splitting
+        int offsetIndex = msgOffset.lastIndexOf(':');
+        int partitionIndex = offsetIndex > 0 ? msgOffset.lastIndexOf(':', offsetIndex - 1) : -1;
+        if (partitionIndex <= 0) {
             throw new Exception("offset is illegal, the correct format is topic:partitionId:offset, "
                     + "the error offset is:" + msgOffset);
         }
 
         // parse topic partition offset
-        TopicPartition topicPartition = new TopicPartition(offset[0], Integer.parseInt(offset[1]));
-        long ackOffset = Long.parseLong(offset[2]);
+        TopicPartition topicPartition = new TopicPartition(msgOffset.substring(0, partitionIndex),
+                (int) parseLong(msgOffset, partitionIndex + 1, offsetIndex));
+        long ackOffset = parseLong(msgOffset, offsetIndex + 1, msgOffset.length());
 
-        // ack
-        if (!ackOffsetMap.containsKey(topicPartition) || !ackOffsetMap.get(topicPartition).containsKey(ackOffset)) {
+        // mark this offset has been ack.
+        OffsetAckTracker tracker = ackOffsetMap.get(topicPartition);
+        // the tracker is removed in AckOffsetOnRebalance::onPartitionsRevoked
+        if (tracker == null || !tracker.ack(ackOffset)) {
             LOGGER.warn("did not find offsetMap to ack offset of {}, offset {}, just ignore it",
                     topicPartition, ackOffset);
-            return;
         }
+    }
 
-        // mark this offset has been ack.
-        ConcurrentSkipListMap<Long, Boolean> tpOffsetMap = ackOffsetMap.get(topicPartition);
-        // to prevent race condition in AckOffsetOnRebalance::onPartitionsRevoked
-        if (Objects.nonNull(tpOffsetMap)) {
-            tpOffsetMap.put(ackOffset, true);
+    private static long parseLong(String str, int begin, int end) throws Exception {
+        if (begin >= end) {
+            throw new Exception("offset is illegal, the error offset is:" + str);
         }
+        long value = 0;
+        for (int i = begin; i < end; i++) {
+            int digit = str.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new Exception("offset is illegal, the error offset is:" + str);
+            }
+            value = value * 10 + digit;
+        }
+        return value;
     }
 
     @Override
@@ -226,25 +238,12 @@ public class KafkaMultiTopicsFetcher extends MultiTopicsFetcher {
     }
 
     private void prepareCommit() {
-        List<Long> removeOffsets = new ArrayList<>();
-        ackOffsetMap.forEach((topicPartition, tpOffsetMap) -> {
-            // get the remove list
-            long commitOffset = -1;
-            for (Long ackOffset : tpOffsetMap.keySet()) {
-                if (!tpOffsetMap.get(ackOffset)) {
-                    break;
-                }
-                removeOffsets.add(ackOffset);
-                commitOffset = ackOffset;
-            }
-            // the first haven't ack, do nothing
-            if (CollectionUtils.isEmpty(removeOffsets)) {
+        ackOffsetMap.forEach((topicPartition, tracker) -> {
+            long commitOffset = tracker.pollCommitOffset();
+            // nothing acked since the last commit
+            if (commitOffset < 0) {
                 return;
             }
-
-            // remove offset and commit offset
-            removeOffsets.forEach(tpOffsetMap::remove);
-            removeOffsets.clear();
             commitOffsetMap.put(topicPartition, new OffsetAndMetadata(commitOffset));
         });
     }
@@ -271,16 +270,37 @@ public class KafkaMultiTopicsFetcher extends MultiTopicsFetcher {
             }
         }
 
+        /**
+         * commit the acked offsets asynchronously, the offsets of a retriable failure are committed again
+         * in the next round unless newer offsets of the partition are committed
+         */
         private void commitKafkaOffset() {
             prepareCommit();
-            if (consumer != null) {
-                try {
-                    LOGGER.info("commit {}", commitOffsetMap);
-                    consumer.commitSync(commitOffsetMap);
-                    commitOffsetMap.clear();
-                } catch (Exception e) {
-                    LOGGER.error("commit kafka offset failed: ", e);
-                }
+            if (consumer == null || commitOffsetMap.isEmpty()) {
+                return;
+            }
+            Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>(commitOffsetMap);
+            commitOffsetMap.clear();
+            lastCommitOffsetMap.putAll(offsets);
+            LOGGER.debug("commit {}", offsets);
+            try {
+                consumer.commitAsync(offsets, (committed, exception) -> {
+                    if (exception == null) {
+                        return;
+                    }
+                    if (!(exception instanceof RetriableException)) {
+                        LOGGER.error("commit kafka offset failed: ", exception);
+                        return;
+                    }
+                    LOGGER.warn("commit kafka offset failed, retry it: {}", exception.getMessage());
+                    offsets.forEach((topicPartition, offset) -> {
+                        if (offset.equals(lastCommitOffsetMap.get(topicPartition))) {
+                            commitOffsetMap.putIfAbsent(topicPartition, offset);
+                        }
+                    });
+                });
+            } catch (Exception e) {
+                LOGGER.error("commit kafka offset failed: ", e);
             }
         }
 
@@ -303,12 +323,6 @@ public class KafkaMultiTopicsFetcher extends MultiTopicsFetcher {
             }
         }
 
-        private String getOffset(String topic, int partitionId, long offset) {
-            TopicPartition topicPartition = new TopicPartition(topic, partitionId);
-            ackOffsetMap.computeIfAbsent(topicPartition, k -> new ConcurrentSkipListMap<>()).put(offset, false);
-            return topic + ":" + partitionId + ":" + offset;
-        }
-
         private Map<String, String> getMsgHeaders(Headers headers) {
             Map<String, String> headerMap = new HashMap<>();
             for (Header header : headers) {
@@ -323,7 +337,7 @@ public class KafkaMultiTopicsFetcher extends MultiTopicsFetcher {
             while (true) {
                 hasPermit = false;
                 try {
-                    if (context.getConfig().isStopConsume() || stopConsume) {
+                    if (context.getConfig().isStopConsume() || stopConsume || context.isCreditExhausted()) {
                         TimeUnit.MILLISECONDS.sleep(50);
                         continue;
                     }
@@ -360,27 +374,33 @@ public class KafkaMultiTopicsFetcher extends MultiTopicsFetcher {
             long fetchTimeCost = System.currentTimeMillis() - startFetchTime;
 
             if (null != records && !records.isEmpty()) {
-                for (ConsumerRecord<byte[], byte[]> msg : records) {
-                    List<MessageRecord> msgs = new ArrayList<>();
-                    String topicName = msg.topic();
+                for (TopicPartition topicPartition : records.partitions()) {
+                    String topicName = topicPartition.topic();
+                    int partition = topicPartition.partition();
                     InLongTopic topic = onlineTopics.get(topicName);
-                    String offsetKey = getOffset(topicName, msg.partition(), msg.offset());
-                    List<InLongMessage> inLongMessages = deserializer
-                            .deserialize(context, topic, getMsgHeaders(msg.headers()), msg.value());
-                    context.addConsumeSuccess(topic, msg.partition(), inLongMessages.size(), msg.value().length,
-                            fetchTimeCost);
-                    int originSize = inLongMessages.size();
-                    inLongMessages = interceptor.intercept(inLongMessages);
-                    if (inLongMessages.isEmpty()) {
-                        ack(offsetKey);
-                        continue;
+                    OffsetAckTracker tracker = ackOffsetMap.computeIfAbsent(topicPartition,
+                            k -> new OffsetAckTracker());
+                    for (ConsumerRecord<byte[], byte[]> msg : records.records(topicPartition)) {
+                        tracker.fetched(msg.offset());
+                        String offsetKey = topicName + ":" + partition + ":" + msg.offset();
+                        List<InLongMessage> inLongMessages = deserializer
+                                .deserialize(context, topic, getMsgHeaders(msg.headers()), msg.value());
+                        context.addConsumeSuccess(topic, partition, inLongMessages.size(), msg.value().length,
+                                fetchTimeCost);
+                        int originSize = inLongMessages.size();
+                        inLongMessages = interceptor.intercept(inLongMessages);
+                        if (inLongMessages.isEmpty()) {
+                            tracker.ack(msg.offset());
+                            continue;
+                        }
+                        int filterSize = originSize - inLongMessages.size();
+                        context.addConsumeFilter(topic, partition, filterSize);
+                        List<MessageRecord> msgs = new ArrayList<>();
+                        msgs.add(new MessageRecord(fetchKey,
+                                inLongMessages,
+                                offsetKey, System.currentTimeMillis()));
+                        handleAndCallbackMsg(msgs, topic, partition);
                     }
-                    int filterSize = originSize - inLongMessages.size();
-                    context.addConsumeFilter(topic, msg.partition(), filterSize);
-                    msgs.add(new MessageRecord(fetchKey,
-                            inLongMessages,
-                            offsetKey, System.currentTimeMillis()));
-                    handleAndCallbackMsg(msgs, topic, msg.partition());
                 }
                 sleepTime = 0L;
             } else {
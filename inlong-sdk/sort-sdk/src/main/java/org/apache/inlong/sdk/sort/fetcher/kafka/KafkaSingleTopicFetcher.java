@@ -34,6 +34,8 @@ import org.apache.kafka.clients.consumer.KafkaConsumer;
 import org.apache.kafka.clients.consumer.OffsetAndMetadata;
 import org.apache.kafka.clients.consumer.RangeAssignor;
 import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.RetriableException;
+import org.apache.kafka.common.errors.WakeupException;
 import org.apache.kafka.common.header.Header;
 import org.apache.kafka.common.header.Headers;
 import org.apache.kafka.common.serialization.ByteArrayDeserializer;
@@ -49,6 +51,7 @@ import java.util.Map;
 import java.util.Properties;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Kafka single topic fetcher.
@@ -56,9 +59,17 @@ import java.util.concurrent.TimeUnit;
 public class KafkaSingleTopicFetcher extends SingleTopicFetcher {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(KafkaSingleTopicFetcher.class);
+    // the rebalance listener runs in the poll of a shared fetch thread, so it must not wait for the acks,
+    // the acked offsets are committed on revoke and the rest are consumed again by the new owner
+    private static final long MAX_WAIT_FOR_ACK_ON_REVOKE_MS = 0L;
     private final ConcurrentHashMap<TopicPartition, OffsetAndMetadata> commitOffsetMap = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<TopicPartition, OffsetAckTracker> ackOffsetMap = new ConcurrentHashMap<>();
+    private final Map<TopicPartition, OffsetAndMetadata> lastCommitOffsetMap = new HashMap<>();
+    // the consumer is not thread safe, it is only used by one fetch task at a time or by close under this lock
+    private final ReentrantLock consumerLock = new ReentrantLock();
     private String bootstrapServers;
     private KafkaConsumer<byte[], byte[]> consumer;
+    private boolean paused = false;
 
     public KafkaSingleTopicFetcher(
             InLongTopic inLongTopic,
@@ -79,16 +90,13 @@ public class KafkaSingleTopicFetcher extends SingleTopicFetcher {
                 this.seeker = SeekerFactory.createKafkaSeeker(consumer, topic);
                 consumer.subscribe(Collections.singletonList(topic.getTopic()),
                         new AckOffsetOnRebalance(this.topic.getInLongCluster().getClusterId(), seeker,
-                                commitOffsetMap, consumer));
+                                commitOffsetMap, ackOffsetMap, consumer, MAX_WAIT_FOR_ACK_ON_REVOKE_MS));
             } else {
                 LOGGER.info("consumer is null");
                 return false;
             }
-            String threadName = String.format("sort_sdk_kafka_single_topic_fetch_thread_%s_%s_%d",
-                    this.topic.getInLongCluster().getClusterId(), topic.getTopic(), this.hashCode());
-            this.fetchThread = new Thread(new KafkaSingleTopicFetcher.Fetcher(), threadName);
-            fetchThread.start();
-            LOGGER.info("start to start thread:{}", threadName);
+            startFetch(new KafkaSingleTopicFetcher.Fetcher());
+            LOGGER.info("start to fetch topic:{}", topic.getTopic());
         } catch (Exception e) {
             LOGGER.error("fail to init kafka single topic fetcher: {}", e.getMessage(), e);
             return false;
@@ -100,13 +108,17 @@ public class KafkaSingleTopicFetcher extends SingleTopicFetcher {
     public void ack(String msgOffset) throws Exception {
         // the format of kafka msg offset is partitionId:offset, such as 20:1746839
         String[] offset = msgOffset.split(":");
-        if (offset.length == 2) {
-            TopicPartition topicPartition = new TopicPartition(topic.getTopic(), Integer.parseInt(offset[0]));
-            OffsetAndMetadata offsetAndMetadata = new OffsetAndMetadata(Long.parseLong(offset[1]));
-            commitOffsetMap.put(topicPartition, offsetAndMetadata);
-        } else {
+        if (offset.length != 2) {
             throw new Exception("offset is illegal, the correct format is int:long ,the error offset is:" + msgOffset);
         }
+        TopicPartition topicPartition = new TopicPartition(topic.getTopic(), Integer.parseInt(offset[0]));
+        long ackOffset = Long.parseLong(offset[1]);
+        // the tracker is removed in AckOffsetOnRebalance::onPartitionsRevoked
+        OffsetAckTracker tracker = ackOffsetMap.get(topicPartition);
+        if (tracker == null || !tracker.ack(ackOffset)) {
+            LOGGER.warn("did not find offsetMap to ack offset of {}, offset {}, just ignore it",
+                    topicPartition, ackOffset);
+        }
     }
 
     @Override
@@ -122,15 +134,17 @@ public class KafkaSingleTopicFetcher extends SingleTopicFetcher {
     @Override
     public boolean close() {
         this.closed = true;
-        try {
-            if (fetchThread != null) {
-                fetchThread.interrupt();
-            }
-            if (consumer != null) {
+        if (consumer != null) {
+            // break the running poll, then close the consumer after the fetch task
+            consumer.wakeup();
+            consumerLock.lock();
+            try {
                 consumer.close();
+            } catch (Throwable t) {
+                LOGGER.warn(t.getMessage(), t);
+            } finally {
+                consumerLock.unlock();
             }
-        } catch (Throwable t) {
-            LOGGER.warn(t.getMessage(), t);
         }
         LOGGER.info("closed {}", topic);
         return true;
@@ -191,16 +205,49 @@ public class KafkaSingleTopicFetcher extends SingleTopicFetcher {
         LOGGER.info("end to create kafka consumer:{}", consumer);
     }
 
+    /**
+     * Fetch task running in the shared fetch threads, each run polls without waiting and schedules the next run.
+     * The partitions are paused when the credit is exhausted or the records waiting for ack fill the prefetch window,
+     * and the consumer still polls while paused to stay in the group.
+     */
     public class Fetcher implements Runnable {
 
+        /**
+         * commit the acked offsets asynchronously, the offsets of a retriable failure are committed again
+         * in the next round unless newer offsets of the partition are committed
+         */
         private void commitKafkaOffset() {
-            if (consumer != null && commitOffsetMap.size() > 0) {
-                try {
-                    consumer.commitSync(commitOffsetMap);
-                    commitOffsetMap.clear();
-                } catch (Exception e) {
-                    LOGGER.error("commit kafka offset failed: {}", e.getMessage(), e);
+            ackOffsetMap.forEach((topicPartition, tracker) -> {
+                long commitOffset = tracker.pollCommitOffset();
+                // nothing acked since the last commit
+                if (commitOffset >= 0) {
+                    commitOffsetMap.put(topicPartition, new OffsetAndMetadata(commitOffset));
                 }
+            });
+            if (commitOffsetMap.isEmpty()) {
+                return;
+            }
+            Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>(commitOffsetMap);
+            commitOffsetMap.clear();
+            lastCommitOffsetMap.putAll(offsets);
+            try {
+                consumer.commitAsync(offsets, (committed, exception) -> {
+                    if (exception == null) {
+                        return;
+                    }
+                    if (!(exception instanceof RetriableException)) {
+                        LOGGER.error("commit kafka offset failed: {}", exception.getMessage(), exception);
+                        return;
+                    }
+                    LOGGER.warn("commit kafka offset failed, retry it: {}", exception.getMessage());
+                    offsets.forEach((topicPartition, offset) -> {
+                        if (offset.equals(lastCommitOffsetMap.get(topicPartition))) {
+                            commitOffsetMap.putIfAbsent(topicPartition, offset);
+                        }
+                    });
+                });
+            } catch (Exception e) {
+                LOGGER.error("commit kafka offset failed: {}", e.getMessage(), e);
             }
         }
 
@@ -210,15 +257,17 @@ public class KafkaSingleTopicFetcher extends SingleTopicFetcher {
          * @param messageRecords {@link List < MessageRecord >}
          */
         private void handleAndCallbackMsg(List<MessageRecord> messageRecords, int partition) {
-            long start = System.currentTimeMillis();
+            long start = System.nanoTime();
             try {
                 context.addCallBack(topic, partition);
                 context.getConfig().getCallback().onFinishedBatch(messageRecords);
+                long cost = System.nanoTime() - start;
+                prefetchController.onCallback(messageRecords.size(), cost);
                 context.addCallBackSuccess(topic, partition, messageRecords.size(),
-                        System.currentTimeMillis() - start);
+                        TimeUnit.NANOSECONDS.toMillis(cost));
             } catch (Exception e) {
                 context.addCallBackFail(topic, partition, messageRecords.size(),
-                        System.currentTimeMillis() - start);
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
                 LOGGER.error("failed to callback: {}", e.getMessage(), e);
             }
         }
@@ -235,78 +284,114 @@ public class KafkaSingleTopicFetcher extends SingleTopicFetcher {
             return headerMap;
         }
 
-        @Override
-        public void run() {
-            boolean hasPermit;
-            while (true) {
-                hasPermit = false;
-                try {
-                    if (context.getConfig().isStopConsume() || stopConsume) {
-                        TimeUnit.MILLISECONDS.sleep(50);
-                        continue;
-                    }
+        private long getPendingCount() {
+            long pending = 0;
+            for (OffsetAckTracker tracker : ackOffsetMap.values()) {
+                pending += tracker.getPendingCount();
+            }
+            return pending;
+        }
 
-                    if (sleepTime > 0) {
-                        TimeUnit.MILLISECONDS.sleep(sleepTime);
-                    }
+        /**
+         * pause all the assigned partitions when the downstream can not take more, and resume them when it can
+         */
+        private void updatePause() {
+            if (isBackPressured(getPendingCount())) {
+                // pause again for the partitions newly assigned
+                consumer.pause(consumer.assignment());
+                if (!paused) {
+                    LOGGER.debug("pause topic {}, prefetch size is {}", topic.getTopic(),
+                            prefetchController.getPrefetchSize());
+                    paused = true;
+                }
+            } else if (paused) {
+                consumer.resume(consumer.paused());
+                paused = false;
+            }
+        }
 
-                    context.acquireRequestPermit();
-                    hasPermit = true;
-                    // fetch from kafka
-                    fetchFromKafka();
-                    // commit
-                    commitKafkaOffset();
-                } catch (Exception e) {
-                    context.addConsumeError(topic, -1, -1);
-                    LOGGER.error(e.getMessage(), e);
-                } finally {
-                    if (hasPermit) {
-                        context.releaseRequestPermit();
-                    }
+        @Override
+        public void run() {
+            if (closed) {
+                return;
+            }
+            long delayMs = PAUSE_CHECK_INTERVAL_MS;
+            boolean hasPermit = false;
+            consumerLock.lock();
+            try {
+                if (closed || context.getConfig().isStopConsume() || stopConsume) {
+                    return;
+                }
+                if (!context.tryAcquireRequestPermit()) {
+                    return;
+                }
+                hasPermit = true;
+                updatePause();
+                // fetch from kafka
+                boolean empty = fetchFromKafka();
+                // commit
+                commitKafkaOffset();
+                delayMs = paused ? PAUSE_CHECK_INTERVAL_MS : prefetchController.nextDelayMs(empty);
+            } catch (WakeupException e) {
+                if (!closed) {
+                    LOGGER.warn("kafka consumer of {} is waked up", topic.getTopic());
+                }
+            } catch (Exception e) {
+                context.addConsumeError(topic, -1, -1);
+                LOGGER.error(e.getMessage(), e);
+                delayMs = prefetchController.nextDelayMs(true);
+            } finally {
+                if (hasPermit) {
+                    context.releaseRequestPermit();
                 }
+                consumerLock.unlock();
+                scheduleFetch(this, delayMs);
             }
         }
 
-        private void fetchFromKafka() throws Exception {
+        /**
+         * @return whether no record is fetched
+         */
+        private boolean fetchFromKafka() throws Exception {
             context.addConsumeTime(topic, -1);
 
             long startFetchTime = System.currentTimeMillis();
-            ConsumerRecords<byte[], byte[]> records = consumer
-                    .poll(Duration.ofMillis(context.getConfig().getKafkaFetchWaitMs()));
+            // a poll sends the fetch requests and the responses are taken by the next polls,
+            // so polling without waiting does not hold the shared thread
+            ConsumerRecords<byte[], byte[]> records = consumer.poll(Duration.ZERO);
             long fetchTimeCost = System.currentTimeMillis() - startFetchTime;
-            if (null != records && !records.isEmpty()) {
-
-                for (ConsumerRecord<byte[], byte[]> msg : records) {
-                    List<MessageRecord> msgs = new ArrayList<>();
-                    String offsetKey = getOffset(msg.partition(), msg.offset());
+            if (null == records || records.isEmpty()) {
+                context.addConsumeEmpty(topic, -1, fetchTimeCost);
+                return true;
+            }
+            for (TopicPartition topicPartition : records.partitions()) {
+                int partition = topicPartition.partition();
+                OffsetAckTracker tracker = ackOffsetMap.computeIfAbsent(topicPartition,
+                        k -> new OffsetAckTracker());
+                for (ConsumerRecord<byte[], byte[]> msg : records.records(topicPartition)) {
+                    tracker.fetched(msg.offset());
+                    String offsetKey = getOffset(partition, msg.offset());
                     List<InLongMessage> inLongMessages = deserializer
                             .deserialize(context, topic, getMsgHeaders(msg.headers()), msg.value());
-                    context.addConsumeSuccess(topic, msg.partition(), inLongMessages.size(), msg.value().length,
+                    context.addConsumeSuccess(topic, partition, inLongMessages.size(), msg.value().length,
                             fetchTimeCost);
                     int originSize = inLongMessages.size();
                     inLongMessages = interceptor.intercept(inLongMessages);
                     if (inLongMessages.isEmpty()) {
-                        ack(offsetKey);
+                        tracker.ack(msg.offset());
                         continue;
                     }
                     int filterSize = originSize - inLongMessages.size();
-                    context.addConsumeFilter(topic, msg.partition(), filterSize);
+                    context.addConsumeFilter(topic, partition, filterSize);
 
+                    List<MessageRecord> msgs = new ArrayList<>();
                     msgs.add(new MessageRecord(topic.getTopicKey(),
                             inLongMessages,
                             offsetKey, System.currentTimeMillis()));
-                    handleAndCallbackMsg(msgs, msg.partition());
-                }
-                sleepTime = 0L;
-            } else {
-                context.addConsumeEmpty(topic, -1, fetchTimeCost);
-                emptyFetchTimes++;
-                if (emptyFetchTimes >= context.getConfig().getEmptyPollTimes()) {
-                    sleepTime = Math.min((sleepTime += context.getConfig().getEmptyPollSleepStepMs()),
-                            context.getConfig().getMaxEmptyPollSleepMs());
-                    emptyFetchTimes = 0;
+                    handleAndCallbackMsg(msgs, partition);
                 }
             }
+            return false;
         }
     }
 }
@@ -0,0 +1,218 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sdk.sort.fetcher.kafka;
+
+import java.util.ArrayDeque;
+
+/**
+ * Ack state of the fetched offsets of one partition.
+ * The offsets between the committed watermark and the last fetched offset are kept in sliding bitsets,
+ * so marking an ack is a bit operation and the watermark advances a word at a time.
+ * Offsets skipped by the fetch, such as compacted records and transaction markers, are treated as acked.
+ * A skipped range larger than {@link #MAX_FILLED_GAP} starts a new segment instead of being filled in the bitset,
+ * so a large gap costs neither memory nor time.
+ */
+public class OffsetAckTracker {
+
+    private static final int INITIAL_CAPACITY = 1024;
+    static final long MAX_FILLED_GAP = INITIAL_CAPACITY;
+
+    // segments in the order of offsets, the first one holds the watermark
+    private final ArrayDeque<Segment> segments = new ArrayDeque<>();
+    private long lastCommitBase;
+
+    /**
+     * record a fetched offset, which waits for its ack
+     */
+    public synchronized void fetched(long offset) {
+        Segment head = segments.peekFirst();
+        if (head == null || offset < head.base) {
+            // the first offset, or seeking back before the watermark
+            reset(offset);
+            return;
+        }
+        Segment tail = segments.peekLast();
+        if (offset <= tail.lastFetched) {
+            // fetched again after seeking back, wait for the ack again
+            Segment segment = find(offset);
+            if (segment != null) {
+                segment.setBit(offset, false);
+            }
+            return;
+        }
+        if (tail.isAllAcked()) {
+            // all the bits of the tail are clear, jump over the skipped offsets
+            tail.base = offset;
+            tail.lastFetched = offset;
+            return;
+        }
+        if (offset - tail.lastFetched > MAX_FILLED_GAP) {
+            segments.addLast(new Segment(offset));
+            return;
+        }
+        tail.append(offset);
+    }
+
+    /**
+     * @return false if the offset is not waiting for ack, e.g. it is acked and committed or never fetched
+     */
+    public synchronized boolean ack(long offset) {
+        Segment segment = find(offset);
+        if (segment == null) {
+            return false;
+        }
+        segment.setBit(offset, true);
+        if (offset == segment.base) {
+            segment.advance();
+            // the watermark jumps over the skipped offsets to the next segment
+            while (segments.size() > 1 && segments.peekFirst().isAllAcked()) {
+                segments.pollFirst();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the last offset of the contiguous acked offsets if it is advanced since the last call, otherwise -1
+     */
+    public synchronized long pollCommitOffset() {
+        Segment head = segments.peekFirst();
+        if (head == null || head.base == lastCommitBase) {
+            return -1L;
+        }
+        lastCommitBase = head.base;
+        return head.base - 1;
+    }
+
+    public synchronized boolean isAllAcked() {
+        return segments.isEmpty() || (segments.size() == 1 && segments.peekFirst().isAllAcked());
+    }
+
+    /**
+     * @return the number of offsets waiting for ack or for the offsets before them, the large gaps are not counted
+     */
+    public synchronized long getPendingCount() {
+        long pending = 0;
+        for (Segment segment : segments) {
+            pending += segment.lastFetched - segment.base + 1;
+        }
+        return pending;
+    }
+
+    private void reset(long offset) {
+        segments.clear();
+        segments.addLast(new Segment(offset));
+        lastCommitBase = offset;
+    }
+
+    /**
+     * @return the segment waiting for the ack of the offset, null if the offset is acked or never fetched
+     */
+    private Segment find(long offset) {
+        for (Segment segment : segments) {
+            if (offset < segment.base) {
+                return null;
+            }
+            if (offset <= segment.lastFetched) {
+                return segment;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * contiguous offsets whose small gaps are filled as acked
+     */
+    private static final class Segment {
+
+        // ring of ack bits, the bit of an offset is at offset & mask
+        private long[] bits;
+        private long mask;
+        // first offset not acked yet
+        private long base;
+        private long lastFetched;
+
+        private Segment(long offset) {
+            this.bits = new long[INITIAL_CAPACITY >>> 6];
+            this.mask = INITIAL_CAPACITY - 1;
+            this.base = offset;
+            this.lastFetched = offset;
+        }
+
+        private boolean isAllAcked() {
+            return base > lastFetched;
+        }
+
+        private void append(long offset) {
+            ensureCapacity(offset - base + 1);
+            for (long skipped = lastFetched + 1; skipped < offset; skipped++) {
+                setBit(skipped, true);
+            }
+            lastFetched = offset;
+            advance();
+        }
+
+        private void setBit(long offset, boolean acked) {
+            int index = (int) (offset & mask);
+            if (acked) {
+                bits[index >>> 6] |= 1L << index;
+            } else {
+                bits[index >>> 6] &= ~(1L << index);
+            }
+        }
+
+        /**
+         * move the watermark over the acked offsets and clear their bits for reuse
+         */
+        private void advance() {
+            while (base <= lastFetched) {
+                int index = (int) (base & mask);
+                int shift = index & 63;
+                long word = bits[index >>> 6];
+                // consecutive acked bits from the watermark to the end of this word
+                int acked = (int) Math.min(Long.numberOfTrailingZeros(~(word >>> shift)), lastFetched - base + 1);
+                if (acked == 0) {
+                    return;
+                }
+                long cleared = acked == 64 ? -1L : ((1L << acked) - 1) << shift;
+                bits[index >>> 6] = word & ~cleared;
+                base += acked;
+            }
+        }
+
+        private void ensureCapacity(long required) {
+            if (required <= mask + 1) {
+                return;
+            }
+            long capacity = mask + 1;
+            while (capacity < required) {
+                capacity <<= 1;
+            }
+            long[] oldBits = bits;
+            long oldMask = mask;
+            bits = new long[(int) (capacity >>> 6)];
+            mask = capacity - 1;
+            for (long offset = base; offset <= lastFetched; offset++) {
+                int index = (int) (offset & oldMask);
+                if ((oldBits[index >>> 6] & (1L << index)) != 0) {
+                    setBit(offset, true);
+                }
+            }
+        }
+    }
+}
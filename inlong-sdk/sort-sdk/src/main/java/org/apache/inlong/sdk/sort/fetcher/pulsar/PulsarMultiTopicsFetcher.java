@@ -379,7 +379,7 @@ public class PulsarMultiTopicsFetcher extends MultiTopicsFetcher {
                 hasPermit = false;
                 long fetchTimeCost = -1;
                 try {
-                    if (context.getConfig().isStopConsume() || stopConsume) {
+                    if (context.getConfig().isStopConsume() || stopConsume || context.isCreditExhausted()) {
                         TimeUnit.MILLISECONDS.sleep(50);
                         continue;
                     }
@@ -159,11 +159,7 @@ public class PulsarSingleTopicFetcher extends SingleTopicFetcher {
                     .subscribe();
 
             this.seeker = SeekerFactory.createPulsarSeeker(consumer, topic);
-            String threadName = String.format("sort_sdk_pulsar_single_topic_fetch_thread_%s_%s_%d",
-                    this.topic.getInLongCluster().getClusterId(), topic.getTopic(), this.hashCode());
-            this.fetchThread = new Thread(new PulsarSingleTopicFetcher.Fetcher(), threadName);
-            this.fetchThread.setDaemon(true);
-            this.fetchThread.start();
+            startFetch(new PulsarSingleTopicFetcher.Fetcher());
         } catch (Exception e) {
             LOGGER.error("fail to create consumer", e);
             return false;
@@ -200,6 +196,7 @@ public class PulsarSingleTopicFetcher extends SingleTopicFetcher {
     public boolean close() {
         mainLock.writeLock().lock();
         try {
+            this.closed = true;
             try {
                 if (consumer != null) {
                     consumer.close();
@@ -210,7 +207,6 @@ public class PulsarSingleTopicFetcher extends SingleTopicFetcher {
             LOGGER.info("closed {}", topic);
             return true;
         } finally {
-            this.closed = true;
             mainLock.writeLock().unlock();
         }
     }
@@ -220,6 +216,11 @@ public class PulsarSingleTopicFetcher extends SingleTopicFetcher {
         return closed;
     }
 
+    /**
+     * Fetch task running in the shared fetch threads.
+     * Each run requests one batch with {@link Consumer#batchReceiveAsync()}, the batch is processed in the fetch
+     * threads again, then the next run is scheduled.
+     */
     public class Fetcher implements Runnable {
 
         /**
@@ -228,15 +229,17 @@ public class PulsarSingleTopicFetcher extends SingleTopicFetcher {
          * @param messageRecords {@link List}
          */
         private void handleAndCallbackMsg(List<MessageRecord> messageRecords) {
-            long start = System.currentTimeMillis();
+            long start = System.nanoTime();
             try {
                 context.addCallBack(topic, -1);
                 context.getConfig().getCallback().onFinishedBatch(messageRecords);
+                long cost = System.nanoTime() - start;
+                prefetchController.onCallback(messageRecords.size(), cost);
                 context.addCallBackSuccess(topic, -1, messageRecords.size(),
-                        System.currentTimeMillis() - start);
+                        TimeUnit.NANOSECONDS.toMillis(cost));
             } catch (Exception e) {
                 context.addCallBackFail(topic, -1, messageRecords.size(),
-                        System.currentTimeMillis() - start);
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
                 LOGGER.error("failed to callback", e);
             }
         }
@@ -247,85 +250,89 @@ public class PulsarSingleTopicFetcher extends SingleTopicFetcher {
 
         @Override
         public void run() {
-            boolean hasPermit;
-            while (true) {
-                try {
-                    hasPermit = false;
-                    long fetchTimeCost = -1;
-                    try {
-                        if (context.getConfig().isStopConsume() || stopConsume) {
-                            TimeUnit.MILLISECONDS.sleep(50);
-                            continue;
-                        }
-
-                        if (sleepTime > 0) {
-                            TimeUnit.MILLISECONDS.sleep(sleepTime);
-                        }
-
-                        context.acquireRequestPermit();
-                        hasPermit = true;
-                        context.addConsumeTime(topic, -1);
-
-                        long startFetchTime = System.currentTimeMillis();
-                        Messages<byte[]> messages = consumer.batchReceive();
-                        fetchTimeCost = System.currentTimeMillis() - startFetchTime;
-                        if (null != messages && messages.size() != 0) {
-                            for (Message<byte[]> msg : messages) {
-                                // if need seek
-                                if (msg.getPublishTime() < seeker.getSeekTime()) {
-                                    seeker.seek();
-                                    break;
-                                }
+            if (closed) {
+                return;
+            }
+            boolean hasPermit = false;
+            try {
+                // the records waiting for ack are the ones in the offset cache
+                if (shouldPause(offsetCache.size()) || !context.tryAcquireRequestPermit()) {
+                    scheduleFetch(this, PAUSE_CHECK_INTERVAL_MS);
+                    return;
+                }
+                hasPermit = true;
+                context.addConsumeTime(topic, -1);
+                long startFetchTime = System.currentTimeMillis();
+                consumer.batchReceiveAsync().whenComplete((messages, throwable) -> {
+                    context.releaseRequestPermit();
+                    long fetchTimeCost = System.currentTimeMillis() - startFetchTime;
+                    scheduleFetch(() -> onReceived(messages, throwable, fetchTimeCost), 0L);
+                });
+            } catch (Throwable t) {
+                if (hasPermit) {
+                    context.releaseRequestPermit();
+                }
+                context.addConsumeError(topic, -1, -1);
+                LOGGER.error("failed to fetch msg", t);
+                scheduleFetch(this, prefetchController.nextDelayMs(true));
+            }
+        }
 
-                                String offsetKey = getOffset(msg.getMessageId());
-                                offsetCache.put(offsetKey, msg.getMessageId());
+        private void onReceived(Messages<byte[]> messages, Throwable throwable, long fetchTimeCost) {
+            long delayMs;
+            try {
+                if (throwable != null) {
+                    throw throwable;
+                }
+                boolean empty = null == messages || messages.size() == 0;
+                if (!empty) {
+                    handleMessages(messages, fetchTimeCost);
+                } else {
+                    context.addConsumeEmpty(topic, -1, fetchTimeCost);
+                }
+                delayMs = prefetchController.nextDelayMs(empty);
+            } catch (Throwable t) {
+                if (closed) {
+                    return;
+                }
+                context.addConsumeError(topic, -1, fetchTimeCost);
+                LOGGER.error("failed to fetch msg", t);
+                delayMs = prefetchController.nextDelayMs(true);
+            }
+            scheduleFetch(this, delayMs);
+        }
 
-                                // deserialize
-                                List<InLongMessage> inLongMessages = deserializer
-                                        .deserialize(context, topic, msg.getProperties(), msg.getData());
-                                context.addConsumeSuccess(topic, -1, inLongMessages.size(), msg.getData().length,
-                                        fetchTimeCost);
-                                int originSize = inLongMessages.size();
-                                // intercept
-                                inLongMessages = interceptor.intercept(inLongMessages);
-                                if (inLongMessages.isEmpty()) {
-                                    ack(offsetKey);
-                                    continue;
-                                }
-                                int filterSize = originSize - inLongMessages.size();
-                                context.addConsumeFilter(topic, -1, filterSize);
+        private void handleMessages(Messages<byte[]> messages, long fetchTimeCost) throws Exception {
+            for (Message<byte[]> msg : messages) {
+                // if need seek
+                if (msg.getPublishTime() < seeker.getSeekTime()) {
+                    seeker.seek();
+                    break;
+                }
 
-                                List<MessageRecord> msgs = new ArrayList<>();
-                                msgs.add(new MessageRecord(topic.getTopicKey(),
-                                        inLongMessages,
-                                        offsetKey, System.currentTimeMillis()));
-                                handleAndCallbackMsg(msgs);
-                            }
-                            sleepTime = 0L;
-                        } else {
-                            context.addConsumeEmpty(topic, -1, fetchTimeCost);
-                            emptyFetchTimes++;
-                            if (emptyFetchTimes >= context.getConfig().getEmptyPollTimes()) {
-                                sleepTime = Math.min((sleepTime += context.getConfig().getEmptyPollSleepStepMs()),
-                                        context.getConfig().getMaxEmptyPollSleepMs());
-                                emptyFetchTimes = 0;
-                            }
-                        }
-                    } catch (Exception e) {
-                        context.addConsumeError(topic, -1, fetchTimeCost);
-                        LOGGER.error("failed to fetch msg", e);
-                    } finally {
-                        if (hasPermit) {
-                            context.releaseRequestPermit();
-                        }
-                    }
+                String offsetKey = getOffset(msg.getMessageId());
+                offsetCache.put(offsetKey, msg.getMessageId());
 
-                    if (closed) {
-                        break;
-                    }
-                } catch (Throwable t) {
-                    LOGGER.error("got exception while process fetching", t);
+                // deserialize
+                List<InLongMessage> inLongMessages = deserializer
+                        .deserialize(context, topic, msg.getProperties(), msg.getData());
+                context.addConsumeSuccess(topic, -1, inLongMessages.size(), msg.getData().length,
+                        fetchTimeCost);
+                int originSize = inLongMessages.size();
+                // intercept
+                inLongMessages = interceptor.intercept(inLongMessages);
+                if (inLongMessages.isEmpty()) {
+                    ack(offsetKey);
+                    continue;
                 }
+                int filterSize = originSize - inLongMessages.size();
+                context.addConsumeFilter(topic, -1, filterSize);
+
+                List<MessageRecord> msgs = new ArrayList<>();
+                msgs.add(new MessageRecord(topic.getTopicKey(),
+                        inLongMessages,
+                        offsetKey, System.currentTimeMillis()));
+                handleAndCallbackMsg(msgs);
             }
         }
     }
@@ -43,7 +43,6 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeSet;
-import java.util.concurrent.TimeUnit;
 
 /**
  * Tube single topic fetcher
@@ -52,7 +51,6 @@ public class TubeSingleTopicFetcher extends SingleTopicFetcher {
 
     private static final Logger LOG = LoggerFactory.getLogger(TubeSingleTopicFetcher.class);
     private PullMessageConsumer messageConsumer;
-    private volatile Thread fetchThread;
     private TubeConsumerCreator tubeConsumerCreator;
 
     public TubeSingleTopicFetcher(
@@ -71,6 +69,9 @@ public class TubeSingleTopicFetcher extends SingleTopicFetcher {
         try {
             ConsumerConfig consumerConfig = new ConsumerConfig(tubeClientConfig.getMasterInfo(),
                     context.getConfig().getSortTaskId());
+            // return at once when no partition is ready, the fetch task runs on a shared pool
+            // and the empty poll is backed off by the prefetch controller
+            consumerConfig.setPullConsumeReadyWaitPeriodMs(0L);
 
             messageConsumer = tubeConsumerCreator.getMessageSessionFactory().createPullConsumer(consumerConfig);
             if (messageConsumer != null) {
@@ -83,11 +84,7 @@ public class TubeSingleTopicFetcher extends SingleTopicFetcher {
                 }
                 messageConsumer.subscribe(topic.getTopic(), filters);
                 messageConsumer.completeSubscribe();
-
-                String threadName = String.format("sort_sdk_tube_single_topic_fetch_thread_%s_%s_%d",
-                        this.topic.getInLongCluster().getClusterId(), topic.getTopic(), this.hashCode());
-                this.fetchThread = new Thread(new TubeSingleTopicFetcher.Fetcher(), threadName);
-                this.fetchThread.start();
+                startFetch(new TubeSingleTopicFetcher.Fetcher());
             } else {
                 return false;
             }
@@ -125,27 +122,23 @@ public class TubeSingleTopicFetcher extends SingleTopicFetcher {
 
     @Override
     public void pause() {
-        this.closed = true;
+        this.stopConsume = true;
     }
 
     @Override
     public void resume() {
-        this.closed = false;
+        this.stopConsume = false;
     }
 
     @Override
     public boolean close() {
+        this.closed = true;
         try {
-            if (fetchThread != null) {
-                fetchThread.interrupt();
-            }
             if (messageConsumer != null) {
                 messageConsumer.shutdown();
             }
         } catch (Throwable throwable) {
             LOG.warn(throwable.getMessage(), throwable);
-        } finally {
-            this.closed = true;
         }
         LOG.info("closed {}", topic);
         return true;
@@ -222,69 +215,58 @@ public class TubeSingleTopicFetcher extends SingleTopicFetcher {
 
         @Override
         public void run() {
-            boolean hasPermit;
-            while (true) {
-                hasPermit = false;
-                long fetchTimeCost = -1;
-                try {
-                    if (context.getConfig().isStopConsume() || stopConsume) {
-                        TimeUnit.MILLISECONDS.sleep(50L);
-                        continue;
-                    }
-
-                    if (sleepTime > 0) {
-                        TimeUnit.MILLISECONDS.sleep(sleepTime);
-                    }
-
-                    context.acquireRequestPermit();
-                    hasPermit = true;
-                    context.addConsumeTime(topic, -1);
-
-                    long startFetchTime = System.currentTimeMillis();
-                    ConsumerResult message = messageConsumer.getMessage();
-                    fetchTimeCost = System.currentTimeMillis() - startFetchTime;
-                    if (null != message && TErrCodeConstants.SUCCESS == message.getErrCode()) {
-                        for (Message msg : message.getMessageList()) {
-                            List<InLongMessage> msgs = new ArrayList<>();
-                            List<InLongMessage> deserialize = deserializer
-                                    .deserialize(context, topic, getAttributeMap(msg.getAttribute()),
-                                            msg.getData());
-                            context.addConsumeSuccess(topic, -1, deserialize.size(), msg.getData().length,
-                                    fetchTimeCost);
-                            int originSize = deserialize.size();
-                            deserialize = interceptor.intercept(deserialize);
-                            if (deserialize.isEmpty()) {
-                                continue;
-                            }
-                            int filterSize = originSize - deserialize.size();
-                            context.addConsumeFilter(topic, -1, filterSize);
+            if (closed) {
+                return;
+            }
+            boolean hasPermit = false;
+            long fetchTimeCost = -1;
+            long delayMs = PAUSE_CHECK_INTERVAL_MS;
+            try {
+                // the partitions are locked by the consumer until their messages are confirmed,
+                // so there is no prefetch window to limit
+                if (shouldPause(0) || !context.tryAcquireRequestPermit()) {
+                    return;
+                }
+                hasPermit = true;
+                context.addConsumeTime(topic, -1);
 
-                            msgs.addAll(deserialize);
-                            handleAndCallbackMsg(new MessageRecord(topic.getTopicKey(), msgs,
-                                    message.getConfirmContext(), System.currentTimeMillis()));
+                long startFetchTime = System.currentTimeMillis();
+                ConsumerResult message = messageConsumer.getMessage();
+                fetchTimeCost = System.currentTimeMillis() - startFetchTime;
+                boolean empty = null == message || TErrCodeConstants.SUCCESS != message.getErrCode();
+                if (!empty) {
+                    for (Message msg : message.getMessageList()) {
+                        List<InLongMessage> msgs = new ArrayList<>();
+                        List<InLongMessage> deserialize = deserializer
+                                .deserialize(context, topic, getAttributeMap(msg.getAttribute()),
+                                        msg.getData());
+                        context.addConsumeSuccess(topic, -1, deserialize.size(), msg.getData().length,
+                                fetchTimeCost);
+                        int originSize = deserialize.size();
+                        deserialize = interceptor.intercept(deserialize);
+                        if (deserialize.isEmpty()) {
+                            continue;
                         }
-                        sleepTime = 0L;
-                    } else {
-                        context.addConsumeEmpty(topic, -1, fetchTimeCost);
-                        emptyFetchTimes++;
-                        if (emptyFetchTimes >= context.getConfig().getEmptyPollTimes()) {
-                            sleepTime = Math.min((sleepTime += context.getConfig().getEmptyPollSleepStepMs()),
-                                    context.getConfig().getMaxEmptyPollSleepMs());
-                            emptyFetchTimes = 0;
-                        }
-                    }
-                } catch (Exception e) {
-                    context.addConsumeError(topic, -1, fetchTimeCost);
-                    LOG.error(e.getMessage(), e);
-                } finally {
-                    if (hasPermit) {
-                        context.releaseRequestPermit();
+                        int filterSize = originSize - deserialize.size();
+                        context.addConsumeFilter(topic, -1, filterSize);
+
+                        msgs.addAll(deserialize);
+                        handleAndCallbackMsg(new MessageRecord(topic.getTopicKey(), msgs,
+                                message.getConfirmContext(), System.currentTimeMillis()));
                     }
+                } else {
+                    context.addConsumeEmpty(topic, -1, fetchTimeCost);
                 }
-
-                if (closed) {
-                    break;
+                delayMs = prefetchController.nextDelayMs(empty);
+            } catch (Exception e) {
+                context.addConsumeError(topic, -1, fetchTimeCost);
+                LOG.error(e.getMessage(), e);
+                delayMs = prefetchController.nextDelayMs(true);
+            } finally {
+                if (hasPermit) {
+                    context.releaseRequestPermit();
                 }
+                scheduleFetch(this, delayMs);
             }
         }
     }
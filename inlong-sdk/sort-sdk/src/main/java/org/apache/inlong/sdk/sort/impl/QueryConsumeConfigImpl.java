@@ -198,7 +198,7 @@ public class QueryConsumeConfigImpl implements QueryConsumeConfig {
     @Override
     public ConsumeConfig queryCurrentConsumeConfig(String sortTaskId) {
         reload();
-        return new ConsumeConfig(subscribedTopic.get(sortTaskId));
+        return new ConsumeConfig(subscribedTopic.get(sortTaskId), md5);
     }
 
     @Override
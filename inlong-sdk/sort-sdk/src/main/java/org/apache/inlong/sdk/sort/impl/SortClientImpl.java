@@ -127,6 +127,17 @@ public class SortClientImpl extends SortClient {
         return (cleanInLongTopicManager && cleanContext);
     }
 
+    /**
+     * update the credit of the sort task, the fetchers check it before each fetch
+     *
+     * @param available long
+     * @param capacity long
+     */
+    @Override
+    public void updateCredit(long available, long capacity) {
+        context.updateCredit(available, capacity);
+    }
+
     @Override
     public SortClientConfig getConfig() {
         return this.sortClientConfig;
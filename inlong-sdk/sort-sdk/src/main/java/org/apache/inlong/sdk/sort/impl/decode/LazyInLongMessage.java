@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sdk.sort.impl.decode;
+
+import com.google.protobuf.ByteString;
+import org.apache.inlong.sdk.sort.entity.InLongMessage;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * InLongMessage decoded on demand.
+ * The body is a slice of the decoded batch, copied only when {@link #getBody()} is called,
+ * and the params are parsed on the first access.
+ */
+public class LazyInLongMessage extends InLongMessage {
+
+    private final ByteString bodyString;
+    private final Supplier<Map<String, String>> paramsParser;
+    private volatile byte[] body;
+    private volatile Map<String, String> params;
+
+    public LazyInLongMessage(String inlongGroupId, String inlongStreamId, long msgTime, String sourceIp,
+            ByteString bodyString, Supplier<Map<String, String>> paramsParser) {
+        super(inlongGroupId, inlongStreamId, msgTime, sourceIp, null, null);
+        this.bodyString = bodyString;
+        this.paramsParser = paramsParser;
+    }
+
+    @Override
+    public byte[] getBody() {
+        byte[] result = body;
+        if (result == null) {
+            result = bodyString.toByteArray();
+            body = result;
+        }
+        return result;
+    }
+
+    @Override
+    public ByteBuffer getBodyBuffer() {
+        return bodyString.asReadOnlyByteBuffer();
+    }
+
+    @Override
+    public Map<String, String> getParams() {
+        Map<String, String> result = params;
+        if (result == null) {
+            result = paramsParser.get();
+            params = result;
+        }
+        return result;
+    }
+}
@@ -27,9 +27,12 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.UnsafeByteOperations;
+import com.google.protobuf.WireFormat;
 import org.apache.inlong.common.msg.InLongMsg;
-import org.apache.inlong.sdk.commons.protocol.ProxySdk.MapFieldEntry;
-import org.apache.inlong.sdk.commons.protocol.ProxySdk.MessageObj;
 import org.apache.inlong.sdk.commons.protocol.ProxySdk.MessageObjs;
 import org.apache.inlong.sdk.sort.api.ClientContext;
 import org.apache.inlong.sdk.sort.api.Deserializer;
@@ -62,6 +65,15 @@ public class MessageDeserializer implements Deserializer {
     private static final char INLONGMSG_ATTR_KV_DELIMITER = '=';
     private static final String DEFAULT_IP = "127.0.0.1";
 
+    // wire tags of MessageObjs.msgs and the fields of MessageObj and MapFieldEntry
+    private static final int MESSAGE_OBJS_MSGS_TAG = 1 << 3 | WireFormat.WIRETYPE_LENGTH_DELIMITED;
+    private static final int MESSAGE_OBJ_MSG_TIME_TAG = 1 << 3 | WireFormat.WIRETYPE_VARINT;
+    private static final int MESSAGE_OBJ_SOURCE_IP_TAG = 2 << 3 | WireFormat.WIRETYPE_LENGTH_DELIMITED;
+    private static final int MESSAGE_OBJ_BODY_TAG = 3 << 3 | WireFormat.WIRETYPE_LENGTH_DELIMITED;
+    private static final int MESSAGE_OBJ_PARAMS_TAG = 4 << 3 | WireFormat.WIRETYPE_LENGTH_DELIMITED;
+    private static final int MAP_FIELD_ENTRY_KEY_TAG = 1 << 3 | WireFormat.WIRETYPE_LENGTH_DELIMITED;
+    private static final int MAP_FIELD_ENTRY_VALUE_TAG = 2 << 3 | WireFormat.WIRETYPE_LENGTH_DELIMITED;
+
     private static final String PARSE_ATTR_ERROR_STRING = "Could not find %s in attributes!";
 
     public MessageDeserializer() {
@@ -120,18 +132,15 @@ public class MessageDeserializer implements Deserializer {
         String inlongStreamId = headers.getOrDefault(INLONG_STREAMID_KEY, "");
         switch (compressType) {
             case COMPRESS_TYPE_NONE: {
-                return transformMessageObjs(context, inLongTopic, MessageObjs.parseFrom(msgBytes), inlongGroupId,
-                        inlongStreamId);
+                return decodeMessageObjs(msgBytes, inlongGroupId, inlongStreamId);
             }
             case COMPRESS_TYPE_SNAPPY: {
                 byte[] values = Utils.snappyDecompress(msgBytes, 0, msgBytes.length);
-                return transformMessageObjs(context, inLongTopic, MessageObjs.parseFrom(values), inlongGroupId,
-                        inlongStreamId);
+                return decodeMessageObjs(values, inlongGroupId, inlongStreamId);
             }
             case COMPRESS_TYPE_GZIP: {
                 byte[] values = Utils.gzipDecompress(msgBytes, 0, msgBytes.length);
-                return transformMessageObjs(context, inLongTopic, MessageObjs.parseFrom(values), inlongGroupId,
-                        inlongStreamId);
+                return decodeMessageObjs(values, inlongGroupId, inlongStreamId);
             }
             default:
                 throw new IllegalArgumentException("Unknown compress type:" + compressType);
@@ -139,33 +148,104 @@ public class MessageDeserializer implements Deserializer {
     }
 
     /**
-     * transform MessageObjs to SortSdkMessage
+     * decode {@link MessageObjs} field by field instead of building the protobuf objects,
+     * the bodies are slices of the bytes and the params are parsed on the first access,
+     * so the bytes must not be modified afterwards
      *
-     * @param messageObjs {@link MessageObjs}
+     * @param msgBytes byte[]
      * @return {@link List}
      */
-    private List<InLongMessage> transformMessageObjs(
-            ClientContext context, InLongTopic inLongTopic,
-            MessageObjs messageObjs, String inlongGroupId,
-            String inlongStreamId) {
-        if (null == messageObjs) {
-            return null;
-        }
+    private List<InLongMessage> decodeMessageObjs(byte[] msgBytes, String inlongGroupId, String inlongStreamId)
+            throws IOException {
         List<InLongMessage> inLongMessages = new ArrayList<>();
-        for (MessageObj messageObj : messageObjs.getMsgsList()) {
-            List<MapFieldEntry> mapFieldEntries = messageObj.getParamsList();
-            Map<String, String> headers = new HashMap<>();
-            for (MapFieldEntry mapFieldEntry : mapFieldEntries) {
-                headers.put(mapFieldEntry.getKey(), mapFieldEntry.getValue());
+        CodedInputStream input = CodedInputStream.newInstance(msgBytes);
+        input.enableAliasing(true);
+        ByteString lastSourceIp = null;
+        String sourceIp = "";
+        int tag;
+        while ((tag = input.readTag()) != 0) {
+            if (tag != MESSAGE_OBJS_MSGS_TAG) {
+                input.skipField(tag);
+                continue;
             }
-            InLongMessage inLongMessage = new InLongMessage(inlongGroupId, inlongStreamId, messageObj.getMsgTime(),
-                    messageObj.getSourceIp(),
-                    messageObj.getBody().toByteArray(), headers);
-            inLongMessages.add(inLongMessage);
+            int oldLimit = input.pushLimit(input.readRawVarint32());
+            long msgTime = 0;
+            ByteString body = ByteString.EMPTY;
+            // the range covering all the params of the message
+            int paramsStart = -1;
+            int paramsEnd = -1;
+            while ((tag = input.readTag()) != 0) {
+                switch (tag) {
+                    case MESSAGE_OBJ_MSG_TIME_TAG:
+                        msgTime = input.readInt64();
+                        break;
+                    case MESSAGE_OBJ_SOURCE_IP_TAG:
+                        // messages of a batch usually come from the same source
+                        ByteString sourceIpBytes = input.readBytes();
+                        if (!sourceIpBytes.equals(lastSourceIp)) {
+                            lastSourceIp = sourceIpBytes;
+                            sourceIp = sourceIpBytes.toStringUtf8();
+                        }
+                        break;
+                    case MESSAGE_OBJ_BODY_TAG:
+                        body = input.readBytes();
+                        break;
+                    case MESSAGE_OBJ_PARAMS_TAG:
+                        if (paramsStart < 0) {
+                            paramsStart = input.getTotalBytesRead()
+                                    - CodedOutputStream.computeUInt32SizeNoTag(MESSAGE_OBJ_PARAMS_TAG);
+                        }
+                        input.skipField(tag);
+                        paramsEnd = input.getTotalBytesRead();
+                        break;
+                    default:
+                        input.skipField(tag);
+                }
+            }
+            input.popLimit(oldLimit);
+            ByteString params = paramsStart < 0
+                    ? ByteString.EMPTY
+                    : UnsafeByteOperations.unsafeWrap(msgBytes, paramsStart, paramsEnd - paramsStart);
+            inLongMessages.add(new LazyInLongMessage(inlongGroupId, inlongStreamId, msgTime, sourceIp, body,
+                    () -> parseParams(params)));
         }
         return inLongMessages;
     }
 
+    /**
+     * parse the MapFieldEntry params of a message, skipping the other fields in the range
+     */
+    private static Map<String, String> parseParams(ByteString params) {
+        Map<String, String> headers = new HashMap<>();
+        try {
+            CodedInputStream input = params.newCodedInput();
+            int tag;
+            while ((tag = input.readTag()) != 0) {
+                if (tag != MESSAGE_OBJ_PARAMS_TAG) {
+                    input.skipField(tag);
+                    continue;
+                }
+                int oldLimit = input.pushLimit(input.readRawVarint32());
+                String key = "";
+                String value = "";
+                while ((tag = input.readTag()) != 0) {
+                    if (tag == MAP_FIELD_ENTRY_KEY_TAG) {
+                        key = input.readString();
+                    } else if (tag == MAP_FIELD_ENTRY_VALUE_TAG) {
+                        value = input.readString();
+                    } else {
+                        input.skipField(tag);
+                    }
+                }
+                input.popLimit(oldLimit);
+                headers.put(key, value);
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("failed to parse params of message", e);
+        }
+        return headers;
+    }
+
     private List<InLongMessage> decodeInlongMsg(
             ClientContext context,
             InLongTopic inLongTopic,
@@ -42,13 +42,19 @@ import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 /**
@@ -64,8 +70,13 @@ public class InlongMultiTopicManager extends TopicManager {
     private final Map<String, List<TopicFetcher>> kafkaFetchers = new ConcurrentHashMap<>();
     private final Map<String, List<TopicFetcher>> tubeFetchers = new ConcurrentHashMap<>();
     private final Map<String, TopicFetcher> allFetchers = new ConcurrentHashMap<>();
+    // topics of the clusters whose fetchers are created, used to diff the updated consume config
+    private final Map<InlongTopicTypeEnum, Map<String, List<InLongTopic>>> assignedClusters =
+            new ConcurrentHashMap<>();
+    private volatile String assignedVersion;
     private Set<String> allTopics = new HashSet<>();
     private final PeriodicTask updateMetaDataWorker;
+    private final ExecutorService createFetcherExecutor;
 
     private boolean stopAssign = false;
     private int consumerSize;
@@ -73,6 +84,13 @@ public class InlongMultiTopicManager extends TopicManager {
     public InlongMultiTopicManager(ClientContext context, QueryConsumeConfig queryConsumeConfig) {
         super(context, queryConsumeConfig);
         this.consumerSize = context.getConfig().getMaxConsumerSize();
+        AtomicInteger threadIndex = new AtomicInteger(0);
+        this.createFetcherExecutor = Executors.newFixedThreadPool(
+                Math.max(context.getConfig().getCreateFetcherThreadNum(), 1), runnable -> {
+                    Thread thread = new Thread(runnable, "sortsdk_create_fetcher_" + threadIndex.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                });
         updateMetaDataWorker = new UpdateMetaDataThread(context.getConfig().getUpdateMetaDataIntervalSec(),
                 TimeUnit.SECONDS);
         String threadName = "sortsdk_multi_topic_manager_" + context.getConfig().getSortTaskId()
@@ -142,6 +160,8 @@ public class InlongMultiTopicManager extends TopicManager {
             kafkaFetchers.clear();
             pulsarFetchers.clear();
             tubeFetchers.clear();
+            assignedClusters.clear();
+            assignedVersion = null;
             stopAssign = false;
             LOGGER.info("close finished {}", subscribeId);
         }
@@ -152,108 +172,258 @@ public class InlongMultiTopicManager extends TopicManager {
         if (updateMetaDataWorker != null) {
             updateMetaDataWorker.stop();
         }
+        createFetcherExecutor.shutdownNow();
     }
 
-    private void handleUpdatedConsumeConfig(List<InLongTopic> assignedTopics) {
+    /**
+     * @return whether the fetchers of all the assigned clusters are created
+     */
+    boolean handleUpdatedConsumeConfig(List<InLongTopic> assignedTopics) {
         if (CollectionUtils.isEmpty(assignedTopics)) {
             LOGGER.warn("assignedTopics is null or empty, do nothing");
-            return;
+            return false;
         }
         this.allTopics = assignedTopics.stream()
                 .map(InLongTopic::getTopic)
                 .filter(StringUtils::isNotBlank)
                 .collect(Collectors.toSet());
 
-        assignedTopics.stream()
-                .filter(topic -> InlongTopicTypeEnum.KAFKA.getName().equalsIgnoreCase(topic.getTopicType()))
-                .collect(Collectors.groupingBy(topic -> topic.getInLongCluster().getClusterId()))
-                .forEach(this::updateKafkaFetcher);
+        // start creating the consumers of all the new clusters before waiting for any of them
+        List<PendingFetchers> pendingList = new ArrayList<>();
+        for (InlongTopicTypeEnum type : InlongTopicTypeEnum.values()) {
+            Map<String, List<InLongTopic>> clusterTopics = assignedTopics.stream()
+                    .filter(topic -> type.getName().equalsIgnoreCase(topic.getTopicType()))
+                    .collect(Collectors.groupingBy(topic -> topic.getInLongCluster().getClusterId()));
+            reconcileClusters(type, clusterTopics, pendingList);
+        }
 
-        assignedTopics.stream()
-                .filter(topic -> InlongTopicTypeEnum.PULSAR.getName().equalsIgnoreCase(topic.getTopicType()))
-                .collect(Collectors.groupingBy(topic -> topic.getInLongCluster().getClusterId()))
-                .forEach(this::updatePulsarFetcher);
+        boolean success = true;
+        for (PendingFetchers pending : pendingList) {
+            success &= addCreatedFetchers(pending);
+        }
+        return success;
+    }
 
-        assignedTopics.stream()
-                .filter(topic -> InlongTopicTypeEnum.TUBE.getName().equalsIgnoreCase(topic.getTopicType()))
-                .collect(Collectors.groupingBy(topic -> topic.getInLongCluster().getClusterId()))
-                .forEach(this::updateTubeFetcher);
+    /**
+     * diff the clusters of one type with the assigned ones, and only touch the fetchers of the changed clusters
+     */
+    private void reconcileClusters(InlongTopicTypeEnum type, Map<String, List<InLongTopic>> clusterTopics,
+            List<PendingFetchers> pendingList) {
+        Map<String, List<InLongTopic>> assigned = assignedClusters.computeIfAbsent(type,
+                k -> new ConcurrentHashMap<>());
+        for (String clusterId : new ArrayList<>(assigned.keySet())) {
+            if (!clusterTopics.containsKey(clusterId)) {
+                removeCluster(type, clusterId);
+            }
+        }
+        clusterTopics.forEach((clusterId, topics) -> {
+            List<InLongTopic> oldTopics = assigned.get(clusterId);
+            if (oldTopics == null) {
+                LOGGER.info("create new {} consumer for cluster {}, size is {}", type.getName(), clusterId,
+                        consumerSize);
+                pendingList.add(new PendingFetchers(type, clusterId, topics, createConsumers(type, topics)));
+                return;
+            }
+            if (new HashSet<>(oldTopics).equals(new HashSet<>(topics))) {
+                return;
+            }
+            LOGGER.info("update {} consumer for cluster {}, topic size from {} to {}", type.getName(), clusterId,
+                    oldTopics.size(), topics.size());
+            if (type == InlongTopicTypeEnum.TUBE) {
+                updateTubeFetchers(clusterId, oldTopics, topics, pendingList);
+                return;
+            }
+            getFetcherMap(type).getOrDefault(clusterId, Collections.emptyList())
+                    .forEach(fetcher -> fetcher.updateTopics(topics));
+            assigned.put(clusterId, topics);
+        });
     }
 
-    private void updateKafkaFetcher(String clusterId, List<InLongTopic> topics) {
-        List<TopicFetcher> fetchers = kafkaFetchers.computeIfAbsent(clusterId, k -> new ArrayList<>());
-        if (CollectionUtils.isNotEmpty(fetchers)) {
-            fetchers.forEach(fetcher -> fetcher.updateTopics(topics));
+    /**
+     * tube fetchers consume one topic each, so close the removed topics and create the added ones
+     */
+    private void updateTubeFetchers(String clusterId, List<InLongTopic> oldTopics, List<InLongTopic> topics,
+            List<PendingFetchers> pendingList) {
+        Map<String, InLongTopic> newTopics = topics.stream()
+                .collect(Collectors.toMap(InLongTopic::getTopic, topic -> topic, (first, second) -> first));
+        Iterator<TopicFetcher> iterator = tubeFetchers.getOrDefault(clusterId, new ArrayList<>()).iterator();
+        while (iterator.hasNext()) {
+            TopicFetcher fetcher = iterator.next();
+            InLongTopic newTopic = newTopics.get(fetcher.getTopics().get(0).getTopic());
+            if (newTopic == null) {
+                iterator.remove();
+                closeFetcher(fetcher);
+            } else {
+                fetcher.updateTopics(Collections.singletonList(newTopic));
+            }
+        }
+        Set<String> oldTopicNames = oldTopics.stream().map(InLongTopic::getTopic).collect(Collectors.toSet());
+        List<InLongTopic> addedTopics = topics.stream()
+                .filter(topic -> !oldTopicNames.contains(topic.getTopic()))
+                .collect(Collectors.toList());
+        if (addedTopics.isEmpty()) {
+            assignedClusters.get(InlongTopicTypeEnum.TUBE).put(clusterId, topics);
             return;
         }
-        String bootstraps = topics.stream().findFirst().get().getInLongCluster().getBootstraps();
-        TopicFetcherBuilder builder = TopicFetcherBuilder.newKafkaBuilder()
-                .bootstrapServers(bootstraps)
-                .topic(topics)
-                .context(context);
-        LOGGER.info("create new kafka multi topic consumer for bootstrap {}, size is {}", bootstraps, consumerSize);
-        for (int i = 0; i < consumerSize; i++) {
-            fetchers.add(builder.subscribe());
+        pendingList.add(new PendingFetchers(InlongTopicTypeEnum.TUBE, clusterId, topics,
+                createConsumers(InlongTopicTypeEnum.TUBE, addedTopics)));
+    }
+
+    private void removeCluster(InlongTopicTypeEnum type, String clusterId) {
+        LOGGER.info("close {} consumer for removed cluster {}", type.getName(), clusterId);
+        assignedClusters.get(type).remove(clusterId);
+        List<TopicFetcher> fetchers = getFetcherMap(type).remove(clusterId);
+        if (fetchers != null) {
+            fetchers.forEach(this::closeFetcher);
         }
-        fetchers.forEach(topicFetcher -> allFetchers.put(topicFetcher.getFetchKey(), topicFetcher));
     }
 
-    private void updatePulsarFetcher(String clusterId, List<InLongTopic> topics) {
-        List<TopicFetcher> fetchers = pulsarFetchers.computeIfAbsent(clusterId, k -> new ArrayList<>());
-        if (CollectionUtils.isNotEmpty(fetchers)) {
-            fetchers.forEach(fetcher -> fetcher.updateTopics(topics));
-            return;
+    private void closeFetcher(TopicFetcher fetcher) {
+        allFetchers.remove(fetcher.getFetchKey(), fetcher);
+        try {
+            fetcher.close();
+        } catch (Exception e) {
+            LOGGER.error("got exception when close fetcher={}", fetcher.getTopics(), e);
         }
-        InLongTopic topic = topics.stream().findFirst().get();
-        LOGGER.info("create new pulsar multi topic consumer for bootstrap {}, size is {}",
-                topic.getInLongCluster().getBootstraps(), consumerSize);
+    }
+
+    private Map<String, List<TopicFetcher>> getFetcherMap(InlongTopicTypeEnum type) {
+        switch (type) {
+            case KAFKA:
+                return kafkaFetchers;
+            case PULSAR:
+                return pulsarFetchers;
+            default:
+                return tubeFetchers;
+        }
+    }
+
+    /**
+     * create the consumers of one cluster in parallel, each future gives the fetchers of one consumer,
+     * or an empty list if the consumer fails to create
+     */
+    private List<CompletableFuture<List<TopicFetcher>>> createConsumers(InlongTopicTypeEnum type,
+            List<InLongTopic> topics) {
+        List<CompletableFuture<List<TopicFetcher>>> futures = new ArrayList<>(consumerSize);
         for (int i = 0; i < consumerSize; i++) {
-            try {
-                PulsarClient pulsarClient = PulsarClient.builder()
-                        .serviceUrl(topic.getInLongCluster().getBootstraps())
-                        .authentication(AuthenticationFactory.token(topic.getInLongCluster().getToken()))
-                        .build();
-                TopicFetcher fetcher = TopicFetcherBuilder.newPulsarBuilder()
-                        .pulsarClient(pulsarClient)
-                        .topic(topics)
-                        .context(context)
-                        .subscribe();
-                fetchers.add(fetcher);
-                allFetchers.put(fetcher.getFetchKey(), fetcher);
-            } catch (PulsarClientException e) {
-                LOGGER.error("failed to create pulsar client for {}\n", topic.getInLongCluster().getBootstraps(), e);
-            }
+            futures.add(CompletableFuture.supplyAsync(() -> createConsumer(type, topics), createFetcherExecutor));
         }
+        return futures;
     }
 
-    private void updateTubeFetcher(String clusterId, List<InLongTopic> topics) {
-        List<TopicFetcher> fetchers = tubeFetchers.computeIfAbsent(clusterId, k -> new ArrayList<>());
-        if (CollectionUtils.isNotEmpty(fetchers)) {
-            fetchers.forEach(fetcher -> fetcher.updateTopics(topics));
-            return;
+    /**
+     * @return the fetchers of one consumer, or an empty list if the consumer fails to create
+     */
+    List<TopicFetcher> createConsumer(InlongTopicTypeEnum type, List<InLongTopic> topics) {
+        switch (type) {
+            case KAFKA:
+                return createKafkaFetcher(topics);
+            case PULSAR:
+                return createPulsarFetcher(topics);
+            default:
+                return createTubeFetchers(topics);
         }
-        InLongTopic topic = topics.stream().findFirst().get();
-        LOGGER.info("create new tube multi topic consumer for bootstrap {}, size is {}",
-                topic.getInLongCluster().getBootstraps(), consumerSize);
-        for (int i = 0; i < consumerSize; i++) {
-            try {
-                TubeClientConfig tubeConfig = new TubeClientConfig(topic.getInLongCluster().getBootstraps());
-                MessageSessionFactory messageSessionFactory = new TubeSingleSessionFactory(tubeConfig);
-                TubeConsumerCreator tubeConsumerCreator = new TubeConsumerCreator(messageSessionFactory,
-                        tubeConfig);
-                topics.forEach(tubeTopic -> {
-                    TopicFetcher fetcher = TopicFetcherBuilder.newTubeBuilder()
-                            .tubeConsumerCreater(tubeConsumerCreator)
-                            .topic(tubeTopic)
-                            .context(context)
-                            .subscribe();
-                    fetchers.add(fetcher);
-                });
-            } catch (TubeClientException e) {
-                LOGGER.error("failed to create tube client for {}\n", topic.getInLongCluster().getBootstraps(), e);
+    }
+
+    /**
+     * wait for the consumers of one cluster, the cluster is assigned only if all of them are created,
+     * otherwise the created ones are closed and the cluster is created again in the next update
+     */
+    private boolean addCreatedFetchers(PendingFetchers pending) {
+        List<TopicFetcher> created = new ArrayList<>();
+        boolean complete = true;
+        for (CompletableFuture<List<TopicFetcher>> future : pending.futures) {
+            List<TopicFetcher> fetchers = future.join();
+            complete &= !fetchers.isEmpty();
+            created.addAll(fetchers);
+        }
+        if (!complete || stopAssign) {
+            LOGGER.warn("failed to create {} consumer for cluster {}, retry in the next update",
+                    pending.type.getName(), pending.clusterId);
+            created.forEach(this::closeFetcher);
+            return false;
+        }
+        getFetcherMap(pending.type).computeIfAbsent(pending.clusterId, k -> new ArrayList<>()).addAll(created);
+        created.forEach(topicFetcher -> allFetchers.put(topicFetcher.getFetchKey(), topicFetcher));
+        assignedClusters.get(pending.type).put(pending.clusterId, pending.topics);
+        return true;
+    }
+
+    private List<TopicFetcher> createKafkaFetcher(List<InLongTopic> topics) {
+        String bootstraps = topics.get(0).getInLongCluster().getBootstraps();
+        try {
+            TopicFetcher fetcher = TopicFetcherBuilder.newKafkaBuilder()
+                    .bootstrapServers(bootstraps)
+                    .topic(topics)
+                    .context(context)
+                    .subscribe();
+            return fetcher == null ? Collections.emptyList() : Collections.singletonList(fetcher);
+        } catch (Exception e) {
+            LOGGER.error("failed to create kafka consumer for {}", bootstraps, e);
+            return Collections.emptyList();
+        }
+    }
+
+    private List<TopicFetcher> createPulsarFetcher(List<InLongTopic> topics) {
+        InLongTopic topic = topics.get(0);
+        try {
+            PulsarClient pulsarClient = PulsarClient.builder()
+                    .serviceUrl(topic.getInLongCluster().getBootstraps())
+                    .authentication(AuthenticationFactory.token(topic.getInLongCluster().getToken()))
+                    .build();
+            TopicFetcher fetcher = TopicFetcherBuilder.newPulsarBuilder()
+                    .pulsarClient(pulsarClient)
+                    .topic(topics)
+                    .context(context)
+                    .subscribe();
+            return fetcher == null ? Collections.emptyList() : Collections.singletonList(fetcher);
+        } catch (PulsarClientException e) {
+            LOGGER.error("failed to create pulsar client for {}\n", topic.getInLongCluster().getBootstraps(), e);
+        } catch (Exception e) {
+            LOGGER.error("failed to create pulsar consumer for {}", topic.getInLongCluster().getBootstraps(), e);
+        }
+        return Collections.emptyList();
+    }
+
+    private List<TopicFetcher> createTubeFetchers(List<InLongTopic> topics) {
+        InLongTopic topic = topics.get(0);
+        List<TopicFetcher> fetchers = new ArrayList<>(topics.size());
+        try {
+            TubeClientConfig tubeConfig = new TubeClientConfig(topic.getInLongCluster().getBootstraps());
+            MessageSessionFactory messageSessionFactory = new TubeSingleSessionFactory(tubeConfig);
+            TubeConsumerCreator tubeConsumerCreator = new TubeConsumerCreator(messageSessionFactory,
+                    tubeConfig);
+            for (InLongTopic tubeTopic : topics) {
+                fetchers.add(TopicFetcherBuilder.newTubeBuilder()
+                        .tubeConsumerCreater(tubeConsumerCreator)
+                        .topic(tubeTopic)
+                        .context(context)
+                        .subscribe());
             }
+            return fetchers;
+        } catch (TubeClientException e) {
+            LOGGER.error("failed to create tube client for {}\n", topic.getInLongCluster().getBootstraps(), e);
+        } catch (Exception e) {
+            LOGGER.error("failed to create tube consumer for {}", topic.getInLongCluster().getBootstraps(), e);
+        }
+        fetchers.forEach(this::closeFetcher);
+        return Collections.emptyList();
+    }
+
+    private static class PendingFetchers {
+
+        private final InlongTopicTypeEnum type;
+        private final String clusterId;
+        private final List<InLongTopic> topics;
+        private final List<CompletableFuture<List<TopicFetcher>>> futures;
+
+        PendingFetchers(InlongTopicTypeEnum type, String clusterId, List<InLongTopic> topics,
+                List<CompletableFuture<List<TopicFetcher>>> futures) {
+            this.type = type;
+            this.clusterId = clusterId;
+            this.topics = topics;
+            this.futures = futures;
         }
-        fetchers.forEach(topicFetcher -> allFetchers.put(topicFetcher.getFetchKey(), topicFetcher));
     }
 
     private class UpdateMetaDataThread extends PeriodicTask {
@@ -276,8 +446,15 @@ public class InlongMultiTopicManager extends TopicManager {
                 ConsumeConfig consumeConfig = queryConsumeConfig
                         .queryCurrentConsumeConfig(context.getConfig().getSortTaskId());
                 if (consumeConfig != null) {
+                    String version = consumeConfig.getVersion();
+                    if (version != null && version.equals(assignedVersion)) {
+                        logger.debug("consume config of version {} is assigned", version);
+                        return;
+                    }
                     List<InLongTopic> topicSubset = context.getConfig().getConsumerSubset(consumeConfig.getTopics());
-                    handleUpdatedConsumeConfig(topicSubset);
+                    if (handleUpdatedConsumeConfig(topicSubset)) {
+                        assignedVersion = version;
+                    }
                 } else {
                     logger.warn("subscribedInfo is null");
                     context.addRequestManagerFail(System.currentTimeMillis() - start);
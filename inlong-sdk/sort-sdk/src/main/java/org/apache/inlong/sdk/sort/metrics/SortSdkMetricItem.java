@@ -20,6 +20,7 @@ package org.apache.inlong.sdk.sort.metrics;
 import java.util.concurrent.atomic.AtomicLong;
 import org.apache.inlong.common.metric.CountMetric;
 import org.apache.inlong.common.metric.Dimension;
+import org.apache.inlong.common.metric.GaugeMetric;
 import org.apache.inlong.common.metric.MetricDomain;
 import org.apache.inlong.common.metric.MetricItem;
 
@@ -60,6 +61,10 @@ public class SortSdkMetricItem extends MetricItem {
     public static final String M_REQUEST_MANAGER_CONF_CHANAGED_COUNT = "requestManagerConfChanagedCount";
     public static final String M_RQUEST_MANAGER_COMMON_ERROR_COUNT = "requestManagerCommonErrorCount";
     public static final String M_RQUEST_MANAGER_PARAM_ERROR_COUNT = "requestManagerParamErrorCount";
+    // credit
+    public static final String M_CREDIT_PAUSE_COUNT = "creditPauseCount";
+    // GaugeMetric
+    public static final String M_CREDIT_PERCENT = "creditPercent";
 
     @Dimension
     public String sortTaskId;
@@ -112,6 +117,10 @@ public class SortSdkMetricItem extends MetricItem {
     public AtomicLong requestManagerCommonErrorCount = new AtomicLong(0);
     @CountMetric
     public AtomicLong requestManagerParamErrorCount = new AtomicLong(0);
+    @CountMetric
+    public AtomicLong creditPauseCount = new AtomicLong(0);
+    @GaugeMetric
+    public AtomicLong creditPercent = new AtomicLong(100);
 
     public SortSdkMetricItem() {
 
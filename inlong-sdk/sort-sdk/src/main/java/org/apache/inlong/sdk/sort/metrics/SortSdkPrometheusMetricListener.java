@@ -19,6 +19,7 @@ package org.apache.inlong.sdk.sort.metrics;
 
 import io.prometheus.client.Collector;
 import io.prometheus.client.CounterMetricFamily;
+import io.prometheus.client.GaugeMetricFamily;
 import org.apache.inlong.common.metric.MetricItemValue;
 import org.apache.inlong.common.metric.MetricListener;
 import org.apache.inlong.common.metric.MetricValue;
@@ -92,6 +93,8 @@ public class SortSdkPrometheusMetricListener extends Collector implements Metric
                 metricItem.requestManagerCommonErrorCount);
         metricValueMap.put(SortSdkMetricItem.M_RQUEST_MANAGER_PARAM_ERROR_COUNT,
                 metricItem.requestManagerParamErrorCount);
+        // credit
+        metricValueMap.put(SortSdkMetricItem.M_CREDIT_PAUSE_COUNT, metricItem.creditPauseCount);
 
         this.dimensionKeys.add(DEFAULT_DIMENSION_LABEL);
     }
@@ -128,8 +131,14 @@ public class SortSdkPrometheusMetricListener extends Collector implements Metric
                 metricItem.requestManagerParamErrorCount.get());
         totalCounter.addMetric(Collections.singletonList(M_RQUEST_MANAGER_COMMON_ERROR_COUNT),
                 metricItem.requestManagerCommonErrorCount.get());
+        totalCounter.addMetric(Collections.singletonList(M_CREDIT_PAUSE_COUNT), metricItem.creditPauseCount.get());
+        GaugeMetricFamily creditGauge = new GaugeMetricFamily("SortSdkCredit",
+                "The lowest credit percent of the sort tasks.",
+                Arrays.asList("dimension"));
+        creditGauge.addMetric(Collections.singletonList(M_CREDIT_PERCENT), metricItem.creditPercent.get());
         List<MetricFamilySamples> mfs = new ArrayList<>();
         mfs.add(totalCounter);
+        mfs.add(creditGauge);
         return mfs;
     }
 
@@ -152,6 +161,17 @@ public class SortSdkPrometheusMetricListener extends Collector implements Metric
 
     @Override
     public void snapshot(String domain, List<MetricItemValue> itemValues) {
-        itemValues.forEach(itemValue -> this.snapshot(domain, itemValue.getMetrics()));
+        // the credit gauge is the lowest one of this snapshot
+        long creditPercent = Long.MAX_VALUE;
+        for (MetricItemValue itemValue : itemValues) {
+            this.snapshot(domain, itemValue.getMetrics());
+            MetricValue credit = itemValue.getMetrics().get(M_CREDIT_PERCENT);
+            if (credit != null) {
+                creditPercent = Math.min(creditPercent, credit.value);
+            }
+        }
+        if (creditPercent != Long.MAX_VALUE) {
+            metricItem.creditPercent.set(creditPercent);
+        }
     }
 }
\ No newline at end of file
@@ -45,6 +45,10 @@ public class Utils {
 
     public static final long DAY_IN_MILLIS = 24 * 60 * 60 * 1000;
 
+    // max size of the decompress buffer kept by each thread
+    private static final int MAX_CACHED_BUFFER_SIZE = 8 * 1024 * 1024;
+    private static final ThreadLocal<byte[]> DECOMPRESS_BUFFER = ThreadLocal.withInitial(() -> new byte[64 * 1024]);
+
     private static ConcurrentHashMap<String, AtomicLong> timeMap = new ConcurrentHashMap<String, AtomicLong>();
 
     public static double toKB(long bytes) {
@@ -180,29 +184,32 @@ public class Utils {
         return out.toByteArray();
     }
 
+    /**
+     * decompress into the buffer of the thread, and copy the result out of it once
+     */
     public static byte[] gzipDecompress(byte[] data, int startOffset, int dataLength)
             throws IOException {
         GZIPInputStream gzip = null;
-        int initBufSize = 8192;
         try {
-            // int inputLength=(data.length-(startOffset==0? 0:startOffset));
             ByteArrayInputStream in = new ByteArrayInputStream(data, startOffset, dataLength);
             gzip = new GZIPInputStream(in, 8192);
 
-            byte[] buf = new byte[initBufSize];
+            byte[] buf = DECOMPRESS_BUFFER.get();
             int offset = 0;
             do {
-                int readNum = gzip.read(buf, offset, 8192);
+                if (offset == buf.length) {
+                    buf = Arrays.copyOf(buf, buf.length * 2);
+                }
+                int readNum = gzip.read(buf, offset, buf.length - offset);
                 if (readNum == -1) {
                     break;
-                } else {
-                    offset += readNum;
-                    if (offset + 8192 > (buf.length - 1)) {
-                        buf = Arrays.copyOf(buf, buf.length * 2);
-                    }
                 }
+                offset += readNum;
             } while (true);
 
+            if (buf.length <= MAX_CACHED_BUFFER_SIZE) {
+                DECOMPRESS_BUFFER.set(buf);
+            }
             return Arrays.copyOf(buf, offset);
         } finally {
             if (gzip != null) {
@@ -0,0 +1,51 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sdk.sort.fetcher;
+
+import org.apache.inlong.sdk.sort.api.SortClientConfig;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CreditControllerTest {
+
+    @Test
+    public void testPauseAndResume() {
+        SortClientConfig config = new SortClientConfig("sortTaskId", "sortClusterName", null,
+                SortClientConfig.ConsumeStrategy.earliest, "127.0.0.1");
+        config.setCreditPausePercent(10);
+        config.setCreditResumePercent(30);
+        CreditController controller = new CreditController(config);
+        Assert.assertFalse(controller.isExhausted());
+        Assert.assertEquals(1.0, controller.getRatio(), 0.001);
+
+        Assert.assertFalse(controller.update(500, 1000));
+        Assert.assertEquals(0.5, controller.getRatio(), 0.001);
+        Assert.assertTrue(controller.update(100, 1000));
+        Assert.assertTrue(controller.isExhausted());
+
+        // keep paused until the credit is above the resume ratio
+        Assert.assertFalse(controller.update(200, 1000));
+        Assert.assertTrue(controller.isExhausted());
+        Assert.assertTrue(controller.update(300, 1000));
+        Assert.assertFalse(controller.isExhausted());
+
+        // no capacity means no limit
+        Assert.assertFalse(controller.update(0, 0));
+        Assert.assertEquals(1.0, controller.getRatio(), 0.001);
+    }
+}
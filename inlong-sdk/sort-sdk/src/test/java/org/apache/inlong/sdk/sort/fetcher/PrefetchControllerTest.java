@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sdk.sort.fetcher;
+
+import org.apache.inlong.sdk.sort.api.SortClientConfig;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+public class PrefetchControllerTest {
+
+    private static SortClientConfig newConfig() {
+        SortClientConfig config = new SortClientConfig("sortTaskId", "sortClusterName", null,
+                SortClientConfig.ConsumeStrategy.earliest, "127.0.0.1");
+        config.setPrefetchLatencyMs(1000);
+        config.setMinPrefetchSize(100);
+        config.setMaxPrefetchSize(10000);
+        config.setEmptyPollTimes(2);
+        config.setEmptyPollSleepStepMs(10);
+        config.setMaxEmptyPollSleepMs(25);
+        return config;
+    }
+
+    @Test
+    public void testPrefetchSize() {
+        PrefetchController controller = new PrefetchController(newConfig());
+        Assert.assertEquals(10000, controller.getPrefetchSize());
+
+        // 1 record per 2 ms, so 500 records can be processed in 1000 ms
+        for (int i = 0; i < 50; i++) {
+            controller.onCallback(1, TimeUnit.MILLISECONDS.toNanos(2));
+        }
+        Assert.assertEquals(500, controller.getPrefetchSize(), 1);
+        Assert.assertFalse(controller.isFull(400, 1.0));
+        Assert.assertTrue(controller.isFull(600, 1.0));
+        // the low credit shrinks the window, but not below the minimum
+        Assert.assertTrue(controller.isFull(300, 0.5));
+        Assert.assertFalse(controller.isFull(50, 0.0));
+        Assert.assertTrue(controller.isFull(100, 0.0));
+
+        // a slow callback shrinks the window to the minimum
+        for (int i = 0; i < 50; i++) {
+            controller.onCallback(1, TimeUnit.MILLISECONDS.toNanos(100));
+        }
+        Assert.assertEquals(100, controller.getPrefetchSize());
+
+        // a fast callback grows the window to the maximum
+        for (int i = 0; i < 50; i++) {
+            controller.onCallback(100, TimeUnit.MICROSECONDS.toNanos(10));
+        }
+        Assert.assertEquals(10000, controller.getPrefetchSize());
+    }
+
+    @Test
+    public void testEmptyBackoff() {
+        PrefetchController controller = new PrefetchController(newConfig());
+        Assert.assertEquals(0, controller.nextDelayMs(true));
+        Assert.assertEquals(10, controller.nextDelayMs(true));
+        Assert.assertEquals(10, controller.nextDelayMs(true));
+        Assert.assertEquals(20, controller.nextDelayMs(true));
+        Assert.assertEquals(20, controller.nextDelayMs(true));
+        Assert.assertEquals(25, controller.nextDelayMs(true));
+        // the records come, fetch again at once
+        Assert.assertEquals(0, controller.nextDelayMs(false));
+        Assert.assertEquals(0, controller.nextDelayMs(true));
+    }
+}
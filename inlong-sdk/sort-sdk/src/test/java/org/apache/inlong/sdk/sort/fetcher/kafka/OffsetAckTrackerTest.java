@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sdk.sort.fetcher.kafka;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+public class OffsetAckTrackerTest {
+
+    @Test
+    public void testWatermark() {
+        OffsetAckTracker tracker = new OffsetAckTracker();
+        Assert.assertEquals(-1L, tracker.pollCommitOffset());
+        for (long offset = 100; offset < 110; offset++) {
+            tracker.fetched(offset);
+        }
+        Assert.assertTrue(tracker.ack(101));
+        Assert.assertEquals(-1L, tracker.pollCommitOffset());
+        Assert.assertTrue(tracker.ack(100));
+        Assert.assertEquals(101L, tracker.pollCommitOffset());
+        Assert.assertEquals(-1L, tracker.pollCommitOffset());
+        // acked and committed, or never fetched
+        Assert.assertFalse(tracker.ack(100));
+        Assert.assertFalse(tracker.ack(110));
+
+        // skipped offsets count as acked
+        tracker.fetched(120);
+        for (long offset = 102; offset < 110; offset++) {
+            tracker.ack(offset);
+        }
+        Assert.assertEquals(119L, tracker.pollCommitOffset());
+        Assert.assertFalse(tracker.isAllAcked());
+        tracker.ack(120);
+        Assert.assertTrue(tracker.isAllAcked());
+        Assert.assertEquals(120L, tracker.pollCommitOffset());
+
+        // seeking back before the watermark starts again from there
+        tracker.fetched(50);
+        Assert.assertEquals(1L, tracker.getPendingCount());
+        tracker.ack(50);
+        Assert.assertEquals(50L, tracker.pollCommitOffset());
+    }
+
+    @Test
+    public void testLargeGap() {
+        OffsetAckTracker tracker = new OffsetAckTracker();
+        long far = 1L << 40;
+        tracker.fetched(0);
+        tracker.fetched(1);
+        tracker.fetched(far);
+        tracker.fetched(far + 1);
+        // the gap is neither filled nor counted
+        Assert.assertEquals(4L, tracker.getPendingCount());
+        Assert.assertFalse(tracker.ack(far - 1));
+        Assert.assertTrue(tracker.ack(1));
+        Assert.assertTrue(tracker.ack(far));
+        Assert.assertEquals(-1L, tracker.pollCommitOffset());
+        Assert.assertTrue(tracker.ack(0));
+        Assert.assertEquals(far, tracker.pollCommitOffset());
+        Assert.assertFalse(tracker.isAllAcked());
+        Assert.assertTrue(tracker.ack(far + 1));
+        Assert.assertTrue(tracker.isAllAcked());
+        Assert.assertEquals(far + 1, tracker.pollCommitOffset());
+    }
+
+    @Test
+    public void testAgainstTreeSet() {
+        Random random = new Random(11);
+        OffsetAckTracker tracker = new OffsetAckTracker();
+        TreeSet<Long> pending = new TreeSet<>();
+        List<Long> fetched = new ArrayList<>();
+        long next = 1000;
+        long committed = -1;
+        for (int round = 0; round < 200; round++) {
+            // fetch a batch with some gaps, larger than the filled gap sometimes
+            int count = random.nextInt(3000);
+            for (int i = 0; i < count; i++) {
+                int gap = random.nextInt(1000);
+                if (gap == 0) {
+                    next += OffsetAckTracker.MAX_FILLED_GAP + 1 + random.nextInt(100000);
+                } else {
+                    next += gap < 100 ? 1 + random.nextInt(5) : 1;
+                }
+                tracker.fetched(next);
+                pending.add(next);
+                fetched.add(next);
+            }
+            // ack most of them in random order
+            Collections.shuffle(fetched, random);
+            int acked = fetched.size() * 9 / 10;
+            for (int i = 0; i < acked; i++) {
+                long offset = fetched.get(i);
+                Assert.assertTrue(tracker.ack(offset));
+                pending.remove(offset);
+            }
+            fetched = new ArrayList<>(fetched.subList(acked, fetched.size()));
+            long expected = pending.isEmpty() ? next : pending.first() - 1;
+            long commitOffset = tracker.pollCommitOffset();
+            if (expected > committed) {
+                Assert.assertEquals(expected, commitOffset);
+                committed = expected;
+            } else {
+                Assert.assertEquals(-1L, commitOffset);
+            }
+            Assert.assertEquals(pending.isEmpty(), tracker.isAllAcked());
+        }
+    }
+}
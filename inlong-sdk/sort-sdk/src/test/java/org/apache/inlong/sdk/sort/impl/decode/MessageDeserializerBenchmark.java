@@ -0,0 +1,175 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sdk.sort.impl.decode;
+
+import com.google.protobuf.ByteString;
+import org.apache.inlong.sdk.commons.protocol.ProxySdk.MapFieldEntry;
+import org.apache.inlong.sdk.commons.protocol.ProxySdk.MessageObj;
+import org.apache.inlong.sdk.commons.protocol.ProxySdk.MessageObjs;
+import org.apache.inlong.sdk.sort.entity.InLongMessage;
+import org.apache.inlong.sdk.sort.util.Utils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Cost of decoding one batch of 100 pb messages, each with a 500 bytes body and 5 params,
+ * when the sink reads the body and one param.
+ * The eager benchmark is the decoding before the lazy messages: copying every body and params.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MessageDeserializerBenchmark {
+
+    // 0: none, 1: gzip, 2: snappy
+    @Param({"0", "1", "2"})
+    private String compressType;
+
+    private final MessageDeserializer deserializer = new MessageDeserializer();
+    private Map<String, String> headers;
+    private byte[] data;
+
+    @Setup
+    public void setUp() throws Exception {
+        byte[] body = new byte[500];
+        Arrays.fill(body, (byte) 'a');
+        MessageObjs.Builder builder = MessageObjs.newBuilder();
+        for (int i = 0; i < 100; i++) {
+            MessageObj.Builder messageObj = MessageObj.newBuilder()
+                    .setBody(ByteString.copyFrom(body))
+                    .setMsgTime(System.currentTimeMillis())
+                    .setSourceIp("127.0.0.1");
+            for (int j = 0; j < 5; j++) {
+                messageObj.addParams(MapFieldEntry.newBuilder().setKey("key" + j).setValue("value" + j + i));
+            }
+            builder.addMsgs(messageObj);
+        }
+        byte[] raw = builder.build().toByteArray();
+        switch (compressType) {
+            case "1":
+                data = Utils.compressGZip(raw);
+                break;
+            case "2":
+                data = Utils.snappyCompress(raw);
+                break;
+            default:
+                data = raw;
+        }
+        headers = new HashMap<>();
+        headers.put("version", "1");
+        headers.put("compressType", compressType);
+    }
+
+    @Benchmark
+    public void eager(Blackhole blackhole) throws Exception {
+        byte[] values;
+        switch (compressType) {
+            case "1":
+                values = gzipDecompress(data);
+                break;
+            case "2":
+                values = Utils.snappyDecompress(data, 0, data.length);
+                break;
+            default:
+                values = data;
+        }
+        List<InLongMessage> messages = new ArrayList<>();
+        for (MessageObj messageObj : MessageObjs.parseFrom(values).getMsgsList()) {
+            Map<String, String> params = new HashMap<>();
+            for (MapFieldEntry mapFieldEntry : messageObj.getParamsList()) {
+                params.put(mapFieldEntry.getKey(), mapFieldEntry.getValue());
+            }
+            messages.add(new InLongMessage("group", "stream", messageObj.getMsgTime(), messageObj.getSourceIp(),
+                    messageObj.getBody().toByteArray(), params));
+        }
+        for (InLongMessage message : messages) {
+            blackhole.consume(message.getBody().length);
+            blackhole.consume(message.getParams().get("key0"));
+        }
+    }
+
+    @Benchmark
+    public void lazy(Blackhole blackhole) throws Exception {
+        List<InLongMessage> messages = deserializer.deserialize(null, null, headers, data);
+        for (InLongMessage message : messages) {
+            blackhole.consume(message.getBodyBuffer().remaining());
+            blackhole.consume(message.getParams().get("key0"));
+        }
+    }
+
+    @Benchmark
+    public void lazyBodyOnly(Blackhole blackhole) throws Exception {
+        List<InLongMessage> messages = deserializer.deserialize(null, null, headers, data);
+        for (InLongMessage message : messages) {
+            blackhole.consume(message.getBodyBuffer().remaining());
+        }
+    }
+
+    /**
+     * the gzip decompression before the thread local buffer
+     */
+    private static byte[] gzipDecompress(byte[] data) throws Exception {
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(data), 8192)) {
+            byte[] buf = new byte[8192];
+            int offset = 0;
+            do {
+                int readNum = gzip.read(buf, offset, 8192);
+                if (readNum == -1) {
+                    break;
+                }
+                offset += readNum;
+                if (offset + 8192 > (buf.length - 1)) {
+                    buf = Arrays.copyOf(buf, buf.length * 2);
+                }
+            } while (true);
+            return Arrays.copyOf(buf, offset);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder()
+                .include(MessageDeserializerBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
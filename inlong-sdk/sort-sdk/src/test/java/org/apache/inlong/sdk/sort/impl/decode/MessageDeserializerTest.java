@@ -18,6 +18,7 @@
 package org.apache.inlong.sdk.sort.impl.decode;
 
 import com.google.protobuf.ByteString;
+import java.nio.ByteBuffer;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -179,6 +180,22 @@ public class MessageDeserializerTest {
         }
     }
 
+    @Test
+    public void testLazyMessage() throws Exception {
+        setUp();
+        prepareTestMessageObjs();
+        headers.put("compressType", "2");
+        List<InLongMessage> deserialize = messageDeserializer
+                .deserialize(context, inLongTopic, headers, Utils.snappyCompress(messageObjs.toByteArray()));
+        Assert.assertEquals(2, deserialize.size());
+        InLongMessage message = deserialize.get(1);
+        Assert.assertEquals(ByteBuffer.wrap(testData.getBytes()), message.getBodyBuffer());
+        Assert.assertArrayEquals(testData.getBytes(), message.getBody());
+        Assert.assertSame(message.getBody(), message.getBody());
+        Assert.assertEquals("val", message.getParams().get("key"));
+        Assert.assertEquals("ip2", message.getSourceIp());
+    }
+
     private void prepareTestMessageObjs() {
         headers.put("version", "1");
         testData = "test data";
@@ -31,6 +31,7 @@ import org.apache.inlong.sdk.sort.api.SortClientConfig;
 import org.apache.inlong.sdk.sort.api.TopicFetcher;
 import org.apache.inlong.sdk.sort.entity.CacheZoneCluster;
 import org.apache.inlong.sdk.sort.entity.InLongTopic;
+import org.apache.inlong.sdk.sort.fetcher.FetchScheduler;
 import org.apache.inlong.sdk.sort.fetcher.pulsar.PulsarSingleTopicFetcher;
 import org.apache.inlong.sdk.sort.impl.ClientContextImpl;
 import org.apache.inlong.sdk.sort.impl.decode.MessageDeserializer;
@@ -140,8 +141,11 @@ public class InLongPulsarFetcherImplTest {
             Consumer consumer = PowerMockito.mock(Consumer.class);
             when(consumerBuilder.subscribe()).thenReturn(consumer);
             doNothing().when(consumer).close();
+            FetchScheduler fetchScheduler = new FetchScheduler(1);
+            when(clientContext.getFetchScheduler()).thenReturn(fetchScheduler);
             boolean init = inLongTopicFetcher.init();
             inLongTopicFetcher.close();
+            fetchScheduler.close();
             Assert.assertTrue(init);
         } catch (Exception e) {
             e.printStackTrace();
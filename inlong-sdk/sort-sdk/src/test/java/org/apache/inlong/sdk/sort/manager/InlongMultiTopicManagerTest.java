@@ -0,0 +1,212 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sdk.sort.manager;
+
+import org.apache.inlong.sdk.sort.api.ClientContext;
+import org.apache.inlong.sdk.sort.api.InlongTopicTypeEnum;
+import org.apache.inlong.sdk.sort.api.SortClientConfig;
+import org.apache.inlong.sdk.sort.api.TopicFetcher;
+import org.apache.inlong.sdk.sort.entity.CacheZoneCluster;
+import org.apache.inlong.sdk.sort.entity.InLongTopic;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+public class InlongMultiTopicManagerTest {
+
+    private TestTopicManager topicManager;
+
+    {
+        System.setProperty("log4j2.disable.jmx", Boolean.TRUE.toString());
+    }
+
+    @After
+    public void tearDown() {
+        if (topicManager != null) {
+            topicManager.close();
+        }
+    }
+
+    @Test
+    public void testUpdateChangedTopicsOnly() {
+        topicManager = createManager(1);
+        InLongTopic topic1 = createTopic("kafka", "kafkaCluster", "topic1");
+        InLongTopic topic2 = createTopic("kafka", "kafkaCluster", "topic2");
+        Assert.assertTrue(topicManager.handleUpdatedConsumeConfig(Arrays.asList(topic1, topic2)));
+        Assert.assertEquals(1, topicManager.createdCount.get());
+        TopicFetcher fetcher = topicManager.getAllFetchers().iterator().next();
+
+        // the same topics in another order change nothing
+        Assert.assertTrue(topicManager.handleUpdatedConsumeConfig(Arrays.asList(topic2, topic1)));
+        Assert.assertEquals(1, topicManager.createdCount.get());
+        Mockito.verify(fetcher, Mockito.never()).updateTopics(Mockito.anyList());
+
+        // the topics of an assigned cluster are updated in place
+        List<InLongTopic> updated = Arrays.asList(topic1, topic2, createTopic("kafka", "kafkaCluster", "topic3"));
+        Assert.assertTrue(topicManager.handleUpdatedConsumeConfig(updated));
+        Assert.assertEquals(1, topicManager.createdCount.get());
+        Mockito.verify(fetcher).updateTopics(updated);
+        Mockito.verify(fetcher, Mockito.never()).close();
+        Assert.assertEquals(new HashSet<>(Arrays.asList("topic1", "topic2", "topic3")),
+                topicManager.getManagedInLongTopics());
+    }
+
+    @Test
+    public void testRemoveStaleFetchers() {
+        topicManager = createManager(1);
+        InLongTopic kafkaTopic = createTopic("kafka", "kafkaCluster", "topic1");
+        InLongTopic pulsarTopic = createTopic("pulsar", "pulsarCluster", "topic2");
+        Assert.assertTrue(topicManager.handleUpdatedConsumeConfig(Arrays.asList(kafkaTopic, pulsarTopic)));
+        Assert.assertEquals(2, topicManager.getAllFetchers().size());
+        TopicFetcher kafkaFetcher = topicManager.fetchersOf("kafkaCluster").get(0);
+        TopicFetcher pulsarFetcher = topicManager.fetchersOf("pulsarCluster").get(0);
+
+        Assert.assertTrue(topicManager.handleUpdatedConsumeConfig(Collections.singletonList(pulsarTopic)));
+        Mockito.verify(kafkaFetcher).close();
+        Mockito.verify(pulsarFetcher, Mockito.never()).close();
+        Assert.assertNull(topicManager.getFetcher(kafkaFetcher.getFetchKey()));
+        Assert.assertEquals(Collections.singletonList(pulsarFetcher),
+                new ArrayList<>(topicManager.getAllFetchers()));
+
+        // a cluster assigned again gets a new fetcher
+        Assert.assertTrue(topicManager.handleUpdatedConsumeConfig(Arrays.asList(kafkaTopic, pulsarTopic)));
+        Assert.assertEquals(2, topicManager.getAllFetchers().size());
+        Assert.assertEquals(3, topicManager.createdCount.get());
+    }
+
+    @Test
+    public void testRetryAfterPartialFailure() {
+        topicManager = createManager(2);
+        List<InLongTopic> topics = Collections.singletonList(createTopic("kafka", "kafkaCluster", "topic1"));
+        topicManager.failuresLeft.set(1);
+        Assert.assertFalse(topicManager.handleUpdatedConsumeConfig(topics));
+        // the consumer created with the failed one is closed and the cluster is not assigned
+        Assert.assertEquals(1, topicManager.created.size());
+        Mockito.verify(topicManager.created.get(0)).close();
+        Assert.assertTrue(topicManager.getAllFetchers().isEmpty());
+
+        Assert.assertTrue(topicManager.handleUpdatedConsumeConfig(topics));
+        Assert.assertEquals(3, topicManager.created.size());
+        Assert.assertEquals(2, topicManager.getAllFetchers().size());
+        Assert.assertEquals(2, topicManager.fetchersOf("kafkaCluster").size());
+    }
+
+    @Test
+    public void testAddAndRemoveTubeTopics() {
+        topicManager = createManager(1);
+        InLongTopic topic1 = createTopic("tube", "tubeCluster", "topic1");
+        InLongTopic topic2 = createTopic("tube", "tubeCluster", "topic2");
+        Assert.assertTrue(topicManager.handleUpdatedConsumeConfig(Arrays.asList(topic1, topic2)));
+        Map<String, TopicFetcher> fetchers = fetchersByTopic(topicManager.getAllFetchers());
+        Assert.assertEquals(new HashSet<>(Arrays.asList("topic1", "topic2")), fetchers.keySet());
+
+        InLongTopic topic3 = createTopic("tube", "tubeCluster", "topic3");
+        Assert.assertTrue(topicManager.handleUpdatedConsumeConfig(Arrays.asList(topic2, topic3)));
+        // the removed topic is closed, the kept one is updated and only the added one is created
+        Mockito.verify(fetchers.get("topic1")).close();
+        Mockito.verify(fetchers.get("topic2"), Mockito.never()).close();
+        Mockito.verify(fetchers.get("topic2")).updateTopics(Collections.singletonList(topic2));
+        Map<String, TopicFetcher> updated = fetchersByTopic(topicManager.getAllFetchers());
+        Assert.assertEquals(new HashSet<>(Arrays.asList("topic2", "topic3")), updated.keySet());
+        Assert.assertSame(fetchers.get("topic2"), updated.get("topic2"));
+        Assert.assertEquals(2, topicManager.fetchersOf("tubeCluster").size());
+        Assert.assertEquals(3, topicManager.created.size());
+    }
+
+    private TestTopicManager createManager(int consumerSize) {
+        SortClientConfig config = new SortClientConfig("testTask", "testCluster", null, null, "127.0.0.1");
+        config.setMaxConsumerSize(consumerSize);
+        config.setCreateFetcherThreadNum(2);
+        config.setUpdateMetaDataIntervalSec(3600);
+        ClientContext context = Mockito.mock(ClientContext.class);
+        Mockito.when(context.getConfig()).thenReturn(config);
+        return new TestTopicManager(context);
+    }
+
+    private InLongTopic createTopic(String type, String clusterId, String name) {
+        InLongTopic topic = new InLongTopic();
+        topic.setTopic(name);
+        topic.setTopicType(type);
+        topic.setProperties(new HashMap<>());
+        topic.setInLongCluster(new CacheZoneCluster(clusterId, "bootstraps", "token"));
+        return topic;
+    }
+
+    private Map<String, TopicFetcher> fetchersByTopic(Iterable<TopicFetcher> fetchers) {
+        Map<String, TopicFetcher> result = new HashMap<>();
+        fetchers.forEach(fetcher -> result.put(fetcher.getTopics().get(0).getTopic(), fetcher));
+        return result;
+    }
+
+    /**
+     * creates mocked fetchers instead of connecting to the clusters
+     */
+    private static class TestTopicManager extends InlongMultiTopicManager {
+
+        private final AtomicInteger createdCount = new AtomicInteger();
+        private final AtomicInteger failuresLeft = new AtomicInteger();
+        private final AtomicInteger fetcherIndex = new AtomicInteger();
+        private final List<TopicFetcher> created = Collections.synchronizedList(new ArrayList<>());
+
+        TestTopicManager(ClientContext context) {
+            super(context, null);
+        }
+
+        @Override
+        List<TopicFetcher> createConsumer(InlongTopicTypeEnum type, List<InLongTopic> topics) {
+            createdCount.incrementAndGet();
+            if (failuresLeft.getAndDecrement() > 0) {
+                return Collections.emptyList();
+            }
+            if (type == InlongTopicTypeEnum.TUBE) {
+                return topics.stream()
+                        .map(topic -> mockFetcher(Collections.singletonList(topic)))
+                        .collect(Collectors.toList());
+            }
+            return Collections.singletonList(mockFetcher(topics));
+        }
+
+        private TopicFetcher mockFetcher(List<InLongTopic> topics) {
+            TopicFetcher fetcher = Mockito.mock(TopicFetcher.class);
+            String fetchKey = topics.get(0).getInLongCluster().getClusterId() + "_" + topics.get(0).getTopic()
+                    + "_" + fetcherIndex.getAndIncrement();
+            Mockito.when(fetcher.getFetchKey()).thenReturn(fetchKey);
+            Mockito.when(fetcher.getTopics()).thenReturn(topics);
+            Mockito.when(fetcher.close()).thenReturn(true);
+            created.add(fetcher);
+            return fetcher;
+        }
+
+        private List<TopicFetcher> fetchersOf(String clusterId) {
+            return getAllFetchers().stream()
+                    .filter(fetcher -> clusterId.equals(fetcher.getTopics().get(0).getInLongCluster().getClusterId()))
+                    .collect(Collectors.toList());
+        }
+    }
+}
@@ -150,6 +150,24 @@ public class BufferQueueChannel extends AbstractChannel {
                 reloadInterval);
     }
 
+    /**
+     * availablePermits of the buffer queue in kb
+     * 
+     * @return
+     */
+    public int availablePermits() {
+        return bufferQueue.availablePermits();
+    }
+
+    /**
+     * maxSizeKb of the buffer queue
+     * 
+     * @return
+     */
+    public int maxSizeKb() {
+        return bufferQueue.maxSizeKb();
+    }
+
     /**
      * configure
      * 
@@ -86,6 +86,16 @@ public class AuditUtils {
         }
     }
 
+    /**
+     * Add audit data of the events with the same inlong id and log time
+     */
+    public static void add(int auditID, String inlongGroupId, String inlongStreamId, long logTime, long count,
+            long size) {
+        if (IS_AUDIT) {
+            AuditOperator.getInstance().add(auditID, inlongGroupId, inlongStreamId, logTime, count, size);
+        }
+    }
+
     /**
      * Add audit data
      */
@@ -23,11 +23,20 @@ import org.apache.inlong.sort.standalone.dispatch.DispatchProfile;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import ru.yandex.clickhouse.ClickHouseConnection;
+import ru.yandex.clickhouse.ClickHouseStatement;
+import ru.yandex.clickhouse.settings.ClickHouseProperties;
+import ru.yandex.clickhouse.util.ClickHouseRowBinaryStream;
+
+import java.io.ByteArrayOutputStream;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.TimeZone;
 
 /**
  * ClickHouseChannelWorker
@@ -41,6 +50,12 @@ public class ClickHouseChannelWorker extends Thread {
     private LifecycleState status;
     private IEventHandler handler;
     private Connection conn;
+    // RowBinary block of one dispatch profile, and the row being encoded
+    private final BlockBuffer blockBuffer = new BlockBuffer();
+    private final ByteArrayOutputStream rowBuffer = new ByteArrayOutputStream();
+    private final ClickHouseRowBinaryStream rowStream = new ClickHouseRowBinaryStream(rowBuffer,
+            TimeZone.getDefault(), new ClickHouseProperties());
+    private final List<ProfileEvent> writtenEvents = new ArrayList<>();
 
     /**
      * Constructor
@@ -100,6 +115,12 @@ public class ClickHouseChannelWorker extends Thread {
             if (this.conn == null) {
                 this.reconnect();
             }
+            if (this.handler instanceof IRowBinaryEventHandler
+                    && ((IRowBinaryEventHandler) this.handler).isSupported(idConfig)
+                    && this.conn.isWrapperFor(ClickHouseConnection.class)) {
+                this.sendRowBinary((IRowBinaryEventHandler) this.handler, idConfig, currentRecord);
+                return;
+            }
             try (PreparedStatement pstat = this.conn.prepareStatement(insertSql)) {
                 for (ProfileEvent event : currentRecord.getEvents()) {
                     Map<String, String> columnValueMap = this.handler.parse(idConfig, event);
@@ -120,6 +141,42 @@ public class ClickHouseChannelWorker extends Thread {
         }
     }
 
+    /**
+     * sendRowBinary, encode the events into one RowBinary block and insert it in one request
+     * 
+     * @param  rowBinaryHandler
+     * @param  idConfig
+     * @param  currentRecord
+     * @throws SQLException
+     */
+    private void sendRowBinary(IRowBinaryEventHandler rowBinaryHandler, ClickHouseIdConfig idConfig,
+            DispatchProfile currentRecord) throws SQLException {
+        blockBuffer.reset();
+        writtenEvents.clear();
+        for (ProfileEvent event : currentRecord.getEvents()) {
+            // a row is appended only after all its columns are encoded, so an invalid event skips itself only
+            rowBuffer.reset();
+            try {
+                rowBinaryHandler.encode(idConfig, event, rowStream);
+                rowBuffer.writeTo(blockBuffer);
+                writtenEvents.add(event);
+            } catch (Exception e) {
+                LOG.error("Fail to encode RowBinary,table:{},error:{}", idConfig.getTableName(), e.getMessage());
+                context.addSendFailMetric("encode error", event);
+            }
+        }
+        long sendTime = System.currentTimeMillis();
+        if (blockBuffer.size() > 0) {
+            try (ClickHouseStatement stat = this.conn.unwrap(ClickHouseConnection.class).createStatement()) {
+                stat.sendRowBinaryStream(idConfig.getRowBinaryInsertSql(),
+                        stream -> stream.writeBytes(blockBuffer.array(), 0, blockBuffer.size()));
+            }
+        }
+        context.addSendSuccessMetric(currentRecord, writtenEvents, sendTime);
+        writtenEvents.clear();
+        currentRecord.ack();
+    }
+
     /**
      * close
      */
@@ -155,4 +212,18 @@ public class ClickHouseChannelWorker extends Thread {
                 context.getJdbcPassword());
         this.conn.setAutoCommit(false);
     }
+
+    /**
+     * BlockBuffer, which sends its bytes without copying
+     */
+    private static class BlockBuffer extends ByteArrayOutputStream {
+
+        BlockBuffer() {
+            super(64 * 1024);
+        }
+
+        byte[] array() {
+            return buf;
+        }
+    }
 }
@@ -22,6 +22,7 @@ import org.apache.commons.math3.util.Pair;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.TimeZone;
 
 /**
  * 
@@ -41,7 +42,13 @@ public class ClickHouseIdConfig {
     // parse
     private List<String> contentFieldList;
     private List<Pair<String, Integer>> dbFieldList;
+    // ClickHouse type of the db fields, null if the type is unknown
+    private List<String> dbFieldTypeNameList;
     private String insertSql;
+    // insert sql without values, for the RowBinary format
+    private String rowBinaryInsertSql;
+    // time zone of the DateTime columns without their own time zone
+    private TimeZone serverTimeZone;
 
     /**
      * parseFieldList
@@ -215,4 +222,51 @@ public class ClickHouseIdConfig {
         this.insertSql = insertSql;
     }
 
+    /**
+     * get dbFieldTypeNameList
+     * @return the dbFieldTypeNameList
+     */
+    public List<String> getDbFieldTypeNameList() {
+        return dbFieldTypeNameList;
+    }
+
+    /**
+     * set dbFieldTypeNameList
+     * @param dbFieldTypeNameList the dbFieldTypeNameList to set
+     */
+    public void setDbFieldTypeNameList(List<String> dbFieldTypeNameList) {
+        this.dbFieldTypeNameList = dbFieldTypeNameList;
+    }
+
+    /**
+     * get rowBinaryInsertSql
+     * @return the rowBinaryInsertSql
+     */
+    public String getRowBinaryInsertSql() {
+        return rowBinaryInsertSql;
+    }
+
+    /**
+     * set rowBinaryInsertSql
+     * @param rowBinaryInsertSql the rowBinaryInsertSql to set
+     */
+    public void setRowBinaryInsertSql(String rowBinaryInsertSql) {
+        this.rowBinaryInsertSql = rowBinaryInsertSql;
+    }
+
+    /**
+     * get serverTimeZone
+     * @return the serverTimeZone
+     */
+    public TimeZone getServerTimeZone() {
+        return serverTimeZone;
+    }
+
+    /**
+     * set serverTimeZone
+     * @param serverTimeZone the serverTimeZone to set
+     */
+    public void setServerTimeZone(TimeZone serverTimeZone) {
+        this.serverTimeZone = serverTimeZone;
+    }
 }
@@ -36,6 +36,7 @@ import org.apache.inlong.sort.standalone.sink.SinkContext;
 import org.apache.inlong.sort.standalone.utils.Constants;
 import org.apache.inlong.sort.standalone.utils.InlongLoggerFactory;
 import org.slf4j.Logger;
+import ru.yandex.clickhouse.ClickHouseConnection;
 
 import java.sql.Connection;
 import java.sql.DriverManager;
@@ -49,8 +50,10 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.TimeZone;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.stream.Collectors;
 
 /**
  * 
@@ -143,17 +146,28 @@ public class ClickHouseSinkContext extends SinkContext {
     private void initIdConfig(Map<String, ClickHouseIdConfig> newIdConfigMap) throws SQLException {
         try (Connection conn = DriverManager.getConnection(jdbcUrl, jdbcUsername, jdbcPassword);
                 Statement stat = conn.createStatement();) {
+            // the server parses the text of a DateTime column in this zone if the column has no zone
+            TimeZone serverTimeZone = conn.isWrapperFor(ClickHouseConnection.class)
+                    ? conn.unwrap(ClickHouseConnection.class).getServerTimeZone()
+                    : TimeZone.getDefault();
             for (Entry<String, ClickHouseIdConfig> entry : newIdConfigMap.entrySet()) {
                 // parse field list
                 ClickHouseIdConfig idConfig = entry.getValue();
                 idConfig.setContentFieldList(ClickHouseIdConfig.parseFieldNames(idConfig.getContentFieldNames()));
                 // load db field type
                 Map<String, Integer> fullTypeMap = new HashMap<>();
+                Map<String, String> fullTypeNameMap = new HashMap<>();
                 try (ResultSet rs = stat.executeQuery("select * from " + idConfig.getTableName())) {
                     ResultSetMetaData meta = rs.getMetaData();
                     int columnCount = meta.getColumnCount();
                     for (int i = 1; i <= columnCount; i++) {
                         fullTypeMap.put(meta.getColumnName(i), meta.getColumnType(i));
+                        // the type name of the driver is without Nullable
+                        String typeName = meta.getColumnTypeName(i);
+                        if (meta.isNullable(i) == ResultSetMetaData.columnNullable) {
+                            typeName = "Nullable(" + typeName + ")";
+                        }
+                        fullTypeNameMap.put(meta.getColumnName(i), typeName);
                     }
                 } catch (Exception e) {
                     LOG.error("Can not get metadata,group:{},stream:{},error:{}", idConfig.getInlongGroupId(),
@@ -166,6 +180,10 @@ public class ClickHouseSinkContext extends SinkContext {
                     dbFieldList.add(new Pair<>(fieldName, fullTypeMap.getOrDefault(fieldName, Types.VARCHAR)));
                 });
                 idConfig.setDbFieldList(dbFieldList);
+                idConfig.setDbFieldTypeNameList(dbFieldNameList.stream()
+                        .map(fullTypeNameMap::get)
+                        .collect(Collectors.toList()));
+                idConfig.setServerTimeZone(serverTimeZone);
                 // load db sql
                 StringBuilder insertSql = new StringBuilder();
                 insertSql.append("insert into ").append(idConfig.getTableName()).append(" (");
@@ -173,7 +191,9 @@ public class ClickHouseSinkContext extends SinkContext {
                     insertSql.append(field.getKey()).append(',');
                 });
                 insertSql.deleteCharAt(insertSql.length() - 1);
-                insertSql.append(") values (");
+                insertSql.append(")");
+                idConfig.setRowBinaryInsertSql(insertSql.toString());
+                insertSql.append(" values (");
                 idConfig.getDbFieldList().forEach((field) -> {
                     insertSql.append("?,");
                 });
@@ -288,6 +308,17 @@ public class ClickHouseSinkContext extends SinkContext {
      * @param sendTime
      */
     public void addSendSuccessMetric(DispatchProfile currentRecord, long sendTime) {
+        this.addSendSuccessMetric(currentRecord, currentRecord.getEvents(), sendTime);
+    }
+
+    /**
+     * addSendSuccessMetric of the events sent in the record
+     * 
+     * @param currentRecord
+     * @param events
+     * @param sendTime
+     */
+    public void addSendSuccessMetric(DispatchProfile currentRecord, List<ProfileEvent> events, long sendTime) {
         Map<String, String> dimensions = new HashMap<>();
         dimensions.put(SortMetricItem.KEY_CLUSTER_ID, this.getClusterId());
         dimensions.put(SortMetricItem.KEY_TASK_NAME, this.getTaskName());
@@ -298,7 +329,7 @@ public class ClickHouseSinkContext extends SinkContext {
         dimensions.put(SortMetricItem.KEY_INLONG_GROUP_ID, currentRecord.getInlongGroupId());
         dimensions.put(SortMetricItem.KEY_INLONG_STREAM_ID, currentRecord.getInlongStreamId());
         long currentTime = System.currentTimeMillis();
-        for (ProfileEvent event : currentRecord.getEvents()) {
+        for (ProfileEvent event : events) {
             long msgTime = event.getRawLogTime();
             long auditFormatTime = msgTime - msgTime % CommonPropertiesHolder.getAuditFormatInterval();
             dimensions.put(SortMetricItem.KEY_MESSAGE_TIME, String.valueOf(auditFormatTime));
@@ -0,0 +1,51 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sort.standalone.sink.clickhouse;
+
+import org.apache.inlong.sort.standalone.channel.ProfileEvent;
+
+import ru.yandex.clickhouse.util.ClickHouseRowBinaryStream;
+
+import java.io.IOException;
+
+/**
+ * 
+ * IRowBinaryEventHandler, encode the event as one row of the RowBinary format,
+ * so that the batch is inserted without binding each column as a JDBC parameter.
+ */
+public interface IRowBinaryEventHandler extends IEventHandler {
+
+    /**
+     * isSupported
+     * 
+     * @param  idConfig
+     * @return          false if some column can not be encoded, then the JDBC parameters are used
+     */
+    boolean isSupported(ClickHouseIdConfig idConfig);
+
+    /**
+     * encode
+     * 
+     * @param  idConfig
+     * @param  event
+     * @param  stream
+     * @throws IOException
+     */
+    void encode(ClickHouseIdConfig idConfig, ProfileEvent event, ClickHouseRowBinaryStream stream)
+            throws IOException;
+}
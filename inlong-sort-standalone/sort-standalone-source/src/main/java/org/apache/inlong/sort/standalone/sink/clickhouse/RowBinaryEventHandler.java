@@ -0,0 +1,473 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sort.standalone.sink.clickhouse;
+
+import org.apache.commons.lang3.math.NumberUtils;
+import org.apache.inlong.sort.standalone.channel.ProfileEvent;
+import org.apache.inlong.sort.standalone.utils.UnescapeHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ru.yandex.clickhouse.util.ClickHouseRowBinaryStream;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.UUID;
+import java.util.WeakHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * RowBinaryEventHandler
+ * 
+ * The columns of each id config are compiled to encoders once, which write the field values of the event
+ * in the RowBinary format, so the values are neither put into a map nor parsed again by ClickHouse.
+ * The values are converted as the same as {@link DefaultEventHandler}, e.g. an invalid number is 0.
+ */
+public class RowBinaryEventHandler extends DefaultEventHandler implements IRowBinaryEventHandler {
+
+    public static final Logger LOG = LoggerFactory.getLogger(RowBinaryEventHandler.class);
+
+    private static final int INDEX_FTIME = -1;
+    private static final int INDEX_EXTINFO = -2;
+    private static final int INDEX_NONE = -3;
+    private static final Pattern ENUM_VALUE_PATTERN = Pattern.compile("'((?:[^'\\\\]|\\\\.)*)'\\s*=\\s*(-?\\d+)");
+    private static final ColumnEncoders UNSUPPORTED = new ColumnEncoders(null, null);
+
+    private final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+    // the events of one batch mostly share the same times, so the last formatted one is kept
+    private long lastFormatSecond = Long.MIN_VALUE;
+    private String lastFormatValue;
+    // the id configs are replaced when reloading, so the compiled ones are released with them
+    private final Map<ClickHouseIdConfig, ColumnEncoders> encodersMap = new WeakHashMap<>();
+
+    /**
+     * isSupported
+     * @param idConfig
+     * @return
+     */
+    @Override
+    public boolean isSupported(ClickHouseIdConfig idConfig) {
+        return getEncoders(idConfig).encoders != null;
+    }
+
+    /**
+     * encode
+     * @param idConfig
+     * @param event
+     * @param stream
+     * @throws IOException
+     */
+    @Override
+    public void encode(ClickHouseIdConfig idConfig, ProfileEvent event, ClickHouseRowBinaryStream stream)
+            throws IOException {
+        ColumnEncoders columnEncoders = getEncoders(idConfig);
+        if (columnEncoders.encoders == null) {
+            throw new IOException("can not encode RowBinary of table " + idConfig.getTableName());
+        }
+        // parse fields
+        byte[] bodyBytes = event.getBody();
+        int contentOffset = idConfig.getContentOffset();
+        String strContext;
+        if (contentOffset > 0 && bodyBytes.length >= 1) {
+            strContext = new String(bodyBytes, contentOffset, bodyBytes.length - contentOffset,
+                    Charset.defaultCharset());
+        } else {
+            strContext = new String(bodyBytes, Charset.defaultCharset());
+        }
+        List<String> columnValues = UnescapeHelper.toFiledList(strContext, idConfig.getSeparator().charAt(0));
+        int[] valueIndexes = columnEncoders.valueIndexes;
+        ColumnEncoder[] encoders = columnEncoders.encoders;
+        for (int i = 0; i < encoders.length; i++) {
+            int valueIndex = valueIndexes[i];
+            String value;
+            if (valueIndex >= 0) {
+                value = valueIndex < columnValues.size() ? columnValues.get(valueIndex) : "";
+            } else if (valueIndex == INDEX_FTIME) {
+                value = formatTime(event.getRawLogTime());
+            } else if (valueIndex == INDEX_EXTINFO) {
+                value = getExtInfo(event);
+            } else {
+                value = "";
+            }
+            encoders[i].encode(value, stream);
+        }
+    }
+
+    /**
+     * getEncoders
+     * @param idConfig
+     * @return
+     */
+    private ColumnEncoders getEncoders(ClickHouseIdConfig idConfig) {
+        return encodersMap.computeIfAbsent(idConfig, this::compile);
+    }
+
+    /**
+     * compile
+     * @param idConfig
+     * @return
+     */
+    private ColumnEncoders compile(ClickHouseIdConfig idConfig) {
+        List<String> typeNames = idConfig.getDbFieldTypeNameList();
+        if (idConfig.getDbFieldList() == null || typeNames == null
+                || typeNames.size() != idConfig.getDbFieldList().size()) {
+            return UNSUPPORTED;
+        }
+        // the same as the map of DefaultEventHandler, the last field wins and ftime and extinfo overwrite
+        Map<String, Integer> fieldIndexes = new HashMap<>();
+        List<String> contentFieldList = idConfig.getContentFieldList();
+        if (contentFieldList != null) {
+            for (int i = 0; i < contentFieldList.size(); i++) {
+                fieldIndexes.put(contentFieldList.get(i), i);
+            }
+        }
+        fieldIndexes.put("ftime", INDEX_FTIME);
+        fieldIndexes.put(KEY_EXTINFO, INDEX_EXTINFO);
+        int columnCount = typeNames.size();
+        TimeZone serverTimeZone = idConfig.getServerTimeZone() == null
+                ? TimeZone.getDefault()
+                : idConfig.getServerTimeZone();
+        int[] valueIndexes = new int[columnCount];
+        ColumnEncoder[] encoders = new ColumnEncoder[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            String fieldName = idConfig.getDbFieldList().get(i).getKey();
+            valueIndexes[i] = fieldIndexes.getOrDefault(fieldName, INDEX_NONE);
+            encoders[i] = createEncoder(typeNames.get(i), serverTimeZone);
+            if (encoders[i] == null) {
+                LOG.warn("RowBinary does not support the type {} of {}.{}, use JDBC parameters",
+                        typeNames.get(i), idConfig.getTableName(), fieldName);
+                return UNSUPPORTED;
+            }
+        }
+        return new ColumnEncoders(valueIndexes, encoders);
+    }
+
+    /**
+     * createEncoder
+     * @param typeName ClickHouse type
+     * @param serverTimeZone time zone of the DateTime without its own time zone
+     * @return null if the type is not supported
+     */
+    private ColumnEncoder createEncoder(String typeName, TimeZone serverTimeZone) {
+        if (typeName == null) {
+            return null;
+        }
+        String type = typeName.trim();
+        String args = null;
+        int argsStart = type.indexOf('(');
+        if (argsStart > 0 && type.endsWith(")")) {
+            args = type.substring(argsStart + 1, type.length() - 1).trim();
+            type = type.substring(0, argsStart).trim();
+        }
+        switch (type) {
+            case "Nullable":
+                ColumnEncoder nestedEncoder = createEncoder(args, serverTimeZone);
+                if (nestedEncoder == null) {
+                    return null;
+                }
+                // the same as the JDBC parameters, an absent value is the default value rather than null
+                return (value, stream) -> {
+                    stream.markNextNullable(false);
+                    nestedEncoder.encode(value, stream);
+                };
+            case "LowCardinality":
+                // LowCardinality is only a storage type, the RowBinary is the same as the nested type
+                return createEncoder(args, serverTimeZone);
+            case "Int8":
+                return (value, stream) -> stream.writeInt8(NumberUtils.toByte(value, (byte) 0));
+            case "UInt8":
+                return (value, stream) -> stream.writeUInt8(NumberUtils.toInt(value, 0));
+            case "Bool":
+            case "Boolean":
+                return (value, stream) -> stream.writeUInt8("1".equals(value) || Boolean.parseBoolean(value));
+            case "Int16":
+                return (value, stream) -> stream.writeInt16(NumberUtils.toShort(value, (short) 0));
+            case "UInt16":
+                return (value, stream) -> stream.writeUInt16(NumberUtils.toInt(value, 0));
+            case "Int32":
+                return (value, stream) -> stream.writeInt32(NumberUtils.toInt(value, 0));
+            case "UInt32":
+                return (value, stream) -> stream.writeUInt32(NumberUtils.toLong(value, 0L));
+            case "Int64":
+                return (value, stream) -> stream.writeInt64(NumberUtils.toLong(value, 0L));
+            case "UInt64":
+                return (value, stream) -> stream.writeUInt64(parseBigInteger(value));
+            case "Float32":
+                return (value, stream) -> stream.writeFloat32(NumberUtils.toFloat(value, 0));
+            case "Float64":
+                return (value, stream) -> stream.writeFloat64(NumberUtils.toDouble(value, 0));
+            case "Decimal":
+            case "Decimal32":
+            case "Decimal64":
+            case "Decimal128":
+            case "Decimal256":
+                return createDecimalEncoder(type, args);
+            case "String":
+                return (value, stream) -> stream.writeString(value);
+            case "FixedString":
+                int length = NumberUtils.toInt(args, -1);
+                if (length <= 0) {
+                    return null;
+                }
+                return (value, stream) -> stream.writeBytes(
+                        Arrays.copyOf(value.getBytes(StandardCharsets.UTF_8), length));
+            case "UUID":
+                return (value, stream) -> stream.writeUUID(parseUUID(value));
+            case "Date":
+                // the days are counted in the time zone of the stream, which is the same as the parser
+                DateParser dateParser = new DateParser(TimeZone.getDefault());
+                return (value, stream) -> stream.writeDate(dateParser.parse(value));
+            case "DateTime":
+                // the same as the server parsing the text, in the time zone of the column or of the server
+                DateParser dateTimeParser = new DateParser(parseTimeZone(args, serverTimeZone));
+                return (value, stream) -> stream.writeDateTime(dateTimeParser.parse(value));
+            case "DateTime64":
+                return createDateTime64Encoder(args, serverTimeZone);
+            case "Enum8":
+            case "Enum16":
+                return createEnumEncoder(type, args);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * createDecimalEncoder
+     * @param type Decimal, Decimal32, Decimal64, Decimal128 or Decimal256
+     * @param args (P, S) of Decimal, or (S)
+     * @return
+     */
+    private ColumnEncoder createDecimalEncoder(String type, String args) {
+        if (args == null) {
+            return null;
+        }
+        String[] argArray = args.split(",");
+        int precision;
+        int scale;
+        if ("Decimal".equals(type)) {
+            if (argArray.length != 2) {
+                return null;
+            }
+            precision = NumberUtils.toInt(argArray[0].trim(), -1);
+            scale = NumberUtils.toInt(argArray[1].trim(), -1);
+        } else {
+            // the max precision of Decimal32, Decimal64, Decimal128 and Decimal256
+            int bits = NumberUtils.toInt(type.substring("Decimal".length()));
+            precision = bits == 32 ? 9 : bits == 64 ? 18 : bits == 128 ? 38 : 76;
+            scale = NumberUtils.toInt(argArray[0].trim(), -1);
+        }
+        if (precision <= 0 || scale < 0) {
+            return null;
+        }
+        if (precision <= 9) {
+            return (value, stream) -> stream.writeInt32(parseDecimal(value, scale).unscaledValue().intValue());
+        } else if (precision <= 18) {
+            return (value, stream) -> stream.writeInt64(parseDecimal(value, scale).unscaledValue().longValue());
+        } else if (precision <= 38) {
+            return (value, stream) -> stream.writeDecimal128(parseDecimal(value, scale), scale);
+        }
+        return (value, stream) -> stream.writeDecimal256(parseDecimal(value, scale), scale);
+    }
+
+    /**
+     * createDateTime64Encoder
+     * @param args (precision) or (precision, timezone)
+     * @param serverTimeZone time zone of the DateTime64 without its own time zone
+     * @return
+     */
+    private ColumnEncoder createDateTime64Encoder(String args, TimeZone serverTimeZone) {
+        String[] argArray = args == null ? new String[]{""} : args.split(",", 2);
+        int precision = NumberUtils.toInt(argArray[0].trim(), -1);
+        if (precision < 0 || precision > 9) {
+            return null;
+        }
+        DateParser dateParser = new DateParser(
+                parseTimeZone(argArray.length > 1 ? argArray[1] : null, serverTimeZone));
+        if (precision >= 3) {
+            long multiplier = BigInteger.TEN.pow(precision - 3).longValue();
+            return (value, stream) -> stream.writeInt64(dateParser.parse(value).getTime() * multiplier);
+        }
+        long divisor = BigInteger.TEN.pow(3 - precision).longValue();
+        return (value, stream) -> stream.writeInt64(Math.floorDiv(dateParser.parse(value).getTime(), divisor));
+    }
+
+    /**
+     * createEnumEncoder, the value is the name or the number of the enum,
+     * an invalid value is 0, or the first number of the enum if 0 is not one of them
+     * @param type Enum8 or Enum16
+     * @param args 'name' = number, ...
+     * @return
+     */
+    private ColumnEncoder createEnumEncoder(String type, String args) {
+        if (args == null) {
+            return null;
+        }
+        Map<String, Integer> enumValues = new LinkedHashMap<>();
+        Matcher matcher = ENUM_VALUE_PATTERN.matcher(args);
+        while (matcher.find()) {
+            enumValues.put(matcher.group(1).replaceAll("\\\\(.)", "$1"), Integer.parseInt(matcher.group(2)));
+        }
+        if (enumValues.isEmpty()) {
+            return null;
+        }
+        boolean isEnum8 = "Enum8".equals(type);
+        int defaultNumber = enumValues.containsValue(0) ? 0 : enumValues.values().iterator().next();
+        return (value, stream) -> {
+            Integer number = enumValues.get(value);
+            if (number == null) {
+                number = NumberUtils.toInt(value, defaultNumber);
+            }
+            if (isEnum8) {
+                stream.writeInt8(number);
+            } else {
+                stream.writeInt16(number);
+            }
+        };
+    }
+
+    /**
+     * formatTime
+     * @param time
+     * @return
+     */
+    private String formatTime(long time) {
+        long second = Math.floorDiv(time, 1000L);
+        if (second != lastFormatSecond) {
+            lastFormatValue = dateFormat.format(new Date(time));
+            lastFormatSecond = second;
+        }
+        return lastFormatValue;
+    }
+
+    /**
+     * parseTimeZone
+     * @param arg 'timezone' of the type, or null
+     * @param defaultTimeZone
+     * @return
+     */
+    private static TimeZone parseTimeZone(String arg, TimeZone defaultTimeZone) {
+        if (arg == null) {
+            return defaultTimeZone;
+        }
+        String zoneId = arg.trim();
+        if (zoneId.length() >= 2 && zoneId.startsWith("'") && zoneId.endsWith("'")) {
+            zoneId = zoneId.substring(1, zoneId.length() - 1);
+        }
+        if (zoneId.isEmpty()) {
+            return defaultTimeZone;
+        }
+        try {
+            return TimeZone.getTimeZone(ZoneId.of(zoneId));
+        } catch (Exception e) {
+            LOG.warn("Unknown time zone {}, use {}", zoneId, defaultTimeZone.getID());
+            return defaultTimeZone;
+        }
+    }
+
+    private static BigInteger parseBigInteger(String fieldValue) {
+        try {
+            return new BigInteger(fieldValue.trim());
+        } catch (Exception e) {
+            return BigInteger.ZERO;
+        }
+    }
+
+    private static BigDecimal parseDecimal(String fieldValue, int scale) {
+        BigDecimal value;
+        try {
+            value = new BigDecimal(fieldValue.trim());
+        } catch (Exception e) {
+            value = BigDecimal.ZERO;
+        }
+        return value.setScale(scale, RoundingMode.HALF_UP);
+    }
+
+    private static UUID parseUUID(String fieldValue) {
+        try {
+            return UUID.fromString(fieldValue.trim());
+        } catch (Exception e) {
+            return new UUID(0L, 0L);
+        }
+    }
+
+    /**
+     * ColumnEncoder, write the value of one column
+     */
+    private interface ColumnEncoder {
+
+        void encode(String value, ClickHouseRowBinaryStream stream) throws IOException;
+    }
+
+    /**
+     * DateParser of one column, which keeps the last parsed value
+     */
+    private static class DateParser {
+
+        private final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+        private String lastValue;
+        private Date lastDate;
+
+        DateParser(TimeZone timeZone) {
+            dateFormat.setTimeZone(timeZone);
+        }
+
+        Date parse(String fieldValue) {
+            if (fieldValue.equals(lastValue)) {
+                return lastDate;
+            }
+            Date date;
+            try {
+                date = dateFormat.parse(fieldValue);
+            } catch (Exception e) {
+                date = new Date(0);
+            }
+            lastValue = fieldValue;
+            lastDate = date;
+            return date;
+        }
+    }
+
+    /**
+     * ColumnEncoders of one id config
+     */
+    private static class ColumnEncoders {
+
+        // index of the value in the fields of the event
+        private final int[] valueIndexes;
+        private final ColumnEncoder[] encoders;
+
+        ColumnEncoders(int[] valueIndexes, ColumnEncoder[] encoders) {
+            this.valueIndexes = valueIndexes;
+            this.encoders = encoders;
+        }
+    }
+}
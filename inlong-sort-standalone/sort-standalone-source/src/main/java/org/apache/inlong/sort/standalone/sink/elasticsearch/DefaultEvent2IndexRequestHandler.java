@@ -17,28 +17,55 @@
 
 package org.apache.inlong.sort.standalone.sink.elasticsearch;
 
+import java.io.IOException;
 import java.nio.charset.Charset;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.WeakHashMap;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.inlong.sdk.commons.protocol.EventConstants;
 import org.apache.inlong.sort.standalone.channel.ProfileEvent;
+import org.apache.inlong.sort.standalone.utils.InlongLoggerFactory;
 import org.apache.inlong.sort.standalone.utils.UnescapeHelper;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentFactory;
+import org.slf4j.Logger;
 
 /**
  * 
- * DefaultEvent2IndexRequestHandler
+ * DefaultEvent2IndexRequestHandler, the fields are written to the json source directly without a map.
  */
 public class DefaultEvent2IndexRequestHandler implements IEvent2IndexRequestHandler {
 
+    public static final Logger LOG = InlongLoggerFactory.getLogger(DefaultEvent2IndexRequestHandler.class);
     public static final String KEY_EXTINFO = "extinfo";
+    public static final String KEY_FTIME = "ftime";
+    // the max bytes of a char in UTF-8
+    public static final int MAX_CHAR_BYTES = 4;
 
     private SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
     private AtomicLong esIndexIndex = new AtomicLong(System.currentTimeMillis());
+    // fields overwritten by the later fields with the same name, the json source keeps the last one
+    private Map<EsIdConfig, OverwrittenFields> overwrittenFieldsMap = new WeakHashMap<>();
+
+    /**
+     * 
+     * OverwrittenFields, the flags are built again after the field list of the id config is changed
+     */
+    private static class OverwrittenFields {
+
+        private final List<String> fieldList;
+        private final boolean[] flags;
+
+        OverwrittenFields(List<String> fieldList, boolean[] flags) {
+            this.fieldList = fieldList;
+            this.flags = flags;
+        }
+    }
 
     /**
      * parse
@@ -75,36 +102,71 @@ public class DefaultEvent2IndexRequestHandler implements IEvent2IndexRequestHand
         int columnLength = fieldList.size();
         // field offset
         int fieldOffset = idConfig.getFieldOffset();
-        // get field value
-        Map<String, String> fieldMap = new HashMap<>();
-        for (int i = fieldOffset; i < columnLength; ++i) {
-            String fieldName = fieldList.get(i);
-            int columnIndex = i - fieldOffset;
-            String fieldValue = columnIndex < valueLength ? columnVlues.get(columnIndex) : "";
-            byte[] fieldBytes = fieldValue.getBytes(Charset.defaultCharset());
-            if (fieldBytes.length > context.getKeywordMaxLength()) {
-                fieldValue = new String(fieldBytes, 0, context.getKeywordMaxLength());
+        boolean[] overwrittenFields = this.getOverwrittenFields(idConfig);
+        int keywordMaxLength = context.getKeywordMaxLength();
+        Charset charset = Charset.defaultCharset();
+        String indexName = idConfig.parseIndexName(event.getRawLogTime());
+        EsIndexRequest indexRequest = new EsIndexRequest(indexName, event);
+        try {
+            XContentBuilder builder = XContentFactory.jsonBuilder().startObject();
+            for (int i = fieldOffset; i < columnLength; ++i) {
+                if (overwrittenFields[i]) {
+                    continue;
+                }
+                String fieldName = fieldList.get(i);
+                int columnIndex = i - fieldOffset;
+                String fieldValue = columnIndex < valueLength ? columnVlues.get(columnIndex) : "";
+                // only the long value needs to be encoded for the length check
+                if (fieldValue.length() * MAX_CHAR_BYTES > keywordMaxLength) {
+                    byte[] fieldBytes = fieldValue.getBytes(charset);
+                    if (fieldBytes.length > keywordMaxLength) {
+                        fieldValue = new String(fieldBytes, 0, keywordMaxLength);
+                    }
+                }
+                builder.field(fieldName, fieldValue);
             }
-            fieldMap.put(fieldName, fieldValue);
+            // ftime
+            builder.field(KEY_FTIME, dateFormat.format(new Date(event.getRawLogTime())));
+            // extinfo
+            builder.field(KEY_EXTINFO, getExtInfo(event));
+            builder.endObject();
+            indexRequest.source(builder);
+        } catch (IOException e) {
+            LOG.error(String.format("fail to build source of uid:%s,error:%s", uid, e.getMessage()), e);
+            context.addSendResultMetric(event, context.getTaskName(), false, System.currentTimeMillis());
+            return null;
         }
-
-        // ftime
-        String ftime = dateFormat.format(new Date(event.getRawLogTime()));
-        fieldMap.put("ftime", ftime);
-        // extinfo
-        String extinfo = getExtInfo(event);
-        fieldMap.put("extinfo", extinfo);
-        String indexName = idConfig.parseIndexName(event.getRawLogTime());
         // build
-        EsIndexRequest indexRequest = new EsIndexRequest(indexName, event);
         if (context.isUseIndexId()) {
             String esIndexId = uid + delimeter + event.getRawLogTime() + delimeter + esIndexIndex.incrementAndGet();
             indexRequest.id(esIndexId);
         }
-        indexRequest.source(fieldMap);
         return indexRequest;
     }
 
+    /**
+     * getOverwrittenFields
+     * 
+     * @param  idConfig
+     * @return          the flags of the fields overwritten by the later fields or by ftime and extinfo
+     */
+    private boolean[] getOverwrittenFields(EsIdConfig idConfig) {
+        List<String> fieldList = idConfig.getFieldList();
+        OverwrittenFields overwrittenFields = overwrittenFieldsMap.get(idConfig);
+        if (overwrittenFields == null || overwrittenFields.fieldList != fieldList) {
+            boolean[] flags = new boolean[fieldList.size()];
+            Map<String, Integer> lastIndexes = new HashMap<>();
+            lastIndexes.put(KEY_FTIME, Integer.MAX_VALUE);
+            lastIndexes.put(KEY_EXTINFO, Integer.MAX_VALUE);
+            for (int i = fieldList.size() - 1; i >= 0; i--) {
+                flags[i] = lastIndexes.putIfAbsent(fieldList.get(i), i) != null;
+            }
+            overwrittenFields = new OverwrittenFields(fieldList, flags);
+            overwrittenFieldsMap.put(idConfig, overwrittenFields);
+        }
+        return overwrittenFields.flags;
+    }
+
     /**
      * getExtInfo
      * 
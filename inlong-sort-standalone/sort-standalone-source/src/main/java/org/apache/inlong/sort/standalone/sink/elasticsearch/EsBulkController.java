@@ -0,0 +1,173 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sort.standalone.sink.elasticsearch;
+
+import org.apache.inlong.sort.standalone.utils.InlongLoggerFactory;
+
+import org.slf4j.Logger;
+
+/**
+ * EsBulkController, tune the bulk size and the concurrent requests of a bulk lane by AIMD.<br>
+ * The limits increase additively after a fast bulk without rejection, and are halved with a backoff
+ * after a slow bulk, a rejection ratio over the threshold, or a failure of the whole bulk.
+ */
+public class EsBulkController {
+
+    public static final Logger LOG = InlongLoggerFactory.getLogger(EsBulkController.class);
+
+    // additive increase is 1/INCREASE_STEPS of the max bulk size
+    public static final int INCREASE_STEPS = 16;
+    public static final long MIN_BULK_BYTES = 64 * 1024L;
+    public static final long MIN_BACKOFF_MS = 100L;
+    public static final long MB_BYTES = 1024L * 1024;
+
+    private final String name;
+    private final int maxBulkAction;
+    private final int minBulkAction;
+    private final long maxBulkBytes;
+    private final long minBulkBytes;
+    private final int maxConcurrency;
+    private final long targetLatencyMs;
+    private final double rejectRatio;
+    private final long maxBackoffMs;
+
+    private volatile int bulkAction;
+    private volatile long bulkBytes;
+    private volatile int concurrency;
+    private volatile long backoffUntil = 0;
+    private long backoffMs = 0;
+
+    /**
+     * Constructor
+     * 
+     * @param name
+     * @param context
+     */
+    public EsBulkController(String name, EsSinkContext context) {
+        this.name = name;
+        this.maxBulkAction = Math.max(1, context.getBulkAction());
+        this.minBulkAction = Math.max(1, Math.min(context.getMinBulkAction(), maxBulkAction));
+        this.maxBulkBytes = Math.max(MIN_BULK_BYTES, context.getBulkSizeMb() * MB_BYTES);
+        this.minBulkBytes = Math.min(MIN_BULK_BYTES, maxBulkBytes);
+        this.maxConcurrency = Math.max(1, context.getConcurrentRequests());
+        this.targetLatencyMs = context.getBulkTargetLatencyMs();
+        this.rejectRatio = context.getBulkRejectRatio();
+        this.maxBackoffMs = Math.max(MIN_BACKOFF_MS, context.getMaxBulkBackoffMs());
+        // start from the configured limits, the same as a fixed bulk processor
+        this.bulkAction = maxBulkAction;
+        this.bulkBytes = maxBulkBytes;
+        this.concurrency = maxConcurrency;
+    }
+
+    /**
+     * onResponse
+     * 
+     * @param actionCount
+     * @param rejectedCount the count of items rejected by 429
+     * @param latencyMs
+     */
+    public synchronized void onResponse(int actionCount, int rejectedCount, long latencyMs) {
+        if (actionCount > 0 && (double) rejectedCount / actionCount > rejectRatio) {
+            this.decrease(String.format("rejected %d of %d", rejectedCount, actionCount));
+        } else if (latencyMs > targetLatencyMs) {
+            this.decrease(String.format("latency %d ms", latencyMs));
+        } else {
+            this.increase();
+        }
+    }
+
+    /**
+     * onFailure of the whole bulk
+     * 
+     * @param failure
+     */
+    public synchronized void onFailure(Throwable failure) {
+        this.decrease(String.valueOf(failure));
+    }
+
+    /**
+     * increase
+     */
+    private void increase() {
+        this.backoffMs = 0;
+        this.bulkAction = Math.min(maxBulkAction, bulkAction + Math.max(1, maxBulkAction / INCREASE_STEPS));
+        this.bulkBytes = Math.min(maxBulkBytes, bulkBytes + Math.max(1, maxBulkBytes / INCREASE_STEPS));
+        this.concurrency = Math.min(maxConcurrency, concurrency + 1);
+    }
+
+    /**
+     * decrease
+     * 
+     * @param reason
+     */
+    private void decrease(String reason) {
+        this.bulkAction = Math.max(minBulkAction, bulkAction / 2);
+        this.bulkBytes = Math.max(minBulkBytes, bulkBytes / 2);
+        this.concurrency = Math.max(1, concurrency / 2);
+        this.backoffMs = backoffMs == 0 ? MIN_BACKOFF_MS : Math.min(maxBackoffMs, backoffMs * 2);
+        this.backoffUntil = System.currentTimeMillis() + backoffMs;
+        LOG.warn("bulk lane {} backs off {} ms for {},bulkAction:{},bulkBytes:{},concurrency:{}",
+                name, backoffMs, reason, bulkAction, bulkBytes, concurrency);
+    }
+
+    /**
+     * isBackoff
+     * 
+     * @param  currentTime
+     * @return
+     */
+    public boolean isBackoff(long currentTime) {
+        return currentTime < backoffUntil;
+    }
+
+    /**
+     * get bulkAction
+     * 
+     * @return the bulkAction
+     */
+    public int getBulkAction() {
+        return bulkAction;
+    }
+
+    /**
+     * get bulkBytes
+     * 
+     * @return the bulkBytes
+     */
+    public long getBulkBytes() {
+        return bulkBytes;
+    }
+
+    /**
+     * get concurrency
+     * 
+     * @return the concurrency
+     */
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    /**
+     * get backoffUntil
+     * 
+     * @return the backoffUntil
+     */
+    public long getBackoffUntil() {
+        return backoffUntil;
+    }
+}
@@ -0,0 +1,264 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sort.standalone.sink.elasticsearch;
+
+import org.apache.inlong.sort.standalone.utils.InlongLoggerFactory;
+
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkProcessor;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.rest.RestStatus;
+import org.slf4j.Logger;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+/**
+ * EsBulkLane, the bulk buffer and in-flight bulks of the ids sharing one lane.<br>
+ * The bulk size and the concurrent requests are limited by its own EsBulkController,
+ * and a full lane rejects new requests after a short wait instead of blocking the other lanes.
+ */
+public class EsBulkLane {
+
+    public static final Logger LOG = InlongLoggerFactory.getLogger(EsBulkLane.class);
+
+    private final String name;
+    private final EsBulkController controller;
+    private final BiConsumer<BulkRequest, ActionListener<BulkResponse>> consumer;
+    private final BulkProcessor.Listener listener;
+    private final long flushIntervalMs;
+    private final AtomicInteger inFlight = new AtomicInteger(0);
+    private final AtomicLong executionIdGenerator = new AtomicLong(0);
+
+    private BulkRequest bulkRequest = new BulkRequest();
+    private long lastFlushTime = System.currentTimeMillis();
+
+    /**
+     * Constructor
+     * 
+     * @param name
+     * @param context
+     * @param consumer send the bulk request, e.g. the bulkAsync of RestHighLevelClient
+     * @param listener
+     */
+    public EsBulkLane(String name, EsSinkContext context,
+            BiConsumer<BulkRequest, ActionListener<BulkResponse>> consumer, BulkProcessor.Listener listener) {
+        this.name = name;
+        this.controller = new EsBulkController(name, context);
+        this.consumer = consumer;
+        this.listener = listener;
+        this.flushIntervalMs = context.getFlushInterval() * 1000L;
+    }
+
+    /**
+     * add
+     * 
+     * @param  indexRequest
+     * @return              false if the bulk is full and can not be sent now
+     */
+    public boolean add(EsIndexRequest indexRequest) {
+        try {
+            return this.add(indexRequest, 0);
+        } catch (InterruptedException e) {
+            // never thrown as it does not wait
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * add, wait for a completed bulk if the bulk is full
+     * 
+     * @param  indexRequest
+     * @param  timeoutMs
+     * @return                      false if the bulk is still full after timeout
+     * @throws InterruptedException
+     */
+    public synchronized boolean add(EsIndexRequest indexRequest, long timeoutMs) throws InterruptedException {
+        long currentTime = System.currentTimeMillis();
+        long deadline = currentTime + timeoutMs;
+        while (this.isFull()) {
+            this.trySend(currentTime);
+            if (!this.isFull()) {
+                break;
+            }
+            long remainMs = deadline - currentTime;
+            if (remainMs <= 0) {
+                return false;
+            }
+            // notified when an in-flight bulk is completed
+            this.wait(remainMs);
+            currentTime = System.currentTimeMillis();
+        }
+        bulkRequest.add(indexRequest);
+        if (this.isFull()) {
+            this.trySend(currentTime);
+        }
+        return true;
+    }
+
+    /**
+     * flush the bulk that is full or overtime
+     */
+    public synchronized void flushIfNeed() {
+        long currentTime = System.currentTimeMillis();
+        if (this.isFull() || currentTime - lastFlushTime >= flushIntervalMs) {
+            this.trySend(currentTime);
+        }
+    }
+
+    /**
+     * send the buffered requests regardless of the limits
+     */
+    public synchronized void close() {
+        if (bulkRequest.numberOfActions() > 0) {
+            this.send(System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * isFull
+     * 
+     * @return
+     */
+    private boolean isFull() {
+        return bulkRequest.numberOfActions() >= controller.getBulkAction()
+                || bulkRequest.estimatedSizeInBytes() >= controller.getBulkBytes();
+    }
+
+    /**
+     * trySend
+     * 
+     * @param currentTime
+     */
+    private void trySend(long currentTime) {
+        if (bulkRequest.numberOfActions() == 0) {
+            this.lastFlushTime = currentTime;
+            return;
+        }
+        if (inFlight.get() >= controller.getConcurrency() || controller.isBackoff(currentTime)) {
+            return;
+        }
+        this.send(currentTime);
+    }
+
+    /**
+     * send
+     * 
+     * @param currentTime
+     */
+    private void send(long currentTime) {
+        final BulkRequest request = this.bulkRequest;
+        this.bulkRequest = new BulkRequest();
+        this.lastFlushTime = currentTime;
+        final long executionId = executionIdGenerator.incrementAndGet();
+        final long startTime = currentTime;
+        inFlight.incrementAndGet();
+        listener.beforeBulk(executionId, request);
+        ActionListener<BulkResponse> bulkListener = new ActionListener<BulkResponse>() {
+
+            @Override
+            public void onResponse(BulkResponse response) {
+                inFlight.decrementAndGet();
+                controller.onResponse(request.numberOfActions(), countRejected(response),
+                        System.currentTimeMillis() - startTime);
+                listener.afterBulk(executionId, request, response);
+                flushIfFull();
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                inFlight.decrementAndGet();
+                controller.onFailure(e);
+                listener.afterBulk(executionId, request, e);
+                flushIfFull();
+            }
+        };
+        try {
+            consumer.accept(request, bulkListener);
+        } catch (Exception e) {
+            LOG.error(String.format("fail to send bulk of lane:%s,error:%s", name, e.getMessage()), e);
+            bulkListener.onFailure(e);
+        }
+    }
+
+    /**
+     * flushIfFull, send the waiting full bulk after an in-flight bulk is completed, and wake up the adding thread
+     */
+    private synchronized void flushIfFull() {
+        if (this.isFull()) {
+            this.trySend(System.currentTimeMillis());
+        }
+        this.notifyAll();
+    }
+
+    /**
+     * countRejected
+     * 
+     * @param  response
+     * @return          the count of items rejected by 429
+     */
+    public static int countRejected(BulkResponse response) {
+        int rejectedCount = 0;
+        for (BulkItemResponse item : response.getItems()) {
+            if (item.isFailed() && item.getFailure().getStatus() == RestStatus.TOO_MANY_REQUESTS) {
+                rejectedCount++;
+            }
+        }
+        return rejectedCount;
+    }
+
+    /**
+     * get name
+     * 
+     * @return the name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * get controller
+     * 
+     * @return the controller
+     */
+    public EsBulkController getController() {
+        return controller;
+    }
+
+    /**
+     * get inFlight
+     * 
+     * @return the count of in-flight bulks
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * get bufferedActions
+     * 
+     * @return the count of buffered requests
+     */
+    public synchronized int getBufferedActions() {
+        return bulkRequest.numberOfActions();
+    }
+}
@@ -62,6 +62,8 @@ public class EsIdConfig {
     private int fieldOffset = 2; // for ftime,extinfo
     private int contentOffset = 0;// except for boss + tab(1)
     private List<String> fieldList;
+    // ids with the same lane share one bulk lane, blank for the default lane
+    private String bulkLane;
 
     /**
      * get inlongGroupId
@@ -214,6 +216,24 @@ public class EsIdConfig {
         this.contentOffset = contentOffset;
     }
 
+    /**
+     * get bulkLane
+     * 
+     * @return the bulkLane
+     */
+    public String getBulkLane() {
+        return bulkLane;
+    }
+
+    /**
+     * set bulkLane
+     * 
+     * @param bulkLane the bulkLane to set
+     */
+    public void setBulkLane(String bulkLane) {
+        this.bulkLane = bulkLane;
+    }
+
     /**
      * parseIndexName
      * 
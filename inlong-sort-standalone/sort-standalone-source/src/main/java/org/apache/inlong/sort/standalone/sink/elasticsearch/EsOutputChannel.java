@@ -19,8 +19,13 @@ package org.apache.inlong.sort.standalone.sink.elasticsearch;
 
 import java.io.IOException;
 import java.util.Arrays;
-import java.util.function.BiConsumer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
+import org.apache.commons.lang3.StringUtils;
 import org.apache.flume.lifecycle.LifecycleState;
 import org.apache.http.HttpHost;
 import org.apache.http.auth.AuthScope;
@@ -30,29 +35,28 @@ import org.apache.http.client.config.RequestConfig;
 import org.apache.http.impl.client.BasicCredentialsProvider;
 import org.apache.inlong.sort.standalone.utils.InlongLoggerFactory;
 import org.elasticsearch.action.ActionListener;
-import org.elasticsearch.action.bulk.BulkProcessor;
 import org.elasticsearch.action.bulk.BulkRequest;
 import org.elasticsearch.action.bulk.BulkResponse;
 import org.elasticsearch.client.RequestOptions;
 import org.elasticsearch.client.RestClient;
 import org.elasticsearch.client.RestClientBuilder;
 import org.elasticsearch.client.RestHighLevelClient;
-import org.elasticsearch.common.unit.ByteSizeUnit;
-import org.elasticsearch.common.unit.ByteSizeValue;
-import org.elasticsearch.common.unit.TimeValue;
 import org.slf4j.Logger;
 
 /**
- * EsOutputChannel
+ * EsOutputChannel, route the index requests to the bulk lanes of their id configs.
  */
 public class EsOutputChannel extends Thread {
 
     public static final Logger LOG = InlongLoggerFactory.getLogger(EsOutputChannel.class);
+    public static final String DEFAULT_LANE = "default";
 
     private LifecycleState status;
     private EsSinkContext context;
     private RestHighLevelClient esClient;
-    private BulkProcessor bulkProcessor;
+    private final EsCallbackListener esListener;
+    private final Map<String, EsBulkLane> lanes = new ConcurrentHashMap<>();
+    private ScheduledExecutorService flushPool;
 
     /**
      * Constructor
@@ -63,29 +67,59 @@ public class EsOutputChannel extends Thread {
         super(context.getTaskName());
         this.context = context;
         this.status = LifecycleState.IDLE;
+        this.esListener = new EsCallbackListener(context);
     }
 
     /**
      * init
      */
     public void init() {
-        if (initEsclient()) {
-            initBulkprocessIfNeed();
+        initEsclient();
+        if (flushPool == null) {
+            this.flushPool = Executors.newSingleThreadScheduledExecutor();
+            flushPool.scheduleWithFixedDelay(this::flushLanes, context.getProcessInterval(),
+                    context.getProcessInterval(), TimeUnit.MILLISECONDS);
         }
     }
 
     /**
-     * getBulkProcessor
+     * getBulkLane
      *
+     * @param  idConfig
      * @return
      */
-    public BulkProcessor getBulkProcessor() {
-        if (bulkProcessor == null) {
-            if (initEsclient()) {
-                initBulkprocessIfNeed();
+    public EsBulkLane getBulkLane(EsIdConfig idConfig) {
+        String laneName = StringUtils.isBlank(idConfig.getBulkLane()) ? DEFAULT_LANE : idConfig.getBulkLane();
+        return lanes.computeIfAbsent(laneName,
+                (name) -> new EsBulkLane(name, context, this::bulkAsync, esListener));
+    }
+
+    /**
+     * bulkAsync
+     * 
+     * @param request
+     * @param bulkListener
+     */
+    private void bulkAsync(BulkRequest request, ActionListener<BulkResponse> bulkListener) {
+        RestHighLevelClient client = this.esClient;
+        if (client == null) {
+            bulkListener.onFailure(new IllegalStateException("esClient is not initialized"));
+            return;
+        }
+        client.bulkAsync(request, RequestOptions.DEFAULT, bulkListener);
+    }
+
+    /**
+     * flushLanes
+     */
+    private void flushLanes() {
+        for (EsBulkLane lane : lanes.values()) {
+            try {
+                lane.flushIfNeed();
+            } catch (Throwable t) {
+                LOG.error(String.format("fail to flush lane:%s,error:%s", lane.getName(), t.getMessage()), t);
             }
         }
-        return bulkProcessor;
     }
 
     /**
@@ -129,43 +163,21 @@ public class EsOutputChannel extends Thread {
         return true;
     }
 
-    /**
-     * initBulkprocessIfNeed
-     * 
-     * @return
-     */
-    private boolean initBulkprocessIfNeed() {
-        try {
-            if (bulkProcessor == null) {
-                EsCallbackListener esListener = new EsCallbackListener(context);
-                BiConsumer<BulkRequest, ActionListener<BulkResponse>> consumer = (request, bulkListener) -> esClient
-                        .bulkAsync(request, RequestOptions.DEFAULT, bulkListener);
-                BulkProcessor bulkProcessor = BulkProcessor.builder(consumer, esListener)
-                        .setBulkActions(context.getBulkAction())
-                        .setBulkSize(new ByteSizeValue(context.getBulkSizeMb(), ByteSizeUnit.MB))
-                        .setFlushInterval(TimeValue.timeValueSeconds(context.getFlushInterval()))
-                        .setConcurrentRequests(context.getConcurrentRequests())
-                        .build();
-                this.bulkProcessor = bulkProcessor;
-            }
-        } catch (Exception e) {
-            LOG.error("init esclient failed", e);
-            esClient = null;
-            return false;
-        }
-        return true;
-    }
-
     /**
      *
      * close
      */
     public void close() {
         status = LifecycleState.STOP;
-        try {
-            this.bulkProcessor.close();
-        } catch (Exception e) {
-            LOG.error(String.format("close bulkProcessor:%s", e.getMessage()), e);
+        if (flushPool != null) {
+            flushPool.shutdown();
+        }
+        for (EsBulkLane lane : lanes.values()) {
+            try {
+                lane.close();
+            } catch (Exception e) {
+                LOG.error(String.format("close lane:%s,error:%s", lane.getName(), e.getMessage()), e);
+            }
         }
         try {
             this.esClient.close();
@@ -198,9 +210,8 @@ public class EsOutputChannel extends Thread {
     public void send() throws InterruptedException {
         EsIndexRequest indexRequest = null;
         try {
-            BulkProcessor bulkProcessor = this.getBulkProcessor();
-            // check bulkProcessor
-            if (bulkProcessor == null) {
+            // check esClient
+            if (esClient == null && !initEsclient()) {
                 Thread.sleep(context.getProcessInterval());
                 return;
             }
@@ -212,13 +223,18 @@ public class EsOutputChannel extends Thread {
             }
             // get id config
             String uid = indexRequest.getEvent().getUid();
-            if (context.getIdConfig(uid) == null) {
+            EsIdConfig idConfig = context.getIdConfig(uid);
+            if (idConfig == null) {
                 context.addSendResultMetric(indexRequest.getEvent(), context.getTaskName(), false,
                         indexRequest.getSendTime());
                 return;
             }
             // send
-            bulkProcessor.add(indexRequest);
+            if (!this.getBulkLane(idConfig).add(indexRequest, context.getProcessInterval())) {
+                // the lane is still full, put back the request and go on with the other lanes
+                context.backDispatchQueue(indexRequest);
+                return;
+            }
             context.addSendMetric(indexRequest.getEvent(), context.getTaskName());
         } catch (Throwable e) {
             LOG.error(e.getMessage(), e);
@@ -69,6 +69,10 @@ public class EsSinkContext extends SinkContext {
     public static final String KEY_HTTP_HOSTS = "httpHosts";
     public static final String KEY_EVENT_INDEXREQUEST_HANDLER = "indexRequestHandler";
     public static final String KEY_IS_USE_INDEX_ID = "isUseIndexId";
+    public static final String KEY_MIN_BULK_ACTION = "minBulkAction";
+    public static final String KEY_BULK_TARGET_LATENCY = "bulkTargetLatencyMs";
+    public static final String KEY_BULK_REJECT_RATIO = "bulkRejectRatio";
+    public static final String KEY_MAX_BULK_BACKOFF = "maxBulkBackoffMs";
 
     public static final int DEFAULT_BULK_ACTION = 10000;
     public static final int DEFAULT_BULK_SIZE_MB = 20;
@@ -82,6 +86,10 @@ public class EsSinkContext extends SinkContext {
     public static final int DEFAULT_LOG_MAX_LENGTH = 32 * 1024;
     public static final int DEFAULT_KEYWORD_MAX_LENGTH = 8 * 1024;
     public static final boolean DEFAULT_IS_USE_INDEX_ID = false;
+    public static final int DEFAULT_MIN_BULK_ACTION = 100;
+    public static final int DEFAULT_BULK_TARGET_LATENCY = 2000;
+    public static final double DEFAULT_BULK_REJECT_RATIO = 0.01;
+    public static final int DEFAULT_MAX_BULK_BACKOFF = 10000;
 
     private Context sinkContext;
     private String nodeId;
@@ -105,6 +113,11 @@ public class EsSinkContext extends SinkContext {
     private int logMaxLength = DEFAULT_LOG_MAX_LENGTH;
     private int keywordMaxLength = DEFAULT_KEYWORD_MAX_LENGTH;
     private boolean isUseIndexId = DEFAULT_IS_USE_INDEX_ID;
+    // adaptive bulk
+    private int minBulkAction = DEFAULT_MIN_BULK_ACTION;
+    private int bulkTargetLatencyMs = DEFAULT_BULK_TARGET_LATENCY;
+    private double bulkRejectRatio = DEFAULT_BULK_REJECT_RATIO;
+    private int maxBulkBackoffMs = DEFAULT_MAX_BULK_BACKOFF;
     // http host
     private String strHttpHosts;
     private HttpHost[] httpHosts;
@@ -172,6 +185,11 @@ public class EsSinkContext extends SinkContext {
             this.logMaxLength = sinkContext.getInteger(KEY_LOG_MAX_LENGTH, DEFAULT_LOG_MAX_LENGTH);
             this.keywordMaxLength = sinkContext.getInteger(KEY_KEYWORD_MAX_LENGTH, DEFAULT_KEYWORD_MAX_LENGTH);
             this.isUseIndexId = sinkContext.getBoolean(KEY_IS_USE_INDEX_ID, DEFAULT_IS_USE_INDEX_ID);
+            this.minBulkAction = sinkContext.getInteger(KEY_MIN_BULK_ACTION, DEFAULT_MIN_BULK_ACTION);
+            this.bulkTargetLatencyMs = sinkContext.getInteger(KEY_BULK_TARGET_LATENCY, DEFAULT_BULK_TARGET_LATENCY);
+            this.bulkRejectRatio = NumberUtils.toDouble(sinkContext.getString(KEY_BULK_REJECT_RATIO),
+                    DEFAULT_BULK_REJECT_RATIO);
+            this.maxBulkBackoffMs = sinkContext.getInteger(KEY_MAX_BULK_BACKOFF, DEFAULT_MAX_BULK_BACKOFF);
             // http host
             this.strHttpHosts = sinkContext.getString(KEY_HTTP_HOSTS);
             if (!StringUtils.isBlank(strHttpHosts)) {
@@ -616,6 +634,78 @@ public class EsSinkContext extends SinkContext {
         this.isUseIndexId = isUseIndexId;
     }
 
+    /**
+     * get minBulkAction
+     * 
+     * @return the minBulkAction
+     */
+    public int getMinBulkAction() {
+        return minBulkAction;
+    }
+
+    /**
+     * set minBulkAction
+     * 
+     * @param minBulkAction the minBulkAction to set
+     */
+    public void setMinBulkAction(int minBulkAction) {
+        this.minBulkAction = minBulkAction;
+    }
+
+    /**
+     * get bulkTargetLatencyMs
+     * 
+     * @return the bulkTargetLatencyMs
+     */
+    public int getBulkTargetLatencyMs() {
+        return bulkTargetLatencyMs;
+    }
+
+    /**
+     * set bulkTargetLatencyMs
+     * 
+     * @param bulkTargetLatencyMs the bulkTargetLatencyMs to set
+     */
+    public void setBulkTargetLatencyMs(int bulkTargetLatencyMs) {
+        this.bulkTargetLatencyMs = bulkTargetLatencyMs;
+    }
+
+    /**
+     * get bulkRejectRatio
+     * 
+     * @return the bulkRejectRatio
+     */
+    public double getBulkRejectRatio() {
+        return bulkRejectRatio;
+    }
+
+    /**
+     * set bulkRejectRatio
+     * 
+     * @param bulkRejectRatio the bulkRejectRatio to set
+     */
+    public void setBulkRejectRatio(double bulkRejectRatio) {
+        this.bulkRejectRatio = bulkRejectRatio;
+    }
+
+    /**
+     * get maxBulkBackoffMs
+     * 
+     * @return the maxBulkBackoffMs
+     */
+    public int getMaxBulkBackoffMs() {
+        return maxBulkBackoffMs;
+    }
+
+    /**
+     * set maxBulkBackoffMs
+     * 
+     * @param maxBulkBackoffMs the maxBulkBackoffMs to set
+     */
+    public void setMaxBulkBackoffMs(int maxBulkBackoffMs) {
+        this.maxBulkBackoffMs = maxBulkBackoffMs;
+    }
+
     /**
      * create indexRequestHandler
      * 
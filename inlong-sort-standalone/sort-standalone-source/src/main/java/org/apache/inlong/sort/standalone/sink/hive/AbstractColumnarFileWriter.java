@@ -0,0 +1,141 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sort.standalone.sink.hive;
+
+import java.io.IOException;
+
+/**
+ * 
+ * AbstractColumnarFileWriter, split the formatted line into the string columns of the field names.<br>
+ * Missing fields and "\N" are written as null like the text table, and extra fields are ignored.<br>
+ * The rows are buffered in column stripes, so the file is only readable after it is closed.
+ */
+public abstract class AbstractColumnarFileWriter implements IHdfsFileWriter {
+
+    private static final byte ESCAPE = '\\';
+    private static final byte NULL_CHAR = 'N';
+
+    protected final String[] fieldNames;
+    private final byte separator;
+    private long rowCount = 0;
+    private long length = 0;
+
+    /**
+     * Constructor
+     * 
+     * @param idConfig
+     */
+    public AbstractColumnarFileWriter(HdfsIdConfig idConfig) {
+        this.fieldNames = idConfig.parseFieldNames();
+        this.separator = (byte) idConfig.getSeparator().charAt(0);
+    }
+
+    /**
+     * write
+     * 
+     * @param  line
+     * @throws IOException
+     */
+    @Override
+    public void write(byte[] line) throws IOException {
+        this.beginRow();
+        int column = 0;
+        int start = 0;
+        for (int i = 0; i <= line.length && column < fieldNames.length; i++) {
+            if (i < line.length && line[i] != separator) {
+                continue;
+            }
+            int fieldLength = i - start;
+            if (fieldLength == 2 && line[start] == ESCAPE && line[start + 1] == NULL_CHAR) {
+                this.setNull(column);
+            } else {
+                this.setField(column, line, start, fieldLength);
+            }
+            column++;
+            start = i + 1;
+        }
+        for (; column < fieldNames.length; column++) {
+            this.setNull(column);
+        }
+        this.endRow();
+        rowCount++;
+        length += line.length + 1;
+    }
+
+    /**
+     * sync, the buffered stripe can not be read before the footer is written.
+     * 
+     * @param  hsync
+     * @return       false
+     */
+    @Override
+    public boolean sync(boolean hsync) {
+        return false;
+    }
+
+    /**
+     * getRowCount
+     * 
+     * @return
+     */
+    @Override
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * getLength
+     * 
+     * @return
+     */
+    @Override
+    public long getLength() {
+        return length;
+    }
+
+    /**
+     * beginRow
+     * 
+     * @throws IOException
+     */
+    protected abstract void beginRow() throws IOException;
+
+    /**
+     * setField
+     * 
+     * @param column
+     * @param bytes
+     * @param start
+     * @param length
+     */
+    protected abstract void setField(int column, byte[] bytes, int start, int length);
+
+    /**
+     * setNull
+     * 
+     * @param column
+     */
+    protected abstract void setNull(int column);
+
+    /**
+     * endRow
+     * 
+     * @throws IOException
+     */
+    protected abstract void endRow() throws IOException;
+}
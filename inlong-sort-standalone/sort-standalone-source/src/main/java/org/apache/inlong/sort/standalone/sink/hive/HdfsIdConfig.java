@@ -17,6 +17,8 @@
 
 package org.apache.inlong.sort.standalone.sink.hive;
 
+import org.apache.commons.lang3.StringUtils;
+
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.Map;
@@ -80,6 +82,10 @@ public class HdfsIdConfig {
     private String msgTimeFieldPattern;
     // close partition
     private long maxPartitionOpenDelayHour = 8;
+    // file format, text, orc or parquet
+    private String fileFormat = HdfsFileFormat.TEXT.name();
+    // column names of the columnar file, separated by comma
+    private String fieldNames;
 
     /**
      * get inlongGroupId
@@ -281,6 +287,71 @@ public class HdfsIdConfig {
         this.hiveTableName = hiveTableName;
     }
 
+    /**
+     * get fileFormat
+     * 
+     * @return the fileFormat
+     */
+    public String getFileFormat() {
+        return fileFormat;
+    }
+
+    /**
+     * set fileFormat
+     * 
+     * @param fileFormat the fileFormat to set
+     */
+    public void setFileFormat(String fileFormat) {
+        this.fileFormat = fileFormat;
+    }
+
+    /**
+     * get fieldNames
+     * 
+     * @return the fieldNames
+     */
+    public String getFieldNames() {
+        return fieldNames;
+    }
+
+    /**
+     * set fieldNames
+     * 
+     * @param fieldNames the fieldNames to set
+     */
+    public void setFieldNames(String fieldNames) {
+        this.fieldNames = fieldNames;
+    }
+
+    /**
+     * parseFileFormat, columnar file needs the field names, or else the text file is written
+     * 
+     * @return
+     */
+    public HdfsFileFormat parseFileFormat() {
+        HdfsFileFormat format = HdfsFileFormat.convert(fileFormat);
+        if (format != HdfsFileFormat.TEXT && StringUtils.isBlank(fieldNames)) {
+            return HdfsFileFormat.TEXT;
+        }
+        return format;
+    }
+
+    /**
+     * parseFieldNames
+     * 
+     * @return
+     */
+    public String[] parseFieldNames() {
+        if (StringUtils.isBlank(fieldNames)) {
+            return new String[0];
+        }
+        String[] names = fieldNames.split(",");
+        for (int i = 0; i < names.length; i++) {
+            names[i] = names[i].trim();
+        }
+        return names;
+    }
+
     /**
      * parsePartitionPath
      * 
@@ -19,18 +19,27 @@ package org.apache.inlong.sort.standalone.sink.hive;
 
 import java.io.IOException;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 
 import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
 import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
-import org.apache.hadoop.hdfs.DistributedFileSystem;
+import org.apache.hadoop.io.IOUtils;
+import org.apache.inlong.sort.standalone.dispatch.DispatchProfile;
 import org.apache.inlong.sort.standalone.utils.InlongLoggerFactory;
 import org.slf4j.Logger;
 
 /**
  * 
- * HdfsIdFile
+ * HdfsIdFile, the intmp files of a partition path.<br>
+ * The intmp file is created at the first write, and rolled by size or time.<br>
+ * The written profiles are acked after the file is synced by the sync policy, or after the file is closed.<br>
+ * A file which can not be synced, such as a columnar file, is rolled when its unacked events reach the limit.<br>
+ * A closed file is renamed to "in" directory, which is the only way a columnar file gets there.
  */
 public class HdfsIdFile {
 
@@ -45,17 +54,29 @@ public class HdfsIdFile {
     private final HiveSinkContext context;
     private final HdfsIdConfig idConfig;
     private final String strIdRootPath;
+    private final HdfsFileFormat fileFormat;
 
-    private final DistributedFileSystem fs;
+    private final Configuration conf;
+    private final FileSystem fs;
     private final Path intmpPath;
     private final Path inPath;
     private final Path outPath;
-    private final Path intmpFilePath;
-    private final String strIntmpFile;
-    private final FSDataOutputStream intmpOutput;
     private final long createTime;
     private long modifiedTime;
-    private boolean isOpen = true;
+    private volatile boolean isOpen = true;
+    // current intmp file
+    private IHdfsFileWriter writer;
+    private Path intmpFilePath;
+    private String strIntmpFile;
+    private long fileCreateTime;
+    private int fileIndex = 0;
+    private long syncedRowCount = 0;
+    private long syncedLength = 0;
+    private long lastSyncTime;
+    // profiles written to current intmp file and waiting for sync
+    private final List<PendingProfile> pendingProfiles = new ArrayList<>();
+    private long pendingCount = 0;
+    private long pendingSize = 0;
 
     /**
      * Constructor
@@ -69,27 +90,19 @@ public class HdfsIdFile {
         this.context = context;
         this.idConfig = idConfig;
         this.strIdRootPath = strIdRootPath;
+        this.fileFormat = idConfig.parseFileFormat();
         this.createTime = System.currentTimeMillis();
         this.modifiedTime = createTime;
 
         String hdfsPath = context.getHdfsPath();
         this.intmpPath = new Path(hdfsPath + strIdRootPath + SUBPATH_INTMP);
-        this.fs = new DistributedFileSystem();
-        fs.initialize(new Path(hdfsPath).toUri(), new Configuration());
+        this.conf = new Configuration();
+        this.fs = FileSystem.newInstance(new Path(hdfsPath).toUri(), conf);
         fs.mkdirs(intmpPath);
         this.inPath = new Path(hdfsPath + strIdRootPath + SUBPATH_IN);
         fs.mkdirs(inPath);
         this.outPath = new Path(hdfsPath + strIdRootPath + SUBPATH_OUT);
         fs.mkdirs(outPath);
-
-        this.strIntmpFile = getFileName(context, createTime);
-        this.intmpFilePath = new Path(intmpPath, strIntmpFile);
-        // check if file exists
-        if (fs.exists(intmpFilePath)) {
-            // remove file
-            fs.delete(intmpFilePath, true);
-        }
-        this.intmpOutput = fs.create(intmpFilePath, true);
     }
 
     /**
@@ -105,27 +118,281 @@ public class HdfsIdFile {
     }
 
     /**
-     * close
+     * createWriter
      * 
+     * @param  fileFormat
+     * @param  fs
+     * @param  path
+     * @param  conf
+     * @param  idConfig
+     * @param  compression
+     * @param  blockSize   stripe size of orc file, or row group size of parquet file
+     * @return
      * @throws IOException
      */
-    public void close() {
-        this.isOpen = false;
-        if (intmpOutput != null) {
+    public static IHdfsFileWriter createWriter(HdfsFileFormat fileFormat, FileSystem fs, Path path,
+            Configuration conf, HdfsIdConfig idConfig, String compression, long blockSize) throws IOException {
+        switch (fileFormat) {
+            case ORC:
+                return new OrcHdfsFileWriter(fs, path, conf, idConfig, compression, blockSize);
+            case PARQUET:
+                return new ParquetHdfsFileWriter(path, conf, idConfig, compression, blockSize);
+            default:
+                return new TextHdfsFileWriter(fs, path);
+        }
+    }
+
+    /**
+     * write the formatted events of a profile
+     * 
+     * @param  profile
+     * @param  lines
+     * @param  sendTime
+     * @return          false if the file has been closed
+     */
+    public synchronized boolean write(DispatchProfile profile, List<byte[]> lines, long sendTime) {
+        if (!isOpen) {
+            return false;
+        }
+        long currentTime = System.currentTimeMillis();
+        try {
+            if (writer != null && this.needRoll(currentTime)) {
+                this.closeWriter();
+            }
+            pendingProfiles.add(new PendingProfile(profile, sendTime));
+            this.pendingCount += profile.getCount();
+            this.pendingSize += profile.getSize();
+            if (writer == null) {
+                this.openWriter(currentTime);
+            }
+            for (byte[] line : lines) {
+                writer.write(line);
+            }
+            this.sync(currentTime);
+            if (this.isPendingFull()) {
+                this.closeWriter();
+            }
+        } catch (Exception e) {
+            LOG.error(String.format("fail to write file:%s,error:%s", intmpFilePath, e.getMessage()), e);
+            this.abortWriter();
+        }
+        return true;
+    }
+
+    /**
+     * roll the intmp file by time, and sync it by the sync interval
+     */
+    public synchronized void checkFile() {
+        if (!isOpen || writer == null) {
+            return;
+        }
+        long currentTime = System.currentTimeMillis();
+        try {
+            if (this.needRoll(currentTime)) {
+                this.closeWriter();
+            } else {
+                this.sync(currentTime);
+            }
+        } catch (Exception e) {
+            LOG.error(String.format("fail to sync file:%s,error:%s", intmpFilePath, e.getMessage()), e);
+            this.abortWriter();
+        }
+    }
+
+    /**
+     * needRoll
+     * 
+     * @param  currentTime
+     * @return
+     * @throws IOException
+     */
+    private boolean needRoll(long currentTime) throws IOException {
+        return writer.getLength() >= context.getMaxIntmpFileSizeMb() * HiveSinkContext.MB_BYTES
+                || currentTime - fileCreateTime >= context.getFileRollIntervalSecond() * 1000L;
+    }
+
+    /**
+     * isPendingFull, the unacked events hold the buffer of the channel and the prefetch window of the source
+     * 
+     * @return
+     */
+    private boolean isPendingFull() {
+        long maxPendingCount = context.getMaxPendingCount();
+        long maxPendingSize = context.getMaxPendingSizeMb() * HiveSinkContext.MB_BYTES;
+        return (maxPendingCount > 0 && pendingCount >= maxPendingCount)
+                || (maxPendingSize > 0 && pendingSize >= maxPendingSize);
+    }
+
+    /**
+     * openWriter
+     * 
+     * @param  currentTime
+     * @throws IOException
+     */
+    private void openWriter(long currentTime) throws IOException {
+        String fileName = getFileName(context, currentTime);
+        // several files may be rolled in one second
+        this.strIntmpFile = fileIndex == 0 ? fileName : fileName + "." + fileIndex;
+        this.fileIndex++;
+        this.intmpFilePath = new Path(intmpPath, strIntmpFile);
+        this.fileCreateTime = currentTime;
+        this.lastSyncTime = currentTime;
+        this.syncedRowCount = 0;
+        this.syncedLength = 0;
+        this.writer = createWriter(fileFormat, fs, intmpFilePath, conf, idConfig, context.getFileCompression(),
+                context.getColumnarBlockSizeMb() * HiveSinkContext.MB_BYTES);
+    }
+
+    /**
+     * sync
+     * 
+     * @param  currentTime
+     * @throws IOException
+     */
+    private void sync(long currentTime) throws IOException {
+        HdfsSyncPolicy syncPolicy = context.getSyncPolicy();
+        if (pendingProfiles.isEmpty() || syncPolicy == HdfsSyncPolicy.NONE
+                || currentTime - lastSyncTime < context.getSyncIntervalMs()) {
+            return;
+        }
+        this.lastSyncTime = currentTime;
+        if (writer.sync(syncPolicy == HdfsSyncPolicy.HSYNC)) {
+            this.syncedRowCount = writer.getRowCount();
+            this.syncedLength = writer.getLength();
+            this.ackPendingProfiles();
+        }
+    }
+
+    /**
+     * close the intmp file and move it to "in" directory
+     */
+    private void closeWriter() {
+        boolean isClosed = false;
+        try {
+            writer.close();
+            isClosed = true;
+        } catch (Exception e) {
+            LOG.error(String.format("fail to close file:%s,error:%s", intmpFilePath, e.getMessage()), e);
+        }
+        this.finishWriter(isClosed);
+    }
+
+    /**
+     * abort the intmp file after an error, the file is kept only if it has synced lines,
+     * and it is truncated to the synced lines because the unsynced profiles are written again
+     */
+    private void abortWriter() {
+        if (writer != null) {
             try {
-                intmpOutput.flush();
-                intmpOutput.close();
-                if (intmpOutput.getPos() != 0) {
+                writer.close();
+            } catch (Exception e) {
+                LOG.error(String.format("fail to close file:%s,error:%s", intmpFilePath, e.getMessage()), e);
+            }
+        }
+        this.finishWriter(false);
+    }
+
+    /**
+     * finishWriter
+     * 
+     * @param isClosed
+     */
+    private void finishWriter(boolean isClosed) {
+        if (writer != null) {
+            long rowCount = isClosed ? writer.getRowCount() : syncedRowCount;
+            if (!isClosed && rowCount > 0) {
+                this.truncateToSynced();
+            }
+            try {
+                if (rowCount > 0) {
                     Path inFilePath = new Path(this.inPath, strIntmpFile);
                     fs.rename(intmpFilePath, inFilePath);
                 } else {
                     fs.delete(intmpFilePath, true);
                 }
-                this.fs.close();
             } catch (Exception e) {
                 LOG.error(e.getMessage(), e);
             }
         }
+        if (isClosed) {
+            this.ackPendingProfiles();
+        } else {
+            this.failPendingProfiles();
+        }
+        this.writer = null;
+        this.syncedRowCount = 0;
+        this.syncedLength = 0;
+    }
+
+    /**
+     * truncateToSynced, drop the unsynced lines flushed by closing the aborted file,
+     * the synced lines are copied to a new file if the file system can not truncate
+     */
+    private void truncateToSynced() {
+        try {
+            if (fs.getFileStatus(intmpFilePath).getLen() <= syncedLength) {
+                return;
+            }
+            try {
+                fs.truncate(intmpFilePath, syncedLength);
+                return;
+            } catch (UnsupportedOperationException | IOException e) {
+                LOG.warn("fail to truncate file:{},error:{}, copy the synced lines", intmpFilePath, e.getMessage());
+            }
+            Path syncedFilePath = new Path(intmpPath, strIntmpFile + ".synced");
+            try (FSDataInputStream input = fs.open(intmpFilePath);
+                    FSDataOutputStream output = fs.create(syncedFilePath, true)) {
+                IOUtils.copyBytes(input, output, syncedLength, false);
+            }
+            fs.delete(intmpFilePath, false);
+            fs.rename(syncedFilePath, intmpFilePath);
+        } catch (Exception e) {
+            LOG.error(String.format("fail to truncate file:%s,error:%s", intmpFilePath, e.getMessage()), e);
+        }
+    }
+
+    /**
+     * ackPendingProfiles
+     */
+    private void ackPendingProfiles() {
+        for (PendingProfile pending : pendingProfiles) {
+            context.addSendResultMetric(pending.profile, context.getTaskName(), true, pending.sendTime);
+            pending.profile.ack();
+        }
+        pendingProfiles.clear();
+        this.pendingCount = 0;
+        this.pendingSize = 0;
+    }
+
+    /**
+     * failPendingProfiles
+     */
+    private void failPendingProfiles() {
+        for (PendingProfile pending : pendingProfiles) {
+            context.addSendResultMetric(pending.profile, context.getTaskName(), false, pending.sendTime);
+            context.getDispatchQueue().offer(pending.profile);
+        }
+        pendingProfiles.clear();
+        this.pendingCount = 0;
+        this.pendingSize = 0;
+    }
+
+    /**
+     * close
+     */
+    public synchronized void close() {
+        if (!isOpen) {
+            return;
+        }
+        this.isOpen = false;
+        if (writer != null) {
+            this.closeWriter();
+        }
+        try {
+            this.fs.close();
+        } catch (Exception e) {
+            LOG.error(e.getMessage(), e);
+        }
     }
 
     /**
@@ -205,17 +472,8 @@ public class HdfsIdFile {
      * 
      * @return the intmpFilePath
      */
-    public Path getIntmpFilePath() {
-        return intmpFilePath;
-    }
-
-    /**
-     * get intmpOutput
-     * 
-     * @return the intmpOutput
-     */
-    public FSDataOutputStream getIntmpOutput() {
-        return intmpOutput;
+    public synchronized Path getIntmpFilePath() {
+        return writer == null ? null : intmpFilePath;
     }
 
     /**
@@ -232,7 +490,7 @@ public class HdfsIdFile {
      * 
      * @return the fs
      */
-    public DistributedFileSystem getFs() {
+    public FileSystem getFs() {
         return fs;
     }
 
@@ -241,8 +499,8 @@ public class HdfsIdFile {
      * 
      * @return the strIntmpFile
      */
-    public String getStrIntmpFile() {
-        return strIntmpFile;
+    public synchronized String getStrIntmpFile() {
+        return writer == null ? null : strIntmpFile;
     }
 
     /**
@@ -254,4 +512,28 @@ public class HdfsIdFile {
         return isOpen;
     }
 
+    /**
+     * get fileFormat
+     * 
+     * @return the fileFormat
+     */
+    public HdfsFileFormat getFileFormat() {
+        return fileFormat;
+    }
+
+    /**
+     * 
+     * PendingProfile
+     */
+    private static class PendingProfile {
+
+        private final DispatchProfile profile;
+        private final long sendTime;
+
+        PendingProfile(DispatchProfile profile, long sendTime) {
+            this.profile = profile;
+            this.sendTime = sendTime;
+        }
+    }
+
 }
@@ -0,0 +1,45 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sort.standalone.sink.hive;
+
+/**
+ * 
+ * HdfsSyncPolicy, how the written data of intmp file is persisted before the events are acked.<br>
+ * NONE: ack after the file is rolled or closed;<br>
+ * HFLUSH: ack after the data is flushed to the datanodes and visible to readers;<br>
+ * HSYNC: ack after the data is synced to the disks of the datanodes;<br>
+ */
+public enum HdfsSyncPolicy {
+
+    NONE, HFLUSH, HSYNC;
+
+    /**
+     * convert
+     * 
+     * @param  value
+     * @return       HFLUSH if the value is unknown
+     */
+    public static HdfsSyncPolicy convert(String value) {
+        for (HdfsSyncPolicy policy : values()) {
+            if (policy.name().equalsIgnoreCase(value)) {
+                return policy;
+            }
+        }
+        return HFLUSH;
+    }
+}
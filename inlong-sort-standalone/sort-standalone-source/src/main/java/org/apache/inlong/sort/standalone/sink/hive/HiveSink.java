@@ -76,7 +76,7 @@ public class HiveSink extends AbstractSink implements Configurable {
             }
             this.context.start();
             this.dispatchManager = new DispatchManager(parentContext, dispatchQueue);
-            this.scheduledPool = Executors.newScheduledThreadPool(2);
+            this.scheduledPool = Executors.newScheduledThreadPool(3);
             // dispatch
             this.scheduledPool.scheduleWithFixedDelay(new Runnable() {
 
@@ -107,6 +107,14 @@ public class HiveSink extends AbstractSink implements Configurable {
                     closeOvertimeFile();
                 }
             }, 0, this.context.getMaxFileOpenDelayMinute() * HiveSinkContext.MINUTE_MS, TimeUnit.MILLISECONDS);
+            // roll and sync file
+            long checkInterval = Math.max(this.context.getSyncIntervalMs(), HiveSinkContext.MIN_SYNC_CHECK_INTERVAL);
+            this.scheduledPool.scheduleWithFixedDelay(new Runnable() {
+
+                public void run() {
+                    checkHdfsIdFiles();
+                }
+            }, checkInterval, checkInterval, TimeUnit.MILLISECONDS);
         } catch (Exception e) {
             LOG.error(e.getMessage(), e);
         }
@@ -119,8 +127,13 @@ public class HiveSink extends AbstractSink implements Configurable {
     @Override
     public void stop() {
         try {
-            this.context.close();
             this.scheduledPool.shutdown();
+            // close the intmp files, so that the written profiles are acked
+            for (HdfsIdFile idFile : this.hdfsIdFileMap.values()) {
+                idFile.close();
+            }
+            this.hdfsIdFileMap.clear();
+            this.context.close();
             super.stop();
         } catch (Exception e) {
             LOG.error(e.getMessage(), e);
@@ -239,15 +252,23 @@ public class HiveSink extends AbstractSink implements Configurable {
         for (Entry<String, HdfsIdFile> entry : this.hdfsIdFileMap.entrySet()) {
             if (entry.getValue().getModifiedTime() < overtime) {
                 overtimePathSet.add(entry.getKey());
-                entry.getValue().close();
             }
         }
         // remove key
         for (String key : overtimePathSet) {
             HdfsIdFile idFile = this.hdfsIdFileMap.remove(key);
-            synchronized (idFile) {
+            if (idFile != null) {
                 idFile.close();
             }
         }
     }
+
+    /**
+     * checkHdfsIdFiles, roll and sync the intmp files in output pool
+     */
+    private void checkHdfsIdFiles() {
+        for (HdfsIdFile idFile : this.hdfsIdFileMap.values()) {
+            context.getOutputPool().execute(idFile::checkFile);
+        }
+    }
 }
\ No newline at end of file
@@ -66,9 +66,27 @@ public class HiveSinkContext extends SinkContext {
     public static final long DEFAULT_TOKEN_OVERTIME = 60L;
     public static final String KEY_MAX_OUTPUT_FILE_SIZE = "maxOutputFileSizeGb";
     public static final long DEFAULT_MAX_OUTPUT_FILE_SIZE = 2L;
+    public static final String KEY_MAX_INTMP_FILE_SIZE = "maxIntmpFileSizeMb";
+    public static final long DEFAULT_MAX_INTMP_FILE_SIZE = 256L;
+    public static final String KEY_FILE_ROLL_INTERVAL = "fileRollIntervalSecond";
+    public static final long DEFAULT_FILE_ROLL_INTERVAL = 300L;
+    public static final String KEY_SYNC_POLICY = "syncPolicy";
+    public static final String KEY_SYNC_INTERVAL = "syncIntervalMs";
+    public static final long DEFAULT_SYNC_INTERVAL = 1000L;
+    public static final long MIN_SYNC_CHECK_INTERVAL = 100L;
+    public static final String KEY_FILE_COMPRESSION = "fileCompression";
+    public static final String DEFAULT_FILE_COMPRESSION = "snappy";
+    public static final String KEY_COLUMNAR_BLOCK_SIZE = "columnarBlockSizeMb";
+    public static final long DEFAULT_COLUMNAR_BLOCK_SIZE = 64L;
+    // the intmp file is rolled when its unacked events reach these, below the prefetch window of the sort sdk
+    public static final String KEY_MAX_PENDING_COUNT = "maxPendingCount";
+    public static final long DEFAULT_MAX_PENDING_COUNT = 5000L;
+    public static final String KEY_MAX_PENDING_SIZE = "maxPendingSizeMb";
+    public static final long DEFAULT_MAX_PENDING_SIZE = 16L;
     public static final long MINUTE_MS = 60L * 1000;
     public static final long GB_BYTES = 1024L * 1024 * 1024;
     public static final long KB_BYTES = 1024L;
+    public static final long MB_BYTES = 1024L * 1024;
 
     // hive config
     public static final String KEY_HIVE_JDBC_URL = "hiveJdbcUrl";
@@ -86,6 +104,16 @@ public class HiveSinkContext extends SinkContext {
     private long fileArchiveDelayMinute = 2 * maxFileOpenDelayMinute;
     private long tokenOvertimeMinute = DEFAULT_TOKEN_OVERTIME;
     private long maxOutputFileSizeGb = DEFAULT_MAX_OUTPUT_FILE_SIZE;
+    // intmp file rolling and sync
+    private long maxIntmpFileSizeMb = DEFAULT_MAX_INTMP_FILE_SIZE;
+    private long fileRollIntervalSecond = DEFAULT_FILE_ROLL_INTERVAL;
+    private HdfsSyncPolicy syncPolicy = HdfsSyncPolicy.HFLUSH;
+    private long syncIntervalMs = DEFAULT_SYNC_INTERVAL;
+    // orc and parquet file
+    private String fileCompression = DEFAULT_FILE_COMPRESSION;
+    private long columnarBlockSizeMb = DEFAULT_COLUMNAR_BLOCK_SIZE;
+    private long maxPendingCount = DEFAULT_MAX_PENDING_COUNT;
+    private long maxPendingSizeMb = DEFAULT_MAX_PENDING_SIZE;
     // hive config
     private String hiveJdbcUrl;
     private String hiveDatabase;
@@ -160,6 +188,14 @@ public class HiveSinkContext extends SinkContext {
             this.fileArchiveDelayMinute = maxFileOpenDelayMinute + 1;
             this.tokenOvertimeMinute = parentContext.getLong(KEY_TOKEN_OVERTIME, DEFAULT_TOKEN_OVERTIME);
             this.maxOutputFileSizeGb = parentContext.getLong(KEY_MAX_OUTPUT_FILE_SIZE, DEFAULT_MAX_OUTPUT_FILE_SIZE);
+            this.maxIntmpFileSizeMb = parentContext.getLong(KEY_MAX_INTMP_FILE_SIZE, DEFAULT_MAX_INTMP_FILE_SIZE);
+            this.fileRollIntervalSecond = parentContext.getLong(KEY_FILE_ROLL_INTERVAL, DEFAULT_FILE_ROLL_INTERVAL);
+            this.syncPolicy = HdfsSyncPolicy.convert(parentContext.getString(KEY_SYNC_POLICY));
+            this.syncIntervalMs = parentContext.getLong(KEY_SYNC_INTERVAL, DEFAULT_SYNC_INTERVAL);
+            this.fileCompression = parentContext.getString(KEY_FILE_COMPRESSION, DEFAULT_FILE_COMPRESSION);
+            this.columnarBlockSizeMb = parentContext.getLong(KEY_COLUMNAR_BLOCK_SIZE, DEFAULT_COLUMNAR_BLOCK_SIZE);
+            this.maxPendingCount = parentContext.getLong(KEY_MAX_PENDING_COUNT, DEFAULT_MAX_PENDING_COUNT);
+            this.maxPendingSizeMb = parentContext.getLong(KEY_MAX_PENDING_SIZE, DEFAULT_MAX_PENDING_SIZE);
             // hive config
             this.hiveJdbcUrl = parentContext.getString(KEY_HIVE_JDBC_URL);
             this.hiveDatabase = parentContext.getString(KEY_HIVE_DATABASE);
@@ -383,6 +419,78 @@ public class HiveSinkContext extends SinkContext {
         return maxOutputFileSizeGb;
     }
 
+    /**
+     * get maxIntmpFileSizeMb
+     * 
+     * @return the maxIntmpFileSizeMb
+     */
+    public long getMaxIntmpFileSizeMb() {
+        return maxIntmpFileSizeMb;
+    }
+
+    /**
+     * get fileRollIntervalSecond
+     * 
+     * @return the fileRollIntervalSecond
+     */
+    public long getFileRollIntervalSecond() {
+        return fileRollIntervalSecond;
+    }
+
+    /**
+     * get syncPolicy
+     * 
+     * @return the syncPolicy
+     */
+    public HdfsSyncPolicy getSyncPolicy() {
+        return syncPolicy;
+    }
+
+    /**
+     * get syncIntervalMs
+     * 
+     * @return the syncIntervalMs
+     */
+    public long getSyncIntervalMs() {
+        return syncIntervalMs;
+    }
+
+    /**
+     * get fileCompression
+     * 
+     * @return the fileCompression
+     */
+    public String getFileCompression() {
+        return fileCompression;
+    }
+
+    /**
+     * get columnarBlockSizeMb
+     * 
+     * @return the columnarBlockSizeMb
+     */
+    public long getColumnarBlockSizeMb() {
+        return columnarBlockSizeMb;
+    }
+
+    /**
+     * get maxPendingCount
+     * 
+     * @return the maxPendingCount
+     */
+    public long getMaxPendingCount() {
+        return maxPendingCount;
+    }
+
+    /**
+     * get maxPendingSizeMb
+     * 
+     * @return the maxPendingSizeMb
+     */
+    public long getMaxPendingSizeMb() {
+        return maxPendingSizeMb;
+    }
+
     /**
      * get idConfigMap
      * 
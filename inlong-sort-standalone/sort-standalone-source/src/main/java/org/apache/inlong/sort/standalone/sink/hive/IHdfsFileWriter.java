@@ -0,0 +1,66 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sort.standalone.sink.hive;
+
+import java.io.IOException;
+
+/**
+ * 
+ * IHdfsFileWriter, writer of one intmp file
+ */
+public interface IHdfsFileWriter {
+
+    /**
+     * write a formatted line, the fields are separated by the separator of id config
+     * 
+     * @param  line
+     * @throws IOException
+     */
+    void write(byte[] line) throws IOException;
+
+    /**
+     * sync the written lines
+     * 
+     * @param  hsync       sync to the disks of datanodes, or else flush to the datanodes
+     * @return             false if the written lines can only be persisted by close
+     * @throws IOException
+     */
+    boolean sync(boolean hsync) throws IOException;
+
+    /**
+     * getRowCount
+     * 
+     * @return the count of written lines
+     */
+    long getRowCount();
+
+    /**
+     * getLength
+     * 
+     * @return             the bytes of written lines, before the compression of columnar file
+     * @throws IOException
+     */
+    long getLength() throws IOException;
+
+    /**
+     * close
+     * 
+     * @throws IOException
+     */
+    void close() throws IOException;
+}
@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sort.standalone.sink.hive;
+
+import org.apache.inlong.sort.standalone.utils.InlongLoggerFactory;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.ql.exec.vector.BytesColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
+import org.apache.orc.CompressionKind;
+import org.apache.orc.OrcFile;
+import org.apache.orc.TypeDescription;
+import org.apache.orc.Writer;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+
+/**
+ * 
+ * OrcHdfsFileWriter, the rows are buffered in a VectorizedRowBatch and written to the stripes.
+ */
+public class OrcHdfsFileWriter extends AbstractColumnarFileWriter {
+
+    public static final Logger LOG = InlongLoggerFactory.getLogger(OrcHdfsFileWriter.class);
+
+    private final Writer writer;
+    private final VectorizedRowBatch batch;
+    private final BytesColumnVector[] vectors;
+    private int row;
+
+    /**
+     * Constructor
+     * 
+     * @param  fs
+     * @param  path
+     * @param  conf
+     * @param  idConfig
+     * @param  compression
+     * @param  stripeSize
+     * @throws IOException
+     */
+    public OrcHdfsFileWriter(FileSystem fs, Path path, Configuration conf, HdfsIdConfig idConfig,
+            String compression, long stripeSize) throws IOException {
+        super(idConfig);
+        TypeDescription schema = TypeDescription.createStruct();
+        for (String fieldName : fieldNames) {
+            schema.addField(fieldName, TypeDescription.createString());
+        }
+        OrcFile.WriterOptions options = OrcFile.writerOptions(conf)
+                .fileSystem(fs)
+                .setSchema(schema)
+                .compress(parseCompression(compression))
+                .stripeSize(stripeSize)
+                .overwrite(true);
+        this.writer = OrcFile.createWriter(path, options);
+        this.batch = schema.createRowBatch();
+        this.vectors = new BytesColumnVector[fieldNames.length];
+        for (int i = 0; i < fieldNames.length; i++) {
+            vectors[i] = (BytesColumnVector) batch.cols[i];
+        }
+    }
+
+    /**
+     * parseCompression, zstd is not supported by this orc version and replaced by zlib.
+     * 
+     * @param  compression
+     * @return
+     */
+    public static CompressionKind parseCompression(String compression) {
+        String name = compression == null ? "" : compression.trim().toUpperCase();
+        if ("ZSTD".equals(name)) {
+            LOG.warn("orc file does not support zstd, use zlib instead");
+            return CompressionKind.ZLIB;
+        }
+        for (CompressionKind kind : CompressionKind.values()) {
+            if (kind.name().equals(name)) {
+                return kind;
+            }
+        }
+        return CompressionKind.SNAPPY;
+    }
+
+    @Override
+    protected void beginRow() {
+        row = batch.size++;
+    }
+
+    @Override
+    protected void setField(int column, byte[] bytes, int start, int length) {
+        vectors[column].setVal(row, bytes, start, length);
+    }
+
+    @Override
+    protected void setNull(int column) {
+        vectors[column].noNulls = false;
+        vectors[column].isNull[row] = true;
+    }
+
+    @Override
+    protected void endRow() throws IOException {
+        if (batch.size == batch.getMaxSize()) {
+            writer.addRowBatch(batch);
+            batch.reset();
+        }
+    }
+
+    /**
+     * close
+     * 
+     * @throws IOException
+     */
+    @Override
+    public void close() throws IOException {
+        if (batch.size > 0) {
+            writer.addRowBatch(batch);
+            batch.reset();
+        }
+        writer.close();
+    }
+}
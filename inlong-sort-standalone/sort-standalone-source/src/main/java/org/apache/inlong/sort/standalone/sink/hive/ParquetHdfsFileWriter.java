@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sort.standalone.sink.hive;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.example.data.simple.SimpleGroupFactory;
+import org.apache.parquet.hadoop.ParquetFileWriter;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.example.ExampleParquetWriter;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.OriginalType;
+import org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName;
+import org.apache.parquet.schema.Types;
+
+import java.io.IOException;
+
+/**
+ * 
+ * ParquetHdfsFileWriter, the rows are buffered in the row group and written to the column chunks.
+ */
+public class ParquetHdfsFileWriter extends AbstractColumnarFileWriter {
+
+    public static final String SCHEMA_NAME = "hive_schema";
+
+    private final ParquetWriter<Group> writer;
+    private final SimpleGroupFactory groupFactory;
+    private Group group;
+
+    /**
+     * Constructor
+     * 
+     * @param  path
+     * @param  conf
+     * @param  idConfig
+     * @param  compression
+     * @param  rowGroupSize
+     * @throws IOException
+     */
+    public ParquetHdfsFileWriter(Path path, Configuration conf, HdfsIdConfig idConfig,
+            String compression, long rowGroupSize) throws IOException {
+        super(idConfig);
+        Types.MessageTypeBuilder builder = Types.buildMessage();
+        for (String fieldName : fieldNames) {
+            builder.optional(PrimitiveTypeName.BINARY).as(OriginalType.UTF8).named(fieldName);
+        }
+        MessageType schema = builder.named(SCHEMA_NAME);
+        this.writer = ExampleParquetWriter.builder(path)
+                .withConf(conf)
+                .withType(schema)
+                .withCompressionCodec(parseCompression(compression))
+                .withRowGroupSize((int) Math.min(rowGroupSize, Integer.MAX_VALUE))
+                .withWriteMode(ParquetFileWriter.Mode.OVERWRITE)
+                .build();
+        this.groupFactory = new SimpleGroupFactory(schema);
+    }
+
+    /**
+     * parseCompression
+     * 
+     * @param  compression
+     * @return
+     */
+    public static CompressionCodecName parseCompression(String compression) {
+        String name = compression == null ? "" : compression.trim().toUpperCase();
+        if ("NONE".equals(name)) {
+            return CompressionCodecName.UNCOMPRESSED;
+        }
+        for (CompressionCodecName codec : CompressionCodecName.values()) {
+            if (codec.name().equals(name)) {
+                return codec;
+            }
+        }
+        return CompressionCodecName.SNAPPY;
+    }
+
+    @Override
+    protected void beginRow() {
+        group = groupFactory.newGroup();
+    }
+
+    @Override
+    protected void setField(int column, byte[] bytes, int start, int length) {
+        group.add(column, Binary.fromReusedByteArray(bytes, start, length));
+    }
+
+    @Override
+    protected void setNull(int column) {
+        // optional field without value
+    }
+
+    @Override
+    protected void endRow() throws IOException {
+        writer.write(group);
+        group = null;
+    }
+
+    /**
+     * close
+     * 
+     * @throws IOException
+     */
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
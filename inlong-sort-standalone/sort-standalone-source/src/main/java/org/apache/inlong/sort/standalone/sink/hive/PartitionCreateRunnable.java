@@ -30,7 +30,6 @@ import org.apache.hadoop.fs.FSDataOutputStream;
 import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
-import org.apache.hadoop.hdfs.DistributedFileSystem;
 import org.apache.inlong.sort.standalone.utils.InlongLoggerFactory;
 import org.slf4j.Logger;
 
@@ -153,10 +152,13 @@ public class PartitionCreateRunnable implements Runnable {
      * @throws FileNotFoundException
      */
     private void process(HdfsIdFile idFile) throws FileNotFoundException, IOException {
-        DistributedFileSystem fs = idFile.getFs();
+        FileSystem fs = idFile.getFs();
 
         // rename files in "intmp" directory to "in" directory.
-        FileStatus[] intmpFiles = fs.listStatus(idFile.getIntmpPath());
+        // columnar files are only readable after they are closed, and hdfs may not update the modification time
+        // or length of a file being written, so they are moved to "in" directory only by HdfsIdFile on closing.
+        boolean isColumnar = idFile.getFileFormat() != HdfsFileFormat.TEXT;
+        FileStatus[] intmpFiles = isColumnar ? new FileStatus[0] : fs.listStatus(idFile.getIntmpPath());
         long currentTime = System.currentTimeMillis();
         long fileArchiveDelayTime = currentTime
                 - context.getFileArchiveDelayMinute() * MINUTE_MS;
@@ -179,6 +181,17 @@ public class PartitionCreateRunnable implements Runnable {
             }
         }
 
+        // columnar files can not be concatenated, they are rolled by size and moved to "out" directory.
+        if (isColumnar) {
+            for (FileStatus fileStatus : inFiles) {
+                Path inFile = fileStatus.getPath();
+                if (fileStatus.getLen() > 0 && inFile.getName().lastIndexOf(HdfsIdFile.OUTTMP_FILE_POSTFIX) < 0) {
+                    fs.rename(inFile, new Path(idFile.getOutPath(), inFile.getName()));
+                }
+            }
+            inFiles = new FileStatus[0];
+        }
+
         // merge and copy files in "in" directory to "outtmp" file.
         long outputFileSize = 0;
         List<Path> concatInFiles = new ArrayList<>();
@@ -243,7 +256,7 @@ public class PartitionCreateRunnable implements Runnable {
      * @param  fs
      * @throws IOException
      */
-    private void concatInFiles2OuttmpFile(HdfsIdFile idFile, List<Path> concatInFiles, DistributedFileSystem fs)
+    private void concatInFiles2OuttmpFile(HdfsIdFile idFile, List<Path> concatInFiles, FileSystem fs)
             throws IOException {
         Path outtmpFilePath = new Path(idFile.getInPath(),
                 HdfsIdFile.getFileName(context, System.currentTimeMillis()) + HdfsIdFile.OUTTMP_FILE_POSTFIX);
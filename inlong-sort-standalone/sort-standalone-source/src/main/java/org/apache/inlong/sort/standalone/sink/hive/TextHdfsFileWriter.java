@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sort.standalone.sink.hive;
+
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+
+import java.io.IOException;
+
+/**
+ * 
+ * TextHdfsFileWriter, one line for one event
+ */
+public class TextHdfsFileWriter implements IHdfsFileWriter {
+
+    private final FSDataOutputStream output;
+    private long rowCount = 0;
+
+    /**
+     * Constructor
+     * 
+     * @param  fs
+     * @param  path
+     * @throws IOException
+     */
+    public TextHdfsFileWriter(FileSystem fs, Path path) throws IOException {
+        this.output = fs.create(path, true);
+    }
+
+    /**
+     * write
+     * 
+     * @param  line
+     * @throws IOException
+     */
+    @Override
+    public void write(byte[] line) throws IOException {
+        output.write(line);
+        output.writeByte(HdfsIdFile.SEPARATOR_MESSAGE);
+        rowCount++;
+    }
+
+    /**
+     * sync
+     * 
+     * @param  hsync
+     * @return
+     * @throws IOException
+     */
+    @Override
+    public boolean sync(boolean hsync) throws IOException {
+        if (hsync) {
+            output.hsync();
+        } else {
+            output.hflush();
+        }
+        return true;
+    }
+
+    /**
+     * getRowCount
+     * 
+     * @return
+     */
+    @Override
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * getLength
+     * 
+     * @return
+     * @throws IOException
+     */
+    @Override
+    public long getLength() throws IOException {
+        return output.getPos();
+    }
+
+    /**
+     * close
+     * 
+     * @throws IOException
+     */
+    @Override
+    public void close() throws IOException {
+        output.close();
+    }
+}
@@ -17,12 +17,14 @@
 
 package org.apache.inlong.sort.standalone.sink.hive;
 
-import org.apache.hadoop.fs.FSDataOutputStream;
 import org.apache.inlong.sort.standalone.channel.ProfileEvent;
 import org.apache.inlong.sort.standalone.dispatch.DispatchProfile;
 import org.apache.inlong.sort.standalone.utils.InlongLoggerFactory;
 import org.slf4j.Logger;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * 
  * WriteHdfsFileRunnable
@@ -51,32 +53,25 @@ public class WriteHdfsFileRunnable implements Runnable {
     }
 
     /**
-     * run
+     * run, the events are formatted out of the lock of file
      */
     @Override
     public void run() {
-        synchronized (idFile) {
-            if (!idFile.isOpen()) {
-                context.addSendResultMetric(profile, context.getTaskName(), false, sendTime);
-                context.getDispatchQueue().offer(profile);
-                return;
-            }
-            try {
-                IEventFormatHandler handler = context.getEventFormatHandler();
-                FSDataOutputStream output = idFile.getIntmpOutput();
-                for (ProfileEvent event : profile.getEvents()) {
-                    byte[] formatBytes = handler.format(event, idFile.getIdConfig());
-                    output.write(formatBytes);
-                    output.writeByte(HdfsIdFile.SEPARATOR_MESSAGE);
-                }
-                output.flush();
-                context.addSendResultMetric(profile, context.getTaskName(), true, sendTime);
-                profile.ack();
-            } catch (Exception e) {
-                LOG.error(e.getMessage(), e);
-                context.addSendResultMetric(profile, context.getTaskName(), false, sendTime);
-                context.getDispatchQueue().offer(profile);
+        List<byte[]> lines = new ArrayList<>(profile.getEvents().size());
+        try {
+            IEventFormatHandler handler = context.getEventFormatHandler();
+            for (ProfileEvent event : profile.getEvents()) {
+                lines.add(handler.format(event, idFile.getIdConfig()));
             }
+        } catch (Exception e) {
+            LOG.error(e.getMessage(), e);
+            context.addSendResultMetric(profile, context.getTaskName(), false, sendTime);
+            context.getDispatchQueue().offer(profile);
+            return;
+        }
+        if (!idFile.write(profile, lines, sendTime)) {
+            context.addSendResultMetric(profile, context.getTaskName(), false, sendTime);
+            context.getDispatchQueue().offer(profile);
         }
     }
 }
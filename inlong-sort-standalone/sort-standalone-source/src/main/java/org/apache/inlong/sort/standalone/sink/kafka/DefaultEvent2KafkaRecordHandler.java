@@ -81,7 +81,8 @@ public class DefaultEvent2KafkaRecordHandler implements IEvent2KafkaRecordHandle
         }
         outMsg.write(event.getBody());
         byte[] msgContent = outMsg.toByteArray();
-        ProducerRecord<String, byte[]> record = new ProducerRecord<>(idConfig.getTopic(), msgContent);
+        ProducerRecord<String, byte[]> record = new ProducerRecord<>(idConfig.getTopic(), idConfig.getRecordKey(),
+                msgContent);
         return record;
     }
 
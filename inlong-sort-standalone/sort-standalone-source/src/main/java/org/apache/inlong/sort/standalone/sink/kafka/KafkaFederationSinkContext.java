@@ -18,6 +18,7 @@
 package org.apache.inlong.sort.standalone.sink.kafka;
 
 import org.apache.commons.lang3.ClassUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.flume.Channel;
 import org.apache.flume.Context;
 import org.apache.inlong.common.pojo.sortstandalone.SortTaskConfig;
@@ -28,10 +29,12 @@ import org.apache.inlong.sort.standalone.config.pojo.CacheClusterConfig;
 import org.apache.inlong.sort.standalone.metrics.SortMetricItem;
 import org.apache.inlong.sort.standalone.metrics.audit.AuditUtils;
 import org.apache.inlong.sort.standalone.sink.SinkContext;
+import org.apache.inlong.sort.standalone.utils.Constants;
 import org.apache.inlong.sort.standalone.utils.InlongLoggerFactory;
 import org.slf4j.Logger;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -43,13 +46,18 @@ public class KafkaFederationSinkContext extends SinkContext {
 
     public static final Logger LOG = InlongLoggerFactory.getLogger(KafkaFederationSinkContext.class);
     public static final String KEY_EVENT_HANDLER = "eventHandler";
+    public static final String KEY_SEND_BATCH_SIZE = "sendBatchSize";
+    public static final int DEFAULT_SEND_BATCH_SIZE = 1;
+    private static final char METRIC_GROUP_SEPARATOR = '\u0001';
 
+    private final int sendBatchSize;
     private Context producerContext;
     private Map<String, KafkaIdConfig> idConfigMap = new ConcurrentHashMap<>();
     private List<CacheClusterConfig> clusterConfigList = new ArrayList<>();
 
     public KafkaFederationSinkContext(String sinkName, Context context, Channel channel) {
         super(sinkName, context, channel);
+        this.sendBatchSize = Math.max(1, sinkContext.getInteger(KEY_SEND_BATCH_SIZE, DEFAULT_SEND_BATCH_SIZE));
     }
 
     /** reload context */
@@ -161,6 +169,107 @@ public class KafkaFederationSinkContext extends SinkContext {
         metricItem.sendSize.addAndGet(size);
     }
 
+    /**
+     * addSendMetric of a batch, the events with the same dimensions are added together
+     * 
+     * @param events
+     */
+    public void addSendMetric(List<ProfileEvent> events) {
+        for (MetricGroup group : groupByDimensions(events)) {
+            SortMetricItem metricItem = this.getMetricItemSet().findMetricItem(group.dimensions);
+            metricItem.sendCount.addAndGet(group.count);
+            metricItem.sendSize.addAndGet(group.size);
+        }
+    }
+
+    /**
+     * addSendResultMetric of a batch, the events with the same dimensions are added together
+     * 
+     * @param events
+     * @param result
+     * @param sendTime
+     */
+    public void addSendResultMetric(List<ProfileEvent> events, boolean result, long sendTime) {
+        if (events.isEmpty()) {
+            return;
+        }
+        long currentTime = System.currentTimeMillis();
+        for (MetricGroup group : groupByDimensions(events)) {
+            SortMetricItem metricItem = this.getMetricItemSet().findMetricItem(group.dimensions);
+            if (!result) {
+                metricItem.sendFailCount.addAndGet(group.count);
+                metricItem.sendFailSize.addAndGet(group.size);
+                continue;
+            }
+            metricItem.sendSuccessCount.addAndGet(group.count);
+            metricItem.sendSuccessSize.addAndGet(group.size);
+            AuditUtils.add(AuditUtils.AUDIT_ID_SEND_SUCCESS, group.inlongGroupId, group.inlongStreamId,
+                    group.auditFormatTime, group.count, group.size);
+            if (sendTime > 0) {
+                metricItem.sinkDuration.addAndGet((currentTime - sendTime) * group.count);
+                metricItem.nodeDuration.addAndGet(currentTime * group.count - group.fetchTimeSum);
+                metricItem.wholeDuration.addAndGet(currentTime * group.count - group.rawLogTimeSum);
+            }
+        }
+    }
+
+    /**
+     * groupByDimensions
+     * 
+     * @param  events
+     * @return        the metric groups of the events
+     */
+    private Collection<MetricGroup> groupByDimensions(List<ProfileEvent> events) {
+        Map<String, MetricGroup> groups = new HashMap<>();
+        long auditFormatInterval = CommonPropertiesHolder.getAuditFormatInterval();
+        for (ProfileEvent event : events) {
+            String topic = event.getHeaders().get(Constants.TOPIC);
+            topic = StringUtils.isBlank(topic) ? event.getUid() : topic;
+            long msgTime = event.getRawLogTime();
+            long auditFormatTime = msgTime - msgTime % auditFormatInterval;
+            String groupKey =
+                    event.getUid() + METRIC_GROUP_SEPARATOR + topic + METRIC_GROUP_SEPARATOR + auditFormatTime;
+            MetricGroup group = groups.get(groupKey);
+            if (group == null) {
+                group = new MetricGroup(event, topic, auditFormatTime);
+                groups.put(groupKey, group);
+            }
+            group.count++;
+            group.size += event.getBody().length;
+            group.fetchTimeSum += event.getFetchTime();
+            group.rawLogTimeSum += msgTime;
+        }
+        return groups.values();
+    }
+
+    /**
+     * 
+     * MetricGroup, the events of a batch with the same metric dimensions
+     */
+    private class MetricGroup {
+
+        private final Map<String, String> dimensions = new HashMap<>();
+        private final String inlongGroupId;
+        private final String inlongStreamId;
+        private final long auditFormatTime;
+        private long count;
+        private long size;
+        private long fetchTimeSum;
+        private long rawLogTimeSum;
+
+        MetricGroup(ProfileEvent event, String topic, long auditFormatTime) {
+            this.inlongGroupId = event.getInlongGroupId();
+            this.inlongStreamId = event.getInlongStreamId();
+            this.auditFormatTime = auditFormatTime;
+            dimensions.put(SortMetricItem.KEY_CLUSTER_ID, getClusterId());
+            dimensions.put(SortMetricItem.KEY_TASK_NAME, getTaskName());
+            fillInlongId(event, dimensions);
+            dimensions.put(SortMetricItem.KEY_SINK_ID, getSinkName());
+            dimensions.put(SortMetricItem.KEY_SINK_DATA_ID, topic);
+            dimensions.put(SortMetricItem.KEY_MESSAGE_TIME, String.valueOf(auditFormatTime));
+        }
+    }
+
     /**
      * addReadFailMetric
      */
@@ -216,6 +325,15 @@ public class KafkaFederationSinkContext extends SinkContext {
         }
     }
 
+    /**
+     * get sendBatchSize
+     * 
+     * @return the max count of the events sent in one transaction
+     */
+    public int getSendBatchSize() {
+        return sendBatchSize;
+    }
+
     /**
      * create IEvent2ProducerRecordHandler
      * 
@@ -30,6 +30,8 @@ import org.apache.inlong.sort.standalone.utils.Constants;
 import org.apache.inlong.sort.standalone.utils.InlongLoggerFactory;
 import org.slf4j.Logger;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -85,40 +87,43 @@ public class KafkaFederationWorker extends Thread {
     @Override
     public void run() {
         LOG.info("worker {} start to run, the state is {}", this.workerName, status.name());
+        int sendBatchSize = context.getSendBatchSize();
         while (status != LifecycleState.STOP) {
             Transaction tx = null;
             try {
                 Channel channel = context.getChannel();
                 tx = channel.getTransaction();
                 tx.begin();
-                Event rowEvent = channel.take();
+                KafkaSendBatch batch = new KafkaSendBatch(context, tx);
+                List<ProfileEvent> events = new ArrayList<>(sendBatchSize);
+                for (int i = 0; i < sendBatchSize; i++) {
+                    Event rowEvent = channel.take();
+                    if (rowEvent == null) {
+                        break;
+                    }
+                    if (!(rowEvent instanceof ProfileEvent)) {
+                        LOG.error("The type of row event is not compatible with ProfileEvent");
+                        continue;
+                    }
+                    ProfileEvent profileEvent = (ProfileEvent) rowEvent;
+                    String topic = this.context.getTopic(profileEvent.getUid());
+                    if (StringUtils.isBlank(topic)) {
+                        batch.discard(profileEvent);
+                        continue;
+                    }
+                    profileEvent.getHeaders().put(Constants.TOPIC, topic);
+                    events.add(profileEvent);
+                }
 
-                // if event is null, close tx and sleep for a while.
-                if (rowEvent == null) {
+                // if batch is empty, close tx and sleep for a while.
+                if (batch.getEventCount() == 0 && events.isEmpty()) {
                     tx.commit();
                     tx.close();
                     sleepOneInterval();
                     continue;
                 }
-                if (!(rowEvent instanceof ProfileEvent)) {
-                    tx.commit();
-                    tx.close();
-                    LOG.error("The type of row event is not compatible with ProfileEvent");
-                    continue;
-                }
-
-                ProfileEvent profileEvent = (ProfileEvent) rowEvent;
-                String topic = this.context.getTopic(profileEvent.getUid());
-                if (StringUtils.isBlank(topic)) {
-                    this.context.addSendResultMetric(profileEvent, profileEvent.getUid(),
-                            false, System.currentTimeMillis());
-                    profileEvent.ack();
-                    tx.commit();
-                    tx.close();
-                }
-                profileEvent.getHeaders().put(Constants.TOPIC, topic);
-                this.context.addSendMetric(profileEvent, topic);
-                this.producerFederation.send(profileEvent, tx);
+                this.context.addSendMetric(events);
+                this.producerFederation.send(events, batch);
             } catch (Exception e) {
                 LOG.error(e.getMessage(), e);
                 if (tx != null) {
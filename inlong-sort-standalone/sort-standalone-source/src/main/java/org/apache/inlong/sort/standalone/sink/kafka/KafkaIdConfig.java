@@ -32,6 +32,11 @@ public class KafkaIdConfig {
     public static final String KEY_DATA_TYPE = "dataType";
     public static final String KEY_SEPARATOR = "separator";
     public static final String DEFAULT_SEPARATOR = "|";
+    public static final String KEY_PARTITION_KEY = "partitionKey";
+    // no record key, the partitioner sticks to a partition until the batch is full
+    public static final String PARTITION_KEY_NONE = "none";
+    // the record key is the uid, so the records of one inlong stream stick to one partition
+    public static final String PARTITION_KEY_STREAM = "inlongStreamId";
 
     private String inlongGroupId;
     private String inlongStreamId;
@@ -39,6 +44,7 @@ public class KafkaIdConfig {
     private String separator = "|";
     private String topic;
     private DataType dataType = DataType.TEXT;
+    private String partitionKey = PARTITION_KEY_NONE;
 
     /**
      * Constructor
@@ -60,6 +66,7 @@ public class KafkaIdConfig {
         this.topic = idParam.getOrDefault(Constants.TOPIC, uid);
         this.dataType = DataType
                 .convert(idParam.getOrDefault(KafkaIdConfig.KEY_DATA_TYPE, DataType.TEXT.value()));
+        this.partitionKey = idParam.getOrDefault(KafkaIdConfig.KEY_PARTITION_KEY, PARTITION_KEY_NONE);
     }
 
     /**
@@ -170,4 +177,30 @@ public class KafkaIdConfig {
         this.dataType = dataType;
     }
 
+    /**
+     * get partitionKey
+     * 
+     * @return the partitionKey
+     */
+    public String getPartitionKey() {
+        return partitionKey;
+    }
+
+    /**
+     * set partitionKey
+     * 
+     * @param partitionKey the partitionKey to set
+     */
+    public void setPartitionKey(String partitionKey) {
+        this.partitionKey = partitionKey;
+    }
+
+    /**
+     * getRecordKey
+     * 
+     * @return the key of the producer record, null if the records are not keyed
+     */
+    public String getRecordKey() {
+        return PARTITION_KEY_STREAM.equals(partitionKey) ? uid : null;
+    }
 }
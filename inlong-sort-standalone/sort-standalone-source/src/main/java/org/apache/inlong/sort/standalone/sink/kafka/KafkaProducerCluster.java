@@ -20,12 +20,10 @@ package org.apache.inlong.sort.standalone.sink.kafka;
 import com.google.common.base.Preconditions;
 
 import org.apache.flume.Context;
-import org.apache.flume.Transaction;
 import org.apache.flume.lifecycle.LifecycleAware;
 import org.apache.flume.lifecycle.LifecycleState;
 import org.apache.inlong.sort.standalone.channel.ProfileEvent;
 import org.apache.inlong.sort.standalone.config.pojo.CacheClusterConfig;
-import org.apache.inlong.sort.standalone.utils.Constants;
 import org.apache.inlong.sort.standalone.utils.InlongLoggerFactory;
 import org.apache.kafka.clients.producer.KafkaProducer;
 import org.apache.kafka.clients.producer.ProducerConfig;
@@ -34,7 +32,7 @@ import org.apache.kafka.common.serialization.ByteArraySerializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.slf4j.Logger;
 
-import java.io.IOException;
+import java.util.List;
 import java.util.Properties;
 
 /** wrapper of kafka producer */
@@ -119,46 +117,30 @@ public class KafkaProducerCluster implements LifecycleAware {
     }
 
     /**
-     * Send data
+     * Send a batch of events, the transaction of the batch is completed by the callbacks
      *
-     * @param  profileEvent data to send
-     * @return              boolean
-     * @throws IOException
+     * @param  events events to send
+     * @param  batch  batch of the transaction
+     * @return        boolean
      */
-    public boolean send(ProfileEvent profileEvent, Transaction tx) throws IOException {
-        String topic = profileEvent.getHeaders().get(Constants.TOPIC);
-        ProducerRecord<String, byte[]> record = handler.parse(sinkContext, profileEvent);
-        long sendTime = System.currentTimeMillis();
-        // check
-        if (record == null) {
-            tx.commit();
-            profileEvent.ack();
-            tx.close();
-            sinkContext.addSendResultMetric(profileEvent, topic, false, sendTime);
-            return true;
-        }
+    public boolean send(List<ProfileEvent> events, KafkaSendBatch batch) {
         try {
-            producer.send(record,
-                    (metadata, ex) -> {
-                        if (ex == null) {
-                            tx.commit();
-                            sinkContext.addSendResultMetric(profileEvent, topic, true, sendTime);
-                            profileEvent.ack();
-                        } else {
-                            LOG.error(String.format("send failed, topic is %s, partition is %s",
-                                    metadata.topic(), metadata.partition()), ex);
-                            tx.rollback();
-                            sinkContext.addSendResultMetric(profileEvent, topic, false, sendTime);
-                        }
-                        tx.close();
-                    });
+            for (ProfileEvent profileEvent : events) {
+                ProducerRecord<String, byte[]> record = handler.parse(sinkContext, profileEvent);
+                // check
+                if (record == null) {
+                    batch.discard(profileEvent);
+                    continue;
+                }
+                producer.send(record, batch.add(profileEvent));
+            }
             return true;
         } catch (Exception e) {
-            tx.rollback();
-            tx.close();
             LOG.error(e.getMessage(), e);
-            sinkContext.addSendResultMetric(profileEvent, topic, false, sendTime);
+            batch.fail(e);
             return false;
+        } finally {
+            batch.seal();
         }
     }
 
@@ -19,13 +19,11 @@ package org.apache.inlong.sort.standalone.sink.kafka;
 
 import com.google.common.base.Preconditions;
 
-import org.apache.flume.Transaction;
 import org.apache.inlong.sort.standalone.channel.ProfileEvent;
 import org.apache.inlong.sort.standalone.config.pojo.CacheClusterConfig;
 import org.apache.inlong.sort.standalone.utils.InlongLoggerFactory;
 import org.slf4j.Logger;
 
-import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
@@ -137,14 +135,13 @@ public class KafkaProducerFederation implements Runnable {
     }
 
     /**
-     * send event
+     * send a batch of events
      *
-     * @param  profileEvent event to send
-     * @param  tx           transaction
-     * @return              send result
-     * @throws IOException
+     * @param  events events to send
+     * @param  batch  batch of the transaction
+     * @return        send result
      */
-    public boolean send(ProfileEvent profileEvent, Transaction tx) throws IOException {
+    public boolean send(List<ProfileEvent> events, KafkaSendBatch batch) {
         int currentIndex = clusterIndex.getAndIncrement();
         if (currentIndex > Integer.MAX_VALUE / 2) {
             clusterIndex.set(0);
@@ -153,7 +150,7 @@ public class KafkaProducerFederation implements Runnable {
         int currentSize = currentClusterList.size();
         int realIndex = currentIndex % currentSize;
         KafkaProducerCluster clusterProducer = currentClusterList.get(realIndex);
-        return clusterProducer.send(profileEvent, tx);
+        return clusterProducer.send(events, batch);
     }
 
     /** Init ScheduledExecutorService with fix reload rate {@link #reloadInterval}. */
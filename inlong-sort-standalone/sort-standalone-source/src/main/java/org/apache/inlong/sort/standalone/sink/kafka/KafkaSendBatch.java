@@ -0,0 +1,160 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sort.standalone.sink.kafka;
+
+import org.apache.flume.Transaction;
+import org.apache.inlong.sort.standalone.channel.ProfileEvent;
+import org.apache.inlong.sort.standalone.utils.InlongLoggerFactory;
+import org.apache.kafka.clients.producer.Callback;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.slf4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 
+ * KafkaSendBatch, the events taken in one transaction.<br>
+ * The transaction is committed once after the callbacks of all the records are completed,
+ * and is rolled back if any record fails, so the whole batch is sent again.
+ */
+public class KafkaSendBatch implements Callback {
+
+    public static final Logger LOG = InlongLoggerFactory.getLogger(KafkaSendBatch.class);
+
+    private final KafkaFederationSinkContext context;
+    private final Transaction tx;
+    private final List<ProfileEvent> sendEvents = new ArrayList<>();
+    private final List<ProfileEvent> discardEvents = new ArrayList<>();
+    // one more count for sealing, the batch is not completed before all the records are sent
+    private final AtomicInteger pendingCount = new AtomicInteger(1);
+    private volatile Exception failure;
+    private long sendTime;
+
+    /**
+     * Constructor
+     * 
+     * @param context
+     * @param tx
+     */
+    public KafkaSendBatch(KafkaFederationSinkContext context, Transaction tx) {
+        this.context = context;
+        this.tx = tx;
+    }
+
+    /**
+     * add an event to send
+     * 
+     * @param  event
+     * @return       the callback of the record of the event
+     */
+    public Callback add(ProfileEvent event) {
+        if (sendEvents.isEmpty()) {
+            this.sendTime = System.currentTimeMillis();
+        }
+        this.sendEvents.add(event);
+        this.pendingCount.incrementAndGet();
+        return this;
+    }
+
+    /**
+     * add an event which can not be sent, it is acked as a failed event after the batch is committed
+     * 
+     * @param event
+     */
+    public void discard(ProfileEvent event) {
+        this.discardEvents.add(event);
+    }
+
+    /**
+     * fail the batch without callback, e.g. the producer throws exception when sending
+     * 
+     * @param e
+     */
+    public void fail(Exception e) {
+        this.failure = e;
+    }
+
+    /**
+     * seal the batch after all the records are sent
+     */
+    public void seal() {
+        if (pendingCount.decrementAndGet() == 0) {
+            this.complete();
+        }
+    }
+
+    /**
+     * onCompletion
+     * 
+     * @param metadata
+     * @param exception
+     */
+    @Override
+    public void onCompletion(RecordMetadata metadata, Exception exception) {
+        if (exception != null) {
+            this.failure = exception;
+        }
+        if (pendingCount.decrementAndGet() == 0) {
+            this.complete();
+        }
+    }
+
+    /**
+     * complete
+     */
+    private void complete() {
+        try {
+            Exception e = this.failure;
+            if (e == null) {
+                tx.commit();
+                context.addSendResultMetric(sendEvents, true, sendTime);
+                context.addSendResultMetric(discardEvents, false, sendTime);
+                sendEvents.forEach(ProfileEvent::ack);
+                discardEvents.forEach(ProfileEvent::ack);
+            } else {
+                LOG.error(String.format("send batch failed, rollback %d events", getEventCount()), e);
+                tx.rollback();
+                context.addSendResultMetric(sendEvents, false, sendTime);
+            }
+        } catch (Throwable t) {
+            LOG.error(t.getMessage(), t);
+        } finally {
+            tx.close();
+        }
+    }
+
+    /**
+     * getEventCount
+     * 
+     * @return the count of the events in the batch
+     */
+    public int getEventCount() {
+        return sendEvents.size() + discardEvents.size();
+    }
+
+    /**
+     * get sendEvents
+     * 
+     * @return the events to send
+     */
+    public List<ProfileEvent> getSendEvents() {
+        return sendEvents;
+    }
+}
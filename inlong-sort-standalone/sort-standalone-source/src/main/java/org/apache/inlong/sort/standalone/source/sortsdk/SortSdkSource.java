@@ -18,6 +18,7 @@
 package org.apache.inlong.sort.standalone.source.sortsdk;
 
 import org.apache.commons.lang3.ClassUtils;
+import org.apache.flume.Channel;
 import org.apache.flume.Context;
 import org.apache.flume.EventDrivenSource;
 import org.apache.flume.conf.Configurable;
@@ -29,6 +30,7 @@ import org.apache.inlong.sdk.sort.api.SortClient;
 import org.apache.inlong.sdk.sort.api.SortClientConfig;
 import org.apache.inlong.sdk.sort.api.SortClientFactory;
 import org.apache.inlong.sort.standalone.admin.ConsumerServiceMBean;
+import org.apache.inlong.sort.standalone.channel.BufferQueueChannel;
 import org.apache.inlong.sort.standalone.config.holder.CommonPropertiesHolder;
 import org.apache.inlong.sort.standalone.config.holder.ManagerUrlHandler;
 import org.apache.inlong.sort.standalone.config.holder.SortClusterConfigHolder;
@@ -36,6 +38,7 @@ import org.apache.inlong.sort.standalone.config.holder.SortClusterConfigType;
 import org.apache.inlong.sort.standalone.config.holder.SortSourceConfigType;
 import org.apache.inlong.sort.standalone.config.loader.ClassResourceQueryConsumeConfig;
 import org.apache.inlong.sort.standalone.utils.FlumeConfigGenerator;
+import org.apache.inlong.sort.standalone.utils.SizeSemaphore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -88,6 +91,9 @@ public final class SortSdkSource extends AbstractSource
     private static final String KEY_SORT_SDK_CLIENT_NUM = "sortSdkClientNum";
     private static final int DEFAULT_SORT_SDK_CLIENT_NUM = 1;
 
+    private static final String KEY_SORT_SDK_CREDIT_INTERVAL_MS = "sortSdkCreditIntervalMs";
+    private static final long DEFAULT_SORT_SDK_CREDIT_INTERVAL_MS = 100L;
+
     private String taskName;
 
     // Context of SortSdkSource.
@@ -102,6 +108,9 @@ public final class SortSdkSource extends AbstractSource
     // Executor for config reloading.
     private ScheduledExecutorService pool;
 
+    // Executor for credit publishing, apart from the reloading which may take long.
+    private ScheduledExecutorService creditPool;
+
     // {@link SortClient}.
     private List<SortClient> sortClients = new ArrayList<>();
 
@@ -115,14 +124,59 @@ public final class SortSdkSource extends AbstractSource
         for (int i = 0; i < sortSdkClientNum; i++) {
             this.sortClients.add(this.newClient(taskName));
         }
+        long creditInterval = CommonPropertiesHolder.getLong(KEY_SORT_SDK_CREDIT_INTERVAL_MS,
+                DEFAULT_SORT_SDK_CREDIT_INTERVAL_MS);
+        this.creditPool = Executors.newSingleThreadScheduledExecutor();
+        creditPool.scheduleWithFixedDelay(this::publishCredit, creditInterval, creditInterval,
+                TimeUnit.MILLISECONDS);
     }
 
     /**
-     * Stop {@link #pool} and close all {@link SortClient}.
+     * Publish the credit of this sort task to its clients.
+     *
+     * <p>
+     * The sinks drain the channels of this task, so the free buffer of the channels is the capacity the sinks can
+     * still take. The global buffer shared by all the tasks is used instead when it is tighter.
+     * </p>
+     */
+    private void publishCredit() {
+        try {
+            long available = 1;
+            long capacity = 1;
+            for (Channel channel : getChannelProcessor().getSelector().getAllChannels()) {
+                if (channel instanceof BufferQueueChannel) {
+                    BufferQueueChannel bufferChannel = (BufferQueueChannel) channel;
+                    if (bufferChannel.availablePermits() * capacity < available * bufferChannel.maxSizeKb()) {
+                        available = bufferChannel.availablePermits();
+                        capacity = bufferChannel.maxSizeKb();
+                    }
+                }
+            }
+            SizeSemaphore globalSize =
+                    BufferQueueChannel.getGlobalBufferQueueSizeKb(CommonPropertiesHolder.getContext());
+            if (globalSize.availablePermits() * capacity < available * globalSize.maxSize()) {
+                available = globalSize.availablePermits();
+                capacity = globalSize.maxSize();
+            }
+            for (SortClient sortClient : sortClients) {
+                if (sortClient != null) {
+                    sortClient.updateCredit(available, capacity);
+                }
+            }
+        } catch (Throwable t) {
+            LOG.error("Got one throwable when publish credit of task:{}", taskName, t);
+        }
+    }
+
+    /**
+     * Stop {@link #pool}, {@link #creditPool} and close all {@link SortClient}.
      */
     @Override
     public void stop() {
         pool.shutdownNow();
+        if (creditPool != null) {
+            creditPool.shutdownNow();
+        }
         LOG.info("Close sort client {}.", taskName);
         for (SortClient sortClient : sortClients) {
             sortClient.getConfig().setStopConsume(true);
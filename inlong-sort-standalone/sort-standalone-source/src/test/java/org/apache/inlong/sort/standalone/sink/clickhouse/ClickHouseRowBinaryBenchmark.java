@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sort.standalone.sink.clickhouse;
+
+import org.apache.commons.math3.util.Pair;
+import org.apache.inlong.sort.standalone.channel.ProfileEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import ru.yandex.clickhouse.settings.ClickHouseProperties;
+import ru.yandex.clickhouse.util.ClickHouseRowBinaryStream;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Client side cost of one dispatch profile of 100 events with 7 fields,
+ * binding the JDBC parameters of {@link DefaultEventHandler} against encoding RowBinary rows.
+ * The JDBC statement only consumes the parameters, so the text formatting of the driver
+ * and the parsing of ClickHouse are not counted in the JDBC benchmark.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClickHouseRowBinaryBenchmark {
+
+    private static final String[] DB_FIELDS = {"id", "name", "price", "flag", "ts", "ftime", "state", "code",
+            "extinfo"};
+    private static final int[] JDBC_TYPES = {Types.INTEGER, Types.VARCHAR,
+            Types.NUMERIC, Types.TINYINT, Types.TIMESTAMP, Types.TIMESTAMP,
+            Types.VARCHAR, Types.VARCHAR, Types.VARCHAR};
+    private static final String[] DB_TYPES = {"Int32", "String", "Decimal(10, 2)", "UInt8", "DateTime",
+            "DateTime", "Enum8('a' = 1, 'b' = 2)", "FixedString(4)", "String"};
+
+    private final DefaultEventHandler jdbcHandler = new DefaultEventHandler();
+    private final RowBinaryEventHandler rowBinaryHandler = new RowBinaryEventHandler();
+    private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    private final ClickHouseRowBinaryStream stream = new ClickHouseRowBinaryStream(output,
+            TimeZone.getDefault(), new ClickHouseProperties());
+    private ClickHouseIdConfig idConfig;
+    private List<ProfileEvent> events;
+    private PreparedStatement pstat;
+    private Blackhole parameterConsumer;
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        idConfig = TestRowBinaryEventHandler.prepareIdConfig(DB_FIELDS, DB_TYPES);
+        for (int i = 0; i < JDBC_TYPES.length; i++) {
+            idConfig.getDbFieldList().set(i, new Pair<>(DB_FIELDS[i], JDBC_TYPES[i]));
+        }
+        events = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            events.add(TestRowBinaryEventHandler.prepareEvent(
+                    i + "|name" + i + "|" + i + ".25|1|2023-01-02 03:04:05|b|code", System.currentTimeMillis()));
+        }
+        parameterConsumer = blackhole;
+        pstat = (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{PreparedStatement.class}, (proxy, method, args) -> {
+                    if (args != null) {
+                        parameterConsumer.consume(args);
+                    }
+                    return null;
+                });
+    }
+
+    @Benchmark
+    public void jdbcParameters() throws Exception {
+        for (ProfileEvent event : events) {
+            Map<String, String> columnValueMap = jdbcHandler.parse(idConfig, event);
+            jdbcHandler.setValue(idConfig, columnValueMap, pstat);
+            pstat.addBatch();
+        }
+    }
+
+    @Benchmark
+    public void rowBinary(Blackhole blackhole) throws Exception {
+        output.reset();
+        for (ProfileEvent event : events) {
+            rowBinaryHandler.encode(idConfig, event, stream);
+        }
+        blackhole.consume(output.size());
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder()
+                .include(ClickHouseRowBinaryBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sort.standalone.sink.clickhouse;
+
+import org.apache.commons.math3.util.Pair;
+import org.apache.inlong.sort.standalone.channel.ProfileEvent;
+import org.apache.inlong.sort.standalone.utils.Constants;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import ru.yandex.clickhouse.settings.ClickHouseProperties;
+import ru.yandex.clickhouse.util.ClickHouseRowBinaryInputStream;
+import ru.yandex.clickhouse.util.ClickHouseRowBinaryStream;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Types;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+
+public class TestRowBinaryEventHandler {
+
+    private static final String[] DB_FIELDS = {"id", "name", "price", "flag", "ts", "ftime", "state", "code",
+            "missing", "extinfo"};
+    private static final String[] DB_TYPES = {"Int32", "String", "Decimal(10, 2)", "Nullable(UInt8)", "DateTime",
+            "DateTime64(3)", "Enum8('a' = 1, 'b' = 2)", "FixedString(4)", "Int64", "LowCardinality(String)"};
+
+    private RowBinaryEventHandler handler;
+    private ByteArrayOutputStream output;
+    private ClickHouseRowBinaryStream stream;
+
+    @Before
+    public void setUp() {
+        handler = new RowBinaryEventHandler();
+        output = new ByteArrayOutputStream();
+        stream = new ClickHouseRowBinaryStream(output, TimeZone.getDefault(), new ClickHouseProperties());
+    }
+
+    public static ClickHouseIdConfig prepareIdConfig(String[] dbFields, String[] dbTypes) {
+        ClickHouseIdConfig idConfig = new ClickHouseIdConfig();
+        idConfig.setInlongGroupId("testGroup");
+        idConfig.setInlongStreamId("testStream");
+        idConfig.setTableName("test_table");
+        idConfig.setContentFieldList(Arrays.asList("id", "name", "price", "flag", "ts", "state", "code"));
+        List<Pair<String, Integer>> dbFieldList = new ArrayList<>();
+        for (String dbField : dbFields) {
+            dbFieldList.add(new Pair<>(dbField, Types.VARCHAR));
+        }
+        idConfig.setDbFieldList(dbFieldList);
+        idConfig.setDbFieldTypeNameList(Arrays.asList(dbTypes));
+        return idConfig;
+    }
+
+    public static ProfileEvent prepareEvent(String body, long msgTime) {
+        Map<String, String> headers = new HashMap<>();
+        headers.put(Constants.INLONG_GROUP_ID, "testGroup");
+        headers.put(Constants.INLONG_STREAM_ID, "testStream");
+        headers.put(Constants.HEADER_KEY_MSG_TIME, String.valueOf(msgTime));
+        headers.put(DefaultEventHandler.KEY_EXTINFO, "ip=127.0.0.1");
+        return new ProfileEvent(headers, body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        ClickHouseIdConfig idConfig = prepareIdConfig(DB_FIELDS, DB_TYPES);
+        Assert.assertTrue(handler.isSupported(idConfig));
+        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+        long ts = dateFormat.parse("2023-01-02 03:04:05").getTime();
+        long msgTime = dateFormat.parse("2023-01-02 03:00:00").getTime();
+        handler.encode(idConfig, prepareEvent("7|alice|12.345|1|2023-01-02 03:04:05|b|ab", msgTime), stream);
+        // invalid values and empty fields are the default values
+        handler.encode(idConfig, prepareEvent("x|bob||||a|", msgTime), stream);
+
+        ClickHouseRowBinaryInputStream input = new ClickHouseRowBinaryInputStream(
+                new ByteArrayInputStream(output.toByteArray()), TimeZone.getDefault(), new ClickHouseProperties());
+        Assert.assertEquals(7, input.readInt32());
+        Assert.assertEquals("alice", input.readString());
+        Assert.assertEquals(new BigDecimal("12.35"), input.readDecimal64(2));
+        Assert.assertFalse(input.readIsNull());
+        Assert.assertEquals(1, input.readUInt8());
+        Assert.assertEquals(ts, input.readDateTime().getTime());
+        Assert.assertEquals(msgTime, input.readInt64());
+        Assert.assertEquals(2, input.readInt8());
+        byte[] code = new byte[4];
+        input.readBytes(code);
+        Assert.assertArrayEquals(new byte[]{'a', 'b', 0, 0}, code);
+        Assert.assertEquals(0L, input.readInt64());
+        Assert.assertEquals("extinfo=ip=127.0.0.1", input.readString());
+
+        Assert.assertEquals(0, input.readInt32());
+        Assert.assertEquals("bob", input.readString());
+        Assert.assertEquals(0, BigDecimal.ZERO.compareTo(input.readDecimal64(2)));
+        Assert.assertFalse(input.readIsNull());
+        Assert.assertEquals(0, input.readUInt8());
+        Assert.assertEquals(0L, input.readDateTime().getTime());
+        Assert.assertEquals(msgTime, input.readInt64());
+    }
+
+    @Test
+    public void testTimeZone() throws Exception {
+        ClickHouseIdConfig idConfig = prepareIdConfig(new String[]{"ts", "ts", "ts"},
+                new String[]{"DateTime('UTC')", "DateTime64(3, 'Asia/Shanghai')", "DateTime"});
+        idConfig.setServerTimeZone(TimeZone.getTimeZone("America/New_York"));
+        handler.encode(idConfig, prepareEvent("1|a|1|1|2023-01-02 03:04:05", System.currentTimeMillis()), stream);
+
+        // the text is parsed in the time zone of the column, or of the server
+        long utcSecond = 1672628645L;
+        ClickHouseRowBinaryInputStream input = new ClickHouseRowBinaryInputStream(
+                new ByteArrayInputStream(output.toByteArray()), TimeZone.getDefault(), new ClickHouseProperties());
+        Assert.assertEquals(utcSecond, input.readUInt32());
+        Assert.assertEquals((utcSecond - 8 * 3600) * 1000, input.readInt64());
+        Assert.assertEquals(utcSecond + 5 * 3600, input.readUInt32());
+    }
+
+    @Test
+    public void testUnsupportedType() {
+        ClickHouseIdConfig idConfig = prepareIdConfig(new String[]{"id", "tags"},
+                new String[]{"Int32", "Array(String)"});
+        Assert.assertFalse(handler.isSupported(idConfig));
+        // unknown types of the table are not supported either
+        idConfig = prepareIdConfig(new String[]{"id"}, new String[]{null});
+        Assert.assertFalse(handler.isSupported(idConfig));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOutOfRange() throws Exception {
+        ClickHouseIdConfig idConfig = prepareIdConfig(new String[]{"id"}, new String[]{"UInt8"});
+        handler.encode(idConfig, prepareEvent("300", System.currentTimeMillis()), stream);
+    }
+
+    @Test
+    public void testInvalidEnum() throws Exception {
+        ClickHouseIdConfig idConfig = prepareIdConfig(new String[]{"id", "state", "code"},
+                new String[]{"Int32", "Enum8('a' = 1, 'b' = 2)", "Enum16('none' = 0, 'c' = 3)"});
+        long msgTime = System.currentTimeMillis();
+        handler.encode(idConfig, prepareEvent("1|||||x|", msgTime), stream);
+        handler.encode(idConfig, prepareEvent("2||||||3", msgTime), stream);
+        // the fields are missing
+        handler.encode(idConfig, prepareEvent("3", msgTime), stream);
+
+        ClickHouseRowBinaryInputStream input = new ClickHouseRowBinaryInputStream(
+                new ByteArrayInputStream(output.toByteArray()), TimeZone.getDefault(), new ClickHouseProperties());
+        for (int id = 1; id <= 3; id++) {
+            Assert.assertEquals(id, input.readInt32());
+            // 0 is not a value of the enum, so the first one is used
+            Assert.assertEquals(1, input.readInt8());
+            Assert.assertEquals(id == 2 ? 3 : 0, input.readInt16());
+        }
+    }
+}
@@ -27,6 +27,9 @@ import org.powermock.core.classloader.annotations.PowerMockIgnore;
 import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
 
+import java.util.Arrays;
+import java.util.Map;
+
 import static org.junit.Assert.assertEquals;
 
 /**
@@ -55,4 +58,33 @@ public class TestDefaultEvent2IndexRequestHandler {
         EsIndexRequest indexRequest = handler.parse(context, event);
         assertEquals(indexName, indexRequest.index());
     }
+
+    /**
+     * test that the fields are written to the json source
+     * 
+     * @throws Exception
+     */
+    @Test
+    public void testSource() throws Exception {
+        BufferQueue<EsIndexRequest> dispatchQueue = SinkContext.createBufferQueue();
+        EsSinkContext context = TestEsSinkContext.mock(dispatchQueue);
+        ProfileEvent event = TestEsSinkContext.mockProfileEvent("05100054990", "", "a|b|c");
+        DefaultEvent2IndexRequestHandler handler = new DefaultEvent2IndexRequestHandler();
+        EsIndexRequest indexRequest = handler.parse(context, event);
+        Map<String, Object> source = indexRequest.sourceAsMap();
+        assertEquals(6, source.size());
+        assertEquals("a", source.get("field1"));
+        assertEquals("c", source.get("field3"));
+        assertEquals("", source.get("field4"));
+        assertEquals("extinfo=127.0.0.1", source.get("extinfo"));
+        assertEquals(19, source.get("ftime").toString().length());
+
+        // the duplicated field keeps the last value
+        EsIdConfig idConfig = context.getIdConfig(event.getUid());
+        idConfig.setFieldList(Arrays.asList("ftime", "extinfo", "field1", "field2", "field1", "ftime"));
+        source = handler.parse(context, event).sourceAsMap();
+        assertEquals(4, source.size());
+        assertEquals("c", source.get("field1"));
+        assertEquals("b", source.get("field2"));
+    }
 }
@@ -0,0 +1,245 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sort.standalone.sink.elasticsearch;
+
+import org.apache.inlong.common.metric.MetricRegister;
+import org.apache.inlong.sort.standalone.channel.ProfileEvent;
+import org.apache.inlong.sort.standalone.sink.SinkContext;
+import org.apache.inlong.sort.standalone.utils.BufferQueue;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.DocWriteRequest.OpType;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.index.IndexResponse;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.core.classloader.annotations.PowerMockIgnore;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 
+ * TestEsBulkLane
+ */
+@RunWith(PowerMockRunner.class)
+@PowerMockIgnore("javax.management.*")
+@PrepareForTest({MetricRegister.class})
+public class TestEsBulkLane {
+
+    private BufferQueue<EsIndexRequest> dispatchQueue;
+    private EsSinkContext context;
+
+    /**
+     * 
+     * FakeBulkEndpoint, keep the bulk requests and respond them by the test
+     */
+    public static class FakeBulkEndpoint implements BiConsumer<BulkRequest, ActionListener<BulkResponse>> {
+
+        private final List<BulkRequest> requests = new ArrayList<>();
+        private final List<ActionListener<BulkResponse>> listeners = new ArrayList<>();
+
+        @Override
+        public synchronized void accept(BulkRequest request, ActionListener<BulkResponse> listener) {
+            requests.add(request);
+            listeners.add(listener);
+        }
+
+        /**
+         * respond the oldest bulk, the first rejectedCount items are rejected by 429
+         * 
+         * @param rejectedCount
+         */
+        public void respond(int rejectedCount) {
+            BulkRequest request;
+            ActionListener<BulkResponse> listener;
+            synchronized (this) {
+                request = requests.remove(0);
+                listener = listeners.remove(0);
+            }
+            BulkItemResponse[] items = new BulkItemResponse[request.numberOfActions()];
+            for (int i = 0; i < items.length; i++) {
+                if (i < rejectedCount) {
+                    BulkItemResponse.Failure failure = new BulkItemResponse.Failure("index", OpType.INDEX.name(),
+                            "id", new EsRejectedExecutionException("rejected execution"));
+                    items[i] = new BulkItemResponse(i, OpType.INDEX, failure);
+                } else {
+                    items[i] = new BulkItemResponse(i, OpType.INDEX, new IndexResponse());
+                }
+            }
+            listener.onResponse(new BulkResponse(items, 1));
+        }
+
+        public synchronized int getPendingCount() {
+            return requests.size();
+        }
+    }
+
+    /**
+     * before
+     * 
+     * @throws Exception
+     */
+    @Before
+    public void before() throws Exception {
+        this.dispatchQueue = SinkContext.createBufferQueue();
+        this.context = TestEsSinkContext.mock(dispatchQueue);
+        context.setBulkAction(10);
+        context.setConcurrentRequests(2);
+        context.setMinBulkAction(2);
+        context.setBulkRejectRatio(0.1);
+        context.setBulkTargetLatencyMs(60 * 1000);
+        context.setFlushInterval(60);
+    }
+
+    private EsIndexRequest createRequest() {
+        ProfileEvent event = TestEsSinkContext.mockProfileEvent();
+        EsIndexRequest indexRequest = context.createIndexRequestHandler().parse(context, event);
+        assertNotNull(indexRequest);
+        return indexRequest;
+    }
+
+    private void addRequests(EsBulkLane lane, int count) {
+        for (int i = 0; i < count; i++) {
+            assertTrue(lane.add(this.createRequest()));
+        }
+    }
+
+    /**
+     * testAimd
+     */
+    @Test
+    public void testAimd() {
+        FakeBulkEndpoint endpoint = new FakeBulkEndpoint();
+        EsBulkLane lane = new EsBulkLane("hot", context, endpoint, new EsCallbackListener(context));
+        EsBulkController controller = lane.getController();
+        this.addRequests(lane, 10);
+        assertEquals(1, endpoint.getPendingCount());
+        assertEquals(1, lane.getInFlight());
+
+        // half of the bulk is rejected, the limits are halved and the rejected items are resent later
+        endpoint.respond(5);
+        assertEquals(0, lane.getInFlight());
+        assertEquals(5, controller.getBulkAction());
+        assertEquals(1, controller.getConcurrency());
+        assertTrue(controller.isBackoff(System.currentTimeMillis()));
+        assertEquals(5, dispatchQueue.size());
+
+        // no bulk is sent in the backoff time
+        this.addRequests(lane, 5);
+        assertEquals(0, endpoint.getPendingCount());
+        assertFalse(lane.add(this.createRequest()));
+        while (controller.isBackoff(System.currentTimeMillis())) {
+            Thread.yield();
+        }
+        lane.flushIfNeed();
+        assertEquals(1, endpoint.getPendingCount());
+
+        // the limits increase additively after success
+        endpoint.respond(0);
+        assertEquals(6, controller.getBulkAction());
+        assertEquals(2, controller.getConcurrency());
+        for (int i = 0; i < 10; i++) {
+            this.addRequests(lane, controller.getBulkAction());
+            endpoint.respond(0);
+        }
+        assertEquals(10, controller.getBulkAction());
+        assertEquals(2, controller.getConcurrency());
+        assertFalse(controller.isBackoff(System.currentTimeMillis()));
+
+        // the whole bulk fails
+        this.addRequests(lane, 10);
+        assertEquals(1, endpoint.getPendingCount());
+        endpoint.listeners.get(0).onFailure(new EsRejectedExecutionException("rejected execution"));
+        assertEquals(5, controller.getBulkAction());
+        assertEquals(1, controller.getConcurrency());
+        assertEquals(15, dispatchQueue.size());
+    }
+
+    /**
+     * testLaneIsolation
+     */
+    @Test
+    public void testLaneIsolation() {
+        FakeBulkEndpoint endpoint = new FakeBulkEndpoint();
+        EsCallbackListener listener = new EsCallbackListener(context);
+        EsBulkLane hotLane = new EsBulkLane("hot", context, endpoint, listener);
+        EsBulkLane coldLane = new EsBulkLane("cold", context, endpoint, listener);
+
+        // the hot lane is full with the concurrent bulks and one buffered bulk
+        this.addRequests(hotLane, 30);
+        assertEquals(2, hotLane.getInFlight());
+        assertEquals(10, hotLane.getBufferedActions());
+        assertFalse(hotLane.add(this.createRequest()));
+
+        // the cold lane is not blocked
+        this.addRequests(coldLane, 10);
+        assertEquals(1, coldLane.getInFlight());
+        assertEquals(3, endpoint.getPendingCount());
+
+        // the buffered bulk is sent after an in-flight bulk is completed
+        endpoint.respond(0);
+        assertEquals(2, hotLane.getInFlight());
+        assertEquals(0, hotLane.getBufferedActions());
+        assertTrue(hotLane.add(this.createRequest()));
+        hotLane.close();
+        assertEquals(3, hotLane.getInFlight());
+    }
+
+    /**
+     * testWaitForCompletedBulk
+     * 
+     * @throws Exception
+     */
+    @Test
+    public void testWaitForCompletedBulk() throws Exception {
+        FakeBulkEndpoint endpoint = new FakeBulkEndpoint();
+        EsBulkLane lane = new EsBulkLane("hot", context, endpoint, new EsCallbackListener(context));
+        this.addRequests(lane, 30);
+        assertFalse(lane.add(this.createRequest(), 10));
+
+        // the adding thread is woken up once an in-flight bulk is completed
+        EsIndexRequest request = this.createRequest();
+        AtomicBoolean added = new AtomicBoolean(false);
+        Thread adder = new Thread(() -> {
+            try {
+                added.set(lane.add(request, 60 * 1000));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        adder.start();
+        endpoint.respond(0);
+        adder.join(10 * 1000);
+        assertFalse(adder.isAlive());
+        assertTrue(added.get());
+        assertEquals(1, lane.getBufferedActions());
+    }
+}
@@ -25,22 +25,25 @@ import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.admin.cluster.settings.ClusterUpdateSettingsRequest;
 import org.elasticsearch.action.admin.cluster.settings.ClusterUpdateSettingsResponse;
 import org.elasticsearch.action.admin.indices.settings.put.UpdateSettingsRequest;
-import org.elasticsearch.action.bulk.BulkProcessor;
 import org.elasticsearch.action.bulk.BulkRequest;
 import org.elasticsearch.action.support.master.AcknowledgedResponse;
 import org.elasticsearch.client.ClusterClient;
 import org.elasticsearch.client.IndicesClient;
 import org.elasticsearch.client.RequestOptions;
 import org.elasticsearch.client.RestHighLevelClient;
+import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.Mockito;
 import org.powermock.api.mockito.PowerMockito;
 import org.powermock.core.classloader.annotations.PowerMockIgnore;
 import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
 
 /**
  * 
@@ -64,9 +67,9 @@ public class TestEsOutputChannel {
         PowerMockito.when(EsSinkFactory.class, "createEsOutputChannel", any()).thenReturn(output);
         PowerMockito.doNothing().when(output, "close");
         //
-        BulkProcessor bulkProcessor = PowerMockito.mock(BulkProcessor.class);
-        PowerMockito.when(bulkProcessor, "add", any()).thenReturn(bulkProcessor);
-        PowerMockito.when(output, "getBulkProcessor").thenReturn(bulkProcessor);
+        EsBulkLane bulkLane = PowerMockito.mock(EsBulkLane.class);
+        PowerMockito.when(bulkLane.add(any(), anyLong())).thenReturn(true);
+        PowerMockito.when(output, "getBulkLane", any()).thenReturn(bulkLane);
         PowerMockito.when(output, "initEsclient").thenReturn(true);
         return output;
     }
@@ -107,6 +110,7 @@ public class TestEsOutputChannel {
      * 
      * @throws Exception
      */
+    @SuppressWarnings("unchecked")
     @Test
     public void test() throws Exception {
         BufferQueue<EsIndexRequest> dispatchQueue = SinkContext.createBufferQueue();
@@ -117,7 +121,12 @@ public class TestEsOutputChannel {
         dispatchQueue.offer(indexRequest);
         output.init();
         output.send();
+        Assert.assertEquals(0, dispatchQueue.size());
+        Assert.assertEquals(1, output.getBulkLane(context.getIdConfig(event.getUid())).getBufferedActions());
+        // the buffered request is sent when closing
         output.close();
+        Mockito.verify(esClient).bulkAsync(argThat((BulkRequest request) -> request.numberOfActions() == 1),
+                any(RequestOptions.class), any(ActionListener.class));
     }
 
 }
@@ -0,0 +1,356 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sort.standalone.sink.hive;
+
+import org.apache.inlong.sort.standalone.dispatch.DispatchProfile;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.ql.exec.vector.BytesColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
+import org.apache.orc.OrcFile;
+import org.apache.orc.Reader;
+import org.apache.parquet.column.page.PageReadStore;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.example.data.simple.convert.GroupRecordConverter;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.util.HadoopInputFile;
+import org.apache.parquet.io.ColumnIOFactory;
+import org.apache.parquet.io.MessageColumnIO;
+import org.apache.parquet.io.RecordReader;
+import org.apache.parquet.schema.MessageType;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * 
+ * TestHdfsIdFile
+ */
+public class TestHdfsIdFile {
+
+    private static final int ROW_COUNT = 3000;
+
+    private File rootDir;
+    private Configuration conf;
+    private FileSystem fs;
+    private HdfsIdConfig idConfig;
+
+    /**
+     * before
+     * 
+     * @throws Exception
+     */
+    @Before
+    public void before() throws Exception {
+        this.rootDir = Files.createTempDirectory("hive-sink").toFile();
+        this.conf = new Configuration();
+        this.fs = FileSystem.getLocal(conf);
+        this.idConfig = new HdfsIdConfig();
+        idConfig.setIdRootPath("/0fc00000046");
+        idConfig.setPartitionSubPath("/{yyyyMMdd}/{yyyyMMddHH}");
+        idConfig.setFieldNames("dt,ftime,name,value");
+    }
+
+    /**
+     * after
+     * 
+     * @throws Exception
+     */
+    @After
+    public void after() throws Exception {
+        fs.delete(new Path(rootDir.getAbsolutePath()), true);
+    }
+
+    private static byte[] line(int i) {
+        // the value is missing in odd rows, and the extra field is ignored
+        String value = i % 2 == 0 ? "|v" + i + "|extra" : "";
+        return ("2023010112|2023-01-01 12:00:00|name" + i + value).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private Path writeFile(HdfsFileFormat format, String compression) throws Exception {
+        idConfig.setFileFormat(format.name());
+        Assert.assertEquals(format, idConfig.parseFileFormat());
+        Path path = new Path(rootDir.getAbsolutePath(), format.name() + "." + compression);
+        IHdfsFileWriter writer = HdfsIdFile.createWriter(format, fs, path, conf, idConfig, compression,
+                HiveSinkContext.MB_BYTES);
+        for (int i = 0; i < ROW_COUNT; i++) {
+            writer.write(line(i));
+        }
+        Assert.assertFalse(writer.sync(false));
+        Assert.assertEquals(ROW_COUNT, writer.getRowCount());
+        writer.close();
+        return path;
+    }
+
+    /**
+     * testOrcFile
+     * 
+     * @throws Exception
+     */
+    @Test
+    public void testOrcFile() throws Exception {
+        for (String compression : Arrays.asList("snappy", "zstd", "none")) {
+            Path path = writeFile(HdfsFileFormat.ORC, compression);
+            Reader reader = OrcFile.createReader(path, OrcFile.readerOptions(conf).filesystem(fs));
+            Assert.assertEquals(ROW_COUNT, reader.getNumberOfRows());
+            Assert.assertEquals("struct<dt:string,ftime:string,name:string,value:string>",
+                    reader.getSchema().toString());
+            VectorizedRowBatch batch = reader.getSchema().createRowBatch();
+            int row = 0;
+            try (org.apache.orc.RecordReader rows = reader.rows()) {
+                while (rows.nextBatch(batch)) {
+                    BytesColumnVector names = (BytesColumnVector) batch.cols[2];
+                    BytesColumnVector values = (BytesColumnVector) batch.cols[3];
+                    for (int i = 0; i < batch.size; i++, row++) {
+                        Assert.assertEquals("name" + row, names.toString(i));
+                        if (row % 2 == 0) {
+                            Assert.assertEquals("v" + row, values.toString(i));
+                        } else {
+                            Assert.assertTrue(values.isNull[i]);
+                        }
+                    }
+                }
+            }
+            Assert.assertEquals(ROW_COUNT, row);
+        }
+    }
+
+    /**
+     * testParquetFile
+     * 
+     * @throws Exception
+     */
+    @Test
+    public void testParquetFile() throws Exception {
+        for (String compression : Arrays.asList("snappy", "gzip", "none")) {
+            Path path = writeFile(HdfsFileFormat.PARQUET, compression);
+            int row = 0;
+            try (ParquetFileReader reader = ParquetFileReader.open(HadoopInputFile.fromPath(path, conf))) {
+                MessageType schema = reader.getFooter().getFileMetaData().getSchema();
+                Assert.assertEquals(4, schema.getFieldCount());
+                MessageColumnIO columnIO = new ColumnIOFactory().getColumnIO(schema);
+                for (PageReadStore pages = reader.readNextRowGroup(); pages != null; pages = reader
+                        .readNextRowGroup()) {
+                    RecordReader<Group> recordReader = columnIO.getRecordReader(pages,
+                            new GroupRecordConverter(schema));
+                    for (long i = 0; i < pages.getRowCount(); i++, row++) {
+                        Group group = recordReader.read();
+                        Assert.assertEquals("2023010112", group.getString("dt", 0));
+                        Assert.assertEquals("name" + row, group.getString("name", 0));
+                        if (row % 2 == 0) {
+                            Assert.assertEquals("v" + row, group.getString("value", 0));
+                        } else {
+                            Assert.assertEquals(0, group.getFieldRepetitionCount("value"));
+                        }
+                    }
+                }
+            }
+            Assert.assertEquals(ROW_COUNT, row);
+        }
+    }
+
+    /**
+     * testRollAndSync
+     * 
+     * @throws Exception
+     */
+    @Test
+    public void testRollAndSync() throws Exception {
+        LinkedBlockingQueue<DispatchProfile> dispatchQueue = new LinkedBlockingQueue<>();
+        HiveSinkContext context = Mockito.mock(HiveSinkContext.class);
+        Mockito.when(context.getHdfsPath()).thenReturn(rootDir.toURI().toString());
+        Mockito.when(context.getNodeId()).thenReturn("127.0.0.1");
+        Mockito.when(context.getTaskName()).thenReturn("hiveTask");
+        Mockito.when(context.getDispatchQueue()).thenReturn(dispatchQueue);
+        Mockito.when(context.getMaxIntmpFileSizeMb()).thenReturn(1L);
+        Mockito.when(context.getFileRollIntervalSecond()).thenReturn(3600L);
+        Mockito.when(context.getSyncPolicy()).thenReturn(HdfsSyncPolicy.NONE);
+        Mockito.when(context.getFileCompression()).thenReturn("snappy");
+        Mockito.when(context.getColumnarBlockSizeMb()).thenReturn(1L);
+
+        // parquet file is acked after it is rolled by size
+        idConfig.setFileFormat(HdfsFileFormat.PARQUET.name());
+        HdfsIdFile idFile = new HdfsIdFile(context, idConfig, "/parquet");
+        DispatchProfile first = Mockito.mock(DispatchProfile.class);
+        List<byte[]> lines = new ArrayList<>();
+        byte[] largeLine = new byte[(int) HiveSinkContext.MB_BYTES];
+        Arrays.fill(largeLine, (byte) 'a');
+        lines.add(largeLine);
+        Assert.assertTrue(idFile.write(first, lines, 0));
+        Assert.assertNotNull(idFile.getIntmpFilePath());
+        Mockito.verify(first, Mockito.never()).ack();
+        DispatchProfile second = Mockito.mock(DispatchProfile.class);
+        Assert.assertTrue(idFile.write(second, Collections.singletonList(line(0)), 0));
+        Mockito.verify(first).ack();
+        Mockito.verify(second, Mockito.never()).ack();
+        idFile.close();
+        Mockito.verify(second).ack();
+        Assert.assertFalse(idFile.write(Mockito.mock(DispatchProfile.class), lines, 0));
+        FileStatus[] inFiles = fs.listStatus(idFile.getInPath());
+        Assert.assertEquals(2, inFiles.length);
+        Assert.assertEquals(0, fs.listStatus(idFile.getIntmpPath()).length);
+
+        // text file is acked after it is flushed by the sync interval
+        Mockito.when(context.getSyncPolicy()).thenReturn(HdfsSyncPolicy.HFLUSH);
+        Mockito.when(context.getSyncIntervalMs()).thenReturn(0L);
+        idConfig.setFileFormat(HdfsFileFormat.TEXT.name());
+        idFile = new HdfsIdFile(context, idConfig, "/text");
+        DispatchProfile third = Mockito.mock(DispatchProfile.class);
+        Assert.assertTrue(idFile.write(third, Collections.singletonList(line(1)), 0));
+        Mockito.verify(third).ack();
+        idFile.close();
+        inFiles = fs.listStatus(idFile.getInPath());
+        Assert.assertEquals(1, inFiles.length);
+        Assert.assertEquals(line(1).length + 1, inFiles[0].getLen());
+        Assert.assertTrue(dispatchQueue.isEmpty());
+    }
+
+    /**
+     * testRollByPendingLimit
+     * 
+     * @throws Exception
+     */
+    @Test
+    public void testRollByPendingLimit() throws Exception {
+        HiveSinkContext context = Mockito.mock(HiveSinkContext.class);
+        Mockito.when(context.getHdfsPath()).thenReturn(rootDir.toURI().toString());
+        Mockito.when(context.getNodeId()).thenReturn("127.0.0.1");
+        Mockito.when(context.getTaskName()).thenReturn("hiveTask");
+        Mockito.when(context.getMaxIntmpFileSizeMb()).thenReturn(256L);
+        Mockito.when(context.getFileRollIntervalSecond()).thenReturn(3600L);
+        Mockito.when(context.getSyncPolicy()).thenReturn(HdfsSyncPolicy.HFLUSH);
+        Mockito.when(context.getFileCompression()).thenReturn("snappy");
+        Mockito.when(context.getColumnarBlockSizeMb()).thenReturn(1L);
+        Mockito.when(context.getMaxPendingCount()).thenReturn(10L);
+        Mockito.when(context.getMaxPendingSizeMb()).thenReturn(16L);
+
+        // orc file can not be synced, so it is rolled when the unacked events reach the limit
+        idConfig.setFileFormat(HdfsFileFormat.ORC.name());
+        HdfsIdFile idFile = new HdfsIdFile(context, idConfig, "/orc");
+        DispatchProfile first = Mockito.mock(DispatchProfile.class);
+        Mockito.when(first.getCount()).thenReturn(6L);
+        Assert.assertTrue(idFile.write(first, Collections.singletonList(line(0)), 0));
+        Mockito.verify(first, Mockito.never()).ack();
+        DispatchProfile second = Mockito.mock(DispatchProfile.class);
+        Mockito.when(second.getCount()).thenReturn(6L);
+        Assert.assertTrue(idFile.write(second, Collections.singletonList(line(1)), 0));
+        Mockito.verify(first).ack();
+        Mockito.verify(second).ack();
+        Assert.assertEquals(1, fs.listStatus(idFile.getInPath()).length);
+        Assert.assertEquals(0, fs.listStatus(idFile.getIntmpPath()).length);
+        idFile.close();
+    }
+
+    /**
+     * testAbortKeepsSyncedLines
+     * 
+     * @throws Exception
+     */
+    @Test
+    public void testAbortKeepsSyncedLines() throws Exception {
+        LinkedBlockingQueue<DispatchProfile> dispatchQueue = new LinkedBlockingQueue<>();
+        HiveSinkContext context = Mockito.mock(HiveSinkContext.class);
+        Mockito.when(context.getHdfsPath()).thenReturn(rootDir.toURI().toString());
+        Mockito.when(context.getNodeId()).thenReturn("127.0.0.1");
+        Mockito.when(context.getTaskName()).thenReturn("hiveTask");
+        Mockito.when(context.getDispatchQueue()).thenReturn(dispatchQueue);
+        Mockito.when(context.getMaxIntmpFileSizeMb()).thenReturn(256L);
+        Mockito.when(context.getFileRollIntervalSecond()).thenReturn(3600L);
+        Mockito.when(context.getSyncPolicy()).thenReturn(HdfsSyncPolicy.HFLUSH);
+        Mockito.when(context.getSyncIntervalMs()).thenReturn(0L);
+        idConfig.setFileFormat(HdfsFileFormat.TEXT.name());
+        HdfsIdFile idFile = new HdfsIdFile(context, idConfig, "/text");
+        DispatchProfile synced = Mockito.mock(DispatchProfile.class);
+        Assert.assertTrue(idFile.write(synced, Collections.singletonList(line(0)), 0));
+        Mockito.verify(synced).ack();
+
+        // the next profile is not synced, and the one after it fails in the middle
+        Mockito.when(context.getSyncIntervalMs()).thenReturn(3600000L);
+        DispatchProfile unsynced = Mockito.mock(DispatchProfile.class);
+        Assert.assertTrue(idFile.write(unsynced, Collections.singletonList(line(1)), 0));
+        DispatchProfile failed = Mockito.mock(DispatchProfile.class);
+        Assert.assertTrue(idFile.write(failed, Arrays.asList(line(2), null), 0));
+
+        // only the synced line is kept, and only the unsynced profiles are written again
+        FileStatus[] inFiles = fs.listStatus(idFile.getInPath());
+        Assert.assertEquals(1, inFiles.length);
+        Assert.assertEquals(line(0).length + 1, inFiles[0].getLen());
+        Assert.assertEquals(0, fs.listStatus(idFile.getIntmpPath()).length);
+        Assert.assertEquals(Arrays.asList(unsynced, failed), new ArrayList<>(dispatchQueue));
+        Mockito.verify(unsynced, Mockito.never()).ack();
+        Mockito.verify(failed, Mockito.never()).ack();
+        idFile.close();
+    }
+
+    /**
+     * testArchiveClosedColumnarFile
+     * 
+     * @throws Exception
+     */
+    @Test
+    public void testArchiveClosedColumnarFile() throws Exception {
+        HiveSinkContext context = Mockito.mock(HiveSinkContext.class);
+        Mockito.when(context.getHdfsPath()).thenReturn(rootDir.toURI().toString());
+        Mockito.when(context.getNodeId()).thenReturn("127.0.0.1");
+        Mockito.when(context.getTaskName()).thenReturn("hiveTask");
+        Mockito.when(context.getMaxIntmpFileSizeMb()).thenReturn(1L);
+        Mockito.when(context.getFileRollIntervalSecond()).thenReturn(3600L);
+        Mockito.when(context.getSyncPolicy()).thenReturn(HdfsSyncPolicy.NONE);
+        Mockito.when(context.getFileCompression()).thenReturn("snappy");
+        Mockito.when(context.getColumnarBlockSizeMb()).thenReturn(1L);
+        idConfig.setFileFormat(HdfsFileFormat.PARQUET.name());
+        long partitionTime = System.currentTimeMillis();
+        HdfsIdFile idFile = new HdfsIdFile(context, idConfig, idConfig.parsePartitionPath(partitionTime));
+        // a closed file in "in" directory, and a file still being written in "intmp" directory
+        IHdfsFileWriter writer = HdfsIdFile.createWriter(HdfsFileFormat.PARQUET, fs,
+                new Path(idFile.getInPath(), "closed"), conf, idConfig, "snappy", HiveSinkContext.MB_BYTES);
+        writer.write(line(0));
+        writer.close();
+        Assert.assertTrue(idFile.write(Mockito.mock(DispatchProfile.class), Collections.singletonList(line(1)), 0));
+
+        PartitionCreateRunnable runnable = new PartitionCreateRunnable(context, idConfig, "2023010112",
+                partitionTime, true);
+        runnable.run();
+        Assert.assertEquals(PartitionState.CREATED, runnable.getState());
+        FileStatus[] outFiles = fs.listStatus(idFile.getOutPath());
+        Assert.assertEquals(1, outFiles.length);
+        Assert.assertEquals("closed", outFiles[0].getPath().getName());
+        Assert.assertEquals(idFile.getIntmpFilePath().getName(),
+                fs.listStatus(idFile.getIntmpPath())[0].getPath().getName());
+
+        // the file is archived after it is closed
+        idFile.close();
+        runnable.run();
+        Assert.assertEquals(2, fs.listStatus(idFile.getOutPath()).length);
+        Assert.assertEquals(0, fs.listStatus(idFile.getIntmpPath()).length);
+    }
+}
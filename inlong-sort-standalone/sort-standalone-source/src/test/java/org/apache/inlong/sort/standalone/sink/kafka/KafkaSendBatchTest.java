@@ -0,0 +1,188 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sort.standalone.sink.kafka;
+
+import org.apache.flume.Channel;
+import org.apache.flume.Context;
+import org.apache.flume.Transaction;
+import org.apache.inlong.common.metric.MetricRegister;
+import org.apache.inlong.sort.standalone.channel.BufferQueueChannel;
+import org.apache.inlong.sort.standalone.channel.ProfileEvent;
+import org.apache.inlong.sort.standalone.config.holder.CommonPropertiesHolder;
+import org.apache.inlong.sort.standalone.metrics.SortMetricItem;
+import org.apache.inlong.sort.standalone.utils.Constants;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PowerMockIgnore;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+
+/**
+ * Test for KafkaSendBatch
+ */
+@RunWith(PowerMockRunner.class)
+@PowerMockIgnore("javax.management.*")
+@PrepareForTest({MetricRegister.class})
+public class KafkaSendBatchTest {
+
+    private static final String TOPIC = "U_TOPIC_testId";
+
+    private Channel channel;
+    private KafkaFederationSinkContext context;
+    private MockProducer<String, byte[]> producer;
+
+    @Before
+    public void before() throws Exception {
+        PowerMockito.mockStatic(MetricRegister.class);
+        PowerMockito.doNothing().when(MetricRegister.class, "register", any());
+        Context sinkContext = CommonPropertiesHolder.getContext();
+        sinkContext.put("taskName", "sid_kafka_test");
+        sinkContext.put(KafkaFederationSinkContext.KEY_SEND_BATCH_SIZE, "3");
+        this.channel = new BufferQueueChannel();
+        this.context = new KafkaFederationSinkContext("kafkaSink", sinkContext, channel);
+        this.producer = new MockProducer<>(false, new StringSerializer(), new ByteArraySerializer());
+    }
+
+    /**
+     * put the events to the channel and take them in a new transaction
+     */
+    private Transaction putAndTake(int count, List<ProfileEvent> events) {
+        Transaction putTx = channel.getTransaction();
+        putTx.begin();
+        for (int i = 0; i < count; i++) {
+            Map<String, String> headers = new HashMap<>();
+            headers.put(Constants.INLONG_GROUP_ID, "testGroup");
+            headers.put(Constants.INLONG_STREAM_ID, "stream" + (i % 2));
+            headers.put(Constants.HEADER_KEY_MSG_TIME, String.valueOf(System.currentTimeMillis()));
+            headers.put(Constants.TOPIC, TOPIC);
+            channel.put(new ProfileEvent(headers, ("body" + i).getBytes(StandardCharsets.UTF_8)));
+        }
+        putTx.commit();
+        putTx.close();
+        Transaction tx = channel.getTransaction();
+        tx.begin();
+        for (int i = 0; i < count; i++) {
+            events.add((ProfileEvent) channel.take());
+        }
+        return tx;
+    }
+
+    private void send(List<ProfileEvent> events, KafkaSendBatch batch) {
+        for (ProfileEvent event : events) {
+            producer.send(new ProducerRecord<>(TOPIC, event.getBody()), batch.add(event));
+        }
+        batch.seal();
+    }
+
+    /**
+     * sum the metric items
+     * 
+     * @return the send count, the send success count and the send fail count
+     */
+    private long[] sumMetric() {
+        long[] counts = new long[3];
+        for (SortMetricItem item : context.getMetricItemSet().getItemMap().values()) {
+            counts[0] += item.sendCount.get();
+            counts[1] += item.sendSuccessCount.get();
+            counts[2] += item.sendFailCount.get();
+        }
+        return counts;
+    }
+
+    @Test
+    public void testCommit() {
+        assertEquals(3, context.getSendBatchSize());
+        List<ProfileEvent> events = new ArrayList<>();
+        Transaction tx = putAndTake(3, events);
+        KafkaSendBatch batch = new KafkaSendBatch(context, tx);
+        context.addSendMetric(events);
+        send(events, batch);
+        assertEquals(3, producer.history().size());
+        assertEquals(3, sumMetric()[0]);
+        // two inlong streams in the batch, so two metric items
+        assertEquals(2, context.getMetricItemSet().getItemMap().size());
+
+        // not committed before all the callbacks are completed
+        producer.completeNext();
+        producer.completeNext();
+        assertEquals(0, sumMetric()[1]);
+        producer.completeNext();
+        assertEquals(3, sumMetric()[1]);
+        assertEquals(0, sumMetric()[2]);
+
+        // the events are not back to the channel
+        Transaction nextTx = channel.getTransaction();
+        nextTx.begin();
+        assertNull(channel.take());
+        nextTx.commit();
+        nextTx.close();
+    }
+
+    @Test
+    public void testRollback() {
+        List<ProfileEvent> events = new ArrayList<>();
+        Transaction tx = putAndTake(3, events);
+        KafkaSendBatch batch = new KafkaSendBatch(context, tx);
+        send(events, batch);
+        producer.completeNext();
+        producer.errorNext(new RuntimeException("broker is down"));
+        producer.completeNext();
+        assertEquals(0, sumMetric()[1]);
+        assertEquals(3, sumMetric()[2]);
+
+        // the whole batch is back to the channel
+        Transaction nextTx = channel.getTransaction();
+        nextTx.begin();
+        for (int i = 0; i < 3; i++) {
+            assertTrue(events.contains(channel.take()));
+        }
+        assertNull(channel.take());
+        nextTx.commit();
+        nextTx.close();
+    }
+
+    @Test
+    public void testDiscard() {
+        List<ProfileEvent> events = new ArrayList<>();
+        Transaction tx = putAndTake(2, events);
+        KafkaSendBatch batch = new KafkaSendBatch(context, tx);
+        batch.discard(events.remove(1));
+        send(events, batch);
+        assertEquals(2, batch.getEventCount());
+        producer.completeNext();
+        assertEquals(1, sumMetric()[1]);
+        assertEquals(1, sumMetric()[2]);
+    }
+}
@@ -17,8 +17,6 @@
 
 package org.apache.inlong.sort.doris.table;
 
-import java.util.LinkedHashSet;
-import java.util.Set;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.doris.flink.cfg.DorisExecutionOptions;
 import org.apache.doris.flink.cfg.DorisOptions;
@@ -64,19 +62,22 @@ import org.slf4j.LoggerFactory;
 import javax.annotation.Nullable;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Properties;
-import java.util.StringJoiner;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
@@ -89,7 +90,9 @@ import static org.apache.inlong.sort.base.Constants.NUM_RECORDS_OUT;
 /**
  * DorisDynamicSchemaOutputFormat, copy from {@link org.apache.doris.flink.table.DorisDynamicOutputFormat}
  * It is used in the multiple sink scenario, in this scenario, we directly convert the data format by
- * 'sink.multiple.format' in the data stream to doris json that is used to load
+ * 'sink.multiple.format' in the data stream to doris json that is used to load.
+ * Rows are serialized into a {@link DorisLoadBuffer} of their table when they are written, and the buffers
+ * are loaded by a {@link DorisTableFlusher}, so the tables are loaded concurrently.
  */
 public class DorisDynamicSchemaOutputFormat<T> extends RichOutputFormat<T> {
 
@@ -118,21 +121,15 @@ public class DorisDynamicSchemaOutputFormat<T> extends RichOutputFormat<T> {
     private static final String FIELD_DELIMITER_DEFAULT = "\t";
     private static final String LINE_DELIMITER_KEY = "line_delimiter";
     private static final String LINE_DELIMITER_DEFAULT = "\n";
-    private static final String NULL_VALUE = "\\N";
     private static final String ESCAPE_DELIMITERS_KEY = "escape_delimiters";
     private static final String ESCAPE_DELIMITERS_DEFAULT = "false";
     private static final String UNIQUE_KEYS_TYPE = "UNIQUE_KEYS";
-    @SuppressWarnings({"rawtypes"})
-    private final Map<String, List> batchMap = new HashMap<>();
+    private static final int INITIAL_BUFFER_SIZE = 4096;
     private final Map<String, String> columnsMap = new HashMap<>();
-    /**
-     * data will not be submitted when table is in errorTables list
-     */
-    private final List<String> errorTables = new ArrayList<>();
     private final DorisOptions options;
     private final DorisReadOptions readOptions;
     private final DorisExecutionOptions executionOptions;
-    private final Map<String, Exception> flushExceptionMap = new HashMap<>();
+    private final Map<String, Exception> flushExceptionMap = new ConcurrentHashMap<>();
     private final AtomicLong readInNum = new AtomicLong(0);
     private final AtomicLong writeOutNum = new AtomicLong(0);
     private final AtomicLong errorNum = new AtomicLong(0);
@@ -146,11 +143,18 @@ public class DorisDynamicSchemaOutputFormat<T> extends RichOutputFormat<T> {
     private final String dynamicSchemaFormat;
     private final boolean ignoreSingleTableErrors;
     private final SchemaUpdateExceptionPolicy schemaUpdatePolicy;
-    private long batchBytes = 0L;
-    private int size;
+    private final int flushParallelism;
+    private final int maxInflightPerTable;
     private DorisStreamLoad dorisStreamLoad;
+    // the backend of the next loads, switched by a failed load, every load keeps the backend it started with
+    private transient volatile String loadBackend;
     private transient volatile boolean closed = false;
-    private transient volatile boolean flushing = false;
+    private transient AtomicLong batchBytes;
+    private transient AtomicInteger size;
+    private transient Map<String, TableBatch> tableBatches;
+    private transient DorisTableFlusher flusher;
+    private transient boolean csvFormat;
+    private transient Map<String, String> singleRow;
     private transient ScheduledExecutorService scheduler;
     private transient ScheduledFuture<?> scheduledFuture;
     private transient JsonDynamicSchemaFormat jsonDynamicSchemaFormat;
@@ -158,7 +162,6 @@ public class DorisDynamicSchemaOutputFormat<T> extends RichOutputFormat<T> {
     private transient ListState<MetricState> metricStateListState;
     private transient MetricState metricState;
     private final String[] fieldNames;
-    private volatile boolean jsonFormat;
     private volatile RowData.FieldGetter[] fieldGetters;
     private String fieldDelimiter;
     private String lineDelimiter;
@@ -182,7 +185,9 @@ public class DorisDynamicSchemaOutputFormat<T> extends RichOutputFormat<T> {
             String auditHostAndPorts,
             boolean multipleSink,
             DirtyOptions dirtyOptions,
-            @Nullable DirtySink<Object> dirtySink) {
+            @Nullable DirtySink<Object> dirtySink,
+            int flushParallelism,
+            int maxInflightPerTable) {
         this.options = option;
         this.readOptions = readOptions;
         this.executionOptions = executionOptions;
@@ -198,6 +203,8 @@ public class DorisDynamicSchemaOutputFormat<T> extends RichOutputFormat<T> {
         this.ignoreSingleTableErrors = ignoreSingleTableErrors;
         this.schemaUpdatePolicy = schemaUpdatePolicy;
         this.dirtySinkHelper = new DirtySinkHelper<>(dirtyOptions, dirtySink);
+        this.flushParallelism = flushParallelism;
+        this.maxInflightPerTable = maxInflightPerTable;
 
         handleStreamLoadProp();
     }
@@ -256,10 +263,20 @@ public class DorisDynamicSchemaOutputFormat<T> extends RichOutputFormat<T> {
     @Override
     public void open(int taskNumber, int numTasks) throws IOException {
         Properties loadProps = executionOptions.getStreamLoadProp();
-        dorisStreamLoad = new DorisStreamLoad(getBackend(), options.getUsername(), options.getPassword(), loadProps);
+        loadBackend = getBackend();
+        dorisStreamLoad = new DorisStreamLoad(loadBackend, options.getUsername(), options.getPassword(), loadProps,
+                flushParallelism * maxInflightPerTable);
+        // support csv and json format
+        this.csvFormat = FORMAT_CSV_VALUE.equalsIgnoreCase(loadProps.getProperty(FORMAT_KEY, FORMAT_JSON_VALUE));
+        this.batchBytes = new AtomicLong(0L);
+        this.size = new AtomicInteger(0);
+        this.tableBatches = new ConcurrentHashMap<>();
+        this.flusher = new DorisTableFlusher("doris-streamload-flusher", flushParallelism, maxInflightPerTable,
+                2 * flushParallelism * maxInflightPerTable,
+                () -> new DorisLoadBuffer(csvFormat, fieldDelimiter, lineDelimiter, INITIAL_BUFFER_SIZE),
+                this::flushSingleTable);
         if (!multipleSink) {
-            this.jsonFormat = true;
-            // handleStreamLoadProp();
+            this.singleRow = new LinkedHashMap<>();
             this.fieldGetters = new RowData.FieldGetter[logicalTypes.length];
             for (int i = 0; i < logicalTypes.length; i++) {
                 fieldGetters[i] = DorisParseUtils.createFieldGetter(logicalTypes[i], i);
@@ -295,8 +312,12 @@ public class DorisDynamicSchemaOutputFormat<T> extends RichOutputFormat<T> {
             this.scheduler = new ScheduledThreadPoolExecutor(1,
                     new ExecutorThreadFactory("doris-streamload-output-format"));
             this.scheduledFuture = this.scheduler.scheduleWithFixedDelay(() -> {
-                if (!closed && !flushing) {
-                    flush();
+                if (!closed) {
+                    try {
+                        submitAll();
+                    } catch (IOException e) {
+                        LOG.warn("Submitting records to doris failed.", e);
+                    }
                 }
             }, executionOptions.getBatchIntervalMs(), executionOptions.getBatchIntervalMs(), TimeUnit.MILLISECONDS);
         }
@@ -313,13 +334,18 @@ public class DorisDynamicSchemaOutputFormat<T> extends RichOutputFormat<T> {
         return true;
     }
 
+    /**
+     * Serialize the record into the buffer of its table. The buffers are submitted to the flusher when
+     * the batch size or bytes are reached, which only waits when too many buffers are waiting to be loaded.
+     */
     @Override
-    public synchronized void writeRecord(T row) throws IOException {
+    public void writeRecord(T row) throws IOException {
+        flusher.checkError();
         addBatch(row);
-        boolean valid = (executionOptions.getBatchSize() > 0 && size >= executionOptions.getBatchSize())
-                || batchBytes >= executionOptions.getMaxBatchBytes();
-        if (valid && !flushing) {
-            flush();
+        boolean valid = (executionOptions.getBatchSize() > 0 && size.get() >= executionOptions.getBatchSize())
+                || batchBytes.get() >= executionOptions.getMaxBatchBytes();
+        if (valid) {
+            submitAll();
         }
     }
 
@@ -327,35 +353,17 @@ public class DorisDynamicSchemaOutputFormat<T> extends RichOutputFormat<T> {
         if (row instanceof RowData) {
             try {
                 RowData rowData = (RowData) row;
-                Map<String, String> valueMap = new HashMap<>();
-                StringJoiner value = new StringJoiner(this.fieldDelimiter);
+                // the row is serialized when it is appended, so the map is reused
+                singleRow.clear();
                 for (int i = 0; i < rowData.getArity() && i < fieldGetters.length; ++i) {
                     Object field = fieldGetters[i].getFieldOrNull(rowData);
-                    if (jsonFormat) {
-                        String data = field != null ? field.toString() : null;
-                        valueMap.put(this.fieldNames[i], data);
-                        batchBytes += this.fieldNames[i].getBytes(StandardCharsets.UTF_8).length;
-                        if (data != null) {
-                            batchBytes += data.getBytes(StandardCharsets.UTF_8).length;
-                        }
-                    } else {
-                        String data = field != null ? field.toString() : NULL_VALUE;
-                        value.add(data);
-                        batchBytes += data.getBytes(StandardCharsets.UTF_8).length;
-                    }
+                    singleRow.put(this.fieldNames[i], field != null ? field.toString() : null);
                 }
                 // add doris delete sign
                 if (enableBatchDelete()) {
-                    if (jsonFormat) {
-                        valueMap.put(DORIS_DELETE_SIGN, DorisParseUtils.parseDeleteSign(rowData.getRowKind()));
-                    } else {
-                        value.add(DorisParseUtils.parseDeleteSign(rowData.getRowKind()));
-                    }
+                    singleRow.put(DORIS_DELETE_SIGN, DorisParseUtils.parseDeleteSign(rowData.getRowKind()));
                 }
-                Object data = jsonFormat ? valueMap : value.toString();
-                List mapData = batchMap.getOrDefault(tableIdentifier, new ArrayList<String>());
-                mapData.add(data);
-                batchMap.putIfAbsent(tableIdentifier, mapData);
+                appendRow(tableIdentifier, singleRow);
             } catch (Exception e) {
                 LOG.error(String.format("serialize error, raw data: %s", row), e);
                 if (SchemaUpdateExceptionPolicy.LOG_WITH_IGNORE == schemaUpdatePolicy) {
@@ -363,10 +371,14 @@ public class DorisDynamicSchemaOutputFormat<T> extends RichOutputFormat<T> {
                 }
             }
         } else if (row instanceof String) {
-            batchBytes += ((String) row).getBytes(StandardCharsets.UTF_8).length;
-            List mapData = batchMap.getOrDefault(tableIdentifier, new ArrayList<String>());
-            mapData.add(row);
-            batchMap.putIfAbsent(tableIdentifier, mapData);
+            try {
+                appendRow(tableIdentifier, row);
+            } catch (IOException e) {
+                LOG.error(String.format("serialize error, raw data: %s", row), e);
+                if (SchemaUpdateExceptionPolicy.LOG_WITH_IGNORE == schemaUpdatePolicy) {
+                    handleDirtyData(row, DirtyType.SERIALIZE_ERROR, e);
+                }
+            }
         } else {
             LOG.error(String.format("The type of element should be 'RowData' or 'String' only., raw data: %s", row));
             if (SchemaUpdateExceptionPolicy.LOG_WITH_IGNORE == schemaUpdatePolicy) {
@@ -377,6 +389,52 @@ public class DorisDynamicSchemaOutputFormat<T> extends RichOutputFormat<T> {
 
     }
 
+    /**
+     * Serialize a row into the buffer of the table, the buffer is only shared with the submitting
+     * of the timer, so the lock of the table is rarely contended.
+     */
+    private void appendRow(String tableIdentifier, Object row) throws IOException {
+        TableBatch batch = tableBatches.computeIfAbsent(tableIdentifier,
+                k -> new TableBatch(flusher.borrowBuffer()));
+        int bytes;
+        synchronized (batch) {
+            DorisLoadBuffer buffer = batch.buffer;
+            if (buffer.isEmpty()) {
+                buffer.setColumns(getColumns(tableIdentifier, row));
+            }
+            bytes = buffer.getLength();
+            if (!buffer.addRow(row)) {
+                return;
+            }
+            bytes = buffer.getLength() - bytes;
+        }
+        size.incrementAndGet();
+        batchBytes.addAndGet(bytes);
+    }
+
+    /**
+     * Get the columns of a load, the columns in the stream load properties are used if it is null.
+     */
+    @SuppressWarnings({"unchecked"})
+    private String getColumns(String tableIdentifier, Object row) {
+        if (csvFormat && row instanceof Map) {
+            Set<String> fieldNameSet = new LinkedHashSet<>(((Map<String, String>) row).keySet());
+            // when single table synchronizing, parameter `sink.properties.columns` in options may
+            // contain hll or bitmap function.
+            // columns: dt,id,name,province,os, pv=hll_hash(id)
+            if (this.columns != null) {
+                for (String fieldName : this.columns.split(",")) {
+                    if (fieldName.contains("=")) {
+                        fieldNameSet.add(fieldName);
+                    }
+                }
+            }
+            return StringUtils.join(fieldNameSet, ",");
+        }
+        // Dynamic set COLUMNS_KEY for tableIdentifier every time for multiple sink scenario
+        return multipleSink ? columnsMap.get(tableIdentifier) : null;
+    }
+
     private void addBatch(T row) throws IOException {
         readInNum.incrementAndGet();
         if (!multipleSink) {
@@ -467,37 +525,27 @@ public class DorisDynamicSchemaOutputFormat<T> extends RichOutputFormat<T> {
             case INSERT:
             case UPDATE_AFTER:
                 handleColumnsChange(tableIdentifier, rootNode, physicalNode);
-                batchBytes += physicalData.toString().getBytes(StandardCharsets.UTF_8).length;
-                size++;
-                batchMap.computeIfAbsent(tableIdentifier, k -> new ArrayList<>())
-                        .add(physicalData);
                 if (enableBatchDelete()) {
                     physicalData.put(DORIS_DELETE_SIGN, DORIS_DELETE_FALSE);
                 }
+                appendRow(tableIdentifier, physicalData);
                 break;
             case DELETE:
                 handleColumnsChange(tableIdentifier, rootNode, physicalNode);
-                batchBytes += physicalData.toString().getBytes(StandardCharsets.UTF_8).length;
-                size++;
                 // add doris delete sign
                 if (enableBatchDelete()) {
                     physicalData.put(DORIS_DELETE_SIGN, DORIS_DELETE_TRUE);
                 }
-                batchMap.computeIfAbsent(tableIdentifier, k -> new ArrayList<>())
-                        .add(physicalData);
+                appendRow(tableIdentifier, physicalData);
                 break;
             case UPDATE_BEFORE:
                 if (updateBeforeData != null) {
                     handleColumnsChange(tableIdentifier, rootNode, updateBeforeNode);
-                    batchBytes += updateBeforeData.toString()
-                            .getBytes(StandardCharsets.UTF_8).length;
-                    size++;
                     // add doris delete sign
                     if (enableBatchDelete()) {
                         updateBeforeData.put(DORIS_DELETE_SIGN, DORIS_DELETE_TRUE);
                     }
-                    batchMap.computeIfAbsent(tableIdentifier, k -> new ArrayList<>())
-                            .add(updateBeforeData);
+                    appendRow(tableIdentifier, updateBeforeData);
                 }
                 break;
             default:
@@ -533,7 +581,7 @@ public class DorisDynamicSchemaOutputFormat<T> extends RichOutputFormat<T> {
         }
     }
 
-    private void handleDirtyData(Object dirtyData, DirtyType dirtyType, Exception e) {
+    private synchronized void handleDirtyData(Object dirtyData, DirtyType dirtyType, Exception e) {
         errorNum.incrementAndGet();
 
         if (multipleSink) {
@@ -585,18 +633,17 @@ public class DorisDynamicSchemaOutputFormat<T> extends RichOutputFormat<T> {
         }
     }
 
-    private void handleColumnsChange(String tableIdentifier, JsonNode rootNode, JsonNode physicalData) {
+    private void handleColumnsChange(String tableIdentifier, JsonNode rootNode, JsonNode physicalData)
+            throws IOException {
         String columns = parseColumns(rootNode, physicalData);
         String oldColumns = columnsMap.get(tableIdentifier);
         if (columns == null && oldColumns != null || (columns != null && !columns.equals(oldColumns))) {
-            flushSingleTable(tableIdentifier, batchMap.get(tableIdentifier));
-            if (!errorTables.contains(tableIdentifier)) {
-                columnsMap.put(tableIdentifier, columns);
-            } else {
-                batchMap.remove(tableIdentifier);
-                columnsMap.remove(tableIdentifier);
-                errorTables.remove(tableIdentifier);
+            // the rows with the old columns are loaded before the rows with the new columns
+            TableBatch batch = tableBatches.get(tableIdentifier);
+            if (batch != null) {
+                submitTable(tableIdentifier, batch);
             }
+            columnsMap.put(tableIdentifier, columns);
         }
     }
 
@@ -637,7 +684,7 @@ public class DorisDynamicSchemaOutputFormat<T> extends RichOutputFormat<T> {
     }
 
     @Override
-    public synchronized void close() throws IOException {
+    public void close() throws IOException {
         if (!closed) {
             closed = true;
             if (this.scheduledFuture != null) {
@@ -650,71 +697,107 @@ public class DorisDynamicSchemaOutputFormat<T> extends RichOutputFormat<T> {
                 LOG.warn("Writing records to doris failed.", e);
                 throw new RuntimeException("Writing records to doris failed.", e);
             } finally {
+                if (flusher != null) {
+                    flusher.close();
+                }
                 this.dorisStreamLoad.close();
             }
         }
     }
 
-    @SuppressWarnings({"rawtypes"})
-    public synchronized void flush() {
-        flushing = true;
-        if (!hasRecords()) {
-            flushing = false;
+    /**
+     * Submit the buffers of all tables and wait until they have been loaded.
+     */
+    public void flush() {
+        if (flusher == null) {
             return;
         }
-
-        for (Entry<String, List> kvs : batchMap.entrySet()) {
-            flushSingleTable(kvs.getKey(), kvs.getValue());
-        }
-        if (!errorTables.isEmpty()) {
-            // Clean the key that has errors
-            errorTables.forEach(batchMap::remove);
-            errorTables.clear();
+        try {
+            submitAll();
+            flusher.waitForCompletion();
+        } catch (IOException | InterruptedException e) {
+            throw new RuntimeException("Flushing records to doris failed.", e);
         }
-        batchBytes = 0;
-        size = 0;
+        flusher.checkError();
         LOG.info("Doris sink statistics: readInNum: {}, writeOutNum: {}, errorNum: {}, ddlNum: {}",
                 readInNum.get(), writeOutNum.get(), errorNum.get(), ddlNum.get());
-        flushing = false;
     }
 
-    @SuppressWarnings({"rawtypes"})
-    private void flushSingleTable(String tableIdentifier, List values) {
-        if (checkFlushException(tableIdentifier) || values == null || values.isEmpty()) {
+    private void submitAll() throws IOException {
+        size.set(0);
+        batchBytes.set(0);
+        for (Entry<String, TableBatch> kvs : tableBatches.entrySet()) {
+            submitTable(kvs.getKey(), kvs.getValue());
+        }
+    }
+
+    /**
+     * Submit the buffer of a table to be loaded and replace it with an empty one. It is submitted
+     * under the lock of the table, so the buffers of a table are queued in the order they are filled.
+     */
+    private void submitTable(String tableIdentifier, TableBatch batch) throws IOException {
+        if (batch.buffer.isEmpty()) {
+            return;
+        }
+        try {
+            flusher.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while submitting records to doris", e);
+        }
+        boolean submitted = false;
+        try {
+            synchronized (batch) {
+                DorisLoadBuffer buffer = batch.buffer;
+                if (!buffer.isEmpty()) {
+                    buffer.finish();
+                    batch.buffer = flusher.borrowBuffer();
+                    flusher.submit(tableIdentifier, buffer);
+                    submitted = true;
+                }
+            }
+        } finally {
+            if (!submitted) {
+                flusher.release();
+            }
+        }
+    }
+
+    /**
+     * Load a buffer of a table, which is called by the workers of the flusher.
+     */
+    private void flushSingleTable(String tableIdentifier, DorisLoadBuffer buffer) {
+        if (checkFlushException(tableIdentifier) || buffer.isEmpty()) {
             return;
         }
-        String loadValue = null;
         RespContent respContent;
         try {
-            // support csv and json format
-            String format = executionOptions.getStreamLoadProp().getProperty(FORMAT_KEY, FORMAT_JSON_VALUE);
-            loadValue = serialize(tableIdentifier, values, format);
-            respContent = load(tableIdentifier, loadValue);
+            respContent = load(tableIdentifier, buffer);
             try {
                 if (null != metricData && null != respContent) {
-                    if (multipleSink) {
-                        String[] tableWithDb = tableIdentifier.split("\\.");
-                        metricData.outputMetrics(tableWithDb[0], tableWithDb[1],
-                                respContent.getNumberLoadedRows(), respContent.getLoadBytes());
-                    } else {
-                        metricData.invoke(respContent.getNumberLoadedRows(), respContent.getLoadBytes());
+                    synchronized (this) {
+                        if (multipleSink) {
+                            String[] tableWithDb = tableIdentifier.split("\\.");
+                            metricData.outputMetrics(tableWithDb[0], tableWithDb[1],
+                                    respContent.getNumberLoadedRows(), respContent.getLoadBytes());
+                        } else {
+                            metricData.invoke(respContent.getNumberLoadedRows(), respContent.getLoadBytes());
+                        }
                     }
                 }
             } catch (Exception e) {
                 LOG.warn("metricData invoke get err:", e);
             }
-            writeOutNum.addAndGet(values.size());
-            // Clean the data that has been loaded.
-            values.clear();
+            writeOutNum.addAndGet(buffer.getRowCount());
         } catch (Exception e) {
             LOG.error(String.format("Flush table: %s error", tableIdentifier), e);
             flushExceptionMap.put(tableIdentifier, e);
             // may count repeatedly
-            errorNum.getAndAdd(values.size());
+            errorNum.getAndAdd(buffer.getRowCount());
 
             if (!multipleSink) {
                 try {
-                    handleSingleTable(e, values, loadValue);
+                    handleSingleTable(e, buffer);
                     return;
                 } catch (Exception ex) {
                     throw new RuntimeException(e);
@@ -724,23 +807,20 @@ public class DorisDynamicSchemaOutputFormat<T> extends RichOutputFormat<T> {
             if (SchemaUpdateExceptionPolicy.THROW_WITH_STOP == schemaUpdatePolicy) {
                 throw new RuntimeException(
                         String.format("Writing records to streamload of tableIdentifier:%s failed, the value: %s.",
-                                tableIdentifier, loadValue),
+                                tableIdentifier, loadValue(buffer)),
                         e);
             }
             if (SchemaUpdateExceptionPolicy.STOP_PARTIAL == schemaUpdatePolicy) {
-                errorTables.add(tableIdentifier);
                 LOG.warn("The tableIdentifier: {} load failed and the data will be throw away in the future "
                         + "because the option 'sink.multiple.schema-update.policy' is 'STOP_PARTIAL'",
                         tableIdentifier);
                 return;
             }
             if (SchemaUpdateExceptionPolicy.LOG_WITH_IGNORE == schemaUpdatePolicy) {
-                errorTables.add(tableIdentifier);
                 // archive dirty data when 'sink.multiple.schema-update.policy' is 'LOG_WITH_IGNORE'
-                for (Object value : values) {
+                for (int i = 0; i < buffer.getRowCount(); i++) {
                     try {
-                        handleDirtyData(OBJECT_MAPPER.readTree(OBJECT_MAPPER.writeValueAsString(value)),
-                                DirtyType.BATCH_LOAD_ERROR, e);
+                        handleDirtyData(buffer.readRow(i), DirtyType.BATCH_LOAD_ERROR, e);
                     } catch (Exception ex) {
                         if (!dirtySinkHelper.getDirtyOptions().ignoreSideOutputErrors()) {
                             throw new RuntimeException(ex);
@@ -749,16 +829,13 @@ public class DorisDynamicSchemaOutputFormat<T> extends RichOutputFormat<T> {
                     }
                 }
             }
-
-            values.clear();
         }
     }
 
-    private void handleSingleTable(Exception e, List values, String loadValue) {
-        for (Object value : values) {
+    private void handleSingleTable(Exception e, DorisLoadBuffer buffer) {
+        for (int i = 0; i < buffer.getRowCount(); i++) {
             try {
-                handleDirtyData(OBJECT_MAPPER.readTree(OBJECT_MAPPER.writeValueAsString(value)),
-                        DirtyType.BATCH_LOAD_ERROR, e);
+                handleDirtyData(buffer.readRow(i), DirtyType.BATCH_LOAD_ERROR, e);
             } catch (IOException ex) {
                 if (!dirtySinkHelper.getDirtyOptions().ignoreSideOutputErrors()) {
                     throw new RuntimeException(ex);
@@ -769,88 +846,25 @@ public class DorisDynamicSchemaOutputFormat<T> extends RichOutputFormat<T> {
         if (!ignoreSingleTableErrors) {
             throw new RuntimeException(
                     String.format("Writing records to streamload of tableIdentifier:%s failed, the value: %s.",
-                            tableIdentifier, loadValue),
+                            tableIdentifier, loadValue(buffer)),
                     e);
         }
-        errorTables.add(tableIdentifier);
         LOG.warn("The tableIdentifier: {} load failed and the data will be throw away in the future"
                 + " because the option 'sink.multiple.ignore-single-table-errors' is 'true'", tableIdentifier);
     }
 
-    /**
-     * format data to csv or json
-     *
-     * @param values
-     * @param format
-     * @return string
-     * @throws JsonProcessingException
-     */
-    private String serialize(String tableIdentifier, List values, String format) throws JsonProcessingException {
-        if (FORMAT_CSV_VALUE.equalsIgnoreCase(format)) {
-            LOG.info("doris data format: {}", format);
-            // set columns, and format json data to csv
-            String columns = null;
-            StringBuilder csvData = new StringBuilder();
-            for (Object item : values) {
-                if (item instanceof Map) {
-                    Map<String, String> map = (Map<String, String>) item;
-                    Set<String> fieldNameSet = new LinkedHashSet<>(map.keySet());
-                    if (columns == null) {
-                        // when single table synchronizing, parameter `sink.properties.columns` in options may
-                        // contain hll or bitmap function.
-                        // columns: dt,id,name,province,os, pv=hll_hash(id)
-                        if (this.columns != null) {
-                            for (String fieldName : this.columns.split(",")) {
-                                if (fieldName.contains("=")) {
-                                    fieldNameSet.add(fieldName);
-                                }
-                            }
-                        }
-                        columns = StringUtils.join(fieldNameSet, ",");
-                        executionOptions.getStreamLoadProp().put(COLUMNS_KEY, columns);
-                    }
-                    int idx = 0;
-                    int len = map.values().size();
-                    for (String val : map.values()) {
-                        csvData.append(null == val ? "\\N" : val);
-                        if (idx++ < len - 1) {
-                            csvData.append(this.fieldDelimiter);
-                        }
-                    }
-                    csvData.append(this.lineDelimiter);
-                }
-            }
-            return csvData.toString();
-        } else {
-            // Dynamic set COLUMNS_KEY for tableIdentifier every time for multiple sink scenario
-            if (multipleSink) {
-                executionOptions.getStreamLoadProp().put(COLUMNS_KEY, columnsMap.get(tableIdentifier));
-            }
-            return OBJECT_MAPPER.writeValueAsString(values);
-        }
-    }
-
-    @SuppressWarnings("rawtypes")
-    private boolean hasRecords() {
-        if (batchMap.isEmpty()) {
-            return false;
-        }
-        boolean hasRecords = false;
-        for (List value : batchMap.values()) {
-            if (!value.isEmpty()) {
-                hasRecords = true;
-                break;
-            }
-        }
-        return hasRecords;
+    private String loadValue(DorisLoadBuffer buffer) {
+        return new String(buffer.getBuffer(), 0, buffer.getLength(), StandardCharsets.UTF_8);
     }
 
-    private RespContent load(String tableIdentifier, String result) throws IOException {
+    private RespContent load(String tableIdentifier, DorisLoadBuffer buffer) throws IOException {
         String[] tableWithDb = tableIdentifier.split("\\.");
         RespContent respContent = null;
+        String backend = loadBackend;
         for (int i = 0; i <= executionOptions.getMaxRetries(); i++) {
             try {
-                respContent = dorisStreamLoad.load(tableWithDb[0], tableWithDb[1], result);
+                respContent = dorisStreamLoad.load(backend, tableWithDb[0], tableWithDb[1], buffer.getBuffer(),
+                        buffer.getLength(), buffer.getColumns());
                 break;
             } catch (StreamLoadException e) {
                 LOG.error("doris sink error, retry times = {}", i, e);
@@ -858,9 +872,10 @@ public class DorisDynamicSchemaOutputFormat<T> extends RichOutputFormat<T> {
                     throw new IOException(e);
                 }
                 try {
-                    dorisStreamLoad.setHostPort(getBackend());
+                    backend = getBackend();
+                    loadBackend = backend;
                     LOG.warn("streamload error,switch be: {}",
-                            dorisStreamLoad.getLoadUrlStr(tableWithDb[0], tableWithDb[1]), e);
+                            dorisStreamLoad.getLoadUrlStr(backend, tableWithDb[0], tableWithDb[1]), e);
                     Thread.sleep(1000L * i);
                 } catch (InterruptedException ex) {
                     Thread.currentThread().interrupt();
@@ -922,6 +937,8 @@ public class DorisDynamicSchemaOutputFormat<T> extends RichOutputFormat<T> {
         private String[] fieldNames;
         private DirtyOptions dirtyOptions;
         private DirtySink<Object> dirtySink;
+        private int flushParallelism = 1;
+        private int maxInflightPerTable = 1;
 
         public Builder() {
             this.optionsBuilder = DorisOptions.builder().setTableIdentifier("");
@@ -1012,6 +1029,16 @@ public class DorisDynamicSchemaOutputFormat<T> extends RichOutputFormat<T> {
             return this;
         }
 
+        public DorisDynamicSchemaOutputFormat.Builder setFlushParallelism(int flushParallelism) {
+            this.flushParallelism = flushParallelism;
+            return this;
+        }
+
+        public DorisDynamicSchemaOutputFormat.Builder setMaxInflightPerTable(int maxInflightPerTable) {
+            this.maxInflightPerTable = maxInflightPerTable;
+            return this;
+        }
+
         public DorisDynamicSchemaOutputFormat.Builder setSchemaUpdatePolicy(
                 SchemaUpdateExceptionPolicy schemaUpdatePolicy) {
             this.schemaUpdatePolicy = schemaUpdatePolicy;
@@ -1041,7 +1068,21 @@ public class DorisDynamicSchemaOutputFormat<T> extends RichOutputFormat<T> {
                     auditHostAndPorts,
                     multipleSink,
                     dirtyOptions,
-                    dirtySink);
+                    dirtySink,
+                    flushParallelism,
+                    maxInflightPerTable);
+        }
+    }
+
+    /**
+     * The buffer of a table that rows are appended to, its monitor guards the swap on submitting.
+     */
+    private static class TableBatch {
+
+        private DorisLoadBuffer buffer;
+
+        private TableBatch(DorisLoadBuffer buffer) {
+            this.buffer = buffer;
         }
     }
 }
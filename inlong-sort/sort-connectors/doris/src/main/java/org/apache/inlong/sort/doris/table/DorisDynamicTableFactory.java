@@ -174,6 +174,18 @@ public final class DorisDynamicTableFactory implements DynamicTableSourceFactory
             .defaultValue(DorisExecutionOptions.DEFAULT_MAX_BATCH_BYTES)
             .withDescription("the flush max bytes (includes all append, upsert and delete records), over this number"
                     + " in batch, will flush data. The default value is 10MB.");
+    private static final ConfigOption<Integer> SINK_FLUSH_PARALLELISM = ConfigOptions
+            .key("sink.flush.parallelism")
+            .intType()
+            .defaultValue(4)
+            .withDescription("the number of threads that load the batches of different tables concurrently."
+                    + " The default value is 4.");
+    private static final ConfigOption<Integer> SINK_FLUSH_MAX_INFLIGHT_PER_TABLE = ConfigOptions
+            .key("sink.flush.max-inflight-per-table")
+            .intType()
+            .defaultValue(1)
+            .withDescription("the max number of batches of a table that are loaded at the same time, the batches"
+                    + " of a table are loaded in order only when it is 1. The default value is 1.");
 
     @Override
     public String factoryIdentifier() {
@@ -212,6 +224,8 @@ public final class DorisDynamicTableFactory implements DynamicTableSourceFactory
         options.add(SINK_BUFFER_FLUSH_INTERVAL);
         options.add(SINK_ENABLE_DELETE);
         options.add(SINK_BUFFER_FLUSH_MAX_BYTES);
+        options.add(SINK_FLUSH_PARALLELISM);
+        options.add(SINK_FLUSH_MAX_INFLIGHT_PER_TABLE);
         options.add(SINK_MULTIPLE_FORMAT);
         options.add(SINK_MULTIPLE_DATABASE_PATTERN);
         options.add(SINK_MULTIPLE_TABLE_PATTERN);
@@ -313,6 +327,8 @@ public final class DorisDynamicTableFactory implements DynamicTableSourceFactory
         String inlongMetric = helper.getOptions().getOptional(INLONG_METRIC).orElse(INLONG_METRIC.defaultValue());
         String auditHostAndPorts = helper.getOptions().getOptional(INLONG_AUDIT).orElse(INLONG_AUDIT.defaultValue());
         Integer parallelism = helper.getOptions().getOptional(FactoryUtil.SINK_PARALLELISM).orElse(null);
+        int flushParallelism = helper.getOptions().get(SINK_FLUSH_PARALLELISM);
+        int maxInflightPerTable = helper.getOptions().get(SINK_FLUSH_MAX_INFLIGHT_PER_TABLE);
         // Build the dirty data side-output
         final DirtyOptions dirtyOptions = DirtyOptions.fromConfig(helper.getOptions());
         final DirtySink<Object> dirtySink = DirtySinkFactoryUtils.createDirtySink(context, dirtyOptions);
@@ -332,7 +348,9 @@ public final class DorisDynamicTableFactory implements DynamicTableSourceFactory
                 auditHostAndPorts,
                 parallelism,
                 dirtyOptions,
-                dirtySink);
+                dirtySink,
+                flushParallelism,
+                maxInflightPerTable);
     }
 
     private void validateSinkMultiple(DataType physicalDataType, boolean multipleSink, String sinkMultipleFormat,
@@ -52,6 +52,8 @@ public class DorisDynamicTableSink implements DynamicTableSink {
     private final Integer parallelism;
     private final DirtyOptions dirtyOptions;
     private @Nullable final DirtySink<Object> dirtySink;
+    private final int flushParallelism;
+    private final int maxInflightPerTable;
 
     public DorisDynamicTableSink(DorisOptions options,
             DorisReadOptions readOptions,
@@ -67,7 +69,9 @@ public class DorisDynamicTableSink implements DynamicTableSink {
             String auditHostAndPorts,
             Integer parallelism,
             DirtyOptions dirtyOptions,
-            @Nullable DirtySink<Object> dirtySink) {
+            @Nullable DirtySink<Object> dirtySink,
+            int flushParallelism,
+            int maxInflightPerTable) {
         this.options = options;
         this.readOptions = readOptions;
         this.executionOptions = executionOptions;
@@ -83,6 +87,8 @@ public class DorisDynamicTableSink implements DynamicTableSink {
         this.parallelism = parallelism;
         this.dirtyOptions = dirtyOptions;
         this.dirtySink = dirtySink;
+        this.flushParallelism = flushParallelism;
+        this.maxInflightPerTable = maxInflightPerTable;
     }
 
     @Override
@@ -113,7 +119,9 @@ public class DorisDynamicTableSink implements DynamicTableSink {
                 .setIgnoreSingleTableErrors(ignoreSingleTableErrors)
                 .setSchemaUpdatePolicy(schemaUpdatePolicy)
                 .setDirtyOptions(dirtyOptions)
-                .setDirtySink(dirtySink);
+                .setDirtySink(dirtySink)
+                .setFlushParallelism(flushParallelism)
+                .setMaxInflightPerTable(maxInflightPerTable);
         return SinkFunctionProvider.of(
                 new GenericDorisSinkFunction<>(builder.build()), parallelism);
     }
@@ -134,7 +142,9 @@ public class DorisDynamicTableSink implements DynamicTableSink {
                 auditHostAndPorts,
                 parallelism,
                 dirtyOptions,
-                dirtySink);
+                dirtySink,
+                flushParallelism,
+                maxInflightPerTable);
     }
 
     @Override
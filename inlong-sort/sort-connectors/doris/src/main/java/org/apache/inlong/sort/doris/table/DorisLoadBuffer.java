@@ -0,0 +1,174 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sort.doris.table;
+
+import org.apache.flink.shaded.jackson2.com.fasterxml.jackson.databind.JsonNode;
+import org.apache.flink.shaded.jackson2.com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.flink.util.Preconditions;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * DorisLoadBuffer, the rows of one table that are loaded by one stream load request.<br>
+ * Rows are serialized when they are added, as the elements of a json array or as csv lines,
+ * and the buffer is reused by a later batch after it has been loaded.
+ */
+public class DorisLoadBuffer extends ByteArrayOutputStream {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final String NULL_VALUE = "\\N";
+
+    private final boolean csvFormat;
+    private final byte[] fieldDelimiter;
+    private final byte[] lineDelimiter;
+    private final Pattern fieldSplitter;
+    /**
+     * The start and end offset of each row, used to read the rows back when a load fails
+     */
+    private int[] rowOffsets = new int[128];
+    private int rowCount;
+    private String columns;
+    private boolean finished;
+
+    public DorisLoadBuffer(boolean csvFormat, String fieldDelimiter, String lineDelimiter, int initialSize) {
+        super(initialSize);
+        this.csvFormat = csvFormat;
+        this.fieldDelimiter = fieldDelimiter.getBytes(StandardCharsets.UTF_8);
+        this.lineDelimiter = lineDelimiter.getBytes(StandardCharsets.UTF_8);
+        this.fieldSplitter = Pattern.compile(Pattern.quote(fieldDelimiter));
+    }
+
+    /**
+     * Serialize a row into the buffer.
+     *
+     * @param row a map of column name to value, or in json format any value that is written as it is
+     * @return false if the row can not be written in the format of the buffer
+     * @throws IOException if the row can not be serialized
+     */
+    @SuppressWarnings("unchecked")
+    public boolean addRow(Object row) throws IOException {
+        Preconditions.checkState(!finished, "The buffer has been finished");
+        if (csvFormat) {
+            if (!(row instanceof Map)) {
+                return false;
+            }
+            int start = count;
+            boolean first = true;
+            for (String value : ((Map<String, String>) row).values()) {
+                if (!first) {
+                    write(fieldDelimiter);
+                }
+                first = false;
+                write((value == null ? NULL_VALUE : value).getBytes(StandardCharsets.UTF_8));
+            }
+            markRow(start);
+            write(lineDelimiter);
+        } else {
+            write(rowCount == 0 ? '[' : ',');
+            int start = count;
+            OBJECT_MAPPER.writeValue(this, row);
+            markRow(start);
+        }
+        return true;
+    }
+
+    private void markRow(int start) {
+        if (rowOffsets.length < (rowCount + 1) * 2) {
+            rowOffsets = Arrays.copyOf(rowOffsets, rowOffsets.length * 2);
+        }
+        rowOffsets[rowCount * 2] = start;
+        rowOffsets[rowCount * 2 + 1] = count;
+        rowCount++;
+    }
+
+    /**
+     * Close the json array, no more rows can be added until the buffer is reset.
+     */
+    public void finish() {
+        if (!finished && !csvFormat && rowCount > 0) {
+            write(']');
+        }
+        finished = true;
+    }
+
+    /**
+     * Read a row back, in csv format the line is split by the field delimiter against the columns.
+     *
+     * @param index the index of the row
+     * @return the row as a json node
+     * @throws IOException if the row can not be parsed
+     */
+    public JsonNode readRow(int index) throws IOException {
+        Preconditions.checkElementIndex(index, rowCount);
+        int start = rowOffsets[index * 2];
+        int end = rowOffsets[index * 2 + 1];
+        if (!csvFormat) {
+            return OBJECT_MAPPER.readTree(buf, start, end - start);
+        }
+        String[] values = fieldSplitter.split(new String(buf, start, end - start, StandardCharsets.UTF_8), -1);
+        Map<String, String> row = new LinkedHashMap<>();
+        int i = 0;
+        for (String column : columns == null ? new String[0] : columns.split(",")) {
+            if (column.contains("=")) {
+                continue;
+            }
+            String value = i < values.length ? values[i] : null;
+            row.put(column.trim().replace("`", ""), NULL_VALUE.equals(value) ? null : value);
+            i++;
+        }
+        return OBJECT_MAPPER.valueToTree(row);
+    }
+
+    @Override
+    public synchronized void reset() {
+        super.reset();
+        rowCount = 0;
+        columns = null;
+        finished = false;
+    }
+
+    public byte[] getBuffer() {
+        return buf;
+    }
+
+    public int getLength() {
+        return count;
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public boolean isEmpty() {
+        return rowCount == 0;
+    }
+
+    public String getColumns() {
+        return columns;
+    }
+
+    public void setColumns(String columns) {
+        this.columns = columns;
+    }
+}
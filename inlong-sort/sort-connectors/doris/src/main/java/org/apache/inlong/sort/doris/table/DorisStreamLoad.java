@@ -25,6 +25,9 @@ import org.apache.doris.shaded.org.apache.commons.codec.binary.Base64;
 import org.apache.http.HttpHeaders;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpPut;
+import org.apache.http.entity.AbstractHttpEntity;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
 import org.apache.http.entity.StringEntity;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.DefaultRedirectStrategy;
@@ -59,13 +62,25 @@ public class DorisStreamLoad implements Serializable {
     private static final List<String> DORIS_SUCCESS_STATUS = new ArrayList<>(
             Arrays.asList("Success", "Publish Timeout"));
     private static final String LOAD_URL_PATTERN = "http://%s/api/%s/%s/_stream_load";
+    private static final String COLUMNS_KEY = "columns";
     private final String authEncoding;
     private final Properties streamLoadProp;
     private final CloseableHttpClient httpClient;
-    private String hostPort;
+    private final String hostPort;
 
     public DorisStreamLoad(String hostPort, String user, String passwd,
             Properties streamLoadProp) {
+        this(hostPort, user, passwd, streamLoadProp, 0);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param maxConnections the max connections of the http client to a backend, which should be
+     *         at least the number of concurrent loads, the default of the http client is used when it is not positive
+     */
+    public DorisStreamLoad(String hostPort, String user, String passwd,
+            Properties streamLoadProp, int maxConnections) {
         this.hostPort = hostPort;
         this.authEncoding = basicAuthHeader(user, passwd);
         this.streamLoadProp = streamLoadProp;
@@ -78,11 +93,35 @@ public class DorisStreamLoad implements Serializable {
                         return true;
                     }
                 });
+        if (maxConnections > 0) {
+            httpClientBuilder.setMaxConnPerRoute(maxConnections).setMaxConnTotal(maxConnections);
+        }
         this.httpClient = httpClientBuilder.build();
     }
 
     public RespContent load(String db, String tbl, String value) throws StreamLoadException {
-        LoadResponse loadResponse = loadBatch(db, tbl, value);
+        return load(hostPort, db, tbl, new StringEntity(value, "UTF-8"), null);
+    }
+
+    /**
+     * Load the serialized data without copying it
+     *
+     * @param hostPort the backend to load to, which is given per load as the loads of many tables
+     *         share this stream load
+     * @param data the buffer of the data
+     * @param length the length of the data in the buffer
+     * @param columns the columns header of this load, the one in the stream load properties is used if it is null
+     * @return the response of the load
+     * @throws StreamLoadException if the load failed
+     */
+    public RespContent load(String hostPort, String db, String tbl, byte[] data, int length, String columns)
+            throws StreamLoadException {
+        return load(hostPort, db, tbl, new ByteArrayEntity(data, 0, length, ContentType.TEXT_PLAIN), columns);
+    }
+
+    private RespContent load(String hostPort, String db, String tbl, AbstractHttpEntity entity, String columns)
+            throws StreamLoadException {
+        LoadResponse loadResponse = loadBatch(hostPort, db, tbl, entity, columns);
         LOG.info("Streamload Response:{}", loadResponse);
         if (loadResponse.status != 200) {
             throw new StreamLoadException("stream load error: " + loadResponse.respContent);
@@ -102,14 +141,15 @@ public class DorisStreamLoad implements Serializable {
     }
 
     public String getLoadUrlStr(String db, String tbl) {
-        return String.format(LOAD_URL_PATTERN, hostPort, db, tbl);
+        return getLoadUrlStr(hostPort, db, tbl);
     }
 
-    public void setHostPort(String hostPort) {
-        this.hostPort = hostPort;
+    public String getLoadUrlStr(String hostPort, String db, String tbl) {
+        return String.format(LOAD_URL_PATTERN, hostPort, db, tbl);
     }
 
-    private LoadResponse loadBatch(String db, String tbl, String value) {
+    private LoadResponse loadBatch(String hostPort, String db, String tbl, AbstractHttpEntity entity,
+            String columns) {
         String label = streamLoadProp.getProperty("label");
         if (StringUtils.isBlank(label)) {
             SimpleDateFormat sdf = new SimpleDateFormat("yyyyMMdd_HHmmss");
@@ -130,11 +170,13 @@ public class DorisStreamLoad implements Serializable {
                     put.setHeader(String.valueOf(entry.getKey()), String.valueOf(entry.getValue()));
                 }
             }
+            if (columns != null) {
+                put.setHeader(COLUMNS_KEY, columns);
+            }
             if (!put.containsHeader("format")) {
                 put.setHeader("format", "json");
             }
             put.setHeader("strip_outer_array", "true");
-            StringEntity entity = new StringEntity(value, "UTF-8");
             put.setEntity(entity);
 
             try (CloseableHttpResponse response = httpClient.execute(put)) {
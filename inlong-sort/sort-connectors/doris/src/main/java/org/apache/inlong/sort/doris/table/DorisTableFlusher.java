@@ -0,0 +1,207 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sort.doris.table;
+
+import org.apache.flink.runtime.util.ExecutorThreadFactory;
+import org.apache.flink.util.Preconditions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * DorisTableFlusher, loads the sealed buffers of many tables on a bounded pool of workers.<br>
+ * The buffers of a table are queued in the order they are submitted, and at most
+ * {@code maxInflightPerTable} of them are loaded at the same time, so with the default of 1 the
+ * batches of a table are loaded in order while a slow table does not hold up the others.
+ * The number of buffers waiting to be loaded is bounded, {@link #acquire()} blocks the writer when it is reached.
+ */
+public class DorisTableFlusher implements Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DorisTableFlusher.class);
+
+    private final TableLoader loader;
+    private final Supplier<DorisLoadBuffer> bufferFactory;
+    private final int maxInflightPerTable;
+    private final int maxFreeBuffers;
+    private final ThreadPoolExecutor executor;
+    private final Semaphore pendingPermits;
+    private final AtomicInteger pendingCount = new AtomicInteger(0);
+    private final Object completionLock = new Object();
+    private final Map<String, TableQueue> tableQueues = new ConcurrentHashMap<>();
+    private final Queue<DorisLoadBuffer> freeBuffers = new ConcurrentLinkedQueue<>();
+    private volatile Throwable failure;
+
+    public DorisTableFlusher(String threadName, int parallelism, int maxInflightPerTable, int maxPendingBuffers,
+            Supplier<DorisLoadBuffer> bufferFactory, TableLoader loader) {
+        Preconditions.checkArgument(parallelism > 0, "The flush parallelism must be positive");
+        Preconditions.checkArgument(maxInflightPerTable > 0, "The max inflight loads per table must be positive");
+        Preconditions.checkArgument(maxPendingBuffers > 0, "The max pending buffers must be positive");
+        this.loader = loader;
+        this.bufferFactory = bufferFactory;
+        this.maxInflightPerTable = maxInflightPerTable;
+        this.maxFreeBuffers = maxPendingBuffers;
+        this.pendingPermits = new Semaphore(maxPendingBuffers);
+        this.executor = new ThreadPoolExecutor(parallelism, parallelism, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), new ExecutorThreadFactory(threadName));
+    }
+
+    /**
+     * Borrow an empty buffer, the buffer is given back once it has been submitted and loaded.
+     *
+     * @return an empty buffer
+     */
+    public DorisLoadBuffer borrowBuffer() {
+        DorisLoadBuffer buffer = freeBuffers.poll();
+        return buffer != null ? buffer : bufferFactory.get();
+    }
+
+    /**
+     * Wait for a free slot to submit a buffer, which is used by {@link #submit} or given back by {@link #release}.
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void acquire() throws InterruptedException {
+        pendingPermits.acquire();
+    }
+
+    /**
+     * Give back a slot that was acquired but not used.
+     */
+    public void release() {
+        pendingPermits.release();
+    }
+
+    /**
+     * Queue a buffer to be loaded after the buffers that were submitted before for the same table,
+     * a slot must have been acquired.
+     *
+     * @param tableIdentifier the table identifier
+     * @param buffer the finished buffer
+     */
+    public void submit(String tableIdentifier, DorisLoadBuffer buffer) {
+        TableQueue queue = tableQueues.computeIfAbsent(tableIdentifier, k -> new TableQueue());
+        pendingCount.incrementAndGet();
+        queue.buffers.offer(buffer);
+        schedule(tableIdentifier, queue);
+    }
+
+    /**
+     * Start a load for every queued buffer of the table, up to the max inflight loads of the table.
+     */
+    private void schedule(String tableIdentifier, TableQueue queue) {
+        while (!queue.buffers.isEmpty()) {
+            int inflight = queue.inflight.get();
+            if (inflight >= maxInflightPerTable) {
+                return;
+            }
+            if (!queue.inflight.compareAndSet(inflight, inflight + 1)) {
+                continue;
+            }
+            DorisLoadBuffer buffer = queue.buffers.poll();
+            if (buffer == null) {
+                // taken by another schedule of the table, check again for a buffer queued in the meantime
+                queue.inflight.decrementAndGet();
+                continue;
+            }
+            executor.execute(() -> load(tableIdentifier, queue, buffer));
+        }
+    }
+
+    private void load(String tableIdentifier, TableQueue queue, DorisLoadBuffer buffer) {
+        try {
+            loader.load(tableIdentifier, buffer);
+        } catch (Throwable t) {
+            LOG.error("Load table: {} failed", tableIdentifier, t);
+            if (failure == null) {
+                failure = t;
+            }
+        } finally {
+            queue.inflight.decrementAndGet();
+            buffer.reset();
+            if (freeBuffers.size() < maxFreeBuffers) {
+                freeBuffers.offer(buffer);
+            }
+            pendingPermits.release();
+            if (pendingCount.decrementAndGet() == 0) {
+                synchronized (completionLock) {
+                    completionLock.notifyAll();
+                }
+            }
+            // take the next buffer in a new task, so the tables take turns on the workers
+            schedule(tableIdentifier, queue);
+        }
+    }
+
+    /**
+     * Wait until all the submitted buffers have been loaded.
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void waitForCompletion() throws InterruptedException {
+        synchronized (completionLock) {
+            while (pendingCount.get() > 0) {
+                completionLock.wait(100L);
+            }
+        }
+    }
+
+    /**
+     * Throw the first error of the loads, which are not expected to throw unless the job should stop.
+     */
+    public void checkError() {
+        if (failure != null) {
+            throw new RuntimeException("Writing records to doris failed.", failure);
+        }
+    }
+
+    public int getPendingCount() {
+        return pendingCount.get();
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+        freeBuffers.clear();
+    }
+
+    /**
+     * The load of a buffer, which is called by one worker at a time for a table when the max inflight is 1.
+     */
+    @FunctionalInterface
+    public interface TableLoader {
+
+        void load(String tableIdentifier, DorisLoadBuffer buffer) throws Exception;
+    }
+
+    private static class TableQueue {
+
+        private final Queue<DorisLoadBuffer> buffers = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger inflight = new AtomicInteger(0);
+    }
+}
@@ -0,0 +1,261 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sort.doris.table;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.flink.shaded.jackson2.com.fasterxml.jackson.databind.JsonNode;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Field;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit testing of {@link DorisTableFlusher}, which loads to a local stand-in of the doris stream load api.
+ */
+public class DorisTableFlusherTest {
+
+    private static final String SUCCESS_RESPONSE = "{\"Status\":\"Success\",\"NumberLoadedRows\":1,\"LoadBytes\":1}";
+
+    private final Map<String, List<String>> bodies = new ConcurrentHashMap<>();
+    private final Map<String, List<String>> columns = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> inflight = new ConcurrentHashMap<>();
+    private final Map<String, Integer> maxInflight = new ConcurrentHashMap<>();
+    private final CountDownLatch slowTableLatch = new CountDownLatch(1);
+    private HttpServer server;
+    private DorisStreamLoad streamLoad;
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/api", this::handleLoad);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        streamLoad = new DorisStreamLoad("127.0.0.1:" + server.getAddress().getPort(), "root", "",
+                new Properties(), 8);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        streamLoad.close();
+        server.stop(0);
+    }
+
+    private void handleLoad(HttpExchange exchange) throws IOException {
+        // path: /api/{db}/{table}/_stream_load
+        String table = exchange.getRequestURI().getPath().split("/")[3];
+        AtomicInteger count = inflight.computeIfAbsent(table, k -> new AtomicInteger(0));
+        int current = count.incrementAndGet();
+        maxInflight.merge(table, current, Math::max);
+        try {
+            bodies.computeIfAbsent(table, k -> new CopyOnWriteArrayList<>())
+                    .add(readBody(exchange.getRequestBody()));
+            columns.computeIfAbsent(table, k -> new CopyOnWriteArrayList<>())
+                    .add(String.valueOf(exchange.getRequestHeaders().getFirst("columns")));
+            if (table.startsWith("slow")) {
+                slowTableLatch.await(10, TimeUnit.SECONDS);
+            } else {
+                Thread.sleep(20);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            count.decrementAndGet();
+        }
+        byte[] response = SUCCESS_RESPONSE.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(200, response.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(response);
+        }
+    }
+
+    private static String readBody(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] bytes = new byte[1024];
+        int n;
+        while ((n = in.read(bytes)) > 0) {
+            out.write(bytes, 0, n);
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private DorisTableFlusher createFlusher(int parallelism, int maxInflightPerTable) {
+        String hostPort = "127.0.0.1:" + server.getAddress().getPort();
+        return new DorisTableFlusher("doris-flusher-test", parallelism, maxInflightPerTable, 16,
+                () -> new DorisLoadBuffer(false, "\t", "\n", 64),
+                (tableIdentifier, buffer) -> {
+                    String[] tableWithDb = tableIdentifier.split("\\.");
+                    streamLoad.load(hostPort, tableWithDb[0], tableWithDb[1], buffer.getBuffer(),
+                            buffer.getLength(), buffer.getColumns());
+                });
+    }
+
+    private void submit(DorisTableFlusher flusher, String tableIdentifier, int id) throws Exception {
+        DorisLoadBuffer buffer = flusher.borrowBuffer();
+        Map<String, String> row = new LinkedHashMap<>();
+        row.put("id", String.valueOf(id));
+        row.put("name", id % 2 == 0 ? null : "name" + id);
+        buffer.setColumns("`id`,`name`");
+        buffer.addRow(row);
+        buffer.finish();
+        flusher.acquire();
+        flusher.submit(tableIdentifier, buffer);
+    }
+
+    @Test(timeout = 30000)
+    public void testLoadInOrderPerTable() throws Exception {
+        DorisTableFlusher flusher = createFlusher(4, 1);
+        for (int i = 0; i < 10; i++) {
+            for (int j = 0; j < 3; j++) {
+                submit(flusher, "db.tbl" + j, i);
+            }
+        }
+        flusher.waitForCompletion();
+        flusher.checkError();
+        flusher.close();
+
+        for (int j = 0; j < 3; j++) {
+            List<String> loaded = bodies.get("tbl" + j);
+            assertEquals(10, loaded.size());
+            for (int i = 0; i < 10; i++) {
+                String name = i % 2 == 0 ? "null" : "\"name" + i + "\"";
+                assertEquals("[{\"id\":\"" + i + "\",\"name\":" + name + "}]", loaded.get(i));
+            }
+            assertEquals(Collections.nCopies(10, "`id`,`name`"), columns.get("tbl" + j));
+            assertEquals(1, maxInflight.get("tbl" + j).intValue());
+        }
+    }
+
+    @Test(timeout = 30000)
+    public void testMaxInflightPerTable() throws Exception {
+        DorisTableFlusher flusher = createFlusher(4, 2);
+        for (int i = 0; i < 6; i++) {
+            submit(flusher, "db.tbl", i);
+        }
+        flusher.waitForCompletion();
+        flusher.checkError();
+        flusher.close();
+
+        assertEquals(6, bodies.get("tbl").size());
+        assertEquals(2, maxInflight.get("tbl").intValue());
+    }
+
+    @Test(timeout = 30000)
+    public void testScheduleQueuedBuffersOnly() throws Exception {
+        DorisTableFlusher flusher = createFlusher(1, 3);
+        // the only worker is loading the slow table
+        submit(flusher, "db.slow", 0);
+        long deadline = System.currentTimeMillis() + 10000;
+        while (!bodies.containsKey("slow") && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        submit(flusher, "db.tbl", 0);
+        submit(flusher, "db.tbl", 1);
+        // a load is started for every queued buffer, not for every free inflight slot of the table
+        assertEquals(2, getExecutor(flusher).getQueue().size());
+
+        slowTableLatch.countDown();
+        flusher.waitForCompletion();
+        flusher.checkError();
+        assertEquals(2, bodies.get("tbl").size());
+        assertEquals(3, getExecutor(flusher).getTaskCount());
+        flusher.close();
+    }
+
+    private static ThreadPoolExecutor getExecutor(DorisTableFlusher flusher) throws Exception {
+        Field field = DorisTableFlusher.class.getDeclaredField("executor");
+        field.setAccessible(true);
+        return (ThreadPoolExecutor) field.get(flusher);
+    }
+
+    @Test(timeout = 30000)
+    public void testSlowTableNotBlockOthers() throws Exception {
+        DorisTableFlusher flusher = createFlusher(2, 1);
+        submit(flusher, "db.slow", 0);
+        submit(flusher, "db.slow", 1);
+        for (int i = 0; i < 3; i++) {
+            submit(flusher, "db.tbl" + i, 0);
+            submit(flusher, "db.tbl" + i, 1);
+        }
+        // the other tables are loaded by the other worker while the slow table is loading
+        long deadline = System.currentTimeMillis() + 10000;
+        while (flusher.getPendingCount() > 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        for (int i = 0; i < 3; i++) {
+            assertEquals(2, bodies.get("tbl" + i).size());
+        }
+        assertEquals(1, bodies.get("slow").size());
+        assertFalse(flusher.getPendingCount() == 0);
+
+        slowTableLatch.countDown();
+        flusher.waitForCompletion();
+        flusher.checkError();
+        flusher.close();
+        assertEquals(2, bodies.get("slow").size());
+    }
+
+    @Test
+    public void testCsvBuffer() throws Exception {
+        DorisLoadBuffer buffer = new DorisLoadBuffer(true, "\t", "\n", 8);
+        Map<String, String> row = new LinkedHashMap<>();
+        row.put("id", "1");
+        row.put("name", null);
+        buffer.setColumns("id,name,pv=hll_hash(id)");
+        assertTrue(buffer.addRow(row));
+        row.put("id", "2");
+        row.put("name", "b");
+        assertTrue(buffer.addRow(row));
+        assertFalse(buffer.addRow("raw"));
+        buffer.finish();
+
+        assertEquals(2, buffer.getRowCount());
+        assertEquals("1\t\\N\n2\tb\n", new String(buffer.getBuffer(), 0, buffer.getLength(), StandardCharsets.UTF_8));
+        JsonNode first = buffer.readRow(0);
+        assertEquals("1", first.get("id").asText());
+        assertTrue(first.get("name").isNull());
+        assertEquals("b", buffer.readRow(1).get("name").asText());
+
+        buffer.reset();
+        assertTrue(buffer.isEmpty());
+        assertEquals(0, buffer.getLength());
+    }
+}
@@ -31,18 +31,25 @@ import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Executors;
-import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.flink.api.common.functions.RuntimeContext;
@@ -65,6 +72,10 @@ import org.slf4j.LoggerFactory;
 
 /**
  * StarRocks sink manager which caches and flushes data.
+ * The buffer of each table is flushed independently: the flushed buffers of a table are queued in order and loaded
+ * by a pool of flush threads, with at most {@code maxInflightPerTable} loads of the table at the same time.
+ * The bytes of all the buffered tables, including the ones being loaded, are limited by {@code maxBufferedBytes},
+ * and writing waits for the loads when it is exceeded.
  */
 public class StarRocksSinkManager implements Serializable {
 
@@ -77,7 +88,19 @@ public class StarRocksSinkManager implements Serializable {
     private final StarRocksQueryVisitor starrocksQueryVisitor;
     private StarRocksStreamLoadVisitor starrocksStreamLoadVisitor;
     private final StarRocksSinkOptions sinkOptions;
-    final LinkedBlockingDeque<SinkBufferEntity> flushQueue = new LinkedBlockingDeque<>(1);
+    private final int flushParallelism;
+    private final int maxInflightPerTable;
+    private final long maxBufferedBytes;
+    private final Map<String, TableFlushQueue> flushQueues = new ConcurrentHashMap<>();
+    private final AtomicInteger pendingFlushCount = new AtomicInteger(0);
+    private final AtomicLong bufferedBytes = new AtomicLong(0L);
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final Condition flushDone = flushLock.newCondition();
+    /**
+     * The metrics and the dirty sink are updated by the flush threads under this lock
+     */
+    private final ReentrantLock metricLock = new ReentrantLock();
+    private transient ThreadPoolExecutor flushExecutor;
 
     private transient Counter totalFlushBytes;
     private transient Counter totalFlushRows;
@@ -113,7 +136,7 @@ public class StarRocksSinkManager implements Serializable {
     private static final String HISTOGRAM_LOAD_TIME_MS = "loadTimeMs";
 
     private final Map<String, SinkBufferEntity> bufferMap = new ConcurrentHashMap<>();
-    private static final long FLUSH_QUEUE_POLL_TIMEOUT = 3000;
+    private static final long FLUSH_WAIT_INTERVAL = 1000;
     private volatile boolean closed = false;
     private volatile boolean flushThreadAlive = false;
     private volatile Throwable flushException;
@@ -131,7 +154,7 @@ public class StarRocksSinkManager implements Serializable {
     /**
      * If a table writing throws exception, ignore it when receiving data later again
      */
-    private Set<String> ignoreWriteTables = new HashSet<>();
+    private Set<String> ignoreWriteTables = ConcurrentHashMap.newKeySet();
 
     public void setSinkMetricData(SinkTableMetricData metricData) {
         this.metricData = metricData;
@@ -153,6 +176,9 @@ public class StarRocksSinkManager implements Serializable {
         this.schemaUpdatePolicy = schemaUpdatePolicy;
 
         this.dirtySinkHelper = dirtySinkHelper;
+        this.flushParallelism = 1;
+        this.maxInflightPerTable = 1;
+        this.maxBufferedBytes = getMaxBufferedBytes(-1L);
         init(flinkSchema);
     }
 
@@ -164,6 +190,26 @@ public class StarRocksSinkManager implements Serializable {
             SchemaUpdateExceptionPolicy schemaUpdatePolicy,
             DirtySinkHelper<Object> dirtySinkHelper,
             String multipleformat) {
+        this(sinkOptions, flinkSchema, jdbcConnProvider, starrocksQueryVisitor, multipleSink, schemaUpdatePolicy,
+                dirtySinkHelper, multipleformat, 1, 1, -1L);
+    }
+
+    public StarRocksSinkManager(StarRocksSinkOptions sinkOptions,
+            TableSchema flinkSchema,
+            StarRocksJdbcConnectionProvider jdbcConnProvider,
+            StarRocksQueryVisitor starrocksQueryVisitor,
+            boolean multipleSink,
+            SchemaUpdateExceptionPolicy schemaUpdatePolicy,
+            DirtySinkHelper<Object> dirtySinkHelper,
+            String multipleformat,
+            int flushParallelism,
+            int maxInflightPerTable,
+            long maxBufferedBytes) {
+        if (flushParallelism <= 0 || maxInflightPerTable <= 0) {
+            throw new IllegalArgumentException(String.format(
+                    "The flush parallelism[%d] and the max inflight loads per table[%d] must be positive",
+                    flushParallelism, maxInflightPerTable));
+        }
         this.sinkOptions = sinkOptions;
         this.jdbcConnProvider = jdbcConnProvider;
         this.starrocksQueryVisitor = starrocksQueryVisitor;
@@ -173,9 +219,22 @@ public class StarRocksSinkManager implements Serializable {
 
         this.dirtySinkHelper = dirtySinkHelper;
         this.sinkMultipleFormat = multipleformat;
+        this.flushParallelism = flushParallelism;
+        this.maxInflightPerTable = maxInflightPerTable;
+        this.maxBufferedBytes = getMaxBufferedBytes(maxBufferedBytes);
         init(flinkSchema);
     }
 
+    /**
+     * By default, all the flush threads can load a full batch while another one is being written.
+     */
+    private long getMaxBufferedBytes(long maxBufferedBytes) {
+        if (maxBufferedBytes > 0) {
+            return maxBufferedBytes;
+        }
+        return sinkOptions.getSinkMaxBytes() * ((long) flushParallelism * maxInflightPerTable + 1);
+    }
+
     protected void init(TableSchema schema) {
         if (!multipleSink) {
             validateTableStructure(schema);
@@ -214,29 +273,9 @@ public class StarRocksSinkManager implements Serializable {
     }
 
     public void startAsyncFlushing() {
-        // start flush thread
-        Thread flushThread = new Thread(() -> {
-            while (true) {
-                try {
-                    if (!asyncFlush()) {
-                        LOGGER.info("StarRocks flush thread is about to exit.");
-                        flushThreadAlive = false;
-                        break;
-                    }
-                } catch (Exception e) {
-                    flushException = e;
-                }
-            }
-        });
-
-        flushThread.setUncaughtExceptionHandler((t, e) -> {
-            LOGGER.error("StarRocks flush thread uncaught exception occurred: " + e.getMessage(), e);
-            flushException = e;
-            flushThreadAlive = false;
-        });
-        flushThread.setName("starrocks-flush");
-        flushThread.setDaemon(true);
-        flushThread.start();
+        // start flush threads
+        this.flushExecutor = new ThreadPoolExecutor(flushParallelism, flushParallelism, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), new ExecutorThreadFactory("starrocks-flush"));
         flushThreadAlive = true;
     }
 
@@ -246,21 +285,19 @@ public class StarRocksSinkManager implements Serializable {
         }
         stopScheduler();
         this.scheduler = Executors.newScheduledThreadPool(1, new ExecutorThreadFactory("starrocks-interval-sink"));
-        this.scheduledFuture = this.scheduler.schedule(() -> {
+        // the flushes do not wait for the loads, so the interval does not depend on the loads
+        this.scheduledFuture = this.scheduler.scheduleWithFixedDelay(() -> {
             synchronized (StarRocksSinkManager.this) {
-                if (!closed) {
+                if (!closed && !bufferMap.isEmpty()) {
                     try {
                         LOGGER.info("StarRocks interval Sinking triggered.");
-                        if (bufferMap.isEmpty()) {
-                            startScheduler();
-                        }
                         flush(null, false);
                     } catch (Exception e) {
                         flushException = e;
                     }
                 }
             }
-        }, sinkOptions.getSinkMaxFlushInterval(), TimeUnit.MILLISECONDS);
+        }, sinkOptions.getSinkMaxFlushInterval(), sinkOptions.getSinkMaxFlushInterval(), TimeUnit.MILLISECONDS);
     }
 
     public void stopScheduler() {
@@ -285,6 +322,7 @@ public class StarRocksSinkManager implements Serializable {
             String bufferKey = String.format("%s,%s", database, table);
             SinkBufferEntity bufferEntity = bufferMap.computeIfAbsent(bufferKey,
                     k -> new SinkBufferEntity(database, table, sinkOptions.getLabelPrefix()));
+            long bytesBefore = bufferEntity.getBatchSize();
             Map<String, String> head = records.get(0);
             String columns = StringUtils.join(head.keySet(), ",");
             bufferEntity.setColumns(columns);
@@ -314,6 +352,7 @@ public class StarRocksSinkManager implements Serializable {
                     bufferEntity.addToBuffer(bts);
                 }
             }
+            bufferedBytes.addAndGet(bufferEntity.getBatchSize() - bytesBefore);
             writeRecords(bufferEntity);
         } catch (Exception e) {
             throw new IOException("Writing records to StarRocks failed.", e);
@@ -333,10 +372,12 @@ public class StarRocksSinkManager implements Serializable {
             bufferEntity.setDirtyIdentify(dirtySinkHelper.getDirtyOptions().getIdentifier());
             bufferEntity.setDirtyLabel(dirtySinkHelper.getDirtyOptions().getLabels());
 
+            long bytesBefore = bufferEntity.getBatchSize();
             for (String record : records) {
                 byte[] bts = record.getBytes(StandardCharsets.UTF_8);
                 bufferEntity.addToBuffer(bts);
             }
+            bufferedBytes.addAndGet(bufferEntity.getBatchSize() - bytesBefore);
             writeRecords(bufferEntity);
         } catch (Exception e) {
             throw new IOException("Writing records to StarRocks failed.", e);
@@ -359,6 +400,7 @@ public class StarRocksSinkManager implements Serializable {
                                 database, table, bufferEntity.getBatchCount(), bufferEntity.getLabel()));
                 flush(bufferKey, false);
             }
+            waitForBufferSpace();
         } catch (Exception e) {
             throw new IOException("Writing records to StarRocks failed.", e);
         }
@@ -370,9 +412,11 @@ public class StarRocksSinkManager implements Serializable {
             return;
         }
         if (null == bufferKey) {
+            // the tables are loaded concurrently, so wait for them after all of them are submitted
             for (String key : bufferMap.keySet()) {
-                flushInternal(key, waitUtilDone);
+                flushInternal(key, false);
             }
+            flushInternal(null, waitUtilDone);
             return;
         }
         flushInternal(bufferKey, waitUtilDone);
@@ -386,8 +430,7 @@ public class StarRocksSinkManager implements Serializable {
             }
             return;
         }
-        offer(bufferMap.get(bufferKey));
-        bufferMap.remove(bufferKey);
+        submit(bufferMap.remove(bufferKey));
         if (waitUtilDone) {
             // wait the last flush
             waitAsyncFlushingDone();
@@ -409,7 +452,11 @@ public class StarRocksSinkManager implements Serializable {
                 jdbcConnProvider.close();
             }
 
-            offerEOF();
+            // the submitted loads are finished by the flush threads before they exit
+            flushThreadAlive = false;
+            if (flushExecutor != null) {
+                flushExecutor.shutdown();
+            }
         }
         checkFlushException();
     }
@@ -424,38 +471,56 @@ public class StarRocksSinkManager implements Serializable {
         if (!StarRocksSinkSemantic.EXACTLY_ONCE.equals(sinkOptions.getSemantic())) {
             return;
         }
+        for (SinkBufferEntity bufferEntity : this.bufferMap.values()) {
+            bufferedBytes.addAndGet(-bufferEntity.getBatchSize());
+        }
         this.bufferMap.clear();
         this.bufferMap.putAll(bufferMap);
+        for (SinkBufferEntity bufferEntity : bufferMap.values()) {
+            bufferedBytes.addAndGet(bufferEntity.getBatchSize());
+        }
     }
 
     /**
-     * async flush
-     *
-     * @return false if met eof and flush thread will exit.
+     * Load a buffer of a table, which is run by the flush threads.
      */
-    private boolean asyncFlush() throws Exception {
-        SinkBufferEntity flushData = flushQueue.poll(FLUSH_QUEUE_POLL_TIMEOUT, TimeUnit.MILLISECONDS);
-        if (flushData == null || (0 == flushData.getBatchCount() && !flushData.EOF())) {
-            return true;
-        }
-        if (flushData.EOF()) {
-            return false;
+    private void flushBuffer(String bufferKey, TableFlushQueue flushQueue, SinkBufferEntity flushData) {
+        try {
+            loadBuffer(flushData);
+        } catch (Throwable e) {
+            LOGGER.error("StarRocks flush thread exception occurred: " + e.getMessage(), e);
+            flushException = e;
+        } finally {
+            flushQueue.inflight.decrementAndGet();
+            bufferedBytes.addAndGet(-flushData.getBatchSize());
+            pendingFlushCount.decrementAndGet();
+            flushLock.lock();
+            try {
+                flushDone.signalAll();
+            } finally {
+                flushLock.unlock();
+            }
+            // load the next buffer of the table in a new task, so the tables take turns on the flush threads
+            scheduleFlush(bufferKey, flushQueue);
         }
-        stopScheduler();
+    }
 
+    private void loadBuffer(SinkBufferEntity flushData) throws Exception {
         String tableIdentifier = flushData.getDatabase() + "." + flushData.getTable();
         if (SchemaUpdateExceptionPolicy.STOP_PARTIAL == schemaUpdatePolicy && ignoreWriteTables.contains(
                 tableIdentifier)) {
             LOGGER.warn(
                     String.format("Stop writing to db[%s] table[%s] because of former errors and stop_partial policy",
                             flushData.getDatabase(), flushData.getTable()));
-            return true;
+            return;
         }
 
         StarRocksSinkOptions.StreamLoadFormat format = sinkOptions.getStreamLoadFormat();
         LOGGER.info("StarRocks data format: {}", format.name());
+        // the columns of a table are passed with its load, as the loads of the tables run concurrently
+        String columns = null;
         if (multipleSink && StarRocksSinkOptions.StreamLoadFormat.CSV.equals(format)) {
-            sinkOptions.getSinkStreamLoadProperties().put("columns", flushData.getColumns());
+            columns = flushData.getColumns();
         }
 
         LOGGER.info(String.format("Async stream load: db[%s] table[%s] rows[%d] bytes[%d] label[%s].",
@@ -466,32 +531,24 @@ public class StarRocksSinkManager implements Serializable {
             try {
                 long start = System.nanoTime();
                 // flush to StarRocks with stream load
-                Map<String, Object> result = starrocksStreamLoadVisitor.doStreamLoad(flushData);
+                Map<String, Object> result = starrocksStreamLoadVisitor.doStreamLoad(flushData, columns);
                 LOGGER.info(String.format("Async stream load finished: label[%s].", flushData.getLabel()));
                 // metrics
-                if (null != totalFlushBytes) {
-                    totalFlushBytes.inc(flushData.getBatchSize());
-                    totalFlushRows.inc(flushData.getBatchCount());
-                    totalFlushTime.inc(System.nanoTime() - startWithRetries);
-                    totalFlushTimeWithoutRetries.inc(System.nanoTime() - start);
-                    totalFlushSucceededTimes.inc();
-                    flushTimeNs.update(System.nanoTime() - start);
-                    updateMetricsFromStreamLoadResult(result);
-
-                    if (null != metricData) {
-                        if (multipleSink) {
-                            metricData.outputMetrics(flushData.getDatabase(), flushData.getTable(),
-                                    flushData.getBatchCount(), flushData.getBatchSize());
-                        } else {
-                            metricData.invoke(flushData.getBatchCount(), flushData.getBatchSize());
-                        }
-                    }
+                metricLock.lock();
+                try {
+                    updateFlushMetrics(flushData, result, start, startWithRetries);
+                } finally {
+                    metricLock.unlock();
                 }
-                startScheduler();
                 break;
             } catch (Exception e) {
-                if (totalFlushFailedTimes != null) {
-                    totalFlushFailedTimes.inc();
+                metricLock.lock();
+                try {
+                    if (totalFlushFailedTimes != null) {
+                        totalFlushFailedTimes.inc();
+                    }
+                } finally {
+                    metricLock.unlock();
                 }
                 LOGGER.warn("Failed to flush batch data to StarRocks, retry times = {}", i, e);
                 if (i >= sinkOptions.getSinkMaxRetries()) {
@@ -501,9 +558,18 @@ public class StarRocksSinkManager implements Serializable {
                     } else if (SchemaUpdateExceptionPolicy.STOP_PARTIAL == schemaUpdatePolicy) {
                         ignoreWriteTables.add(tableIdentifier);
                     } else if (SchemaUpdateExceptionPolicy.LOG_WITH_IGNORE == schemaUpdatePolicy) {
-                        handleDirtyData(flushData, e);
+                        metricLock.lock();
+                        try {
+                            handleDirtyData(flushData, e);
+                        } finally {
+                            metricLock.unlock();
+                        }
                     }
+                    // the batch has been given up
+                    return;
                 }
+                // a retry reuses the label, so a batch that has been loaded is not loaded twice,
+                // the label is only changed when the former load is aborted
                 if (e instanceof StarRocksStreamLoadFailedException
                         && ((StarRocksStreamLoadFailedException) e).needReCreateLabel()) {
                     String oldLabel = flushData.getLabel();
@@ -518,7 +584,28 @@ public class StarRocksSinkManager implements Serializable {
                 }
             }
         }
-        return true;
+    }
+
+    private void updateFlushMetrics(SinkBufferEntity flushData, Map<String, Object> result, long start,
+            long startWithRetries) {
+        if (null != totalFlushBytes) {
+            totalFlushBytes.inc(flushData.getBatchSize());
+            totalFlushRows.inc(flushData.getBatchCount());
+            totalFlushTime.inc(System.nanoTime() - startWithRetries);
+            totalFlushTimeWithoutRetries.inc(System.nanoTime() - start);
+            totalFlushSucceededTimes.inc();
+            flushTimeNs.update(System.nanoTime() - start);
+            updateMetricsFromStreamLoadResult(result);
+
+            if (null != metricData) {
+                if (multipleSink) {
+                    metricData.outputMetrics(flushData.getDatabase(), flushData.getTable(),
+                            flushData.getBatchCount(), flushData.getBatchSize());
+                } else {
+                    metricData.invoke(flushData.getBatchCount(), flushData.getBatchSize());
+                }
+            }
+        }
     }
 
     private void handleDirtyData(SinkBufferEntity flushData, Exception e) throws JsonProcessingException {
@@ -572,34 +659,112 @@ public class StarRocksSinkManager implements Serializable {
 
     private void waitAsyncFlushingDone() throws InterruptedException {
         // wait for previous flushings
-        offer(new SinkBufferEntity(null, null, null));
-        offer(new SinkBufferEntity(null, null, null));
+        flushLock.lock();
+        try {
+            while (pendingFlushCount.get() > 0 && flushThreadAlive) {
+                checkFlushException();
+                flushDone.await(FLUSH_WAIT_INTERVAL, TimeUnit.MILLISECONDS);
+            }
+        } finally {
+            flushLock.unlock();
+        }
         checkFlushException();
     }
 
-    void offer(SinkBufferEntity bufferEntity) throws InterruptedException {
-        if (!flushThreadAlive) {
-            LOGGER.info(String.format("Flush thread already exit, ignore offer request for label[%s]",
-                    bufferEntity.getLabel()));
+    /**
+     * Wait until the bytes of all the buffered tables are below the limit. Only the loads release the bytes,
+     * so the tables over their share of the limit are flushed first, the others keep filling their batches.
+     */
+    private void waitForBufferSpace() throws Exception {
+        if (bufferedBytes.get() < maxBufferedBytes || !flushThreadAlive) {
             return;
         }
-
         long start = System.nanoTime();
-        if (!flushQueue.offer(bufferEntity, sinkOptions.getSinkOfferTimeout(), TimeUnit.MILLISECONDS)) {
-            throw new RuntimeException(
-                    "Timeout while offering data to flushQueue, exceed " + sinkOptions.getSinkOfferTimeout()
-                            + " ms, see " + StarRocksSinkOptions.SINK_BATCH_OFFER_TIMEOUT.key());
+        flushTablesOverLimit();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(sinkOptions.getSinkOfferTimeout());
+        flushLock.lock();
+        try {
+            while (bufferedBytes.get() >= maxBufferedBytes && flushThreadAlive) {
+                checkFlushException();
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    throw new RuntimeException(
+                            "Timeout while waiting for the buffered data to be flushed, exceed "
+                                    + sinkOptions.getSinkOfferTimeout() + " ms, see "
+                                    + StarRocksSinkOptions.SINK_BATCH_OFFER_TIMEOUT.key());
+                }
+                flushDone.awaitNanos(remaining);
+            }
+        } finally {
+            flushLock.unlock();
         }
         if (offerTimeNs != null) {
             offerTimeNs.update(System.nanoTime() - start);
         }
     }
 
-    private void offerEOF() {
-        try {
-            offer(new SinkBufferEntity(null, null, null).asEOF());
-        } catch (Exception e) {
-            LOGGER.warn("Writing EOF failed.", e);
+    /**
+     * Flush the tables buffering at least their share of the max buffered bytes. If the batches being written
+     * are over the limit together, the largest one is flushed, else the submitted loads release enough bytes.
+     */
+    private void flushTablesOverLimit() throws Exception {
+        if (bufferMap.isEmpty()) {
+            return;
+        }
+        long tableLimit = maxBufferedBytes / bufferMap.size();
+        for (Map.Entry<String, SinkBufferEntity> entry : bufferMap.entrySet()) {
+            if (entry.getValue().getBatchSize() >= tableLimit) {
+                flushInternal(entry.getKey(), false);
+            }
+        }
+    }
+
+    /**
+     * Queue a buffer to be loaded after the former buffers of its table.
+     */
+    private void submit(SinkBufferEntity bufferEntity) {
+        if (0 == bufferEntity.getBatchCount()) {
+            return;
+        }
+        if (!flushThreadAlive) {
+            LOGGER.info(String.format("Flush thread already exit, ignore offer request for label[%s]",
+                    bufferEntity.getLabel()));
+            bufferedBytes.addAndGet(-bufferEntity.getBatchSize());
+            return;
+        }
+        String bufferKey = String.format("%s,%s", bufferEntity.getDatabase(), bufferEntity.getTable());
+        TableFlushQueue flushQueue = flushQueues.computeIfAbsent(bufferKey, k -> new TableFlushQueue());
+        pendingFlushCount.incrementAndGet();
+        flushQueue.buffers.offer(bufferEntity);
+        scheduleFlush(bufferKey, flushQueue);
+    }
+
+    /**
+     * Start a load for every queued buffer of the table, up to the max inflight loads of the table.
+     */
+    private void scheduleFlush(String bufferKey, TableFlushQueue flushQueue) {
+        while (!flushQueue.buffers.isEmpty()) {
+            int inflight = flushQueue.inflight.get();
+            if (inflight >= maxInflightPerTable) {
+                return;
+            }
+            if (!flushQueue.inflight.compareAndSet(inflight, inflight + 1)) {
+                continue;
+            }
+            SinkBufferEntity flushData = flushQueue.buffers.poll();
+            if (flushData == null) {
+                // taken by another schedule of the table, check again for a buffer queued in the meantime
+                flushQueue.inflight.decrementAndGet();
+                continue;
+            }
+            try {
+                flushExecutor.execute(() -> flushBuffer(bufferKey, flushQueue, flushData));
+            } catch (RejectedExecutionException e) {
+                flushQueue.inflight.decrementAndGet();
+                flushQueue.buffers.offer(flushData);
+                LOGGER.info("Flush thread already exit, ignore the flush of [{}]", bufferKey);
+                return;
+            }
         }
     }
 
@@ -710,6 +875,17 @@ public class StarRocksSinkManager implements Serializable {
         }
     }
 
+    /**
+     * The buffers of a table waiting to be loaded
+     */
+    private static class TableFlushQueue implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Queue<SinkBufferEntity> buffers = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger inflight = new AtomicInteger(0);
+    }
+
     private static final Map<String, List<LogicalTypeRoot>> typesMap = new HashMap<>();
 
     static {
@@ -78,6 +78,18 @@ public class StarRocksStreamLoadVisitor implements Serializable {
     }
 
     public Map<String, Object> doStreamLoad(SinkBufferEntity bufferEntity) throws IOException {
+        return doStreamLoad(bufferEntity, null);
+    }
+
+    /**
+     * Load a buffer, it may be called by several flush threads at the same time.
+     *
+     * @param bufferEntity the buffer to load, whose label is kept by the retries of the buffer
+     * @param columns the columns header of this load, the one of the stream load properties is used if it is null
+     * @return the result of the load
+     * @throws IOException if the load failed
+     */
+    public Map<String, Object> doStreamLoad(SinkBufferEntity bufferEntity, String columns) throws IOException {
         String host = getAvailableHost();
         if (null == host) {
             throw new IOException("None of the hosts in `load_url` could be connected.");
@@ -86,7 +98,7 @@ public class StarRocksStreamLoadVisitor implements Serializable {
                 .append(bufferEntity.getTable()).append("/_stream_load").toString();
         LOG.info(String.format("Start to join batch data: label[%s].", bufferEntity.getLabel()));
         Map<String, Object> loadResult = doHttpPut(loadUrl, bufferEntity.getLabel(),
-                joinRows(bufferEntity.getBuffer(), (int) bufferEntity.getBatchSize()));
+                joinRows(bufferEntity.getBuffer(), (int) bufferEntity.getBatchSize()), columns);
         final String keyStatus = "Status";
         if (null == loadResult || !loadResult.containsKey(keyStatus)) {
             throw new IOException(
@@ -195,7 +207,7 @@ public class StarRocksStreamLoadVisitor implements Serializable {
         }
     }
 
-    private String getAvailableHost() {
+    private synchronized String getAvailableHost() {
         List<String> hostList = sinkOptions.getLoadUrlList();
         long tmp = pos + hostList.size();
         for (; pos < tmp; pos++) {
@@ -253,7 +265,8 @@ public class StarRocksStreamLoadVisitor implements Serializable {
     }
 
     @SuppressWarnings("unchecked")
-    private Map<String, Object> doHttpPut(String loadUrl, String label, byte[] data) throws IOException {
+    private Map<String, Object> doHttpPut(String loadUrl, String label, byte[] data, String columns)
+            throws IOException {
         LOG.info(String.format("Executing stream load to: '%s', size: '%s', thread: %d", loadUrl, data.length,
                 Thread.currentThread().getId()));
         final HttpClientBuilder httpClientBuilder = HttpClients.custom()
@@ -270,7 +283,9 @@ public class StarRocksStreamLoadVisitor implements Serializable {
             for (Map.Entry<String, String> entry : props.entrySet()) {
                 httpPut.setHeader(entry.getKey(), entry.getValue());
             }
-            if (!props.containsKey("columns") && ((sinkOptions.supportUpsertDelete() && !opAutoProjectionInJson)
+            if (columns != null) {
+                httpPut.setHeader("columns", columns);
+            } else if (!props.containsKey("columns") && ((sinkOptions.supportUpsertDelete() && !opAutoProjectionInJson)
                     || StarRocksSinkOptions.StreamLoadFormat.CSV.equals(sinkOptions.getStreamLoadFormat()))) {
                 String cols = String.join(",",
                         Arrays.asList(fieldNames).stream().map(f -> String.format("`%s`", f.trim().replace("`", "")))
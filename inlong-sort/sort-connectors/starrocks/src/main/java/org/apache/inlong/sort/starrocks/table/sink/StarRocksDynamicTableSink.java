@@ -40,6 +40,9 @@ public class StarRocksDynamicTableSink implements DynamicTableSink {
     private final String auditHostAndPorts;
     private final SchemaUpdateExceptionPolicy schemaUpdatePolicy;
     private final DirtySinkHelper<Object> dirtySinkHelper;
+    private final int flushParallelism;
+    private final int maxInflightPerTable;
+    private final long maxBufferedBytes;
 
     public StarRocksDynamicTableSink(StarRocksSinkOptions sinkOptions,
             TableSchema schema,
@@ -50,7 +53,10 @@ public class StarRocksDynamicTableSink implements DynamicTableSink {
             String inlongMetric,
             String auditHostAndPorts,
             SchemaUpdateExceptionPolicy schemaUpdatePolicy,
-            DirtySinkHelper<Object> dirtySinkHelper) {
+            DirtySinkHelper<Object> dirtySinkHelper,
+            int flushParallelism,
+            int maxInflightPerTable,
+            long maxBufferedBytes) {
         this.flinkSchema = schema;
         this.sinkOptions = sinkOptions;
         this.multipleSink = multipleSink;
@@ -61,6 +67,9 @@ public class StarRocksDynamicTableSink implements DynamicTableSink {
         this.auditHostAndPorts = auditHostAndPorts;
         this.schemaUpdatePolicy = schemaUpdatePolicy;
         this.dirtySinkHelper = dirtySinkHelper;
+        this.flushParallelism = flushParallelism;
+        this.maxInflightPerTable = maxInflightPerTable;
+        this.maxBufferedBytes = maxBufferedBytes;
     }
 
     @Override
@@ -82,7 +91,10 @@ public class StarRocksDynamicTableSink implements DynamicTableSink {
                 inlongMetric,
                 auditHostAndPorts,
                 schemaUpdatePolicy,
-                dirtySinkHelper);
+                dirtySinkHelper,
+                flushParallelism,
+                maxInflightPerTable,
+                maxBufferedBytes);
         return SinkFunctionProvider.of(starrocksSinkFunction, sinkOptions.getSinkParallelism());
     }
 
@@ -97,7 +109,10 @@ public class StarRocksDynamicTableSink implements DynamicTableSink {
                 inlongMetric,
                 auditHostAndPorts,
                 schemaUpdatePolicy,
-                dirtySinkHelper);
+                dirtySinkHelper,
+                flushParallelism,
+                maxInflightPerTable,
+                maxBufferedBytes);
     }
 
     @Override
@@ -31,6 +31,7 @@ import java.util.HashSet;
 import java.util.Set;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.flink.configuration.ConfigOption;
+import org.apache.flink.configuration.ConfigOptions;
 import org.apache.flink.configuration.ReadableConfig;
 import org.apache.flink.table.api.TableSchema;
 import org.apache.flink.table.api.ValidationException;
@@ -49,6 +50,27 @@ import org.apache.inlong.sort.base.sink.SchemaUpdateExceptionPolicy;
 
 public class StarRocksDynamicTableSinkFactory implements DynamicTableSinkFactory {
 
+    public static final ConfigOption<Integer> SINK_FLUSH_PARALLELISM = ConfigOptions
+            .key("sink.flush.parallelism")
+            .intType()
+            .defaultValue(4)
+            .withDescription("The number of threads that load the buffers of the tables concurrently.");
+
+    public static final ConfigOption<Integer> SINK_FLUSH_MAX_INFLIGHT_PER_TABLE = ConfigOptions
+            .key("sink.flush.max-inflight-per-table")
+            .intType()
+            .defaultValue(1)
+            .withDescription("The max number of loads of a table at the same time, the loads of a table are "
+                    + "started in order, and they are also finished in order only when it is 1.");
+
+    public static final ConfigOption<Long> SINK_BUFFER_FLUSH_MAX_TOTAL_BYTES = ConfigOptions
+            .key("sink.buffer-flush.max-total-bytes")
+            .longType()
+            .defaultValue(-1L)
+            .withDescription("The max bytes of all the buffered tables including the ones being loaded, writing "
+                    + "waits for the loads when it is exceeded. By default it is 'sink.buffer-flush.max-bytes' * "
+                    + "('sink.flush.parallelism' * 'sink.flush.max-inflight-per-table' + 1).");
+
     @Override
     public DynamicTableSink createDynamicTableSink(Context context) {
         final FactoryUtil.TableFactoryHelper helper = FactoryUtil.createTableFactoryHelper(this, context);
@@ -65,6 +87,9 @@ public class StarRocksDynamicTableSinkFactory implements DynamicTableSinkFactory
         SchemaUpdateExceptionPolicy schemaUpdatePolicy = helper.getOptions().get(SINK_MULTIPLE_SCHEMA_UPDATE_POLICY);
         String inlongMetric = helper.getOptions().getOptional(INLONG_METRIC).orElse(INLONG_METRIC.defaultValue());
         String auditHostAndPorts = helper.getOptions().getOptional(INLONG_AUDIT).orElse(INLONG_AUDIT.defaultValue());
+        int flushParallelism = helper.getOptions().get(SINK_FLUSH_PARALLELISM);
+        int maxInflightPerTable = helper.getOptions().get(SINK_FLUSH_MAX_INFLIGHT_PER_TABLE);
+        long maxBufferedBytes = helper.getOptions().get(SINK_BUFFER_FLUSH_MAX_TOTAL_BYTES);
 
         // Build the dirty data side-output
         final DirtyOptions dirtyOptions = DirtyOptions.fromConfig(helper.getOptions());
@@ -86,7 +111,10 @@ public class StarRocksDynamicTableSinkFactory implements DynamicTableSinkFactory
                 inlongMetric,
                 auditHostAndPorts,
                 schemaUpdatePolicy,
-                dirtySinkHelper);
+                dirtySinkHelper,
+                flushParallelism,
+                maxInflightPerTable,
+                maxBufferedBytes);
     }
 
     @Override
@@ -125,6 +153,9 @@ public class StarRocksDynamicTableSinkFactory implements DynamicTableSinkFactory
         optionalOptions.add(SINK_MULTIPLE_SCHEMA_UPDATE_POLICY);
         optionalOptions.add(INLONG_METRIC);
         optionalOptions.add(INLONG_AUDIT);
+        optionalOptions.add(SINK_FLUSH_PARALLELISM);
+        optionalOptions.add(SINK_FLUSH_MAX_INFLIGHT_PER_TABLE);
+        optionalOptions.add(SINK_BUFFER_FLUSH_MAX_TOTAL_BYTES);
 
         return optionalOptions;
     }
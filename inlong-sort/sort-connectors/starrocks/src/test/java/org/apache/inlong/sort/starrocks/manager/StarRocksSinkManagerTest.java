@@ -0,0 +1,262 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sort.starrocks.manager;
+
+import com.starrocks.connector.flink.manager.StarRocksQueryVisitor;
+import com.starrocks.connector.flink.table.sink.StarRocksSinkOptions;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.flink.configuration.Configuration;
+import org.apache.inlong.sort.base.dirty.DirtyOptions;
+import org.apache.inlong.sort.base.dirty.DirtySinkHelper;
+import org.apache.inlong.sort.base.sink.SchemaUpdateExceptionPolicy;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Field;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Unit testing of {@link StarRocksSinkManager}, which loads to a local stand-in of the starrocks stream load api.
+ */
+public class StarRocksSinkManagerTest {
+
+    private static final String SUCCESS_RESPONSE = "{\"Status\":\"Success\",\"NumberLoadedRows\":1,\"LoadBytes\":1}";
+    private static final String DATABASE = "db";
+
+    private final Map<String, List<String>> bodies = new ConcurrentHashMap<>();
+    private final Map<String, List<String>> labels = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> inflight = new ConcurrentHashMap<>();
+    private final Map<String, Integer> maxInflight = new ConcurrentHashMap<>();
+    private final AtomicInteger totalInflight = new AtomicInteger(0);
+    private final AtomicInteger maxTotalInflight = new AtomicInteger(0);
+    private final CountDownLatch slowTableLatch = new CountDownLatch(1);
+    private HttpServer server;
+    private StarRocksSinkManager sinkManager;
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/api", this::handleLoad);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+    }
+
+    @After
+    public void tearDown() {
+        if (sinkManager != null) {
+            sinkManager.close();
+        }
+        server.stop(0);
+    }
+
+    private void handleLoad(HttpExchange exchange) throws IOException {
+        // path: /api/{db}/{table}/_stream_load
+        String table = exchange.getRequestURI().getPath().split("/")[3];
+        AtomicInteger count = inflight.computeIfAbsent(table, k -> new AtomicInteger(0));
+        maxInflight.merge(table, count.incrementAndGet(), Math::max);
+        maxTotalInflight.accumulateAndGet(totalInflight.incrementAndGet(), Math::max);
+        boolean firstLoad;
+        try {
+            List<String> tableLabels = labels.computeIfAbsent(table, k -> new CopyOnWriteArrayList<>());
+            firstLoad = tableLabels.isEmpty();
+            tableLabels.add(exchange.getRequestHeaders().getFirst("label"));
+            bodies.computeIfAbsent(table, k -> new CopyOnWriteArrayList<>())
+                    .add(readBody(exchange.getRequestBody()));
+            if (table.startsWith("slow")) {
+                slowTableLatch.await(10, TimeUnit.SECONDS);
+            } else {
+                Thread.sleep(100);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            firstLoad = false;
+        } finally {
+            count.decrementAndGet();
+            totalInflight.decrementAndGet();
+        }
+        if (table.startsWith("retry") && firstLoad) {
+            exchange.sendResponseHeaders(500, -1);
+            exchange.close();
+            return;
+        }
+        byte[] response = SUCCESS_RESPONSE.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(200, response.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(response);
+        }
+    }
+
+    private static String readBody(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] bytes = new byte[1024];
+        int n;
+        while ((n = in.read(bytes)) > 0) {
+            out.write(bytes, 0, n);
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private StarRocksSinkManager createSinkManager(int flushParallelism, int maxInflightPerTable) {
+        return createSinkManager(flushParallelism, maxInflightPerTable, -1L);
+    }
+
+    private StarRocksSinkManager createSinkManager(int flushParallelism, int maxInflightPerTable,
+            long maxBufferedBytes) {
+        Map<String, String> options = new HashMap<>();
+        options.put("jdbc-url", "jdbc:mysql://127.0.0.1:9030");
+        options.put("load-url", "127.0.0.1:" + server.getAddress().getPort());
+        options.put("database-name", DATABASE);
+        options.put("table-name", "tbl");
+        options.put("username", "root");
+        options.put("password", "");
+        options.put("sink.max-retries", "1");
+        options.put("sink.properties.format", "json");
+        options.put("sink.properties.strip_outer_array", "true");
+        Configuration configuration = Configuration.fromMap(options);
+        StarRocksSinkOptions sinkOptions = new StarRocksSinkOptions(configuration, options);
+
+        StarRocksQueryVisitor queryVisitor = Mockito.mock(StarRocksQueryVisitor.class);
+        Mockito.when(queryVisitor.getStarRocksVersion()).thenReturn("2.3.0");
+        DirtySinkHelper<Object> dirtySinkHelper = new DirtySinkHelper<>(DirtyOptions.fromConfig(configuration), null);
+
+        StarRocksSinkManager manager = new StarRocksSinkManager(sinkOptions, null, null, queryVisitor, true,
+                SchemaUpdateExceptionPolicy.THROW_WITH_STOP, dirtySinkHelper, "canal-json", flushParallelism,
+                maxInflightPerTable, maxBufferedBytes);
+        manager.startAsyncFlushing();
+        return manager;
+    }
+
+    private ThreadPoolExecutor getFlushExecutor() throws Exception {
+        Field field = StarRocksSinkManager.class.getDeclaredField("flushExecutor");
+        field.setAccessible(true);
+        return (ThreadPoolExecutor) field.get(sinkManager);
+    }
+
+    private void writeBatch(String table, int id) throws Exception {
+        sinkManager.writeRecords(DATABASE, table, "{\"id\":" + id + "}");
+        sinkManager.flush(DATABASE + "," + table, false);
+    }
+
+    @Test(timeout = 30000)
+    public void testLoadInOrderPerTable() throws Exception {
+        sinkManager = createSinkManager(2, 1);
+        for (int i = 0; i < 4; i++) {
+            writeBatch("tbl0", i);
+            writeBatch("tbl1", i);
+        }
+        sinkManager.flush(null, true);
+
+        for (String table : new String[]{"tbl0", "tbl1"}) {
+            List<String> loaded = bodies.get(table);
+            assertEquals(4, loaded.size());
+            for (int i = 0; i < 4; i++) {
+                assertEquals("[{\"id\":" + i + "}]", loaded.get(i));
+            }
+            assertEquals(4, new HashSet<>(labels.get(table)).size());
+            assertEquals(1, maxInflight.get(table).intValue());
+        }
+        // the tables are loaded at the same time
+        assertEquals(2, maxTotalInflight.get());
+    }
+
+    @Test(timeout = 30000)
+    public void testConcurrentLoadsOfTable() throws Exception {
+        sinkManager = createSinkManager(4, 2);
+        for (int i = 0; i < 6; i++) {
+            writeBatch("tbl", i);
+        }
+        sinkManager.flush(null, true);
+
+        assertEquals(6, bodies.get("tbl").size());
+        assertEquals(6, new HashSet<>(labels.get("tbl")).size());
+        assertEquals(2, maxInflight.get("tbl").intValue());
+    }
+
+    @Test(timeout = 30000)
+    public void testRetryWithSameLabel() throws Exception {
+        sinkManager = createSinkManager(2, 1);
+        writeBatch("retry", 0);
+        writeBatch("retry", 1);
+        sinkManager.flush(null, true);
+
+        // the failed load is retried with its label before the next batch of the table is loaded
+        List<String> loadLabels = labels.get("retry");
+        assertEquals(3, loadLabels.size());
+        assertEquals(loadLabels.get(0), loadLabels.get(1));
+        assertEquals(2, new HashSet<>(loadLabels).size());
+        assertEquals("[{\"id\":0}]", bodies.get("retry").get(1));
+        assertEquals("[{\"id\":1}]", bodies.get("retry").get(2));
+    }
+
+    @Test(timeout = 30000)
+    public void testScheduleQueuedBuffersOnly() throws Exception {
+        sinkManager = createSinkManager(1, 3);
+        // the only flush thread is loading the slow table
+        writeBatch("slow", 0);
+        long deadline = System.currentTimeMillis() + 10000;
+        while (!bodies.containsKey("slow") && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        writeBatch("tbl", 0);
+        writeBatch("tbl", 1);
+        // a load is started for every queued buffer, not for every free inflight slot of the table
+        assertEquals(2, getFlushExecutor().getQueue().size());
+
+        slowTableLatch.countDown();
+        sinkManager.flush(null, true);
+        assertEquals(2, bodies.get("tbl").size());
+        assertEquals(3, getFlushExecutor().getTaskCount());
+    }
+
+    @Test(timeout = 30000)
+    public void testFlushTablesOverLimit() throws Exception {
+        sinkManager = createSinkManager(2, 1, 100L);
+        sinkManager.writeRecords(DATABASE, "small", "{\"id\":0}");
+        for (int i = 0; i < 3; i++) {
+            sinkManager.writeRecords(DATABASE, "big", "{\"id\":" + i + ",\"name\":\"aaaaaaaaaaaaaaaaaaaa\"}");
+        }
+
+        // the buffered bytes are over the limit, the writer waited for the load of the big table only
+        assertEquals(1, bodies.get("big").size());
+        assertNull(bodies.get("small"));
+        sinkManager.flush(null, true);
+        assertEquals(1, bodies.get("small").size());
+    }
+}